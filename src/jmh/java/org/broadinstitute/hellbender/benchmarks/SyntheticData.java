@@ -0,0 +1,122 @@
+package org.broadinstitute.hellbender.benchmarks;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMReadGroupRecord;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.reference.ReferenceBases;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic inputs for the JMH benchmarks: a random reference, haplotypes derived from it,
+ * and coordinate-sorted reads sampled from it with sequencing errors and realistic base qualities.
+ *
+ * All data is generated from an explicit seed, so that results are comparable between runs and releases.
+ */
+public final class SyntheticData {
+
+    public static final String READ_GROUP_ID = "benchmark_rg";
+    public static final String SAMPLE_NAME = "benchmark_sample";
+    public static final String CONTIG = "1";
+
+    private static final byte[] BASES = { 'A', 'C', 'G', 'T' };
+
+    private SyntheticData() {}
+
+    /**
+     * @return a header with 22 contigs of 1Mb each (as in {@link ArtificialReadUtils#createArtificialSamHeader()})
+     *         and a single Illumina read group for {@link #SAMPLE_NAME}
+     */
+    public static SAMFileHeader createHeader() {
+        final SAMReadGroupRecord readGroup = new SAMReadGroupRecord(READ_GROUP_ID);
+        readGroup.setSample(SAMPLE_NAME);
+        readGroup.setPlatform("ILLUMINA");
+        return ArtificialReadUtils.createArtificialSamHeaderWithReadGroup(readGroup);
+    }
+
+    /**
+     * @return {@code length} uniformly random bases (no Ns)
+     */
+    public static byte[] randomBases(final Random random, final int length) {
+        final byte[] bases = new byte[length];
+        for ( int i = 0; i < length; i++ ) {
+            bases[i] = BASES[random.nextInt(BASES.length)];
+        }
+        return bases;
+    }
+
+    /**
+     * @return {@code length} base qualities drawn from a typical Illumina profile: mostly Q30-Q40, degrading
+     *         towards the end of the read, with occasional low-quality bases
+     */
+    public static byte[] randomQualities(final Random random, final int length) {
+        final byte[] quals = new byte[length];
+        for ( int i = 0; i < length; i++ ) {
+            final int maxQual = 40 - (10 * i) / length;
+            quals[i] = (byte) (random.nextInt(100) < 3 ? 2 + random.nextInt(10) : maxQual - random.nextInt(10));
+        }
+        return quals;
+    }
+
+    /**
+     * @return a copy of {@code bases} in which each base has been substituted with probability {@code substitutionRate}
+     */
+    public static byte[] withSubstitutions(final Random random, final byte[] bases, final double substitutionRate) {
+        final byte[] result = Arrays.copyOf(bases, bases.length);
+        for ( int i = 0; i < result.length; i++ ) {
+            if ( random.nextDouble() < substitutionRate ) {
+                byte substitute;
+                do {
+                    substitute = BASES[random.nextInt(BASES.length)];
+                } while ( substitute == result[i] );
+                result[i] = substitute;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the reference bases as {@link ReferenceBases} located at {@link #CONTIG}:1
+     */
+    public static ReferenceBases asReferenceBases(final byte[] reference) {
+        return new ReferenceBases(reference, new SimpleInterval(CONTIG, 1, reference.length));
+    }
+
+    /**
+     * Sample reads uniformly from a reference located at {@link #CONTIG}:1, with 0.5% sequencing errors.
+     *
+     * @param reference reference bases, starting at position 1 of {@link #CONTIG}
+     * @param readLength length of every read
+     * @param depth average coverage to simulate
+     * @return reads sorted by start position, all fully contained in the reference and with an "xM" cigar
+     */
+    public static List<GATKRead> simulateReads(final Random random, final SAMFileHeader header, final byte[] reference,
+                                               final int readLength, final int depth) {
+        Utils.validateArg(reference.length >= readLength, "reference must be at least as long as the reads");
+
+        final int numReads = (int) ((long) reference.length * depth / readLength);
+        final int[] starts = new int[numReads];
+        for ( int i = 0; i < numReads; i++ ) {
+            starts[i] = 1 + random.nextInt(reference.length - readLength + 1);
+        }
+        Arrays.sort(starts);
+
+        final String cigar = readLength + "M";
+        final List<GATKRead> reads = new ArrayList<>(numReads);
+        for ( int i = 0; i < numReads; i++ ) {
+            final byte[] trueBases = Arrays.copyOfRange(reference, starts[i] - 1, starts[i] - 1 + readLength);
+            final GATKRead read = ArtificialReadUtils.createArtificialRead(header, "read_" + i, CONTIG, starts[i],
+                    withSubstitutions(random, trueBases, 0.005), randomQualities(random, readLength), cigar);
+            read.setReadGroup(READ_GROUP_ID);
+            read.setMappingQuality(60);
+            reads.add(read);
+        }
+        return reads;
+    }
+}
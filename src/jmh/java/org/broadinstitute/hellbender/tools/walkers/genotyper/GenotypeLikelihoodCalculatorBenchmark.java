@@ -0,0 +1,72 @@
+package org.broadinstitute.hellbender.tools.walkers.genotyper;
+
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.GenotypeLikelihoods;
+import org.broadinstitute.hellbender.benchmarks.SyntheticData;
+import org.broadinstitute.hellbender.utils.genotyper.AlleleLikelihoods;
+import org.broadinstitute.hellbender.utils.genotyper.IndexedAlleleList;
+import org.broadinstitute.hellbender.utils.genotyper.IndexedSampleList;
+import org.broadinstitute.hellbender.utils.genotyper.LikelihoodMatrix;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link GenotypeLikelihoodCalculator#log10GenotypeLikelihoods} for a single sample, across the ploidies
+ * and allele counts that select its biallelic, diploid and general multiallelic code paths.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GenotypeLikelihoodCalculatorBenchmark {
+
+    @Param({"2", "4"})
+    public int ploidy;
+
+    @Param({"2", "3", "6"})
+    public int alleleCount;
+
+    @Param({"500"})
+    public int readCount;
+
+    private LikelihoodMatrix<GATKRead, Allele> sampleLikelihoods;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final Random random = new Random(23);
+
+        final List<Allele> alleles = new ArrayList<>(alleleCount);
+        alleles.add(Allele.create("A", true));
+        final String[] altBases = { "C", "G", "T", "AC", "AG", "AT", "ACC", "ACG", "ACT" };
+        for ( int i = 1; i < alleleCount; i++ ) {
+            alleles.add(Allele.create(altBases[i - 1], false));
+        }
+
+        final List<GATKRead> reads = SyntheticData.simulateReads(random, SyntheticData.createHeader(),
+                SyntheticData.randomBases(random, 1000), 100, readCount * 100 / 1000);
+        final AlleleLikelihoods<GATKRead, Allele> likelihoods = new AlleleLikelihoods<>(new IndexedSampleList(SyntheticData.SAMPLE_NAME),
+                new IndexedAlleleList<>(alleles), Collections.singletonMap(SyntheticData.SAMPLE_NAME, reads));
+
+        // each read strongly supports one allele, and weakly (or not at all) the others
+        sampleLikelihoods = likelihoods.sampleMatrix(0);
+        for ( int r = 0; r < sampleLikelihoods.evidenceCount(); r++ ) {
+            final int supportedAllele = random.nextInt(alleleCount);
+            for ( int a = 0; a < alleleCount; a++ ) {
+                sampleLikelihoods.set(a, r, a == supportedAllele ? -0.1 * random.nextDouble() : -1.0 - 5.0 * random.nextDouble());
+            }
+        }
+    }
+
+    @Benchmark
+    public GenotypeLikelihoods log10GenotypeLikelihoods() {
+        return GenotypeLikelihoodCalculator.log10GenotypeLikelihoods(ploidy, sampleLikelihoods);
+    }
+}
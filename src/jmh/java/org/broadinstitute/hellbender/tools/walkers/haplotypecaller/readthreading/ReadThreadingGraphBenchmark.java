@@ -0,0 +1,59 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading;
+
+import htsjdk.samtools.SAMFileHeader;
+import org.broadinstitute.hellbender.benchmarks.SyntheticData;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link ReadThreadingGraph} construction as done by ReadThreadingAssembler for a single kmer size:
+ * threading the reference haplotype and the reads of an active region into the graph, then building it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadThreadingGraphBenchmark {
+
+    @Param({"10", "25"})
+    public int kmerSize;
+
+    @Param({"50"})
+    public int depth;
+
+    @Param({"500"})
+    public int regionLength;
+
+    private SAMFileHeader header;
+    private byte[] refHaplotype;
+    private List<GATKRead> reads;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final Random random = new Random(29);
+        header = SyntheticData.createHeader();
+        refHaplotype = SyntheticData.randomBases(random, regionLength);
+
+        // half of the reads carry a few SNPs, as for a heterozygous sample
+        final byte[] altHaplotype = SyntheticData.withSubstitutions(random, refHaplotype, 0.01);
+        reads = SyntheticData.simulateReads(random, header, refHaplotype, 150, depth / 2);
+        reads.addAll(SyntheticData.simulateReads(random, header, altHaplotype, 150, depth - depth / 2));
+    }
+
+    @Benchmark
+    public ReadThreadingGraph buildGraph() {
+        final ReadThreadingGraph graph = new ReadThreadingGraph(kmerSize);
+        graph.addSequence("ref", refHaplotype, 1, true);
+        for ( final GATKRead read : reads ) {
+            graph.addRead(read, header);
+        }
+        graph.buildGraphIfNecessary();
+        return graph;
+    }
+}
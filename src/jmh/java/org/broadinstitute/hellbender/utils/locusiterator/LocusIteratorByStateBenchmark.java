@@ -0,0 +1,54 @@
+package org.broadinstitute.hellbender.utils.locusiterator;
+
+import htsjdk.samtools.SAMFileHeader;
+import org.broadinstitute.hellbender.benchmarks.SyntheticData;
+import org.broadinstitute.hellbender.engine.AlignmentContext;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a complete {@link LocusIteratorByState} traversal (as done by LocusWalker) over 10kb of
+ * coordinate-sorted reads at different depths of coverage.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LocusIteratorByStateBenchmark {
+
+    private static final int REFERENCE_LENGTH = 10_000;
+
+    @Param({"30", "200"})
+    public int depth;
+
+    @Param({"150"})
+    public int readLength;
+
+    private SAMFileHeader header;
+    private List<GATKRead> reads;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final Random random = new Random(19);
+        header = SyntheticData.createHeader();
+        reads = SyntheticData.simulateReads(random, header, SyntheticData.randomBases(random, REFERENCE_LENGTH), readLength, depth);
+    }
+
+    @Benchmark
+    public void traverseAllLoci(final Blackhole blackhole) {
+        final LocusIteratorByState libs = new LocusIteratorByState(reads.iterator(), LocusIteratorByState.NO_DOWNSAMPLING,
+                Collections.singletonList(SyntheticData.SAMPLE_NAME), header, true);
+        while ( libs.hasNext() ) {
+            final AlignmentContext alignmentContext = libs.next();
+            blackhole.consume(alignmentContext.getBasePileup().size());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.broadinstitute.hellbender.utils.pairhmm;
+
+import org.broadinstitute.gatk.nativebindings.pairhmm.PairHMMNativeArguments;
+import org.broadinstitute.hellbender.benchmarks.SyntheticData;
+import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.StandardPairHMMInputScoreImputator;
+import org.broadinstitute.hellbender.utils.genotyper.AlleleLikelihoods;
+import org.broadinstitute.hellbender.utils.genotyper.IndexedAlleleList;
+import org.broadinstitute.hellbender.utils.genotyper.IndexedSampleList;
+import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link PairHMM#computeLog10Likelihoods} for a typical HaplotypeCaller active region: a set of
+ * haplotypes that differ from each other by a few SNPs, and reads sampled from them with sequencing errors.
+ *
+ * FASTEST_AVAILABLE exercises the native AVX implementation when it can be loaded on the benchmark machine,
+ * and otherwise falls back to the pure Java LOGLESS_ANTIDIAGONAL.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PairHMMBenchmark {
+
+    private static final byte CONSTANT_GCP = 10;
+
+    @Param({"LOGLESS_CACHING", "LOGLESS_ANTIDIAGONAL", "ORIGINAL", "FASTEST_AVAILABLE"})
+    public PairHMM.Implementation implementation;
+
+    @Param({"4", "16"})
+    public int numHaplotypes;
+
+    @Param({"100"})
+    public int numReads;
+
+    @Param({"150"})
+    public int readLength;
+
+    @Param({"300"})
+    public int haplotypeLength;
+
+    private PairHMM pairHMM;
+    private List<GATKRead> reads;
+    private AlleleLikelihoods<GATKRead, Haplotype> likelihoods;
+    private PairHMMInputScoreImputator inputScoreImputator;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final Random random = new Random(13);
+
+        final byte[] refHaplotype = SyntheticData.randomBases(random, haplotypeLength);
+        final List<Haplotype> haplotypes = new ArrayList<>(numHaplotypes);
+        haplotypes.add(new Haplotype(refHaplotype, true));
+        while ( haplotypes.size() < numHaplotypes ) {
+            haplotypes.add(new Haplotype(SyntheticData.withSubstitutions(random, refHaplotype, 0.01), false));
+        }
+
+        reads = new ArrayList<>(numReads);
+        for ( int i = 0; i < numReads; i++ ) {
+            final byte[] haplotypeBases = haplotypes.get(random.nextInt(numHaplotypes)).getBases();
+            final int start = random.nextInt(haplotypeLength - readLength + 1);
+            final byte[] readBases = SyntheticData.withSubstitutions(random, Arrays.copyOfRange(haplotypeBases, start, start + readLength), 0.005);
+            final GATKRead read = ArtificialReadUtils.createArtificialRead(readBases, SyntheticData.randomQualities(random, readLength), readLength + "M");
+            read.setName("read_" + i);
+            reads.add(read);
+        }
+
+        likelihoods = new AlleleLikelihoods<>(new IndexedSampleList(SyntheticData.SAMPLE_NAME), new IndexedAlleleList<>(haplotypes),
+                Collections.singletonMap(SyntheticData.SAMPLE_NAME, reads));
+        inputScoreImputator = StandardPairHMMInputScoreImputator.newInstance(CONSTANT_GCP);
+        pairHMM = implementation.makeNewHMM(new PairHMMNativeArguments());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pairHMM.close();
+    }
+
+    @Benchmark
+    public double[] computeLog10Likelihoods() {
+        pairHMM.computeLog10Likelihoods(likelihoods.sampleMatrix(0), reads, inputScoreImputator);
+        return pairHMM.getLogLikelihoodArray();
+    }
+}
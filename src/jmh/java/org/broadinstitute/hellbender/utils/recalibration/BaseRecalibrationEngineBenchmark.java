@@ -0,0 +1,60 @@
+package org.broadinstitute.hellbender.utils.recalibration;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.util.Locatable;
+import org.broadinstitute.hellbender.benchmarks.SyntheticData;
+import org.broadinstitute.hellbender.engine.ReferenceDataSource;
+import org.broadinstitute.hellbender.engine.ReferenceMemorySource;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link BaseRecalibrationEngine#processRead} (the per-read work of BaseRecalibrator) with the
+ * standard covariates, over a batch of 1000 reads.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BaseRecalibrationEngineBenchmark {
+
+    private static final int REFERENCE_LENGTH = 150_000;
+    private static final int READ_LENGTH = 150;
+    private static final int NUM_READS = 1_000;
+
+    private final List<Locatable> knownSites = Collections.emptyList();
+
+    private BaseRecalibrationEngine engine;
+    private ReferenceDataSource reference;
+    private List<GATKRead> reads;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final Random random = new Random(31);
+        final SAMFileHeader header = SyntheticData.createHeader();
+        final byte[] referenceBases = SyntheticData.randomBases(random, REFERENCE_LENGTH);
+        reference = new ReferenceMemorySource(SyntheticData.asReferenceBases(referenceBases), header.getSequenceDictionary());
+        reads = SyntheticData.simulateReads(random, header, referenceBases, READ_LENGTH, NUM_READS * READ_LENGTH / REFERENCE_LENGTH);
+        engine = new BaseRecalibrationEngine(new RecalibrationArgumentCollection(), header);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        reference.close();
+    }
+
+    @Benchmark
+    public long processReads() {
+        for ( final GATKRead read : reads ) {
+            engine.processRead(read, reference, knownSites);
+        }
+        return engine.getNumReadsProcessed();
+    }
+}
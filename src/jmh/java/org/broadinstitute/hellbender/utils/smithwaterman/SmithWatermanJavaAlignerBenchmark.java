@@ -0,0 +1,71 @@
+package org.broadinstitute.hellbender.utils.smithwaterman;
+
+import org.broadinstitute.gatk.nativebindings.smithwaterman.SWOverhangStrategy;
+import org.broadinstitute.hellbender.benchmarks.SyntheticData;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the pure Java Smith-Waterman aligners, {@link SmithWatermanJavaAligner} and
+ * {@link SmithWatermanAntiDiagonalAligner}, on the two alignments HaplotypeCaller performs most often:
+ * haplotypes against the reference of an active region, and reads against their best haplotype.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SmithWatermanJavaAlignerBenchmark {
+
+    @Param({"JAVA", "JAVA_ANTIDIAGONAL"})
+    public SmithWatermanAligner.Implementation implementation;
+
+    @Param({"300", "1000"})
+    public int referenceLength;
+
+    @Param({"150"})
+    public int readLength;
+
+    private SmithWatermanAligner aligner;
+
+    private byte[] reference;
+    private byte[] haplotype;
+    private byte[] read;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        aligner = SmithWatermanAligner.getAligner(implementation);
+
+        final Random random = new Random(17);
+        reference = SyntheticData.randomBases(random, referenceLength);
+
+        // a haplotype with a few SNPs and a 5bp deletion in the middle
+        final byte[] withSnps = SyntheticData.withSubstitutions(random, reference, 0.01);
+        final int deletionStart = referenceLength / 2;
+        haplotype = new byte[referenceLength - 5];
+        System.arraycopy(withSnps, 0, haplotype, 0, deletionStart);
+        System.arraycopy(withSnps, deletionStart + 5, haplotype, deletionStart, referenceLength - deletionStart - 5);
+
+        final int readStart = random.nextInt(haplotype.length - readLength + 1);
+        read = SyntheticData.withSubstitutions(random, Arrays.copyOfRange(haplotype, readStart, readStart + readLength), 0.005);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        aligner.close();
+    }
+
+    @Benchmark
+    public SmithWatermanAlignment alignHaplotypeToReference() {
+        return aligner.align(reference, haplotype, SmithWatermanAlignmentConstants.NEW_SW_PARAMETERS, SWOverhangStrategy.SOFTCLIP);
+    }
+
+    @Benchmark
+    public SmithWatermanAlignment alignReadToHaplotype() {
+        return aligner.align(haplotype, read, SmithWatermanAlignmentConstants.ALIGNMENT_TO_BEST_HAPLOTYPE_SW_PARAMETERS, SWOverhangStrategy.SOFTCLIP);
+    }
+}
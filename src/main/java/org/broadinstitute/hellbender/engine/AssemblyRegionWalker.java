@@ -1,7 +1,9 @@
 package org.broadinstitute.hellbender.engine;
 
+import org.broadinstitute.barclay.argparser.Advanced;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.ArgumentCollection;
+import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.hellbender.engine.filters.CountingReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilterLibrary;
@@ -13,6 +15,8 @@ import org.broadinstitute.hellbender.utils.IntervalUtils;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.downsampling.PositionalDownsampler;
 import org.broadinstitute.hellbender.utils.downsampling.ReadsDownsampler;
+import org.broadinstitute.hellbender.utils.runtime.OrderedParallelExecutor;
+import org.broadinstitute.hellbender.utils.runtime.StageTimer;
 
 import java.io.IOException;
 import java.io.PrintStream;
@@ -37,9 +41,22 @@ import java.util.List;
  *
  * Internally, the reads are loaded in chunks called read shards, which are then subdivided into active/inactive regions
  * for processing by the tool implementation. One read shard is created per contig.
+ *
+ * Tools that override {@link #supportsConcurrentApply} and {@link #applyConcurrently} can process regions on multiple
+ * threads when run with --{@value #ASSEMBLY_REGION_THREADS_LONG_NAME}. In that mode regions are still discovered
+ * sequentially, but are processed by a pool of worker threads, and the results for each region are emitted on the
+ * traversal thread in the same (genomic) order in which the regions were discovered.
  */
 public abstract class AssemblyRegionWalker extends WalkerBase {
 
+    public static final String ASSEMBLY_REGION_THREADS_LONG_NAME = "assembly-region-threads";
+
+    /**
+     * Maximum number of regions per worker thread that may be in flight at once in multi-threaded mode. Bounds
+     * the memory held by regions that have been discovered but not yet emitted.
+     */
+    private static final int PENDING_REGIONS_PER_THREAD = 4;
+
     @ArgumentCollection
     public final AssemblyRegionArgumentCollection assemblyRegionArgs = new AssemblyRegionArgumentCollection();
 
@@ -54,6 +71,14 @@ public abstract class AssemblyRegionWalker extends WalkerBase {
     @Argument(fullName = AssemblyRegionArgumentCollection.ASSEMBLY_REGION_OUT_LONG_NAME, doc="Output the assembly region to this IGV formatted file", optional = true)
     protected String assemblyRegionOut = null;
 
+    /**
+     * Number of threads used to process assembly regions. Values greater than 1 are only supported by tools
+     * that implement {@link #applyConcurrently}. Output is identical to the single-threaded mode.
+     */
+    @Advanced
+    @Argument(fullName = ASSEMBLY_REGION_THREADS_LONG_NAME, doc = "Number of threads to use for processing assembly regions (only supported by some tools)", optional = true, minValue = 1)
+    protected int assemblyRegionThreads = 1;
+
     private PrintStream assemblyRegionOutStream;
 
     @Override
@@ -79,6 +104,10 @@ public abstract class AssemblyRegionWalker extends WalkerBase {
         super.onStartup();
 
         assemblyRegionArgs.validate();
+        if ( assemblyRegionThreads > 1 && ! supportsConcurrentApply() ) {
+            throw new CommandLineException.BadArgumentValue(ASSEMBLY_REGION_THREADS_LONG_NAME, String.valueOf(assemblyRegionThreads),
+                    "this tool does not support processing assembly regions on multiple threads");
+        }
 
         final List<SimpleInterval> intervals = hasUserSuppliedIntervals() ? userIntervals : IntervalUtils.getAllIntervalsForReference(getHeaderForReads().getSequenceDictionary());
         readShards = makeReadShards(intervals);
@@ -162,20 +191,83 @@ public abstract class AssemblyRegionWalker extends WalkerBase {
         // meter to check the time more frequently (every 10 regions instead of every 1000 regions).
         progressMeter.setRecordsBetweenTimeChecks(10L);
 
-        for ( final MultiIntervalLocalReadShard readShard : readShards ) {
-            // Since reads in each shard are lazily fetched, we need to pass the filter and transformers to the window
-            // instead of filtering the reads directly here
-            readShard.setPreReadFilterTransformer(makePreReadFilterTransformer());
-            readShard.setReadFilter(countedFilter);
-            readShard.setDownsampler(createDownsampler());
-            readShard.setPostReadFilterTransformer(makePostReadFilterTransformer());
-
-            processReadShard(readShard, reference, features);
+        if ( assemblyRegionThreads > 1 ) {
+            traverseConcurrently(countedFilter);
+        } else {
+            for ( final MultiIntervalLocalReadShard readShard : readShards ) {
+                prepareReadShard(readShard, countedFilter);
+                processReadShard(readShard, reference, features);
+            }
         }
 
         logger.info(countedFilter.getSummaryLine());
     }
 
+    private void prepareReadShard(final MultiIntervalLocalReadShard readShard, final CountingReadFilter countedFilter) {
+        // Since reads in each shard are lazily fetched, we need to pass the filter and transformers to the window
+        // instead of filtering the reads directly here
+        readShard.setPreReadFilterTransformer(makePreReadFilterTransformer());
+        readShard.setReadFilter(countedFilter);
+        readShard.setDownsampler(createDownsampler());
+        readShard.setPostReadFilterTransformer(makePostReadFilterTransformer());
+        readShard.setStageTimer(stageTimer);
+    }
+
+    /**
+     * Multi-threaded version of the traversal. Regions are discovered on this thread (the reads data source is not
+     * thread-safe), handed to {@link #applyConcurrently} on a pool of worker threads, and the per-region results are
+     * emitted back on this thread in the order in which the regions were discovered.
+     *
+     * All threads, including this one, share the reference (through a {@link SynchronizedReferenceDataSource} unless it
+     * is already thread-safe), and query
+     * features through the {@link FeatureManager}, which serializes access to each feature source and fully decodes
+     * the genotypes of the variants it returns.
+     */
+    private void traverseConcurrently(final CountingReadFilter countedFilter) {
+        final ReferenceDataSource sharedReference = SynchronizedReferenceDataSource.makeThreadSafe(reference);
+        if ( features != null ) {
+            // cached side input records may be handed to several workers, so their genotypes can't be decoded lazily
+            features.setDecodeGenotypesOnQuery(true);
+        }
+
+        try ( final OrderedParallelExecutor<Runnable> regionExecutor = new OrderedParallelExecutor<>("assembly-region-worker",
+                assemblyRegionThreads, assemblyRegionThreads * PENDING_REGIONS_PER_THREAD, Runnable::run) ) {
+            for ( final MultiIntervalLocalReadShard readShard : readShards ) {
+                prepareReadShard(readShard, countedFilter);
+
+                final Iterator<AssemblyRegion> assemblyRegionIter = new AssemblyRegionIterator(readShard, getHeaderForReads(), sharedReference, features, assemblyRegionEvaluator(), assemblyRegionArgs, shouldTrackPileupsForAssemblyRegions());
+                while ( assemblyRegionIter.hasNext() ) {
+                    final AssemblyRegion assemblyRegion = nextAssemblyRegion(assemblyRegionIter);
+
+                    regionExecutor.submit(() -> {
+                        final long applyStartNanos = stageTimer.start();
+                        final Runnable emitResults = applyConcurrently(assemblyRegion,
+                                new ReferenceContext(sharedReference, assemblyRegion.getPaddedSpan()),
+                                new FeatureContext(features, assemblyRegion.getPaddedSpan()));
+                        stageTimer.stop(StageTimer.Stage.APPLY, applyStartNanos);
+                        return () -> {
+                            emitResults.run();
+                            progressMeter.update(assemblyRegion.getSpan());
+                        };
+                    });
+                }
+            }
+
+            regionExecutor.drain();
+        }
+    }
+
+    private AssemblyRegion nextAssemblyRegion(final Iterator<AssemblyRegion> assemblyRegionIter) {
+        final AssemblyRegion assemblyRegion = assemblyRegionIter.next();
+        if ( assemblyRegionArgs.forceActive ) {
+            assemblyRegion.setIsActive(true);
+        }
+
+        logger.debug("Processing assembly region at " + assemblyRegion.getSpan() + " isActive: " + assemblyRegion.isActive() + " numReads: " + assemblyRegion.getReads().size());
+        writeAssemblyRegion(assemblyRegion);
+        return assemblyRegion;
+    }
+
     /**
      * Divide the given Shard up into active/inactive AssemblyRegions using the {@link #assemblyRegionEvaluator},
      * and send each region to the tool implementation for processing.
@@ -189,17 +281,13 @@ public abstract class AssemblyRegionWalker extends WalkerBase {
 
         // Call into the tool implementation to process each assembly region from this shard.
         while ( assemblyRegionIter.hasNext() ) {
-            final AssemblyRegion assemblyRegion = assemblyRegionIter.next();
-            if ( assemblyRegionArgs.forceActive ) {
-                assemblyRegion.setIsActive(true);
-            }
-
-            logger.debug("Processing assembly region at " + assemblyRegion.getSpan() + " isActive: " + assemblyRegion.isActive() + " numReads: " + assemblyRegion.getReads().size());
-            writeAssemblyRegion(assemblyRegion);
+            final AssemblyRegion assemblyRegion = nextAssemblyRegion(assemblyRegionIter);
 
+            final long applyStartNanos = stageTimer.start();
             apply(assemblyRegion,
                     new ReferenceContext(reference, assemblyRegion.getPaddedSpan()),
                     new FeatureContext(features, assemblyRegion.getPaddedSpan()));
+            stageTimer.stop(StageTimer.Stage.APPLY, applyStartNanos);
 
             // For this traversal, the progress meter unit is the assembly region rather than the read shard
             progressMeter.update(assemblyRegion.getSpan());
@@ -255,6 +343,35 @@ public abstract class AssemblyRegionWalker extends WalkerBase {
      */
     public abstract void apply( final AssemblyRegion region, final ReferenceContext referenceContext, final FeatureContext featureContext );
 
+    /**
+     * @return true if this tool implements {@link #applyConcurrently}, and can therefore be run with
+     *         --{@value #ASSEMBLY_REGION_THREADS_LONG_NAME} greater than 1. The default implementation returns false.
+     */
+    public boolean supportsConcurrentApply() {
+        return false;
+    }
+
+    /**
+     * Process an individual AssemblyRegion on a worker thread. Used instead of {@link #apply} when the tool is run with
+     * --{@value #ASSEMBLY_REGION_THREADS_LONG_NAME} greater than 1, in which case it is called concurrently for several
+     * regions at once and must therefore be thread-safe.
+     *
+     * Implementations should do all of the expensive per-region work here, and return an action that emits the results
+     * (for example, by writing records to the tool's output). The engine runs the returned actions one at a time on the
+     * traversal thread, in the genomic order of the regions, so they do not need to be thread-safe.
+     *
+     * Tools that override this method must also override {@link #supportsConcurrentApply} to return true.
+     * The default implementation throws {@link UnsupportedOperationException}.
+     *
+     * @param region region to process (pre-marked as either active or inactive)
+     * @param referenceContext reference data overlapping the padded span of the assembly region
+     * @param featureContext features overlapping the padded span of the assembly region
+     * @return an action emitting the results for this region, to be run on the traversal thread. Never {@code null}.
+     */
+    public Runnable applyConcurrently( final AssemblyRegion region, final ReferenceContext referenceContext, final FeatureContext featureContext ) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support processing assembly regions on multiple threads");
+    }
+
     public boolean nonRandomDownsamplingMode() {
         return false;
     }
@@ -6,6 +6,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
 
 import java.util.*;
 
@@ -17,17 +18,30 @@ import java.util.*;
  * Strategy is to pre-fetch a large number of records AFTER each query interval that produces
  * a cache miss. This optimizes for the use case of intervals with gradually increasing start
  * positions, as many subsequent queries will find their records wholly contained in the cache
- * before we have another cache miss. Performance will be poor for random/non-localized access
- * patterns, or intervals with decreasing start positions.
+ * before we have another cache miss.
+ *
+ * The cache holds several independent windows of Features, each covering one contiguous interval, so that
+ * callers that alternate between a few distant loci (for example, a read and its mate, or supplementary
+ * alignments) don't have to go back to disk every time they switch. One of the windows is the "current" window:
+ * the one that produced the last cache hit, or was filled last. Windows are evicted in least-recently-used order
+ * when there are more than {@code maxWindows} of them, or when the estimated size of all cached Features exceeds
+ * {@code maxCacheBytes}. The current window is never evicted.
+ *
+ * The number of bases to prefetch after each miss adapts to the access pattern: if a window was used for many
+ * queries and then the queries ran off its end, the lookahead is doubled (up to {@link #MAX_LOOKAHEAD_SCALE_FACTOR}
+ * times the initial lookahead); if a window was never used after it was filled, the lookahead is halved (down to
+ * 1/{@link #MAX_LOOKAHEAD_SCALE_FACTOR} of the initial lookahead).
  *
  * Usage:
- * -Test whether each query interval is a cache hit via {@link #cacheHit(org.broadinstitute.hellbender.utils.SimpleInterval)}
+ * -Test whether each query interval is a cache hit via {@link #cacheHit(org.broadinstitute.hellbender.utils.SimpleInterval)}.
+ *  On a hit, the window containing the interval becomes the current window.
  *
- * -If it is a cache hit, trim the cache to the start position of the interval (discarding records that
+ * -If it is a cache hit, trim the current window to the start position of the interval (discarding records that
  *  end before the start of the new interval) via {@link #trimToNewStartPosition(int)}, then retrieve
  *  records up to the desired endpoint using {@link #getCachedFeaturesUpToStopPosition(int)}.
  *
- * -If it is a cache miss, reset the cache using {@link #fill(java.util.Iterator, org.broadinstitute.hellbender.utils.SimpleInterval)}, pre-fetching
+ * -If it is a cache miss, get the number of bases to prefetch via {@link #getLookaheadForRefill(Locatable)}, and add
+ *  a new window using {@link #fill(java.util.Iterator, org.broadinstitute.hellbender.utils.SimpleInterval)}, pre-fetching
  *  a large number of records after the query interval in addition to those actually requested.
  *
  * @param <CACHED_FEATURE> Type of Feature record we are caching
@@ -36,14 +50,60 @@ class FeatureCache<CACHED_FEATURE extends Feature> {
     private static final Logger logger = LogManager.getLogger(FeatureCache.class);
 
     /**
-     * Our cache of Features, optimized for insertion/removal at both ends.
+     * Default maximum number of windows held at once
+     */
+    public static final int DEFAULT_MAX_WINDOWS = 8;
+
+    /**
+     * Default maximum estimated size of all cached Features, in bytes
+     */
+    public static final long DEFAULT_MAX_CACHE_BYTES = 64L * 1024 * 1024;
+
+    /**
+     * Estimated in-memory size of a single cached Feature. Features are arbitrary objects whose actual size we
+     * can't cheaply measure, so the byte bound is enforced using this estimate.
+     */
+    public static final long ESTIMATED_BYTES_PER_FEATURE = 1024L;
+
+    /**
+     * The adaptive lookahead never grows beyond (or shrinks below) the initial lookahead times (or divided by)
+     * this factor.
+     */
+    public static final int MAX_LOOKAHEAD_SCALE_FACTOR = 16;
+
+    /**
+     * A window that has served at least this many queries before queries ran off its end is considered evidence
+     * that the lookahead is too short.
+     */
+    private static final int MIN_HITS_TO_GROW_LOOKAHEAD = 8;
+
+    /**
+     * Our cached windows, in least-recently-used to most-recently-used order (the current window is last).
      */
-    private final Deque<CACHED_FEATURE> cache;
+    private final LinkedList<CacheWindow<CACHED_FEATURE>> windows = new LinkedList<>();
 
     /**
-     * Our cache currently contains Feature records overlapping this interval
+     * The window that produced the last cache hit, or that was filled last. Null if the cache has never been filled.
      */
-    private SimpleInterval cachedInterval;
+    private CacheWindow<CACHED_FEATURE> currentWindow;
+
+    /**
+     * The window filled most recently, used to decide how to adapt the lookahead on the next miss.
+     * May already have been evicted.
+     */
+    private CacheWindow<CACHED_FEATURE> lastFilledWindow;
+
+    private final int maxWindows;
+    private final long maxCacheBytes;
+
+    private final int minLookahead;
+    private final int maxLookahead;
+    private int currentLookahead;
+
+    /**
+     * Total number of Features held in all windows
+     */
+    private long numCachedFeatures = 0;
 
     /**
      * Number of times we called {@link #cacheHit(SimpleInterval)} and it returned true
@@ -56,7 +116,12 @@ class FeatureCache<CACHED_FEATURE extends Feature> {
     private int numCacheMisses = 0;
 
     /**
-     * Initial capacity of our cache (will grow by doubling if needed)
+     * Number of windows evicted to respect our window count and size bounds
+     */
+    private int numEvictions = 0;
+
+    /**
+     * Initial capacity of each window (will grow by doubling if needed)
      */
     private static final int INITIAL_CAPACITY = 1024;
 
@@ -68,46 +133,67 @@ class FeatureCache<CACHED_FEATURE extends Feature> {
     private static final int EXPECTED_MAX_OVERLAPPING_FEATURES_DURING_CACHE_TRIM = 128;
 
     /**
-     * Create an initially-empty FeatureCache with default initial capacity
+     * Create an initially-empty FeatureCache with the default bounds and an initial lookahead of
+     * {@link FeatureDataSource#DEFAULT_QUERY_LOOKAHEAD_BASES}
      */
     public FeatureCache() {
-        cache = new ArrayDeque<>(INITIAL_CAPACITY);
+        this(FeatureDataSource.DEFAULT_QUERY_LOOKAHEAD_BASES, DEFAULT_MAX_WINDOWS, DEFAULT_MAX_CACHE_BYTES);
     }
 
     /**
-     * Get the name of the contig on which the Features in our cache are located
+     * Create an initially-empty FeatureCache
      *
-     * @return the name of the contig on which the Features in our cache are located
+     * @param initialLookahead number of bases to prefetch after the first miss. If 0, lookahead is disabled entirely.
+     * @param maxWindows maximum number of windows to hold at once (must be >= 1)
+     * @param maxCacheBytes maximum estimated size of all cached Features. The current window is kept even if it
+     *                      alone exceeds this bound.
+     */
+    public FeatureCache( final int initialLookahead, final int maxWindows, final long maxCacheBytes ) {
+        Utils.validateArg(initialLookahead >= 0, "initialLookahead must be >= 0");
+        Utils.validateArg(maxWindows >= 1, "maxWindows must be >= 1");
+        Utils.validateArg(maxCacheBytes >= 0, "maxCacheBytes must be >= 0");
+
+        this.maxWindows = maxWindows;
+        this.maxCacheBytes = maxCacheBytes;
+        this.currentLookahead = initialLookahead;
+        this.minLookahead = initialLookahead > 0 ? Math.max(1, initialLookahead / MAX_LOOKAHEAD_SCALE_FACTOR) : 0;
+        this.maxLookahead = (int)Math.min(Integer.MAX_VALUE, (long)initialLookahead * MAX_LOOKAHEAD_SCALE_FACTOR);
+    }
+
+    /**
+     * Get the name of the contig on which the Features in our current window are located
+     *
+     * @return the name of the contig on which the Features in our current window are located
      */
     public String getContig() {
-        return cachedInterval.getContig();
+        return currentWindow.interval.getContig();
     }
 
     /**
-     * Get the start position of the interval that all Features in our cache overlap
+     * Get the start position of the interval that all Features in our current window overlap
      *
-     * @return the start position of the interval that all Features in our cache overlap
+     * @return the start position of the interval that all Features in our current window overlap
      */
     public int getCacheStart() {
-        return cachedInterval.getStart();
+        return currentWindow.interval.getStart();
     }
 
     /**
-     * Get the stop position of the interval that all Features in our cache overlap
+     * Get the stop position of the interval that all Features in our current window overlap
      *
-     * @return the stop position of the interval that all Features in our cache overlap
+     * @return the stop position of the interval that all Features in our current window overlap
      */
     public int getCacheEnd() {
-        return cachedInterval.getEnd();
+        return currentWindow.interval.getEnd();
     }
 
     /**
-     * Does our cache currently contain no Features?
+     * Does our current window contain no Features?
      *
-     * @return true if our cache contains no Features, otherwise false
+     * @return true if our current window contains no Features (or there is no current window), otherwise false
      */
     public boolean isEmpty() {
-        return cache.isEmpty();
+        return currentWindow == null || currentWindow.features.isEmpty();
     }
 
     /**
@@ -125,57 +211,157 @@ class FeatureCache<CACHED_FEATURE extends Feature> {
     }
 
     /**
-     * Clear our cache and fill it with the records from the provided iterator, preserving their
-     * relative ordering, and update our contig/start/stop to reflect the new interval that all
-     * records in our cache overlap.
+     * @return Number of windows evicted so far to respect the window count and size bounds
+     */
+    public int getNumEvictions() {
+        return numEvictions;
+    }
+
+    /**
+     * @return Number of windows currently held
+     */
+    public int getNumWindows() {
+        return windows.size();
+    }
+
+    /**
+     * @return Estimated size in bytes of all Features currently held
+     */
+    public long getEstimatedCacheBytes() {
+        return numCachedFeatures * ESTIMATED_BYTES_PER_FEATURE;
+    }
+
+    /**
+     * @return The number of bases that will be prefetched after the next miss, before adaptation
+     */
+    public int getCurrentLookahead() {
+        return currentLookahead;
+    }
+
+    /**
+     * Add a new window holding the records from the provided iterator, preserving their relative ordering,
+     * and make it the current window. Any existing windows on the same contig that overlap the new one are
+     * discarded, and older windows are evicted as needed to respect our bounds.
      *
      * Typically each fill operation should involve significant lookahead beyond the region
      * requested so that future queries will be cache hits.
      *
-     * @param featureIter iterator from which to pull Features with which to populate our cache
-     *                    (replacing existing cache contents)
+     * @param featureIter iterator from which to pull Features with which to populate the new window
      * @param interval all Features from featureIter overlap this interval
      */
     public void fill( final Iterator<CACHED_FEATURE> featureIter, final SimpleInterval interval ) {
-        cache.clear();
+        final CacheWindow<CACHED_FEATURE> newWindow = new CacheWindow<>(interval);
         while ( featureIter.hasNext() ) {
-            cache.add(featureIter.next());
+            newWindow.features.add(featureIter.next());
         }
 
-        cachedInterval = interval;
+        final Iterator<CacheWindow<CACHED_FEATURE>> windowIter = windows.iterator();
+        while ( windowIter.hasNext() ) {
+            final CacheWindow<CACHED_FEATURE> window = windowIter.next();
+            if ( window.interval.overlaps(interval) ) {
+                numCachedFeatures -= window.features.size();
+                windowIter.remove();
+            }
+        }
+
+        windows.addLast(newWindow);
+        numCachedFeatures += newWindow.features.size();
+        currentWindow = newWindow;
+        lastFilledWindow = newWindow;
+
+        evictIfNecessary();
+    }
+
+    /**
+     * Evict least-recently-used windows (never the current one) until we are within our bounds.
+     */
+    private void evictIfNecessary() {
+        while ( windows.size() > 1 && (windows.size() > maxWindows || getEstimatedCacheBytes() > maxCacheBytes) ) {
+            final CacheWindow<CACHED_FEATURE> evicted = windows.removeFirst();
+            numCachedFeatures -= evicted.features.size();
+            ++numEvictions;
+        }
     }
 
     /**
-     * Determines whether all records overlapping the provided interval are already contained in our cache.
+     * Determines whether all records overlapping the provided interval are already contained in one of our windows.
+     * If so, that window becomes the current window.
      *
      * @param interval the interval to check against the contents of our cache
      * @return true if all records overlapping the provided interval are already contained in our cache, otherwise false
      */
     public boolean cacheHit( final Locatable interval ) {
-        final boolean cacheHit = cachedInterval != null && cachedInterval.contains(interval);
+        final CacheWindow<CACHED_FEATURE> hitWindow = findWindowContaining(interval);
 
-        if ( cacheHit ) {
+        if ( hitWindow != null ) {
             ++numCacheHits;
+            ++hitWindow.numHits;
+            if ( hitWindow != currentWindow ) {
+                // move to the most-recently-used end
+                windows.remove(hitWindow);
+                windows.addLast(hitWindow);
+                currentWindow = hitWindow;
+            }
         }
         else {
             ++numCacheMisses;
         }
 
-        return cacheHit;
+        return hitWindow != null;
+    }
+
+    private CacheWindow<CACHED_FEATURE> findWindowContaining( final Locatable interval ) {
+        // check the current window first, since in the common case of gradually increasing
+        // query intervals that's where the hit will be
+        if ( currentWindow != null && currentWindow.interval.contains(interval) ) {
+            return currentWindow;
+        }
+        for ( final CacheWindow<CACHED_FEATURE> window : windows ) {
+            if ( window.interval.contains(interval) ) {
+                return window;
+            }
+        }
+        return null;
     }
 
     /**
-     * Trims the cache to the specified new start position by discarding all records that end before it
+     * Determine how many bases to prefetch after the end of an interval that produced a cache miss,
+     * adapting the lookahead based on how useful the most recently filled window turned out to be.
+     *
+     * @param missedInterval the query interval that produced the cache miss
+     * @return the number of bases to prefetch after the end of missedInterval
+     */
+    public int getLookaheadForRefill( final Locatable missedInterval ) {
+        if ( lastFilledWindow != null && currentLookahead > 0 ) {
+            final SimpleInterval lastInterval = lastFilledWindow.interval;
+            final boolean ranOffEnd = lastInterval.getContig().equals(missedInterval.getContig()) &&
+                    missedInterval.getStart() >= lastInterval.getStart() &&
+                    missedInterval.getEnd() > lastInterval.getEnd();
+
+            if ( ranOffEnd && lastFilledWindow.numHits >= MIN_HITS_TO_GROW_LOOKAHEAD ) {
+                currentLookahead = Math.min(maxLookahead, currentLookahead * 2);
+            } else if ( lastFilledWindow.numHits == 0 ) {
+                currentLookahead = Math.max(minLookahead, currentLookahead / 2);
+            }
+        }
+        return currentLookahead;
+    }
+
+    /**
+     * Trims the current window to the specified new start position by discarding all records that end before it
      * while preserving relative ordering of records.
      *
-     * @param newStart new start position on the current contig to which to trim the cache
+     * @param newStart new start position on the current contig to which to trim the current window
      */
     public void trimToNewStartPosition( final int newStart ) {
+        final SimpleInterval cachedInterval = currentWindow.interval;
         if ( newStart > cachedInterval.getEnd() ) {
             throw new GATKException(String.format("BUG: attempted to trim Feature cache to an improper new start position (%d). Cache stop = %d",
                     newStart, cachedInterval.getEnd()));
         }
 
+        final Deque<CACHED_FEATURE> cache = currentWindow.features;
+        final int sizeBeforeTrim = cache.size();
         List<CACHED_FEATURE> overlappingFeaturesBeforeNewStart = new ArrayList<>(EXPECTED_MAX_OVERLAPPING_FEATURES_DURING_CACHE_TRIM);
 
         // In order to trim the cache to the new start position, we need to find
@@ -200,17 +386,19 @@ class FeatureCache<CACHED_FEATURE extends Feature> {
         }
 
         // Record our new start boundary
-        cachedInterval = new SimpleInterval(cachedInterval.getContig(), newStart, cachedInterval.getEnd());
+        numCachedFeatures -= sizeBeforeTrim - cache.size();
+        currentWindow.interval = new SimpleInterval(cachedInterval.getContig(), newStart, cachedInterval.getEnd());
     }
 
     /**
-     * Returns (but does not remove) all cached Features that overlap the region from the start
-     * of our cache (cacheStart) to the specified stop position.
+     * Returns (but does not remove) all Features in the current window that overlap the region from the start
+     * of the window to the specified stop position.
      *
      * @param stopPosition Endpoint of the interval that returned Features must overlap
-     * @return all cached Features that overlap the region from the start of our cache to the specified stop position
+     * @return all cached Features that overlap the region from the start of the current window to the specified stop position
      */
     public List<CACHED_FEATURE> getCachedFeaturesUpToStopPosition( final int stopPosition ) {
+        final Deque<CACHED_FEATURE> cache = currentWindow.features;
         List<CACHED_FEATURE> matchingFeatures = new ArrayList<>(cache.size());
 
         // Find (but do not remove from our cache) all Features that start before or on the provided stop position
@@ -239,11 +427,25 @@ class FeatureCache<CACHED_FEATURE extends Feature> {
         final String sourceNameString = sourceName.isEmpty() ? "" : "for data source " + sourceName;
 
         final int totalQueries = getNumCacheHits() + getNumCacheMisses();
-        logger.debug(String.format("Cache hit rate %s was %.2f%% (%d out of %d total queries)",
+        logger.debug(String.format("Cache hit rate %s was %.2f%% (%d out of %d total queries, %d window evictions, final lookahead %d bases)",
                 sourceNameString,
                 totalQueries > 0 ? ((double)getNumCacheHits() / totalQueries) * 100.0 : 0.0,
                 getNumCacheHits(),
-                totalQueries));
+                totalQueries,
+                getNumEvictions(),
+                getCurrentLookahead()));
     }
-}
 
+    /**
+     * A contiguous window of cached Features, sorted by start position, all overlapping {@link #interval}
+     */
+    private static final class CacheWindow<F extends Feature> {
+        private final Deque<F> features = new ArrayDeque<>(INITIAL_CAPACITY);
+        private SimpleInterval interval;
+        private int numHits = 0;
+
+        CacheWindow( final SimpleInterval interval ) {
+            this.interval = interval;
+        }
+    }
+}
@@ -341,7 +341,7 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
 
         this.currentIterator = null;
         this.intervalsForTraversal = null;
-        this.queryCache = new FeatureCache<>();
+        this.queryCache = new FeatureCache<>(queryLookaheadBases, FeatureCache.DEFAULT_MAX_WINDOWS, FeatureCache.DEFAULT_MAX_CACHE_BYTES);
         this.queryLookaheadBases = queryLookaheadBases;
     }
 
@@ -349,6 +349,20 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
         queryCache.printCacheStatistics( getName() );
     }
 
+    /**
+     * @return number of queries so far that were answered from our cache
+     */
+    final int getNumCacheHits() {
+        return queryCache.getNumCacheHits();
+    }
+
+    /**
+     * @return number of queries so far that had to go to disk
+     */
+    final int getNumCacheMisses() {
+        return queryCache.getNumCacheMisses();
+    }
+
     @SuppressWarnings({"unchecked", "rawtypes"})
     private static <T extends Feature> FeatureReader<T> getFeatureReader(final FeatureInput<T> featureInput, final Class<? extends Feature> targetFeatureType,
                                                                          final Function<SeekableByteChannel, SeekableByteChannel> cloudWrapper,
@@ -596,9 +610,9 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
     }
 
     /**
-     * Refill our cache from disk after a cache miss. Will prefetch Features overlapping an additional
-     * queryLookaheadBases bases after the end of the provided interval, in addition to those overlapping
-     * the interval itself.
+     * Refill our cache from disk after a cache miss. Will prefetch Features overlapping a number of additional
+     * bases after the end of the provided interval, in addition to those overlapping the interval itself. The
+     * number of bases starts at queryLookaheadBases, and is adapted by the cache to the observed access pattern.
      * <p>
      * Calling this has the side effect of invalidating (closing) any currently-open iteration over
      * this data source.
@@ -610,13 +624,13 @@ public final class FeatureDataSource<T extends Feature> implements GATKDataSourc
         // results in undefined behavior
         closeOpenIterationIfNecessary();
 
-        // Expand the end of our query by the configured number of bases, in anticipation of probable future
+        // Expand the end of our query by the current lookahead, in anticipation of probable future
         // queries with slightly larger start/stop positions.
         //
         // Note that it doesn't matter if we go off the end of the contig in the process, since
         // our reader's query operation is not aware of (and does not care about) contig boundaries.
         // Note: we use addExact to blow up on overflow rather than propagate negative results downstream
-        final SimpleInterval queryInterval = new SimpleInterval(interval.getContig(), interval.getStart(), Math.addExact(interval.getEnd(), queryLookaheadBases));
+        final SimpleInterval queryInterval = new SimpleInterval(interval.getContig(), interval.getStart(), Math.addExact(interval.getEnd(), queryCache.getLookaheadForRefill(interval)));
 
         // Query iterator over our reader will be immediately closed after re-populating our cache
         try (final CloseableTribbleIterator<T> queryIter = featureReader.query(queryInterval.getContig(), queryInterval.getStart(), queryInterval.getEnd())) {
@@ -5,6 +5,7 @@ import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.samtools.util.Locatable;
 import htsjdk.tribble.Feature;
 import htsjdk.tribble.FeatureCodec;
+import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFHeader;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.LogManager;
@@ -20,6 +21,7 @@ import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.config.ConfigFactory;
 import org.broadinstitute.hellbender.utils.config.GATKConfig;
+import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.ParameterizedType;
@@ -91,6 +93,11 @@ public final class FeatureManager implements AutoCloseable {
      */
     private final Map<FeatureInput<? extends Feature>, FeatureDataSource<? extends Feature>> featureSources;
 
+    /**
+     * If true, the genotypes of variants are fully decoded by {@link #getFeatures}. See {@link #setDecodeGenotypesOnQuery}.
+     */
+    private volatile boolean decodeGenotypesOnQuery = false;
+
     /**
      * Create a FeatureManager given a CommandLineProgram tool instance, discovering all FeatureInput
      * arguments in the tool and creating query-able FeatureDataSources for them. Uses the default
@@ -218,6 +225,13 @@ public final class FeatureManager implements AutoCloseable {
         }
     }
 
+    /**
+     * @return all of our data sources, in the order in which they were added
+     */
+    Collection<FeatureDataSource<? extends Feature>> getAllDataSources() {
+        return Collections.unmodifiableCollection(featureSources.values());
+    }
+
     void addToFeatureSources(final int featureQueryLookahead, final FeatureInput<? extends Feature> featureInput,
                              final Class<? extends Feature> featureType, final int cloudPrefetchBuffer,
                              final int cloudIndexPrefetchBuffer, final Path reference) {
@@ -348,6 +362,8 @@ public final class FeatureManager implements AutoCloseable {
      * FeatureManager was initialized with, or was not an @Argument-annotated field in the tool
      * (or parent classes).
      *
+     * This method is safe to call from multiple threads.
+     *
      * @param featureDescriptor FeatureInput argument from our tool representing the Feature source to query
      * @param interval interval to query over (returned Features will overlap this interval)
      * @param <T> type of Feature in the source represented by featureDescriptor
@@ -360,7 +376,32 @@ public final class FeatureManager implements AutoCloseable {
         // No danger of a ClassCastException here, since we verified that the FeatureDataSource for this
         // FeatureInput will return Features of the expected type T when we first created the data source
         // in initializeFeatureSources()
-        return dataSource.queryAndPrefetch(interval);
+        //
+        // The lock is per data source and uncontended in single-threaded traversals; it allows FeatureContexts
+        // to be queried from worker threads in the multi-threaded traversal modes.
+        synchronized ( dataSource ) {
+            final List<T> features = dataSource.queryAndPrefetch(interval);
+            if ( decodeGenotypesOnQuery ) {
+                for ( final T feature : features ) {
+                    if ( feature instanceof VariantContext ) {
+                        GATKVariantContextUtils.decodeGenotypes((VariantContext) feature);
+                    }
+                }
+            }
+            return features;
+        }
+    }
+
+    /**
+     * Controls whether the genotypes of variants returned by {@link #getFeatures} are fully decoded before they are
+     * returned (while the lock on their data source is still held). Required when features are queried from several
+     * threads at once, since the VCF and BCF codecs parse genotypes lazily using buffers shared by all of the records
+     * they produce, and cached records may be returned to several threads. Off by default.
+     *
+     * @param decodeGenotypesOnQuery whether to fully decode the genotypes of variants on query
+     */
+    void setDecodeGenotypesOnQuery(final boolean decodeGenotypesOnQuery) {
+        this.decodeGenotypesOnQuery = decodeGenotypesOnQuery;
     }
 
     /**
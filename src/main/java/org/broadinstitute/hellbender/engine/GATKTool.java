@@ -16,6 +16,7 @@ import java.time.ZonedDateTime;
 import java.util.*;
 import java.util.stream.Stream;
 
+import org.broadinstitute.barclay.argparser.Advanced;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.ArgumentCollection;
 import org.broadinstitute.barclay.argparser.CommandLinePluginDescriptor;
@@ -43,8 +44,10 @@ import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.read.ReadUtils;
 import org.broadinstitute.hellbender.utils.read.SAMFileGATKReadWriter;
 import org.broadinstitute.hellbender.utils.reference.ReferenceUtils;
+import org.broadinstitute.hellbender.utils.runtime.StageTimer;
 import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
 import org.broadinstitute.hellbender.utils.variant.writers.ShardingVCFWriter;
+import org.broadinstitute.hellbender.utils.variant.writers.TimedVariantContextWriter;
 
 /**
  * Base class for all GATK tools. Tool authors that want to write a "GATK" tool but not use one of
@@ -117,6 +120,47 @@ public abstract class GATKTool extends CommandLineProgram {
     @Argument(fullName = StandardArgumentDefinitions.CLOUD_INDEX_PREFETCH_BUFFER_LONG_NAME, shortName = StandardArgumentDefinitions.CLOUD_INDEX_PREFETCH_BUFFER_SHORT_NAME, doc = "Size of the cloud-only prefetch buffer (in MB; 0 to disable). Defaults to cloudPrefetchBuffer if unset.", optional=true)
     public int cloudIndexPrefetchBuffer = getDefaultCloudIndexPrefetchBufferSize();
 
+    public static final String READ_PREFETCH_BATCHES_NAME = "read-prefetch-batches";
+
+    /**
+     * If non-zero, reads are read, decompressed and decoded on background threads, ahead of the thread running
+     * the tool, which is useful when reading from slow (network or cloud) storage. The value is the maximum number of
+     * batches of {@value ReadsPathDataSource#PREFETCH_BATCH_SIZE} reads to buffer.
+     */
+    @Advanced
+    @Argument(fullName = READ_PREFETCH_BATCHES_NAME,
+            doc = "Number of batches of reads to decode ahead of the tool on background threads (0 to disable).",
+            optional = true, minValue = 0)
+    public int readPrefetchBatches = 0;
+
+    public static final String PACKED_REFERENCE_NAME = "packed-reference";
+
+    /**
+     * A packed image of the --reference fasta, created with {@link org.broadinstitute.hellbender.tools.CreatePackedReference}.
+     * Reference queries are then served from a read-only memory mapping of the image rather than by parsing the fasta,
+     * which makes them cheap at any access pattern, and lets all threads and all GATK processes on a host share a
+     * single copy of the reference in the OS page cache. The fasta is still required for everything else (eg.,
+     * decoding CRAMs), and its sequence dictionary must match that of the packed image.
+     */
+    @Advanced
+    @Argument(fullName = PACKED_REFERENCE_NAME,
+            doc = "Packed image of the reference (on a local filesystem) from which to serve reference queries.",
+            optional = true)
+    public GATKPath packedReference = null;
+
+    public static final String RUNTIME_METRICS_OUTPUT_NAME = "runtime-metrics-output";
+
+    /**
+     * If specified, a JSON object describing the state of the traversal (records processed, current locus, heap and
+     * GC usage, cumulative time spent decoding, filtering, processing and writing records, and Feature cache hit rates)
+     * is written to this file each time the progress meter outputs a line. See {@link RuntimeMetricsSink}.
+     */
+    @Advanced
+    @Argument(fullName = RUNTIME_METRICS_OUTPUT_NAME,
+            doc = "File to which to write runtime metrics snapshots as JSON lines, at the same interval as progress updates.",
+            optional = true)
+    public GATKPath runtimeMetricsOutput = null;
+
     @Argument(fullName = StandardArgumentDefinitions.DISABLE_BAM_INDEX_CACHING_LONG_NAME,
             shortName = StandardArgumentDefinitions.DISABLE_BAM_INDEX_CACHING_SHORT_NAME,
             doc = "If true, don't cache bam indexes, this will reduce memory requirements but may harm performance if many intervals are specified.  Caching is automatically disabled if there are no intervals specified.",
@@ -229,6 +273,18 @@ public abstract class GATKTool extends CommandLineProgram {
      */
     protected ProgressMeter progressMeter;
 
+    /**
+     * Accumulates the time spent in each stage of the traversal, for runtime metrics. Disabled (at no cost)
+     * unless {@link #runtimeMetricsOutput} is specified. Subclasses that implement {@link #traverse} should
+     * record the time spent in apply() under {@link StageTimer.Stage#APPLY}.
+     */
+    protected StageTimer stageTimer = StageTimer.DISABLED;
+
+    /**
+     * Destination of runtime metrics snapshots, or null if not requested
+     */
+    private RuntimeMetricsSink runtimeMetricsSink = null;
+
     /**
      * Return the list of GATKCommandLinePluginDescriptors to be used for this tool.
      * Uses the read filter plugin.
@@ -381,9 +437,9 @@ public abstract class GATKTool extends CommandLineProgram {
         if (hasReads()) {
             final ReadTransformer preTransformer = makePreReadFilterTransformer();
             final ReadTransformer postTransformer = makePostReadFilterTransformer();
-            return Utils.stream(reads)
+            return Utils.stream(stageTimer.timeIterator(reads.iterator(), StageTimer.Stage.READ_DECODING))
                     .map(preTransformer)
-                    .filter(filter)
+                    .filter(stageTimer.timePredicate(filter, StageTimer.Stage.FILTERING))
                     .map(postTransformer);
         }
         // returns an empty Stream if there are no reads
@@ -436,7 +492,32 @@ public abstract class GATKTool extends CommandLineProgram {
      * May be overridden by traversals that require custom initialization of the reference data source.
      */
     void initializeReference() {
-        reference = referenceArguments.getReferencePath() != null ? ReferenceDataSource.of(referenceArguments.getReferencePath()) : null;
+        if ( packedReference != null ) {
+            reference = openPackedReference();
+        } else {
+            reference = referenceArguments.getReferencePath() != null ? ReferenceDataSource.of(referenceArguments.getReferencePath()) : null;
+        }
+    }
+
+    /**
+     * Open the {@link #packedReference}, after checking that it matches the reference fasta.
+     */
+    private ReferenceDataSource openPackedReference() {
+        if ( referenceArguments.getReferencePath() == null ) {
+            throw new UserException.MissingReference("The reference fasta that the --" + PACKED_REFERENCE_NAME + " was created from must also be specified");
+        }
+        final SAMSequenceDictionary fastaDictionary;
+        try ( final ReferenceDataSource fasta = ReferenceDataSource.of(referenceArguments.getReferencePath()) ) {
+            fastaDictionary = fasta.getSequenceDictionary();
+        }
+
+        final ReferenceDataSource packed = ReferenceDataSource.ofPacked(packedReference.toPath());
+        if ( ! packed.getSequenceDictionary().isSameDictionary(fastaDictionary) ) {
+            throw new UserException.IncompatibleSequenceDictionaries("the packed reference was not created from this reference",
+                    packedReference.getRawInputString(), packed.getSequenceDictionary(),
+                    referenceArguments.getReferenceSpecifier().getRawInputString(), fastaDictionary);
+        }
+        return packed;
     }
 
     /**
@@ -450,7 +531,7 @@ public abstract class GATKTool extends CommandLineProgram {
             final SamReaderFactory factory = makeSamReaderFactory();
 
             reads = new ReadsPathDataSource(readArguments.getReadPaths(), readArguments.getReadIndexPaths(), factory, cloudPrefetchBuffer,
-                (cloudIndexPrefetchBuffer < 0 ? cloudPrefetchBuffer : cloudIndexPrefetchBuffer));
+                (cloudIndexPrefetchBuffer < 0 ? cloudPrefetchBuffer : cloudIndexPrefetchBuffer), readPrefetchBatches);
         }
         else {
             reads = null;
@@ -469,6 +550,11 @@ public abstract class GATKTool extends CommandLineProgram {
         if(bamIndexCachingShouldBeEnabled()) {
             factory = factory.enable(SamReaderFactory.Option.CACHE_FILE_BASED_INDEXES);
         }
+
+        if (readPrefetchBatches > 0) {
+            // also inflate BGZF blocks ahead of the decoding thread
+            factory = factory.setUseAsyncIo(true);
+        }
         return factory;
     }
 
@@ -733,15 +819,28 @@ public abstract class GATKTool extends CommandLineProgram {
 
         checkToolRequirements();
 
+        initializeRuntimeMetrics();
+
         initializeProgressMeter(getProgressMeterRecordLabel());
     }
 
+    /**
+     * Initialize runtime metrics collection, if requested. Must be called after the Feature inputs are initialized.
+     */
+    private void initializeRuntimeMetrics() {
+        if ( runtimeMetricsOutput != null ) {
+            stageTimer = new StageTimer();
+            runtimeMetricsSink = new RuntimeMetricsSink(runtimeMetricsOutput, stageTimer, features);
+        }
+    }
+
     /**
      * Helper method to initialize the progress meter without exposing engine level arguements.
      */
     protected final void initializeProgressMeter(final String progressMeterRecordLabel) {
         progressMeter = new ProgressMeter(secondsBetweenProgressUpdates, disableProgressMeter());
         progressMeter.setRecordLabel(progressMeterRecordLabel);
+        progressMeter.setMetricsSink(runtimeMetricsSink);
     }
 
     /**
@@ -851,7 +950,8 @@ public abstract class GATKTool extends CommandLineProgram {
                 preSorted,
                 createOutputBamIndex,
                 createOutputBamMD5
-            )
+            ),
+            stageTimer
         );
     }
 
@@ -912,19 +1012,35 @@ public abstract class GATKTool extends CommandLineProgram {
             options.add(Options.DO_NOT_WRITE_GENOTYPES);
         }
 
+        final VariantContextWriter writer;
         if (maxVariantsPerShard > 0) {
-            return new ShardingVCFWriter(
+            writer = new ShardingVCFWriter(
                     outPath,
                     maxVariantsPerShard,
                     sequenceDictionary,
                     createOutputVariantMD5,
                     options.toArray(new Options[options.size()]));
+        } else {
+            writer = GATKVariantContextUtils.createVCFWriter(
+                    outPath,
+                    sequenceDictionary,
+                    createOutputVariantMD5,
+                    options.toArray(new Options[options.size()]));
         }
-        return GATKVariantContextUtils.createVCFWriter(
-                outPath,
-                sequenceDictionary,
-                createOutputVariantMD5,
-                options.toArray(new Options[options.size()]));
+        return timeVariantWrites(writer);
+    }
+
+    /**
+     * Wraps a VariantContextWriter that was not created by {@link #createVCFWriter}, such as one created by a tool's
+     * engine, so that the time spent writing variants is included in the runtime metrics.
+     *
+     * @param writer writer to wrap. May not be null.
+     * @return a writer that records the time spent writing variants, or {@code writer} itself if no runtime metrics
+     *         are being collected
+     */
+    public final VariantContextWriter timeVariantWrites(final VariantContextWriter writer) {
+        Utils.nonNull(writer);
+        return stageTimer.isEnabled() ? new TimedVariantContextWriter(writer, stageTimer) : writer;
     }
 
     /**
@@ -1058,6 +1174,10 @@ public abstract class GATKTool extends CommandLineProgram {
         if ( hasFeatures() ) {
             features.close();
         }
+
+        if ( runtimeMetricsSink != null ) {
+            runtimeMetricsSink.close();
+        }
     }
 
     /**
@@ -12,7 +12,9 @@ import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.locusiterator.AlignmentContextIteratorBuilder;
 import org.broadinstitute.hellbender.utils.locusiterator.LIBSDownsamplingInfo;
 import org.broadinstitute.hellbender.utils.locusiterator.LocusIteratorByState;
+import org.broadinstitute.hellbender.utils.pileup.PileupElementPool;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.runtime.StageTimer;
 
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -42,6 +44,11 @@ public abstract class LocusWalker extends WalkerBase {
     @Argument(fullName = MAX_DEPTH_PER_SAMPLE_NAME, shortName = MAX_DEPTH_PER_SAMPLE_NAME, doc = "Maximum number of reads to retain per sample per locus. Reads above this threshold will be downsampled. Set to 0 to disable.", optional = true)
     protected int maxDepthPerSample = defaultMaxDepthPerSample();
 
+    /**
+     * Pool providing the elements of our pileups if {@link #reusePileupElements()} is true, otherwise null
+     */
+    private PileupElementPool pileupElementPool = null;
+
     /**
      * LocusWalkers requires read sources
      */
@@ -85,6 +92,21 @@ public abstract class LocusWalker extends WalkerBase {
         return false;
     }
 
+    /**
+     * Can the engine recycle the {@link org.broadinstitute.hellbender.utils.pileup.PileupElement}s of each
+     * AlignmentContext once {@link #apply} returns? Tools that never keep a reference to the AlignmentContext,
+     * its pileups or their elements beyond the call to apply() should override to return {@code true}: this
+     * avoids allocating a new PileupElement for every read at every locus, which matters at deep coverage.
+     *
+     * NOTE: the elements of a recycled pileup are overwritten at later loci, so a tool that returns {@code true}
+     * here and keeps pileup elements around (eg., in a collection of its own) will silently see wrong data.
+     *
+     * @return {@code true} if the pileup elements may be recycled after apply(), {@code false} otherwise
+     */
+    public boolean reusePileupElements() {
+        return false;
+    }
+
 
     /**
      * Returns default value for the {@link #maxDepthPerSample} parameter, if none is provided on the command line.
@@ -151,7 +173,10 @@ public abstract class LocusWalker extends WalkerBase {
         // iterate over each alignment, and apply the function
         iterator.forEachRemaining(alignmentContext -> {
                         final SimpleInterval alignmentInterval = new SimpleInterval(alignmentContext);
+                        final long applyStartNanos = stageTimer.start();
                         apply(alignmentContext, new ReferenceContext(reference, alignmentInterval), new FeatureContext(features, alignmentInterval));
+                        stageTimer.stop(StageTimer.Stage.APPLY, applyStartNanos);
+                        releasePileup(alignmentContext);
                         progressMeter.update(alignmentInterval);
                 }
             );
@@ -178,12 +203,24 @@ public abstract class LocusWalker extends WalkerBase {
         alignmentContextIteratorBuilder.setEmitEmptyLoci(emitEmptyLoci());
         alignmentContextIteratorBuilder.setIncludeDeletions(includeDeletions());
         alignmentContextIteratorBuilder.setIncludeNs(includeNs());
+        pileupElementPool = reusePileupElements() ? new PileupElementPool() : null;
+        alignmentContextIteratorBuilder.setPileupElementPool(pileupElementPool);
 
         return alignmentContextIteratorBuilder.build(
                 readIterator, header, userIntervals, getBestAvailableSequenceDictionary(),
                 hasReference());
     }
 
+    /**
+     * Hand the pileup elements of an AlignmentContext back to be recycled, if {@link #reusePileupElements()} is true.
+     * Must be called by traversals once they are done with each AlignmentContext from {@link #getAlignmentContextIterator}.
+     */
+    final void releasePileup(final AlignmentContext alignmentContext) {
+        if ( pileupElementPool != null ) {
+            pileupElementPool.release(alignmentContext.getBasePileup());
+        }
+    }
+
     /**
      * Process an individual AlignmentContext (with optional contextual information). Must be implemented by tool authors.
      * In general, tool authors should simply stream their output from apply(), and maintain as little internal state
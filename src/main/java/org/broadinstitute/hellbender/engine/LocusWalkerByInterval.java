@@ -50,6 +50,7 @@ public abstract class LocusWalkerByInterval extends LocusWalker {
         iterator.forEachRemaining(alignmentContext -> {
                     final SimpleInterval alignmentInterval = new SimpleInterval(alignmentContext);
                     apply(alignmentContext, new ReferenceContext(reference, alignmentInterval), new FeatureContext(features, alignmentInterval));
+                    releasePileup(alignmentContext);
                     progressMeter.update(alignmentInterval);
                 }
         );
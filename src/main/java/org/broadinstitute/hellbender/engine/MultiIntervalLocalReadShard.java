@@ -10,6 +10,7 @@ import org.broadinstitute.hellbender.utils.downsampling.ReadsDownsamplingIterato
 import org.broadinstitute.hellbender.utils.iterators.ReadFilteringIterator;
 import org.broadinstitute.hellbender.utils.iterators.ReadTransformingIterator;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.runtime.StageTimer;
 
 import java.util.*;
 
@@ -36,6 +37,7 @@ public final class MultiIntervalLocalReadShard implements MultiIntervalShard<GAT
     private ReadFilter readFilter;
     private ReadTransformer postReadFilterTransformer;
     private ReadsDownsampler downsampler;
+    private StageTimer stageTimer = StageTimer.DISABLED;
 
     /**
      * Create a new MultiIntervalLocalReadShard spanning the given intervals, with each interval expanded
@@ -120,6 +122,16 @@ public final class MultiIntervalLocalReadShard implements MultiIntervalShard<GAT
         postReadFilterTransformer = transformer;
     }
 
+    /**
+     * The time spent reading and filtering the reads in this shard will be recorded by this timer, under
+     * {@link StageTimer.Stage#READ_DECODING} and {@link StageTimer.Stage#FILTERING} respectively
+     *
+     * @param stageTimer timer to record the time spent reading and filtering (may not be null)
+     */
+    public void setStageTimer(final StageTimer stageTimer) {
+        this.stageTimer = Utils.nonNull(stageTimer);
+    }
+
     /**
      * @return an iterator over reads in this shard, as filtered using the configured read filter
      *         and downsampled using the configured downsampler; reads are lazily loaded rather than pre-loaded
@@ -131,14 +143,14 @@ public final class MultiIntervalLocalReadShard implements MultiIntervalShard<GAT
         // Query all intervals in this shard at once. This is critical for performance, to avoid
         // decompressing the same blocks multiple times for intervals that are close together!
         readsSource.setTraversalBounds(paddedIntervals);
-        Iterator<GATKRead> readsIterator = readsSource.iterator();
+        Iterator<GATKRead> readsIterator = stageTimer.timeIterator(readsSource.iterator(), StageTimer.Stage.READ_DECODING);
 
         if (preReadFilterTransformer != null) {
             readsIterator = new ReadTransformingIterator(readsIterator, preReadFilterTransformer);
         }
 
         if ( readFilter != null ) {
-            readsIterator = new ReadFilteringIterator(readsIterator, readFilter);
+            readsIterator = new ReadFilteringIterator(readsIterator, stageTimer.isEnabled() ? new TimedReadFilter(readFilter, stageTimer) : readFilter);
         }
 
         if (postReadFilterTransformer != null) {
@@ -151,5 +163,28 @@ public final class MultiIntervalLocalReadShard implements MultiIntervalShard<GAT
 
         return readsIterator;
     }
+
+    /**
+     * A read filter that records the time spent in the filter it wraps under {@link StageTimer.Stage#FILTERING}
+     */
+    private static final class TimedReadFilter extends ReadFilter {
+        private static final long serialVersionUID = 1L;
+
+        private final ReadFilter filter;
+        private final transient StageTimer stageTimer;
+
+        private TimedReadFilter(final ReadFilter filter, final StageTimer stageTimer) {
+            this.filter = filter;
+            this.stageTimer = stageTimer;
+        }
+
+        @Override
+        public boolean test(final GATKRead read) {
+            final long startNanos = stageTimer.start();
+            final boolean result = filter.test(read);
+            stageTimer.stop(StageTimer.Stage.FILTERING, startNanos);
+            return result;
+        }
+    }
 }
 
@@ -3,13 +3,17 @@ package org.broadinstitute.hellbender.engine;
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFHeader;
+import org.broadinstitute.barclay.argparser.Advanced;
+import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.ArgumentCollection;
+import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.cmdline.argumentcollections.MultiVariantInputArgumentCollection;
 import org.broadinstitute.hellbender.engine.filters.CountingReadFilter;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.runtime.StageTimer;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -23,12 +27,25 @@ import java.util.Spliterator;
  *
  * VariantWalker authors must implement the {@link #apply} method to process each variant, and may optionally implement
  * {@link #onTraversalStart}, {@link #onTraversalSuccess} and/or {@link #closeTool}.
+ *
+ * Tools that override {@link #supportsConcurrentApply} and {@link #applyConcurrently} can process variants on multiple
+ * threads when run with --{@value #VARIANT_WALKER_THREADS_LONG_NAME}. In that mode variants are still decoded, transformed
+ * and filtered on the traversal thread, but are then processed in batches on a pool of worker threads. The results for
+ * each variant are emitted on the traversal thread in the original order of the variants.
  */
 public abstract class MultiVariantWalker extends VariantWalkerBase {
 
     @ArgumentCollection
     protected MultiVariantInputArgumentCollection multiVariantInputArgumentCollection = getMultiVariantInputArgumentCollection();
 
+    /**
+     * Number of threads used to process variants. Values greater than 1 are only supported by tools
+     * that implement {@link #applyConcurrently}. Output is identical to the single-threaded mode.
+     */
+    @Advanced
+    @Argument(fullName = VARIANT_WALKER_THREADS_LONG_NAME, doc = "Number of threads to use for processing variants (only supported by some tools)", optional = true, minValue = 1)
+    protected int variantWalkerThreads = 1;
+
     // NOTE: keeping the driving source of variants separate from other, supplementary FeatureInputs in our FeatureManager
     // in GATKTool we do add the driving source to the Feature manager but we do need to treat it differently and thus this
     // field.
@@ -48,6 +65,11 @@ public abstract class MultiVariantWalker extends VariantWalkerBase {
     protected final void onStartup() {
        super.onStartup();
 
+        if ( variantWalkerThreads > 1 && ! supportsConcurrentApply() ) {
+            throw new CommandLineException.BadArgumentValue(VARIANT_WALKER_THREADS_LONG_NAME, String.valueOf(variantWalkerThreads),
+                    "this tool does not support processing variants on multiple threads");
+        }
+
         if ( hasUserSuppliedIntervals() ) {
             drivingVariants.setIntervalsForTraversal(userIntervals);
         }
@@ -131,10 +153,23 @@ public abstract class MultiVariantWalker extends VariantWalkerBase {
     @Override
     public void traverse() {
         final CountingReadFilter readFilter = makeReadFilter();
+        if ( variantWalkerThreads > 1 ) {
+            traverseVariantsConcurrently(getTransformedVariantStream( makeVariantFilter() ), readFilter, variantWalkerThreads,
+                    (variant, readsContext, referenceContext, featureContext) -> {
+                        try {
+                            return applyConcurrently(variant, readsContext, referenceContext, featureContext);
+                        } catch (final Exception e) {
+                            throw new GATKException("Exception thrown at " + variant.getContig() + ":" + variant.getStart()
+                                    + " " + variant.toString(), e);
+                        }
+                    });
+            return;
+        }
         // Process each variant in the input stream.
         getTransformedVariantStream( makeVariantFilter() )
                 .forEach(variant -> {
                     final SimpleInterval variantInterval = new SimpleInterval(variant);
+                    final long applyStartNanos = stageTimer.start();
                     try {
                         apply(variant,
                                 new ReadsContext(reads, variantInterval, readFilter),
@@ -144,6 +179,7 @@ public abstract class MultiVariantWalker extends VariantWalkerBase {
                         throw new GATKException("Exception thrown at " + variant.getContig() + ":" + variant.getStart()
                                 + " " + variant.toString(), e);
                     }
+                    stageTimer.stop(StageTimer.Stage.APPLY, applyStartNanos);
 
                     progressMeter.update(variantInterval);
                 });
@@ -169,6 +205,36 @@ public abstract class MultiVariantWalker extends VariantWalkerBase {
      */
     public abstract void apply( VariantContext variant, ReadsContext readsContext, ReferenceContext referenceContext, FeatureContext featureContext );
 
+    /**
+     * @return true if this tool implements {@link #applyConcurrently}, and can therefore be run with
+     *         --{@value #VARIANT_WALKER_THREADS_LONG_NAME} greater than 1. The default implementation returns false.
+     */
+    public boolean supportsConcurrentApply() {
+        return false;
+    }
+
+    /**
+     * Process an individual variant on a worker thread. Used instead of {@link #apply} when the tool is run with
+     * --{@value #VARIANT_WALKER_THREADS_LONG_NAME} greater than 1, in which case it is called concurrently for several
+     * variants at once and must therefore be thread-safe.
+     *
+     * Implementations should do all of the expensive per-variant work here, and return an action that emits the results
+     * (for example, by writing a variant to the tool's output). The engine runs the returned actions one at a time on
+     * the traversal thread, in the original order of the variants, so they do not need to be thread-safe.
+     *
+     * Tools that override this method must also override {@link #supportsConcurrentApply} to return true.
+     * The default implementation throws {@link UnsupportedOperationException}.
+     *
+     * @param variant Current variant being processed, with its genotypes already decoded
+     * @param readsContext Reads overlapping the current variant, as for {@link #apply}
+     * @param referenceContext Reference bases spanning the current variant, as for {@link #apply}
+     * @param featureContext Features spanning the current variant, as for {@link #apply}
+     * @return an action emitting the results for this variant, to be run on the traversal thread. Never {@code null}.
+     */
+    public Runnable applyConcurrently( VariantContext variant, ReadsContext readsContext, ReferenceContext referenceContext, FeatureContext featureContext ) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support processing variants on multiple threads");
+    }
+
     /**
      * Close all data sources.
      *
@@ -0,0 +1,291 @@
+package org.broadinstitute.hellbender.engine;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.SAMTextHeaderCodec;
+import htsjdk.samtools.reference.ReferenceSequence;
+import htsjdk.samtools.util.BufferedLineReader;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Manages queries over a packed reference: a precomputed image of a reference fasta in which the (already
+ * normalized) bases of each contig are stored contiguously, one byte per base, with no line breaks.
+ *
+ * The image is memory-mapped read-only, so that:
+ *
+ * - any interval can be fetched in O(1), with no parsing, no per-query I/O and no per-instance cache to miss
+ * - {@link #queryAsBuffer} can hand out views of the bases without copying them
+ * - a single instance can safely be queried from any number of threads without locking
+ * - all threads and all JVMs on a host that use the same image share a single copy of it in the OS page cache
+ *
+ * Packed references are created from a fasta file with {@link #createPackedReference}
+ * (see {@link org.broadinstitute.hellbender.tools.CreatePackedReference}), and must be on a local filesystem.
+ *
+ * The layout of the file is:
+ *
+ * - the magic bytes {@link #MAGIC}, followed by a format version number (int)
+ * - the length in bytes (int) of the sequence dictionary, followed by the dictionary itself as UTF-8 SAM header text
+ * - padding up to the next multiple of {@link #DATA_ALIGNMENT} bytes
+ * - the bases of each contig in the dictionary, in dictionary order
+ */
+public final class PackedReferenceSource implements ReferenceDataSource {
+
+    /**
+     * Conventional extension for packed reference files, appended to the name of the fasta they were created from
+     */
+    public static final String PACKED_REFERENCE_EXTENSION = ".packed";
+
+    static final byte[] MAGIC = "GATKPREF".getBytes(StandardCharsets.US_ASCII);
+    static final int FORMAT_VERSION = 1;
+
+    /**
+     * Alignment of the start of the bases in the file, so that the data starts on a page boundary
+     */
+    static final int DATA_ALIGNMENT = 4096;
+
+    /**
+     * Number of bases to read from the fasta at a time while creating a packed reference
+     */
+    private static final int CREATION_WINDOW_SIZE = 1 << 20;
+
+    private final Path packedPath;
+    private final SAMSequenceDictionary sequenceDictionary;
+
+    // A single buffer can map at most Integer.MAX_VALUE bytes, so contigs are grouped into as many mapped
+    // regions as necessary. Every contig lies entirely within a single region.
+    private final MappedByteBuffer[] regions;
+    private final int[] contigRegion;
+    private final int[] contigOffsetInRegion;
+
+    /**
+     * Open a packed reference
+     *
+     * @param packedPath packed reference file on a local filesystem, as created by {@link #createPackedReference}
+     */
+    public PackedReferenceSource(final Path packedPath) {
+        this.packedPath = Utils.nonNull(packedPath);
+        if ( packedPath.getFileSystem() != FileSystems.getDefault() ) {
+            throw new UserException.CouldNotReadInputFile(packedPath, "packed references can only be memory-mapped from a local filesystem");
+        }
+
+        try ( final FileChannel channel = FileChannel.open(packedPath, StandardOpenOption.READ) ) {
+            final int dictionaryLength = readHeader(channel);
+            this.sequenceDictionary = readSequenceDictionary(channel, dictionaryLength);
+            final long dataStart = alignDataStart(MAGIC.length + 2L * Integer.BYTES + dictionaryLength);
+
+            final List<SAMSequenceRecord> contigs = sequenceDictionary.getSequences();
+            final long expectedFileSize = dataStart + contigs.stream().mapToLong(SAMSequenceRecord::getSequenceLength).sum();
+            if ( channel.size() != expectedFileSize ) {
+                throw new UserException.MalformedFile(packedPath, String.format("packed reference should be %d bytes long according to its sequence dictionary, but it is %d bytes long (truncated file?)",
+                        expectedFileSize, channel.size()));
+            }
+
+            this.contigRegion = new int[contigs.size()];
+            this.contigOffsetInRegion = new int[contigs.size()];
+            final List<MappedByteBuffer> mappedRegions = new ArrayList<>();
+            long regionStart = dataStart;
+            long regionSize = 0;
+            for ( int i = 0; i < contigs.size(); i++ ) {
+                final int contigLength = contigs.get(i).getSequenceLength();
+                if ( regionSize + contigLength > Integer.MAX_VALUE ) {
+                    mappedRegions.add(channel.map(FileChannel.MapMode.READ_ONLY, regionStart, regionSize));
+                    regionStart += regionSize;
+                    regionSize = 0;
+                }
+                contigRegion[i] = mappedRegions.size();
+                contigOffsetInRegion[i] = (int) regionSize;
+                regionSize += contigLength;
+            }
+            mappedRegions.add(channel.map(FileChannel.MapMode.READ_ONLY, regionStart, regionSize));
+            this.regions = mappedRegions.toArray(new MappedByteBuffer[0]);
+        } catch ( final IOException e ) {
+            throw new UserException.CouldNotReadInputFile(packedPath, e);
+        }
+        // the mappings remain valid after the channel is closed
+    }
+
+    /**
+     * Validate the magic number and version of the file
+     *
+     * @return the length of the sequence dictionary in bytes
+     */
+    private int readHeader(final FileChannel channel) throws IOException {
+        final ByteBuffer header = readFully(channel, 0, MAGIC.length + Integer.BYTES);
+        final byte[] magic = new byte[MAGIC.length];
+        header.get(magic);
+        if ( ! Arrays.equals(magic, MAGIC) ) {
+            throw new UserException.MalformedFile(packedPath, "not a packed reference file (bad magic number)");
+        }
+        final int version = header.getInt();
+        if ( version != FORMAT_VERSION ) {
+            throw new UserException.MalformedFile(packedPath, String.format("unsupported packed reference format version %d (expected %d). Please re-create it with this version of GATK.",
+                    version, FORMAT_VERSION));
+        }
+        return readFully(channel, MAGIC.length + Integer.BYTES, Integer.BYTES).getInt();
+    }
+
+    private SAMSequenceDictionary readSequenceDictionary(final FileChannel channel, final int dictionaryLength) throws IOException {
+        final ByteBuffer dictionaryBytes = readFully(channel, MAGIC.length + 2L * Integer.BYTES, dictionaryLength);
+        final String dictionaryText = StandardCharsets.UTF_8.decode(dictionaryBytes).toString();
+        return new SAMTextHeaderCodec()
+                .decode(BufferedLineReader.fromString(dictionaryText), packedPath.toString())
+                .getSequenceDictionary();
+    }
+
+    private ByteBuffer readFully(final FileChannel channel, final long position, final int length) throws IOException {
+        if ( length < 0 || position + length > channel.size() ) {
+            throw new UserException.MalformedFile(packedPath, "packed reference header is truncated or corrupt");
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        while ( buffer.hasRemaining() ) {
+            if ( channel.read(buffer, position + buffer.position()) < 0 ) {
+                throw new UserException.MalformedFile(packedPath, "unexpected end of file in packed reference header");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static long alignDataStart(final long headerEnd) {
+        return (headerEnd + DATA_ALIGNMENT - 1) / DATA_ALIGNMENT * DATA_ALIGNMENT;
+    }
+
+    /**
+     * Create a packed reference from a fasta file.
+     *
+     * The bases are normalized exactly as by {@link ReferenceFileSource} (IUPAC codes converted to N, and lower-case
+     * bases capitalized), so that queries on the packed reference return the same bases as queries on the fasta.
+     *
+     * @param fastaPath reference fasta, with companion .fai and .dict files
+     * @param packedPath where to write the packed reference
+     */
+    public static void createPackedReference(final Path fastaPath, final Path packedPath) {
+        Utils.nonNull(fastaPath);
+        Utils.nonNull(packedPath);
+
+        try ( final ReferenceDataSource fasta = new ReferenceFileSource(fastaPath);
+              final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(packedPath), CREATION_WINDOW_SIZE)) ) {
+            final SAMSequenceDictionary dictionary = fasta.getSequenceDictionary();
+            final StringWriter dictionaryText = new StringWriter();
+            new SAMTextHeaderCodec().encode(dictionaryText, new SAMFileHeader(dictionary));
+            final byte[] dictionaryBytes = dictionaryText.toString().getBytes(StandardCharsets.UTF_8);
+
+            out.write(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(dictionaryBytes.length);
+            out.write(dictionaryBytes);
+            final long headerEnd = MAGIC.length + 2L * Integer.BYTES + dictionaryBytes.length;
+            out.write(new byte[(int) (alignDataStart(headerEnd) - headerEnd)]);
+
+            for ( final SAMSequenceRecord contig : dictionary.getSequences() ) {
+                for ( long start = 1; start <= contig.getSequenceLength(); start += CREATION_WINDOW_SIZE ) {
+                    final long end = Math.min(start + CREATION_WINDOW_SIZE - 1, contig.getSequenceLength());
+                    out.write(fasta.queryAndPrefetch(contig.getSequenceName(), start, end).getBases());
+                }
+            }
+        } catch ( final IOException e ) {
+            throw new UserException.CouldNotCreateOutputFile(packedPath.toString(), "error writing packed reference", e);
+        }
+    }
+
+    /**
+     * Start an iteration over the entire reference. Not yet supported!
+     *
+     * See the BaseUtils class for guidance on how to work with bases in this format.
+     *
+     * @return iterator over all bases in this reference
+     */
+    @Override
+    public Iterator<Byte> iterator() {
+        throw new UnsupportedOperationException("Iteration over entire reference not yet implemented");
+    }
+
+    /**
+     * Query a specific interval on this reference, and get back all bases spanning that interval at once.
+     * Call getBases() on the returned ReferenceSequence to get the actual reference bases. See the BaseUtils
+     * class for guidance on how to work with bases in this format.
+     *
+     * The bases are copied directly out of the mapped file, so this involves no I/O if the pages are already
+     * in the OS page cache. Prefer {@link #queryAsBuffer} to avoid the copy.
+     *
+     * @param contig query interval contig
+     * @param start query interval start
+     * @param stop query interval stop (included)
+     * @return a ReferenceSequence containing all bases spanning the query interval, prefetched
+     */
+    @Override
+    public ReferenceSequence queryAndPrefetch( final String contig, final long start , final long stop) {
+        final int contigIndex = getContigIndex(contig, start, stop);
+        final byte[] bases = new byte[(int) (stop - start + 1)];
+        regions[contigRegion[contigIndex]].get(contigOffsetInRegion[contigIndex] + (int) (start - 1), bases);
+        return new ReferenceSequence(contig, contigIndex, bases);
+    }
+
+    /**
+     * Query a specific interval on this reference, and get back a read-only view of the bases spanning that
+     * interval, backed directly by the mapped file.
+     *
+     * @param contig query interval contig
+     * @param start query interval start
+     * @param stop query interval stop (included)
+     * @return a read-only buffer positioned at the first base of the interval, with the last base as its limit
+     */
+    @Override
+    public ByteBuffer queryAsBuffer( final String contig, final long start, final long stop ) {
+        final int contigIndex = getContigIndex(contig, start, stop);
+        return regions[contigRegion[contigIndex]].slice(contigOffsetInRegion[contigIndex] + (int) (start - 1), (int) (stop - start + 1));
+    }
+
+    private int getContigIndex( final String contig, final long start, final long stop ) {
+        final int contigIndex = sequenceDictionary.getSequenceIndex(contig);
+        Utils.validateArg(contigIndex >= 0, () -> String.format("Contig %s not found in packed reference %s", contig, packedPath));
+        final int contigLength = sequenceDictionary.getSequence(contigIndex).getSequenceLength();
+        Utils.validateArg(start >= 1, () -> String.format("Asking for start %d < 1 on contig %s", start, contig));
+        Utils.validateArg(stop <= contigLength, () -> String.format("Asking for stop %d on contig %s but it is only %d bases long", stop, contig, contigLength));
+        Utils.validateArg(stop >= start - 1, () -> String.format("Asking for stop<start (%d < %d)", stop, start));
+        return contigIndex;
+    }
+
+    /**
+     * Get the sequence dictionary for this reference
+     *
+     * @return SAMSequenceDictionary for this reference
+     */
+    @Override
+    public SAMSequenceDictionary getSequenceDictionary() {
+        return sequenceDictionary;
+    }
+
+    /**
+     * Queries only read from immutable mapped buffers using absolute positions, so they need no synchronization
+     */
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    /**
+     * No-op: the file is not kept open, and the mappings are released once this object is garbage collected.
+     */
+    @Override
+    public void close() {}
+}
@@ -21,7 +21,8 @@ import java.util.function.LongSupplier;
  * Note that {@link #start} must only be called once, before any {@link #update(Locatable)}.
  * Note no {@link #update(Locatable)} must be called after {@link #stop}.
  *
- * All output is made at INFO level via log4j.
+ * All output is made at INFO level via log4j. If a {@link RuntimeMetricsSink} is attached via {@link #setMetricsSink},
+ * a machine-readable snapshot is also written to it each time a progress line is output, and at {@link #stop}.
  */
 public final class ProgressMeter {
     protected static final Logger logger = LogManager.getLogger(ProgressMeter.class);
@@ -131,6 +132,11 @@ public final class ProgressMeter {
      */
     private String recordLabel = DEFAULT_RECORD_LABEL;
 
+    /**
+     * Sink to which to write a metrics snapshot along with each progress line, or null for none.
+     */
+    private RuntimeMetricsSink metricsSink = null;
+
     /**
      * Create a progress meter with the default update interval of {@link #DEFAULT_SECONDS_BETWEEN_UPDATES} seconds
      * and the default time function {@link #DEFAULT_TIME_FUNCTION}.
@@ -215,6 +221,16 @@ public final class ProgressMeter {
         this.recordLabel = label;
     }
 
+    /**
+     * Attach a sink to which to write a runtime metrics snapshot along with each progress line, and at {@link #stop}.
+     * The sink remains owned by the caller, who must close it.
+     *
+     * @param metricsSink sink to write snapshots to, or null to stop writing snapshots
+     */
+    public void setMetricsSink( final RuntimeMetricsSink metricsSink ) {
+        this.metricsSink = metricsSink;
+    }
+
     /**
      * Start the progress meter and produce preliminary output such as column headings.
      * @throws IllegalStateException if the meter has been started before or has been stopped already
@@ -258,7 +274,7 @@ public final class ProgressMeter {
             this.currentLocus = currentLocus;
 
             if ( secondsSinceLastPrint() >= secondsBetweenUpdates ) {
-                printProgress();
+                printProgress(RuntimeMetricsSink.PROGRESS_EVENT);
                 lastPrintTimeMs = currentTimeMs;
             }
         }
@@ -285,7 +301,7 @@ public final class ProgressMeter {
             currentTimeMs = timeFunction.getAsLong();
             this.currentLocus = currentLocus;
             if ( secondsSinceLastPrint() >= secondsBetweenUpdates ) {
-                printProgress();
+                printProgress(RuntimeMetricsSink.PROGRESS_EVENT);
                 lastPrintTimeMs = currentTimeMs;
             }
         }
@@ -305,7 +321,7 @@ public final class ProgressMeter {
         this.stopped = true;
         currentTimeMs = timeFunction.getAsLong();
         // Output progress a final time at the end
-        printProgress();
+        printProgress(RuntimeMetricsSink.TRAVERSAL_COMPLETE_EVENT);
         logger.info(String.format("Traversal complete. Processed %d total %s in %.1f minutes.", numRecordsProcessed, recordLabel, elapsedTimeInMinutes()));
     }
 
@@ -320,12 +336,17 @@ public final class ProgressMeter {
     }
 
     /**
-     * Output traversal statistics to the logger.
+     * Output traversal statistics to the logger, and to our metrics sink if we have one.
+     *
+     * @param metricsEvent event name for the metrics snapshot
      */
-    private void printProgress() {
+    private void printProgress( final String metricsEvent ) {
         ++numLoggerUpdates;
         logger.info(String.format("%20s  %15.1f  %20d  %15.1f",
                                   currentLocusString(), elapsedTimeInMinutes(), numRecordsProcessed, processingRate()));
+        if ( metricsSink != null ) {
+            metricsSink.writeSnapshot(metricsEvent, currentTimeMs - startTimeMs, recordLabel, numRecordsProcessed, currentLocus);
+        }
     }
 
     /**
@@ -1,14 +1,23 @@
 package org.broadinstitute.hellbender.engine;
 
 import htsjdk.samtools.SAMSequenceDictionary;
+import org.broadinstitute.barclay.argparser.Advanced;
+import org.broadinstitute.barclay.argparser.Argument;
+import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.hellbender.engine.filters.CountingReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.engine.filters.WellformedReadFilter;
+import org.broadinstitute.hellbender.transformers.ReadTransformer;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.runtime.OrderedParallelExecutor;
+import org.broadinstitute.hellbender.utils.runtime.StageTimer;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Predicate;
 
 /**
  * A ReadWalker is a tool that processes a single read at a time from one or multiple sources of reads, with
@@ -24,9 +33,35 @@ import java.util.List;
  *
  * ReadWalker authors must implement the apply() method to process each read, and may optionally implement
  * onTraversalStart() and/or onTraversalSuccess(). See the PrintReadsWithReference walker for an example.
+ *
+ * Tools that override {@link #supportsConcurrentApply} and {@link #applyConcurrently} can process reads on multiple
+ * threads when run with --{@value #READ_WALKER_THREADS_LONG_NAME}. In that mode reads are still decoded, pre-transformed
+ * and filtered on the traversal thread, but are then post-transformed and processed in batches on a pool of worker
+ * threads. The results for each read are emitted on the traversal thread in the original order of the reads.
  */
 public abstract class ReadWalker extends WalkerBase {
 
+    public static final String READ_WALKER_THREADS_LONG_NAME = "read-walker-threads";
+
+    /**
+     * Number of reads handed to a worker thread at a time in multi-threaded mode.
+     */
+    private static final int READS_PER_BATCH = 1_000;
+
+    /**
+     * Maximum number of batches per worker thread that may be in flight at once in multi-threaded mode. Together
+     * with {@link #READS_PER_BATCH}, bounds the size of the buffer used to restore the original order of the reads.
+     */
+    private static final int PENDING_BATCHES_PER_THREAD = 4;
+
+    /**
+     * Number of threads used to process reads. Values greater than 1 are only supported by tools
+     * that implement {@link #applyConcurrently}. Output is identical to the single-threaded mode.
+     */
+    @Advanced
+    @Argument(fullName = READ_WALKER_THREADS_LONG_NAME, doc = "Number of threads to use for processing reads (only supported by some tools)", optional = true, minValue = 1)
+    protected int readWalkerThreads = 1;
+
     @Override
     public boolean requiresReads() {
         return true;
@@ -50,6 +85,10 @@ public abstract class ReadWalker extends WalkerBase {
     protected final void onStartup() {
         super.onStartup();
 
+        if ( readWalkerThreads > 1 && ! supportsConcurrentApply() ) {
+            throw new CommandLineException.BadArgumentValue(READ_WALKER_THREADS_LONG_NAME, String.valueOf(readWalkerThreads),
+                    "this tool does not support processing reads on multiple threads");
+        }
         setReadTraversalBounds();
     }
 
@@ -94,19 +133,94 @@ public abstract class ReadWalker extends WalkerBase {
         // Process each read in the input stream.
         // Supply reference bases spanning each read, if a reference is available.
         final CountingReadFilter countedFilter = makeReadFilter();
-        getTransformedReadStream(countedFilter)
-                .forEach(read -> {
-                    final SimpleInterval readInterval = getReadInterval(read);
-                    apply(read,
-                          new ReferenceContext(reference, readInterval), // Will create an empty ReferenceContext if reference or readInterval == null
-                          new FeatureContext(features, readInterval));   // Will create an empty FeatureContext if features or readInterval == null
+        if ( readWalkerThreads > 1 ) {
+            traverseConcurrently(countedFilter);
+        } else {
+            getTransformedReadStream(countedFilter)
+                    .forEach(read -> {
+                        final SimpleInterval readInterval = getReadInterval(read);
+                        final long applyStartNanos = stageTimer.start();
+                        apply(read,
+                              new ReferenceContext(reference, readInterval), // Will create an empty ReferenceContext if reference or readInterval == null
+                              new FeatureContext(features, readInterval));   // Will create an empty FeatureContext if features or readInterval == null
+                        stageTimer.stop(StageTimer.Stage.APPLY, applyStartNanos);
 
-                    progressMeter.update(readInterval);
-                });
+                        progressMeter.update(readInterval);
+                    });
+        }
 
         logger.info(countedFilter.getSummaryLine());
     }
 
+    /**
+     * Multi-threaded version of the traversal. Reads are decoded, pre-transformed and filtered on this thread (the reads
+     * data source and the counting filter are not thread-safe), then grouped into batches that are post-transformed and
+     * handed to {@link #applyConcurrently} on a pool of worker threads. The per-read results are emitted back on this
+     * thread in the original order of the reads, and the progress meter is updated as each read is emitted.
+     *
+     * Post-read-filter transformers may keep per-read state, so {@link #makePostReadFilterTransformer} is called once
+     * per worker thread to give each worker its own instance.
+     *
+     * Workers query features through the {@link FeatureManager}, which serializes access to each feature source and
+     * fully decodes the genotypes of the variants it returns.
+     */
+    private void traverseConcurrently(final CountingReadFilter countedFilter) {
+        final ReadTransformer preTransformer = makePreReadFilterTransformer();
+        final ThreadLocal<ReadTransformer> postTransformers = ThreadLocal.withInitial(this::makePostReadFilterTransformer);
+        final ReferenceDataSource sharedReference = reference != null ? SynchronizedReferenceDataSource.makeThreadSafe(reference) : null;
+        if ( features != null ) {
+            // cached feature records may be handed to several workers, so their genotypes can't be decoded lazily
+            features.setDecodeGenotypesOnQuery(true);
+        }
+
+        try ( final OrderedParallelExecutor<Runnable> batchExecutor = new OrderedParallelExecutor<>("read-walker-worker",
+                readWalkerThreads, readWalkerThreads * PENDING_BATCHES_PER_THREAD, Runnable::run) ) {
+            List<GATKRead> batch = new ArrayList<>(READS_PER_BATCH);
+            final Iterator<GATKRead> readIterator = stageTimer.timeIterator(reads.iterator(), StageTimer.Stage.READ_DECODING);
+            final Predicate<GATKRead> timedFilter = stageTimer.timePredicate(countedFilter, StageTimer.Stage.FILTERING);
+            while ( readIterator.hasNext() ) {
+                final GATKRead transformedRead = preTransformer.apply(readIterator.next());
+                if ( timedFilter.test(transformedRead) ) {
+                    batch.add(transformedRead);
+                    if ( batch.size() == READS_PER_BATCH ) {
+                        submitReadBatch(batchExecutor, batch, postTransformers, sharedReference);
+                        batch = new ArrayList<>(READS_PER_BATCH);
+                    }
+                }
+            }
+            if ( ! batch.isEmpty() ) {
+                submitReadBatch(batchExecutor, batch, postTransformers, sharedReference);
+            }
+
+            batchExecutor.drain();
+        }
+    }
+
+    private void submitReadBatch(final OrderedParallelExecutor<Runnable> batchExecutor, final List<GATKRead> batch,
+                                 final ThreadLocal<ReadTransformer> postTransformers, final ReferenceDataSource sharedReference) {
+        batchExecutor.submit(() -> {
+            final ReadTransformer postTransformer = postTransformers.get();
+            final Runnable[] emitResults = new Runnable[batch.size()];
+            final SimpleInterval[] readIntervals = new SimpleInterval[batch.size()];
+            for ( int i = 0; i < batch.size(); i++ ) {
+                final GATKRead read = postTransformer.apply(batch.get(i));
+                readIntervals[i] = getReadInterval(read);
+                final long applyStartNanos = stageTimer.start();
+                emitResults[i] = applyConcurrently(read,
+                        new ReferenceContext(sharedReference, readIntervals[i]),
+                        new FeatureContext(features, readIntervals[i]));
+                stageTimer.stop(StageTimer.Stage.APPLY, applyStartNanos);
+            }
+
+            return () -> {
+                for ( int i = 0; i < emitResults.length; i++ ) {
+                    emitResults[i].run();
+                    progressMeter.update(readIntervals[i]);
+                }
+            };
+        });
+    }
+
     /**
      * Returns an interval for the read.
      * Note: some walkers must be able to work on any read, including those whose coordinates do not form a valid SimpleInterval.
@@ -161,6 +275,35 @@ public abstract class ReadWalker extends WalkerBase {
      */
     public abstract void apply( GATKRead read, ReferenceContext referenceContext, FeatureContext featureContext );
 
+    /**
+     * @return true if this tool implements {@link #applyConcurrently}, and can therefore be run with
+     *         --{@value #READ_WALKER_THREADS_LONG_NAME} greater than 1. The default implementation returns false.
+     */
+    public boolean supportsConcurrentApply() {
+        return false;
+    }
+
+    /**
+     * Process an individual read on a worker thread. Used instead of {@link #apply} when the tool is run with
+     * --{@value #READ_WALKER_THREADS_LONG_NAME} greater than 1, in which case it is called concurrently for several
+     * reads at once and must therefore be thread-safe.
+     *
+     * Implementations should do all of the expensive per-read work here, and return an action that emits the results
+     * (for example, by writing the read to the tool's output). The engine runs the returned actions one at a time on
+     * the traversal thread, in the original order of the reads, so they do not need to be thread-safe.
+     *
+     * Tools that override this method must also override {@link #supportsConcurrentApply} to return true.
+     * The default implementation throws {@link UnsupportedOperationException}.
+     *
+     * @param read current read
+     * @param referenceContext Reference bases spanning the current read, as for {@link #apply}
+     * @param featureContext Features spanning the current read, as for {@link #apply}
+     * @return an action emitting the results for this read, to be run on the traversal thread. Never {@code null}.
+     */
+    public Runnable applyConcurrently( GATKRead read, ReferenceContext referenceContext, FeatureContext featureContext ) {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support processing reads on multiple threads");
+    }
+
     /**
      * Shutdown data sources.
      *
@@ -1,6 +1,8 @@
 package org.broadinstitute.hellbender.engine;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Iterators;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import htsjdk.samtools.MergingSamRecordIterator;
 import htsjdk.samtools.SAMException;
 import htsjdk.samtools.SAMFileHeader;
@@ -20,6 +22,7 @@ import org.broadinstitute.hellbender.utils.IntervalUtils;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
+import org.broadinstitute.hellbender.utils.iterators.PrefetchingIterator;
 import org.broadinstitute.hellbender.utils.iterators.SAMRecordToReadIterator;
 import org.broadinstitute.hellbender.utils.iterators.SamReaderQueryingIterator;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
@@ -35,6 +38,8 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -46,10 +51,19 @@ import java.util.stream.Collectors;
  *
  * -Iteration over all reads, optionally restricted to reads that overlap a set of intervals
  * -Targeted queries by one interval at a time
+ *
+ * If read prefetching is enabled (see {@link #ReadsPathDataSource(List, List, SamReaderFactory, int, int, int)}),
+ * records for both kinds of operations are read, decompressed and fully decoded on a background thread, ahead of
+ * the caller, and handed to the caller in batches of {@link #PREFETCH_BATCH_SIZE} reads.
  */
 public final class ReadsPathDataSource implements ReadsDataSource {
     private static final Logger logger = LogManager.getLogger(ReadsPathDataSource.class);
 
+    /**
+     * Number of reads handed from the prefetching thread to the caller at a time, when prefetching is enabled.
+     */
+    public static final int PREFETCH_BATCH_SIZE = 1_000;
+
     /**
      * Mapping from SamReaders to iterators over the reads from each reader. Only one
      * iterator can be open from a given reader at a time (this is a restriction
@@ -97,6 +111,22 @@ public final class ReadsPathDataSource implements ReadsDataSource {
      */
     private boolean isClosed;
 
+    /**
+     * Maximum number of batches of {@link #PREFETCH_BATCH_SIZE} reads to decode ahead of the caller on a
+     * background thread. 0 if prefetching is disabled.
+     */
+    private final int prefetchBatches;
+
+    /**
+     * Runs the background prefetching task for the currently open iteration. Created on first use.
+     */
+    private ExecutorService prefetchExecutor;
+
+    /**
+     * The currently open prefetching iterator, if any. Must be closed before the underlying reader iterators.
+     */
+    private PrefetchingIterator<GATKRead> activePrefetchingIterator;
+
     /**
      * Initialize this data source with a single SAM/BAM file and validation stringency SILENT.
      *
@@ -178,9 +208,31 @@ public final class ReadsPathDataSource implements ReadsDataSource {
     public ReadsPathDataSource( final List<Path> samPaths, final List<Path> samIndices,
                                SamReaderFactory customSamReaderFactory,
                                int cloudPrefetchBuffer, int cloudIndexPrefetchBuffer) {
+        this(samPaths, samIndices, customSamReaderFactory, cloudPrefetchBuffer, cloudIndexPrefetchBuffer, 0);
+    }
+
+    /**
+     * Initialize this data source with multiple SAM/BAM/CRAM files, explicit indices for those files,
+     * a custom SamReaderFactory, and optional background prefetching of reads.
+     *
+     * @param samPaths paths to SAM/BAM/CRAM files, not null
+     * @param samIndices indices for all of the SAM/BAM/CRAM files, in the same order as samPaths. May be null,
+     *                   in which case index paths are inferred automatically.
+     * @param customSamReaderFactory SamReaderFactory to use, if null a default factory with no reference and validation
+     *                               stringency SILENT is used.
+     * @param cloudPrefetchBuffer MB size of caching/prefetching wrapper for the data, if on Google Cloud (0 to disable).
+     * @param cloudIndexPrefetchBuffer MB size of caching/prefetching wrapper for the index, if on Google Cloud (0 to disable).
+     * @param prefetchBatches maximum number of batches of {@link #PREFETCH_BATCH_SIZE} reads to read and decode ahead
+     *                        of the caller on a background thread (0 to disable).
+     */
+    public ReadsPathDataSource( final List<Path> samPaths, final List<Path> samIndices,
+                               SamReaderFactory customSamReaderFactory,
+                               int cloudPrefetchBuffer, int cloudIndexPrefetchBuffer,
+                               int prefetchBatches) {
         this(samPaths, samIndices, customSamReaderFactory,
                 BucketUtils.getPrefetchingWrapper(cloudPrefetchBuffer),
-                BucketUtils.getPrefetchingWrapper(cloudIndexPrefetchBuffer) );
+                BucketUtils.getPrefetchingWrapper(cloudIndexPrefetchBuffer),
+                prefetchBatches);
     }
 
 
@@ -200,7 +252,31 @@ public final class ReadsPathDataSource implements ReadsDataSource {
                                SamReaderFactory customSamReaderFactory,
                                Function<SeekableByteChannel, SeekableByteChannel> cloudWrapper,
                                Function<SeekableByteChannel, SeekableByteChannel> cloudIndexWrapper ) {
+        this(samPaths, samIndices, customSamReaderFactory, cloudWrapper, cloudIndexWrapper, 0);
+    }
+
+    /**
+     * Initialize this data source with multiple SAM/BAM/CRAM files, explicit indices for those files,
+     * a custom SamReaderFactory, and optional background prefetching of reads.
+     *
+     * @param samPaths paths to SAM/BAM/CRAM files, not null
+     * @param samIndices indices for all of the SAM/BAM/CRAM files, in the same order as samPaths. May be null,
+     *                   in which case index paths are inferred automatically.
+     * @param customSamReaderFactory SamReaderFactory to use, if null a default factory with no reference and validation
+     *                               stringency SILENT is used.
+     * @param cloudWrapper caching/prefetching wrapper for the data, if on Google Cloud.
+     * @param cloudIndexWrapper caching/prefetching wrapper for the index, if on Google Cloud.
+     * @param prefetchBatches maximum number of batches of {@link #PREFETCH_BATCH_SIZE} reads to read and decode ahead
+     *                        of the caller on a background thread (0 to disable).
+     */
+    public ReadsPathDataSource( final List<Path> samPaths, final List<Path> samIndices,
+                               SamReaderFactory customSamReaderFactory,
+                               Function<SeekableByteChannel, SeekableByteChannel> cloudWrapper,
+                               Function<SeekableByteChannel, SeekableByteChannel> cloudIndexWrapper,
+                               final int prefetchBatches ) {
         Utils.nonNull(samPaths);
+        Utils.validateArg(prefetchBatches >= 0, "prefetchBatches must be >= 0");
+        this.prefetchBatches = prefetchBatches;
         Utils.nonEmpty(samPaths, "ReadsPathDataSource cannot be created from empty file list");
 
         if ( samIndices != null && samPaths.size() != samIndices.size() ) {
@@ -429,9 +505,30 @@ public final class ReadsPathDataSource implements ReadsDataSource {
             startingIterator = new MergingSamRecordIterator(headerMerger, readers, true);
         }
 
+        if ( prefetchBatches > 0 ) {
+            // Decode all lazily-decoded record fields on the prefetching thread, so that the caller doesn't pay for it
+            final Iterator<SAMRecord> decodingIterator = Iterators.transform(startingIterator, record -> {
+                record.eagerDecode();
+                return record;
+            });
+            activePrefetchingIterator = new PrefetchingIterator<>(new SAMRecordToReadIterator(decodingIterator),
+                    PREFETCH_BATCH_SIZE, prefetchBatches, getPrefetchExecutor());
+            return activePrefetchingIterator;
+        }
+
         return new SAMRecordToReadIterator(startingIterator);
     }
 
+    private ExecutorService getPrefetchExecutor() {
+        if ( prefetchExecutor == null ) {
+            // A single thread suffices, since htsjdk allows only one open iteration per reader
+            prefetchExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                    .setNameFormat("reads-prefetch-%d")
+                    .setDaemon(true).build());
+        }
+        return prefetchExecutor;
+    }
+
     /**
      * Reduce the intervals down to only include ones that can actually intersect with this reader
      */
@@ -493,6 +590,9 @@ public final class ReadsPathDataSource implements ReadsDataSource {
         }
         isClosed = true;
         closePreviousIterationsIfNecessary();
+        if ( prefetchExecutor != null ) {
+            prefetchExecutor.shutdownNow();
+        }
 
         try {
             for ( Map.Entry<SamReader, CloseableIterator<SAMRecord>> readerEntry : readers.entrySet() ) {
@@ -512,6 +612,12 @@ public final class ReadsPathDataSource implements ReadsDataSource {
      * Close any previously-opened iterations over our readers (htsjdk allows only one open iteration per reader).
      */
     private void closePreviousIterationsIfNecessary() {
+        // The prefetching thread must be stopped before the iterators it is reading from are closed
+        if ( activePrefetchingIterator != null ) {
+            activePrefetchingIterator.close();
+            activePrefetchingIterator = null;
+        }
+
         for ( Map.Entry<SamReader, CloseableIterator<SAMRecord>> readerEntry : readers.entrySet() ) {
             CloseableIterator<SAMRecord> readerIterator = readerEntry.getValue();
             if ( readerIterator != null ) {
@@ -9,6 +9,7 @@ import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.iterators.ByteArrayIterator;
 
+import java.nio.ByteBuffer;
 import java.util.Iterator;
 
 /**
@@ -203,6 +204,21 @@ public final class ReferenceContext implements Iterable<Byte>, Locatable, BasicR
         return cachedSequence.getBases();
     }
 
+    /**
+     * Get all reference bases in this context as a read-only buffer, from its position to its limit. Unlike
+     * {@link #getBases()}, does not cache the results, and does not copy the bases if the backing data source
+     * can expose them directly (see {@link ReferenceDataSource#queryAsBuffer}).
+     * Will always return an empty buffer if there is no backing data source and/or interval to query.
+     *
+     * @return reference bases in this context, as a read-only buffer
+     */
+    public ByteBuffer getBasesAsBuffer() {
+        if ( dataSource == null || window == null ) {
+            return ByteBuffer.allocate(0).asReadOnlyBuffer();
+        }
+        return cachedSequence != null ? ByteBuffer.wrap(cachedSequence.getBases()).asReadOnlyBuffer() : dataSource.queryAsBuffer(window);
+    }
+
     /**
      * Get all reference bases in this context with the given window.
      * Does not cache results or modify this {@link ReferenceContext} at all.
@@ -6,6 +6,7 @@ import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.iterators.ByteArrayIterator;
 import org.broadinstitute.hellbender.utils.reference.ReferenceBases;
 
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 import java.util.Iterator;
 
@@ -50,6 +51,15 @@ public interface ReferenceDataSource extends GATKDataSource<Byte>, AutoCloseable
         return new ReferenceMemorySource(bases, referenceSequenceDictionary);
     }
 
+    /**
+     * Initialize this data source using a packed reference file created by {@link PackedReferenceSource#createPackedReference}.
+     *
+     * @param packedPath packed reference Path, on a local filesystem
+     */
+    public static ReferenceDataSource ofPacked(final Path packedPath) {
+        return new PackedReferenceSource(packedPath);
+    }
+
     /**
      * Query a specific interval on this reference, and get back all bases spanning that interval at once.
      * Call getBases() on the returned ReferenceSequence to get the actual reference bases. See the BaseUtils
@@ -90,6 +100,43 @@ public interface ReferenceDataSource extends GATKDataSource<Byte>, AutoCloseable
         return new ByteArrayIterator(queryAndPrefetch(interval).getBases());
     }
 
+    /**
+     * Query a specific interval on this reference, and get back a read-only buffer over the bases spanning that
+     * interval, from its position to its limit.
+     *
+     * @param interval query interval
+     * @return read-only buffer over the bases spanning the query interval
+     */
+    default public ByteBuffer queryAsBuffer(final SimpleInterval interval) {
+        return queryAsBuffer(interval.getContig(), interval.getStart(), interval.getEnd());
+    }
+
+    /**
+     * Query a specific interval on this reference, and get back a read-only buffer over the bases spanning that
+     * interval, from its position to its limit.
+     *
+     * The default implementation wraps the bases returned by {@link #queryAndPrefetch(String, long, long)}. Data
+     * sources that can do so without copying (such as {@link PackedReferenceSource}) should override.
+     *
+     * @param contig query interval contig
+     * @param start query interval start
+     * @param stop query interval stop (included)
+     * @return read-only buffer over the bases spanning the query interval
+     */
+    default public ByteBuffer queryAsBuffer(final String contig, final long start, final long stop) {
+        return ByteBuffer.wrap(queryAndPrefetch(contig, start, stop).getBases()).asReadOnlyBuffer();
+    }
+
+    /**
+     * Can this data source be queried from multiple threads at once without external synchronization?
+     * The default implementation returns {@code false}.
+     *
+     * @return {@code true} if this data source is thread-safe, {@code false} otherwise
+     */
+    default public boolean isThreadSafe() {
+        return false;
+    }
+
     /**
      * Get the sequence dictionary for this reference
      *
@@ -0,0 +1,129 @@
+package org.broadinstitute.hellbender.engine;
+
+import htsjdk.samtools.util.Locatable;
+import htsjdk.tribble.Feature;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.runtime.StageTimer;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes machine-readable snapshots of the state of a traversal to a file, one JSON object per line.
+ *
+ * A snapshot is written each time the {@link ProgressMeter} this sink is attached to outputs a progress line,
+ * and once more when it is stopped, so the cost of collecting metrics is incurred only every few seconds.
+ * Each snapshot contains:
+ *
+ * - the number of records processed so far and the current locus
+ * - heap usage and cumulative garbage collection counts and times
+ * - the cumulative wall-clock time spent in each {@link StageTimer.Stage} (as reported by the engine and writers)
+ * - the query cache hits and misses of each Feature input
+ *
+ * Snapshots are flushed as they are written, so that the file is useful even if the tool does not complete.
+ */
+public final class RuntimeMetricsSink implements AutoCloseable {
+
+    /**
+     * Value of the "event" field for snapshots written during the traversal
+     */
+    public static final String PROGRESS_EVENT = "progress";
+
+    /**
+     * Value of the "event" field for the snapshot written when the traversal completes
+     */
+    public static final String TRAVERSAL_COMPLETE_EVENT = "traversalComplete";
+
+    private final GATKPath outputPath;
+    private final PrintWriter writer;
+    private final StageTimer stageTimer;
+    private final FeatureManager features;
+    private final List<GarbageCollectorMXBean> garbageCollectors = ManagementFactory.getGarbageCollectorMXBeans();
+
+    /**
+     * @param outputPath where to write the snapshots
+     * @param stageTimer timer from which to report per-stage times
+     * @param features source of Feature cache statistics. May be null if the tool has no Feature inputs.
+     */
+    public RuntimeMetricsSink(final GATKPath outputPath, final StageTimer stageTimer, final FeatureManager features) {
+        this.outputPath = Utils.nonNull(outputPath);
+        this.stageTimer = Utils.nonNull(stageTimer);
+        this.features = features;
+        this.writer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(outputPath.getOutputStream(), StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Write a snapshot of the current state of the traversal
+     *
+     * @param event kind of snapshot ({@link #PROGRESS_EVENT} or {@link #TRAVERSAL_COMPLETE_EVENT})
+     * @param elapsedMillis time elapsed since the start of the traversal
+     * @param recordLabel label of the records being counted (eg., "reads")
+     * @param recordsProcessed number of records processed so far
+     * @param currentLocus location of the most recently processed record, or null if unknown or unmapped
+     */
+    public void writeSnapshot(final String event, final long elapsedMillis, final String recordLabel,
+                              final long recordsProcessed, final Locatable currentLocus) {
+        final JSONObject snapshot = new JSONObject();
+        snapshot.put("event", event);
+        snapshot.put("timestampMillis", System.currentTimeMillis());
+        snapshot.put("elapsedMillis", elapsedMillis);
+        snapshot.put("recordLabel", recordLabel);
+        snapshot.put("recordsProcessed", recordsProcessed);
+        snapshot.put("currentLocus", currentLocus != null ? currentLocus.getContig() + ":" + currentLocus.getStart() : JSONObject.NULL);
+
+        final Runtime runtime = Runtime.getRuntime();
+        snapshot.put("heapUsedBytes", runtime.totalMemory() - runtime.freeMemory());
+        snapshot.put("heapCommittedBytes", runtime.totalMemory());
+        snapshot.put("heapMaxBytes", runtime.maxMemory());
+
+        long gcCount = 0;
+        long gcMillis = 0;
+        for ( final GarbageCollectorMXBean garbageCollector : garbageCollectors ) {
+            // both are -1 if undefined for this collector
+            gcCount += Math.max(0, garbageCollector.getCollectionCount());
+            gcMillis += Math.max(0, garbageCollector.getCollectionTime());
+        }
+        snapshot.put("gcCount", gcCount);
+        snapshot.put("gcMillis", gcMillis);
+
+        final JSONObject stageMillis = new JSONObject();
+        for ( final StageTimer.Stage stage : StageTimer.Stage.values() ) {
+            stageMillis.put(stage.getMetricName(), stageTimer.getCumulativeNanos(stage) / 1_000_000L);
+        }
+        snapshot.put("stageWallTimeMillis", stageMillis);
+
+        final JSONArray featureCaches = new JSONArray();
+        if ( features != null ) {
+            for ( final FeatureDataSource<? extends Feature> dataSource : features.getAllDataSources() ) {
+                final int hits = dataSource.getNumCacheHits();
+                final int misses = dataSource.getNumCacheMisses();
+                final JSONObject cacheStats = new JSONObject();
+                cacheStats.put("source", dataSource.getName());
+                cacheStats.put("hits", hits);
+                cacheStats.put("misses", misses);
+                cacheStats.put("hitRate", hits + misses > 0 ? (double) hits / (hits + misses) : 0.0);
+                featureCaches.put(cacheStats);
+            }
+        }
+        snapshot.put("featureCaches", featureCaches);
+
+        writer.println(snapshot.toString());
+        writer.flush();
+        if ( writer.checkError() ) {
+            throw new UserException.CouldNotCreateOutputFile(outputPath, "error writing runtime metrics");
+        }
+    }
+
+    @Override
+    public void close() {
+        writer.close();
+    }
+}
@@ -0,0 +1,53 @@
+package org.broadinstitute.hellbender.engine;
+
+import org.broadinstitute.hellbender.engine.filters.ReadFilter;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A source of reads for {@link ReadsContext} objects handed to worker threads in the multi-threaded variant traversal.
+ *
+ * Each query reads and filters all of the reads overlapping the query interval while holding a lock, since neither the
+ * wrapped (non-thread-safe) reads data source nor a counting read filter may be used by several threads at once.
+ * Callers consume the returned reads without holding the lock.
+ */
+final class SynchronizedReadsContextSource implements GATKDataSource<GATKRead> {
+
+    private final ReadsDataSource delegate;
+    private final ReadFilter readFilter;
+
+    /**
+     * @param delegate reads data source to wrap. Must not be used directly by any other thread once wrapped.
+     * @param readFilter filter to apply to the reads returned by queries (may be null)
+     */
+    SynchronizedReadsContextSource(final ReadsDataSource delegate, final ReadFilter readFilter) {
+        this.delegate = Utils.nonNull(delegate);
+        this.readFilter = readFilter;
+    }
+
+    @Override
+    public synchronized Iterator<GATKRead> query(final SimpleInterval interval) {
+        final List<GATKRead> overlappingReads = new ArrayList<>();
+        final Iterator<GATKRead> readIterator = delegate.query(interval);
+        while ( readIterator.hasNext() ) {
+            final GATKRead read = readIterator.next();
+            if ( readFilter == null || readFilter.test(read) ) {
+                overlappingReads.add(read);
+            }
+        }
+        return overlappingReads.iterator();
+    }
+
+    /**
+     * Iteration over all reads is not supported, since it cannot be done without holding the lock.
+     */
+    @Override
+    public Iterator<GATKRead> iterator() {
+        throw new UnsupportedOperationException("Only interval queries are supported on a shared source of reads");
+    }
+}
@@ -0,0 +1,82 @@
+package org.broadinstitute.hellbender.engine;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.reference.ReferenceSequence;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+
+/**
+ * A {@link ReferenceDataSource} that serializes all queries against a wrapped (non-thread-safe) data source,
+ * so that {@link ReferenceContext} objects handed to worker threads in the multi-threaded traversals
+ * can share a single underlying reference reader.
+ *
+ * Queries return prefetched bases, so no lock is held while callers consume the results.
+ */
+public final class SynchronizedReferenceDataSource implements ReferenceDataSource {
+
+    private final ReferenceDataSource delegate;
+
+    /**
+     * @param delegate data source to wrap. Must not be used directly by any other thread once wrapped.
+     */
+    public SynchronizedReferenceDataSource(final ReferenceDataSource delegate) {
+        this.delegate = Utils.nonNull(delegate);
+    }
+
+    /**
+     * @param dataSource data source to share between threads
+     * @return {@code dataSource} itself if it is already thread-safe, otherwise a synchronized wrapper around it
+     */
+    public static ReferenceDataSource makeThreadSafe(final ReferenceDataSource dataSource) {
+        return Utils.nonNull(dataSource).isThreadSafe() ? dataSource : new SynchronizedReferenceDataSource(dataSource);
+    }
+
+    @Override
+    public synchronized Iterator<Byte> iterator() {
+        return delegate.iterator();
+    }
+
+    @Override
+    public synchronized Iterator<Byte> query(final SimpleInterval interval) {
+        return delegate.query(interval);
+    }
+
+    @Override
+    public synchronized ReferenceSequence queryAndPrefetch(final SimpleInterval interval) {
+        return delegate.queryAndPrefetch(interval);
+    }
+
+    @Override
+    public synchronized ReferenceSequence queryAndPrefetch(final String contig, final long start, final long stop) {
+        return delegate.queryAndPrefetch(contig, start, stop);
+    }
+
+    @Override
+    public synchronized ByteBuffer queryAsBuffer(final SimpleInterval interval) {
+        return delegate.queryAsBuffer(interval);
+    }
+
+    @Override
+    public synchronized ByteBuffer queryAsBuffer(final String contig, final long start, final long stop) {
+        return delegate.queryAsBuffer(contig, start, stop);
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    @Override
+    public SAMSequenceDictionary getSequenceDictionary() {
+        return delegate.getSequenceDictionary();
+    }
+
+    /**
+     * Does not close the wrapped data source, which remains owned by whoever created it.
+     */
+    @Override
+    public void close() {}
+}
@@ -3,13 +3,22 @@ package org.broadinstitute.hellbender.engine;
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFHeader;
+import org.broadinstitute.hellbender.engine.filters.CountingReadFilter;
 import org.broadinstitute.hellbender.engine.filters.CountingVariantFilter;
 import org.broadinstitute.hellbender.engine.filters.VariantFilter;
 import org.broadinstitute.hellbender.engine.filters.VariantFilterLibrary;
 import org.broadinstitute.hellbender.tools.genomicsdb.GenomicsDBOptions;
 import org.broadinstitute.hellbender.transformers.VariantTransformer;
 import org.broadinstitute.hellbender.utils.IndexUtils;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.runtime.OrderedParallelExecutor;
+import org.broadinstitute.hellbender.utils.runtime.StageTimer;
+import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Spliterator;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
@@ -34,6 +43,20 @@ public abstract class VariantWalkerBase extends WalkerBase {
      */
     public static final int DEFAULT_DRIVING_VARIANTS_LOOKAHEAD_BASES = 100_000;
 
+    public static final String VARIANT_WALKER_THREADS_LONG_NAME = "variant-walker-threads";
+
+    /**
+     * Number of variants handed to a worker thread at a time in multi-threaded mode. Smaller than the read batch
+     * size of {@link ReadWalker}, since a single variant in a large callset may carry many thousands of genotypes.
+     */
+    private static final int VARIANTS_PER_BATCH = 100;
+
+    /**
+     * Maximum number of batches per worker thread that may be in flight at once in multi-threaded mode. Together
+     * with {@link #VARIANTS_PER_BATCH}, bounds the size of the buffer used to restore the original order of the variants.
+     */
+    private static final int PENDING_BATCHES_PER_THREAD = 4;
+
     //Various options for reading from a GenomicsDB
     protected GenomicsDBOptions genomicsDBOptions;
 
@@ -201,4 +224,82 @@ public abstract class VariantWalkerBase extends WalkerBase {
         return new CountingVariantFilter(VariantFilterLibrary.ALLOW_ALL_VARIANTS);
     }
 
+    /**
+     * Processes a single variant on a worker thread in the multi-threaded variant traversal, returning an action
+     * that emits its results on the traversal thread.
+     */
+    @FunctionalInterface
+    interface ConcurrentVariantProcessor {
+        Runnable process( VariantContext variant, ReadsContext readsContext, ReferenceContext referenceContext, FeatureContext featureContext );
+    }
+
+    /**
+     * Multi-threaded version of the variant traversal, shared by {@link VariantWalker} and {@link MultiVariantWalker}.
+     *
+     * Variants are decoded, transformed and filtered on this thread, and their genotypes are fully decoded here as well,
+     * since the VCF and BCF codecs parse genotypes lazily using buffers shared by all of the records they produce. The
+     * variants are then grouped into batches that are handed to {@code processor} on a pool of worker threads, and the
+     * per-variant results are emitted back on this thread in the original order of the variants. The progress meter is
+     * updated as each variant is emitted.
+     *
+     * The workers share a thread-safe view of the reference, and a reads source that reads and filters all of the reads
+     * for a query under a lock (the reads data source and the counting read filter are not thread-safe).
+     *
+     * @param variants stream of transformed and filtered driving variants
+     * @param readFilter filter to apply to the reads in each {@link ReadsContext}
+     * @param numThreads number of worker threads
+     * @param processor per-variant processing to run on the worker threads
+     */
+    void traverseVariantsConcurrently(final Stream<VariantContext> variants, final CountingReadFilter readFilter,
+                                      final int numThreads, final ConcurrentVariantProcessor processor) {
+        final ReferenceDataSource sharedReference = reference != null ? SynchronizedReferenceDataSource.makeThreadSafe(reference) : null;
+        final GATKDataSource<GATKRead> sharedReads = reads != null ? new SynchronizedReadsContextSource(reads, readFilter) : null;
+        if ( features != null ) {
+            // side inputs of variants are also decoded lazily, and cached records may be handed to several workers
+            features.setDecodeGenotypesOnQuery(true);
+        }
+
+        try ( final OrderedParallelExecutor<Runnable> batchExecutor = new OrderedParallelExecutor<>("variant-walker-worker",
+                numThreads, numThreads * PENDING_BATCHES_PER_THREAD, Runnable::run) ) {
+            List<VariantContext> batch = new ArrayList<>(VARIANTS_PER_BATCH);
+            final Iterator<VariantContext> variantIterator = variants.iterator();
+            while ( variantIterator.hasNext() ) {
+                batch.add(GATKVariantContextUtils.decodeGenotypes(variantIterator.next()));
+                if ( batch.size() == VARIANTS_PER_BATCH ) {
+                    submitVariantBatch(batchExecutor, batch, sharedReads, sharedReference, processor);
+                    batch = new ArrayList<>(VARIANTS_PER_BATCH);
+                }
+            }
+            if ( ! batch.isEmpty() ) {
+                submitVariantBatch(batchExecutor, batch, sharedReads, sharedReference, processor);
+            }
+
+            batchExecutor.drain();
+        }
+    }
+
+    private void submitVariantBatch(final OrderedParallelExecutor<Runnable> batchExecutor, final List<VariantContext> batch,
+                                    final GATKDataSource<GATKRead> sharedReads, final ReferenceDataSource sharedReference,
+                                    final ConcurrentVariantProcessor processor) {
+        batchExecutor.submit(() -> {
+            final Runnable[] emitResults = new Runnable[batch.size()];
+            final SimpleInterval[] variantIntervals = new SimpleInterval[batch.size()];
+            for ( int i = 0; i < batch.size(); i++ ) {
+                variantIntervals[i] = new SimpleInterval(batch.get(i));
+                final long applyStartNanos = stageTimer.start();
+                emitResults[i] = processor.process(batch.get(i),
+                        new ReadsContext(sharedReads, variantIntervals[i]),
+                        new ReferenceContext(sharedReference, variantIntervals[i]),
+                        new FeatureContext(features, variantIntervals[i]));
+                stageTimer.stop(StageTimer.Stage.APPLY, applyStartNanos);
+            }
+
+            return () -> {
+                for ( int i = 0; i < emitResults.length; i++ ) {
+                    emitResults[i].run();
+                    progressMeter.update(variantIntervals[i]);
+                }
+            };
+        });
+    }
 }
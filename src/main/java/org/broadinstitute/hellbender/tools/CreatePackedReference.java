@@ -0,0 +1,75 @@
+package org.broadinstitute.hellbender.tools;
+
+import org.broadinstitute.barclay.argparser.Argument;
+import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
+import org.broadinstitute.barclay.help.DocumentedFeature;
+import picard.cmdline.programgroups.ReferenceProgramGroup;
+import org.broadinstitute.hellbender.cmdline.CommandLineProgram;
+import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
+import org.broadinstitute.hellbender.engine.GATKPath;
+import org.broadinstitute.hellbender.engine.GATKTool;
+import org.broadinstitute.hellbender.engine.PackedReferenceSource;
+
+/**
+ * Create a packed reference image file for fast, shared reference access in GATK tools
+ *
+ * <p>A packed reference stores the bases of each contig of a reference FASTA contiguously, with no line breaks,
+ * so that GATK tools can memory-map it instead of parsing the FASTA. Tools use it when it is passed with
+ * --packed-reference (in addition to the FASTA itself). All threads and all GATK processes on a machine that use
+ * the same image share a single copy of it in the operating system's page cache.</p>
+ *
+ * <p>The image takes about as much disk space as the FASTA it was created from, and must be on a local
+ * filesystem to be used.</p>
+ *
+ * <h3>Input</h3>
+ *
+ * <ul>
+ *     <li>Reference FASTA file, with .fai index and .dict sequence dictionary</li>
+ * </ul>
+ *
+ * <h4>Output</h4>
+ *
+ * <ul>
+ *     <li>Packed reference image file</li>
+ * </ul>
+ *
+ * <h3>Usage example</h3>
+ *
+ * <pre>
+ * gatk CreatePackedReference \
+ *     -R reference.fasta \
+ *     -O reference.fasta.packed
+ * </pre>
+ *
+ */
+@DocumentedFeature
+@CommandLineProgramProperties(
+        summary = "Create a packed reference image file, which GATK tools can memory-map for fast, shared reference access",
+        oneLineSummary = "Create a packed reference image file for fast, shared reference access in GATK tools",
+        programGroup = ReferenceProgramGroup.class
+)
+public final class CreatePackedReference extends CommandLineProgram {
+
+    @Argument(fullName = StandardArgumentDefinitions.REFERENCE_LONG_NAME,
+            shortName = StandardArgumentDefinitions.REFERENCE_SHORT_NAME,
+            doc = "Input reference FASTA file location.")
+    private GATKPath referenceFasta = null;
+
+    /**
+     * If not provided, the default image file path will be the same as the reference FASTA with the extension ".packed".
+     */
+    @Argument(fullName = StandardArgumentDefinitions.OUTPUT_LONG_NAME,
+            shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME,
+            doc = "Output packed reference image file (to be passed to tools with --" + GATKTool.PACKED_REFERENCE_NAME + ").",
+            optional = true)
+    private GATKPath packedReferenceOutput = null;
+
+    @Override
+    protected Object doWork() {
+        if (packedReferenceOutput == null) {
+            packedReferenceOutput = new GATKPath(referenceFasta.getRawInputString() + PackedReferenceSource.PACKED_REFERENCE_EXTENSION);
+        }
+        PackedReferenceSource.createPackedReference(referenceFasta.toPath(), packedReferenceOutput.toPath());
+        return null;
+    }
+}
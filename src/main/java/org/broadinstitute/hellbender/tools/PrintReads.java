@@ -105,6 +105,16 @@ public final class PrintReads extends ReadWalker {
         outputWriter.addRead(read);
     }
 
+    @Override
+    public boolean supportsConcurrentApply() {
+        return true;
+    }
+
+    @Override
+    public Runnable applyConcurrently( GATKRead read, ReferenceContext referenceContext, FeatureContext featureContext ) {
+        return () -> outputWriter.addRead(read);
+    }
+
     @Override
     public void closeTool() {
         if ( outputWriter != null ) {
@@ -111,6 +111,12 @@ public final class CollectAllelicCounts extends LocusWalker {
         return true;
     }
 
+    // Pileups are reduced to counts within apply()
+    @Override
+    public boolean reusePileupElements() {
+        return true;
+    }
+
     @Override
     public boolean requiresReference() {
         return true;
@@ -56,26 +56,44 @@ public final class ExampleAssemblyRegionWalker extends AssemblyRegionWalker {
 
     @Override
     public void apply( AssemblyRegion region, ReferenceContext referenceContext, FeatureContext featureContext ) {
-        outputStream.printf("%s assembly region at %s (%s with padding), containing %d reads.\n\n",
-                region.isActive() ? "ACTIVE" : "INACTIVE", region.getSpan(), region.getPaddedSpan(), region.getReads().size());
+        outputStream.print(describeRegion(region, referenceContext, featureContext));
+    }
+
+    @Override
+    public boolean supportsConcurrentApply() {
+        return true;
+    }
+
+    @Override
+    public Runnable applyConcurrently( AssemblyRegion region, ReferenceContext referenceContext, FeatureContext featureContext ) {
+        // Build the description on the worker thread, and only print it when the engine emits this region
+        final String description = describeRegion(region, referenceContext, featureContext);
+        return () -> outputStream.print(description);
+    }
+
+    private String describeRegion( final AssemblyRegion region, final ReferenceContext referenceContext, final FeatureContext featureContext ) {
+        final StringBuilder description = new StringBuilder();
+        description.append(String.format("%s assembly region at %s (%s with padding), containing %d reads.\n\n",
+                region.isActive() ? "ACTIVE" : "INACTIVE", region.getSpan(), region.getPaddedSpan(), region.getReads().size()));
 
-        printReferenceBases(referenceContext);
+        describeReferenceBases(referenceContext, description);
 
         if ( featureContext.hasBackingDataSource() ) {
-            printOverlappingVariants(featureContext);
+            describeOverlappingVariants(featureContext, description);
         }
+        return description.toString();
     }
 
-    private void printReferenceBases( final ReferenceContext refContext ) {
-        outputStream.printf("\tOverlapping reference bases: %s\n\n", new String(refContext.getBases()));
+    private void describeReferenceBases( final ReferenceContext refContext, final StringBuilder description ) {
+        description.append(String.format("\tOverlapping reference bases: %s\n\n", new String(refContext.getBases())));
     }
 
-    private void printOverlappingVariants( final FeatureContext featureContext ) {
+    private void describeOverlappingVariants( final FeatureContext featureContext, final StringBuilder description ) {
         for ( final VariantContext variant : featureContext.getValues(knownVariants) ) {
-            outputStream.printf("\tOverlapping variant at %s:%d-%d. Ref: %s Alt(s): %s\n\n",
-                    variant.getContig(), variant.getStart(), variant.getEnd(), variant.getReference(), variant.getAlternateAlleles());
+            description.append(String.format("\tOverlapping variant at %s:%d-%d. Ref: %s Alt(s): %s\n\n",
+                    variant.getContig(), variant.getStart(), variant.getEnd(), variant.getReference(), variant.getAlternateAlleles()));
         }
-        outputStream.println();
+        description.append(System.lineSeparator());
     }
 
     @Override
@@ -878,6 +878,23 @@ public class Funcotator extends VariantWalker {
         enqueueAndHandleVariant(variant, correctReferenceContext, featureContext);
     }
 
+    @Override
+    public boolean supportsConcurrentApply() {
+        return true;
+    }
+
+    /**
+     * Create the funcotations for the given {@code variant} on a worker thread.  The output renderer is not thread-safe,
+     * so the variant is written when it is emitted, in the order of the variants.
+     */
+    @Override
+    public Runnable applyConcurrently(final VariantContext variant, final ReadsContext readsContext, final ReferenceContext referenceContext, final FeatureContext featureContext) {
+        final ReferenceContext correctReferenceContext = funcotatorEngine.getCorrectReferenceContext(variant, referenceContext);
+        final FuncotationMap funcotationMap = funcotatorEngine.createFuncotationMapForVariant(variant, correctReferenceContext, featureContext);
+        final VariantContext variantContextForOutput = funcotatorEngine.getCorrectVariantContextForOutput(variant);
+        return () -> outputRenderer.write(variantContextForOutput, funcotationMap);
+    }
+
     @Override
     public Object onTraversalSuccess() {
 
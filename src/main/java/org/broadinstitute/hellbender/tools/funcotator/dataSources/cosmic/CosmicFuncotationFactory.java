@@ -119,6 +119,7 @@ public class CosmicFuncotationFactory extends DataSourceFuncotationFactory {
 
     /**
      * The connection to the SQLite database for this {@link CosmicFuncotationFactory}.
+     * Queries are serialized on the connection, since variants may be annotated on several threads.
      */
     private final Connection dbConnection;
 
@@ -284,34 +285,36 @@ public class CosmicFuncotationFactory extends DataSourceFuncotationFactory {
             }
 
             try {
-                try ( final Statement statement = dbConnection.createStatement() ) {
-                    try ( final ResultSet resultSet = statement.executeQuery(RESULT_QUERY_TEMPLATE + "\"" + geneName + "\";") ) {
-                        // iterate through our results:
-                        while ( resultSet.next() ) {
-
-                            // Get the genome position:
-                            final SimpleInterval cosmicGenomePosition = getGenomePositionFromResults(resultSet);
-
-                            // Try to match on genome position first:
-                            if ( cosmicGenomePosition != null ) {
-                                if ( genomePosition.overlaps(cosmicGenomePosition) ) {
-                                    // If we overlap the records, we get the protein change and add it to the map:
-                                    updateProteinChangeCountMap(proteinChangeCounts, resultSet);
-                                    continue;
+                synchronized ( dbConnection ) {
+                    try ( final Statement statement = dbConnection.createStatement() ) {
+                        try ( final ResultSet resultSet = statement.executeQuery(RESULT_QUERY_TEMPLATE + "\"" + geneName + "\";") ) {
+                            // iterate through our results:
+                            while ( resultSet.next() ) {
+
+                                // Get the genome position:
+                                final SimpleInterval cosmicGenomePosition = getGenomePositionFromResults(resultSet);
+
+                                // Try to match on genome position first:
+                                if ( cosmicGenomePosition != null ) {
+                                    if ( genomePosition.overlaps(cosmicGenomePosition) ) {
+                                        // If we overlap the records, we get the protein change and add it to the map:
+                                        updateProteinChangeCountMap(proteinChangeCounts, resultSet);
+                                        continue;
+                                    }
                                 }
-                            }
 
-                            // Get the protein position:
-                            final SimpleInterval cosmicProteinPosition = getProteinPositionFromResults(resultSet);
+                                // Get the protein position:
+                                final SimpleInterval cosmicProteinPosition = getProteinPositionFromResults(resultSet);
 
-                            // Now try to match on protein position:
-                            if ( proteinPosition != null ) {
-                                // If we overlap the records, we update the counter:
-                                if ( proteinPosition.overlaps(cosmicProteinPosition) ) {
-                                    updateProteinChangeCountMap(proteinChangeCounts, resultSet);
+                                // Now try to match on protein position:
+                                if ( proteinPosition != null ) {
+                                    // If we overlap the records, we update the counter:
+                                    if ( proteinPosition.overlaps(cosmicProteinPosition) ) {
+                                        updateProteinChangeCountMap(proteinChangeCounts, resultSet);
+                                    }
                                 }
+                                // NOTE: We can't annotate if the protein position is null.
                             }
-                            // NOTE: We can't annotate if the protein position is null.
                         }
                     }
                 }
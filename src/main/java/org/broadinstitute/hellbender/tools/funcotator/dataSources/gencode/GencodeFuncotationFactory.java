@@ -17,6 +17,7 @@ import org.apache.logging.log4j.Logger;
 import org.broadinstitute.hellbender.engine.FeatureInput;
 import org.broadinstitute.hellbender.engine.ReferenceContext;
 import org.broadinstitute.hellbender.engine.ReferenceDataSource;
+import org.broadinstitute.hellbender.engine.SynchronizedReferenceDataSource;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.copynumber.utils.annotatedinterval.AnnotatedInterval;
@@ -182,6 +183,11 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
     /**
      * ReferenceSequenceFile for the transcript reference file.
      */
+    private final ReferenceDataSource transcriptFastaFile;
+
+    /**
+     * Thread-safe view of {@link #transcriptFastaFile}, since variants may be annotated on several threads.
+     */
     private final ReferenceDataSource transcriptFastaReferenceDataSource;
 
     /**
@@ -395,7 +401,8 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
         this.flankSettings = flankSettings;
 
         // Initialize our transcript data source and ID map:
-        transcriptFastaReferenceDataSource = ReferenceDataSource.of(gencodeTranscriptFastaFile);
+        transcriptFastaFile = ReferenceDataSource.of(gencodeTranscriptFastaFile);
+        transcriptFastaReferenceDataSource = SynchronizedReferenceDataSource.makeThreadSafe(transcriptFastaFile);
         transcriptIdMap = createTranscriptIdMap(transcriptFastaReferenceDataSource);
 
         this.transcriptSelectionMode = transcriptSelectionMode;
@@ -486,7 +493,7 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
 
     @Override
     public void close() {
-        transcriptFastaReferenceDataSource.close();
+        transcriptFastaFile.close();
     }
 
     @Override
@@ -73,6 +73,7 @@ public class VcfFuncotationFactory extends DataSourceFuncotationFactory {
 
     /**
      * Cache for speed.  Please note that the cache is done on the reference.
+     * The cache and its hit and miss counts are guarded by the cache itself, since variants may be annotated on several threads.
      */
     private final LRUCache<Triple<VariantContext, ReferenceContext, List<Feature>>, List<Funcotation>> cache = new LRUCache<>();
 
@@ -282,10 +283,12 @@ public class VcfFuncotationFactory extends DataSourceFuncotationFactory {
 
         // TODO: Caching logic can be refactored and shared in other funcotation factories:  https://github.com/broadinstitute/gatk/issues/4974
         final Triple<VariantContext, ReferenceContext, List<Feature>> cacheKey = createCacheKey(variant, referenceContext, featureList);
-        final List<Funcotation> cacheResult = cache.get(cacheKey);
-        if (cacheResult != null) {
-            cacheHits++;
-            return cacheResult;
+        synchronized ( cache ) {
+            final List<Funcotation> cacheResult = cache.get(cacheKey);
+            if (cacheResult != null) {
+                cacheHits++;
+                return cacheResult;
+            }
         }
 
         // Only create annotations if we have data to annotate:
@@ -333,8 +336,10 @@ public class VcfFuncotationFactory extends DataSourceFuncotationFactory {
             }
             variant.getAlternateAlleles().forEach(a -> outputFuncotations.add(outputOrderedMap.computeIfAbsent(a, allele -> createDefaultFuncotation(allele))));
         }
-        cacheMisses++;
-        cache.put(cacheKey, outputFuncotations);
+        synchronized ( cache ) {
+            cacheMisses++;
+            cache.put(cacheKey, outputFuncotations);
+        }
 
         // The output number of funcotations should equal to the variant.getAlternateAlleles().size()
         return outputFuncotations;
@@ -30,10 +30,16 @@ public abstract class PedigreeAnnotation implements VariantAnnotation {
     protected transient final Logger logger = LogManager.getLogger(this.getClass());
 
     protected GenotypesContext getFounderGenotypes(VariantContext vc) {
+        final Collection<String> founders = getFounderIds();
+        return (founders == null || founders.isEmpty()) ? vc.getGenotypes() : vc.getGenotypes(new HashSet<>(founders));
+    }
+
+    // synchronized because annotations may be shared by tools that annotate on several threads
+    private synchronized Collection<String> getFounderIds() {
         if ((pedigreeFile!= null) && (!hasAddedPedigreeFounders)) {
             initializeSampleDBAndSetFounders(pedigreeFile);
         }
-        return (founderIds == null || founderIds.isEmpty()) ? vc.getGenotypes() : vc.getGenotypes(new HashSet<>(founderIds));
+        return founderIds;
     }
 
     public PedigreeAnnotation(final Set<String> founderIds){
@@ -79,11 +85,11 @@ public abstract class PedigreeAnnotation implements VariantAnnotation {
      * Setter for pedigree file and founderIDs to be used by the GATKAnnotationPluginDescriptor to handle duplicated annotation
      * arguments between InbreedingCoeff and ExcessHet
      */
-    public void setPedigreeFile(GATKPath pedigreeFile) {
+    public synchronized void setPedigreeFile(GATKPath pedigreeFile) {
         this.pedigreeFile = pedigreeFile;
         hasAddedPedigreeFounders = false;
     }
-    public void setFounderIds(List<String> founderIds) {
+    public synchronized void setFounderIds(List<String> founderIds) {
         this.founderIds = founderIds;
         hasAddedPedigreeFounders = false;
     }
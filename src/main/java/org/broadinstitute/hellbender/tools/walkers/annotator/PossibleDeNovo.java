@@ -88,7 +88,7 @@ public final class PossibleDeNovo extends PedigreeAnnotation implements InfoFiel
     private static final double percentOfSamplesCutoff = 0.001; //for many, many samples use 0.1% of samples as allele frequency threshold for de novos
     private static final int flatNumberOfSamplesCutoff = 4;
 
-    private Set<Trio> initializeAndGetTrios() {
+    private synchronized Set<Trio> initializeAndGetTrios() {
         if (trios == null) {
             trios = getTrios();
         }
@@ -60,7 +60,7 @@ public final class TransmittedSingleton extends PedigreeAnnotation implements In
         super((Set<String>) null);
     }
 
-    private Set<Trio> initializeAndGetTrios() {
+    private synchronized Set<Trio> initializeAndGetTrios() {
         if (trios == null) {
             trios = getTrios();
         }
@@ -235,15 +235,29 @@ public class VariantAnnotator extends VariantWalker {
      */
     @Override
     public void apply(final VariantContext vc, final ReadsContext readsContext, final ReferenceContext refContext, final FeatureContext fc) {
+        vcfWriter.add(annotate(vc, readsContext, refContext, fc));
+    }
+
+    @Override
+    public boolean supportsConcurrentApply() {
+        return true;
+    }
+
+    @Override
+    public Runnable applyConcurrently(final VariantContext vc, final ReadsContext readsContext, final ReferenceContext refContext, final FeatureContext fc) {
+        final VariantContext annotatedVC = annotate(vc, readsContext, refContext, fc);
+        return () -> vcfWriter.add(annotatedVC);
+    }
+
+    private VariantContext annotate(final VariantContext vc, final ReadsContext readsContext, final ReferenceContext refContext, final FeatureContext fc) {
 
         // if the reference is present and base is not ambiguous, we can annotate
         if (refContext.getBases().length ==0 || BaseUtils.simpleBaseToBaseIndex(refContext.getBase()) != -1 ) {
             final ReferenceContext expandedRefContext = !hasReference() ? refContext :
                     new ReferenceContext(refContext, new SimpleInterval(vc).expandWithinContig(REFERENCE_PADDING, sequenceDictionary));
-            VariantContext annotatedVC = annotatorEngine.annotateContext(vc, fc, expandedRefContext, makeLikelihoods(vc, readsContext), a -> true);
-            vcfWriter.add(annotatedVC);
+            return annotatorEngine.annotateContext(vc, fc, expandedRefContext, makeLikelihoods(vc, readsContext), a -> true);
         } else {
-            vcfWriter.add(vc);
+            return vc;
         }
     }
 
@@ -119,6 +119,20 @@ public final class ApplyBQSR extends ReadWalker{
         outputWriter.addRead(read);
     }
 
+    @Override
+    public boolean supportsConcurrentApply() {
+        return true;
+    }
+
+    /**
+     * Recalibration is done by the post-read-filter transformer, which the engine runs on the worker threads
+     * in multi-threaded mode, so all that is left to do here is to write the read out in order.
+     */
+    @Override
+    public Runnable applyConcurrently( GATKRead read, ReferenceContext referenceContext, FeatureContext featureContext ) {
+        return () -> outputWriter.addRead(read);
+    }
+
     @Override
     public void closeTool() {
         if ( outputWriter != null ) {
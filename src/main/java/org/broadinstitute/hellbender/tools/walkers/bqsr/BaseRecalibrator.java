@@ -27,6 +27,8 @@ import picard.cmdline.programgroups.ReadDataManipulationProgramGroup;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * First pass of the base quality score recalibration.
@@ -73,6 +75,13 @@ import java.util.List;
  *   --known-sites another/optional/setOfSitesToMask.vcf \
  *   -O recal_data.table
  * </pre>
+ *
+ * <p>
+ * With --read-walker-threads greater than 1, reads are processed on that many threads. Each thread accumulates its own
+ * recalibration counts and reads the reference through its own reference data source, and the counts are merged once
+ * all reads have been processed. The recalibration tables may then differ from those of a single thread in the last
+ * decimal places of their mismatch counts, since the fractional errors are summed in a different order.
+ * </p>
  */
 
 @CommandLineProgramProperties(
@@ -121,7 +130,13 @@ public final class BaseRecalibrator extends ReadWalker {
 
     private BaseRecalibrationEngine recalibrationEngine;
 
-    private ReferenceDataSource referenceDataSource; // datasource for the reference. We're using a different one from the engine itself to avoid messing with its caches.
+    // with more than one thread and a reference that is not thread-safe, each thread reads the reference through its own data source
+    private final Queue<ReferenceDataSource> threadReferenceDataSources = new ConcurrentLinkedQueue<>();
+    private ThreadLocal<ReferenceDataSource> threadReferenceDataSource;
+
+    // datasource for the reference. Unless the engine's reference is thread-safe (such as a --packed-reference, which has
+    // no caches and hands out the bases without copying them), we use a different one from the engine itself to avoid messing with its caches.
+    private ReferenceDataSource referenceDataSource;
 
     /**
      * an object that keeps track of the information necessary for quality score quantization
@@ -145,9 +160,18 @@ public final class BaseRecalibrator extends ReadWalker {
 
         Utils.warnOnNonIlluminaReadGroups(getHeaderForReads(), logger);
 
-        recalibrationEngine = new BaseRecalibrationEngine(recalArgs, getHeaderForReads());
+        recalibrationEngine = new BaseRecalibrationEngine(recalArgs, getHeaderForReads(), readWalkerThreads > 1);
         recalibrationEngine.logCovariatesUsed();
-        referenceDataSource = ReferenceDataSource.of(referenceArguments.getReferencePath());
+        final ReferenceDataSource engineReference = directlyAccessEngineReferenceDataSource();
+        referenceDataSource = engineReference.isThreadSafe() ? engineReference : ReferenceDataSource.of(referenceArguments.getReferencePath());
+
+        if (readWalkerThreads > 1 && !referenceDataSource.isThreadSafe()) {
+            threadReferenceDataSource = ThreadLocal.withInitial(() -> {
+                final ReferenceDataSource reference = ReferenceDataSource.of(referenceArguments.getReferencePath());
+                threadReferenceDataSources.add(reference);
+                return reference;
+            });
+        }
     }
 
     @Override
@@ -189,6 +213,22 @@ public final class BaseRecalibrator extends ReadWalker {
         recalibrationEngine.processRead(read, referenceDataSource, featureContext.getValues(knownSites));
     }
 
+    @Override
+    public boolean supportsConcurrentApply() {
+        return true;
+    }
+
+    /**
+     * Counts the read in the recalibration counts of the current thread, which are merged when the data is finalized,
+     * so there is nothing to emit.
+     */
+    @Override
+    public Runnable applyConcurrently( GATKRead read, ReferenceContext ref, FeatureContext featureContext ) {
+        recalibrationEngine.processRead(read, threadReferenceDataSource == null ? referenceDataSource : threadReferenceDataSource.get(),
+                featureContext.getValues(knownSites));
+        return () -> {};
+    }
+
     @Override
     public Object onTraversalSuccess() {
         recalibrationEngine.finalizeData();
@@ -213,6 +253,12 @@ public final class BaseRecalibrator extends ReadWalker {
         quantizationInfo = new QuantizationInfo(recalibrationEngine.getFinalRecalibrationTables(), recalArgs.QUANTIZING_LEVELS);
     }
 
+    @Override
+    public void closeTool() {
+        threadReferenceDataSources.forEach(ReferenceDataSource::close);
+        threadReferenceDataSources.clear();
+    }
+
     private void generateReport() {
         try ( final PrintStream recalTableStream = new PrintStream(recalTableFile.getOutputStream()) ) {
             if (recalTableStream.checkError()) {
@@ -237,6 +237,12 @@ public class DepthOfCoverage extends LocusWalkerByInterval {
         return includeDeletions && ! ignoreDeletionSites;
     }
 
+    // Pileups are reduced to per-partition counts within apply(), so their elements may be recycled
+    @Override
+    public boolean reusePileupElements() {
+        return true;
+    }
+
     // For now this tool requires a reference: s
     @Override
     public boolean requiresReference() {
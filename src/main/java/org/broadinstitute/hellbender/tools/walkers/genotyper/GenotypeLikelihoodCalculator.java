@@ -33,6 +33,15 @@ import java.util.Arrays;
  *
  * If the cache-friendliness of this class is broken, it will show up as a severe regression in the runtime of its unit tests
  * for larger ploidies and allele counts.
+ *
+ * SPARSE CALCULATION
+ * The number of genotypes grows combinatorially with ploidy and allele count, for example there are over 50,000 genotypes
+ * of ploidy 20 with 6 alleles.  In pooled samples most of these genotypes contain alleles that no read of the sample supports.
+ * {@link #log10GenotypeLikelihoodsCollapsingUnsupportedAlleles} collapses all alleles that are not the most likely allele of any
+ * read into a single pseudo-allele whose likelihood for each read is the greatest likelihood among them, computes the
+ * likelihoods of the far fewer genotypes of the supported alleles and the pseudo-allele, and maps them back to the genotypes
+ * of all alleles.  The likelihood of each genotype containing an unsupported allele is thus replaced by an upper bound,
+ * and the likelihoods of the genotypes of supported alleles are exact.
  */
 public class GenotypeLikelihoodCalculator {
 
@@ -61,19 +70,101 @@ public class GenotypeLikelihoodCalculator {
      * @return the log 10 likelihood of each genotype as an array
      */
     protected static <EVIDENCE, A extends Allele> double[] computeLog10GenotypeLikelihoods(final int ploidy, final LikelihoodMatrix<EVIDENCE, A> log10AlleleLikelihoods) {
+        Utils.nonNull(log10AlleleLikelihoods);
+        return computeLog10GenotypeLikelihoods(ploidy, log10AlleleLikelihoods.asRealMatrix().getData(),
+                log10AlleleLikelihoods.numberOfAlleles(), log10AlleleLikelihoods.evidenceCount());
+    }
+
+    /**
+     * Calculate the genotype likelihoods as {@link #log10GenotypeLikelihoods} does, except that alleles that are not the
+     * most likely allele of any read are collapsed into a single pseudo-allele before enumerating genotypes.  See the class
+     * documentation for details.
+     *
+     * @param log10AlleleLikelihoods the likelihood matrix all alleles vs all reads.
+     * @return never {@code null}.
+     */
+    public static <EVIDENCE, A extends Allele> GenotypeLikelihoods log10GenotypeLikelihoodsCollapsingUnsupportedAlleles(final int ploidy, final LikelihoodMatrix<EVIDENCE, A> log10AlleleLikelihoods) {
+        final double[] log10GenotypeLikelihoods = computeLog10GenotypeLikelihoodsCollapsingUnsupportedAlleles(ploidy, log10AlleleLikelihoods);
+        return GenotypeLikelihoods.fromLog10Likelihoods(log10GenotypeLikelihoods);
+    }
+
+    /**
+     * Compute the genotype log10 likelihoods of all alleles in the canonical genotype order, collapsing the alleles with no
+     * read support into a single pseudo-allele.
+     *
+     * @param log10AlleleLikelihoods   log 10 likelihood matrix indexed by allele, then read
+     * @return the log 10 likelihood of each genotype as an array
+     */
+    protected static <EVIDENCE, A extends Allele> double[] computeLog10GenotypeLikelihoodsCollapsingUnsupportedAlleles(final int ploidy, final LikelihoodMatrix<EVIDENCE, A> log10AlleleLikelihoods) {
         Utils.nonNull(log10AlleleLikelihoods);
         final int alleleCount = log10AlleleLikelihoods.numberOfAlleles();
         final int readCount = log10AlleleLikelihoods.evidenceCount();
-
         final double[][] log10LikelihoodsByAlleleAndRead = log10AlleleLikelihoods.asRealMatrix().getData();
 
+        // an allele is supported if it is the most likely allele, possibly tied, of at least one read
+        final double[] perReadMaxima = new double[readCount];
+        Arrays.fill(perReadMaxima, Double.NEGATIVE_INFINITY);
+        for (int a = 0; a < alleleCount; a++) {
+            for (int r = 0; r < readCount; r++) {
+                perReadMaxima[r] = FastMath.max(perReadMaxima[r], log10LikelihoodsByAlleleAndRead[a][r]);
+            }
+        }
+        final boolean[] supported = new boolean[alleleCount];
+        int unsupportedCount = 0;
+        for (int a = 0; a < alleleCount; a++) {
+            for (int r = 0; r < readCount && !supported[a]; r++) {
+                supported[a] = log10LikelihoodsByAlleleAndRead[a][r] == perReadMaxima[r];
+            }
+            unsupportedCount += supported[a] ? 0 : 1;
+        }
+
+        // collapsing a single unsupported allele into a pseudo-allele would not remove any genotypes
+        if (unsupportedCount < 2) {
+            return computeLog10GenotypeLikelihoods(ploidy, log10LikelihoodsByAlleleAndRead, alleleCount, readCount);
+        }
+
+        // the collapsed alleles are the supported alleles in their original order followed by the pseudo-allele
+        final int collapsedAlleleCount = alleleCount - unsupportedCount + 1;
+        final int pseudoAllele = collapsedAlleleCount - 1;
+        final int[] alleleToCollapsedAllele = new int[alleleCount];
+        final double[][] collapsedLog10Likelihoods = new double[collapsedAlleleCount][];
+        final double[] pseudoAlleleLog10Likelihoods = new double[readCount];
+        Arrays.fill(pseudoAlleleLog10Likelihoods, Double.NEGATIVE_INFINITY);
+        for (int a = 0, collapsedAllele = 0; a < alleleCount; a++) {
+            if (supported[a]) {
+                alleleToCollapsedAllele[a] = collapsedAllele;
+                collapsedLog10Likelihoods[collapsedAllele++] = log10LikelihoodsByAlleleAndRead[a];
+            } else {
+                alleleToCollapsedAllele[a] = pseudoAllele;
+                for (int r = 0; r < readCount; r++) {
+                    pseudoAlleleLog10Likelihoods[r] = FastMath.max(pseudoAlleleLog10Likelihoods[r], log10LikelihoodsByAlleleAndRead[a][r]);
+                }
+            }
+        }
+        collapsedLog10Likelihoods[pseudoAllele] = pseudoAlleleLog10Likelihoods;
+
+        final double[] collapsedResult = computeLog10GenotypeLikelihoods(ploidy, collapsedLog10Likelihoods, collapsedAlleleCount, readCount);
+        final int[] genotypeToCollapsedGenotype = GenotypeIndexCalculator.newToOldGenotypeMap(ploidy, alleleToCollapsedAllele);
+        final double[] result = new double[genotypeToCollapsedGenotype.length];
+        for (int g = 0; g < result.length; g++) {
+            result[g] = collapsedResult[genotypeToCollapsedGenotype[g]];
+        }
+        return result;
+    }
+
+    /**
+     * Compute the genotype log10 likelihoods as an array in the canonical genotype order from the rows of a likelihood
+     * matrix, which are not modified.
+     */
+    private static double[] computeLog10GenotypeLikelihoods(final int ploidy, final double[][] log10LikelihoodsByAlleleAndRead,
+                                                            final int alleleCount, final int readCount) {
         final boolean triallelicGenotypesPossible = alleleCount > 2 && ploidy > 2;
         final double[] perReadBuffer = triallelicGenotypesPossible ? new double[readCount] : null;
 
         // non-log space log10AlleleLikelihoods for multiallelic computation requires rescaling for stability when we
         // exponentiate away the log, and we store the scaling factor to bring back later
         final Pair<double[][], Double> rescaledNonLogLikelihoodsAndCorrection = !triallelicGenotypesPossible ? null :
-                rescaledNonLogLikelihoods(log10AlleleLikelihoods);
+                rescaledNonLogLikelihoods(log10LikelihoodsByAlleleAndRead, alleleCount, readCount);
 
         final double[] result = new double[GenotypeIndexCalculator.genotypeCount(ploidy, alleleCount)];
 
@@ -115,13 +206,14 @@ public class GenotypeLikelihoodCalculator {
      * stability.  (This is akin to dividing each read column by its maximum in non-log space).  Then exponentiate to enter non-log space, mutating
      * the log10Likelihoods matrix in-place.  Finally, record the sum of all log-10 subtractions, which is the total amount in log10 space
      * that must later be added to the overall likelihood, which is a sum over all reads (product in npon-log space).
-     * @param log10Likelihoods    and input log-10 likelihoods matrix
+     * @param log10Likelihoods    and input log-10 likelihoods matrix indexed by allele, then read, which is not modified
      */
-    private static <EVIDENCE, A extends Allele> Pair<double[][], Double> rescaledNonLogLikelihoods(final LikelihoodMatrix<EVIDENCE,A> log10Likelihoods) {
-        final int alleleCount = log10Likelihoods.numberOfAlleles();
-        final double[][] log10LikelihoodsByAlleleAndRead = log10Likelihoods.asRealMatrix().getData();
+    private static Pair<double[][], Double> rescaledNonLogLikelihoods(final double[][] log10Likelihoods, final int alleleCount, final int readCount) {
+        final double[][] log10LikelihoodsByAlleleAndRead = new double[alleleCount][];
+        for (int a = 0; a < alleleCount; a++) {
+            log10LikelihoodsByAlleleAndRead[a] = Arrays.copyOf(log10Likelihoods[a], readCount);
+        }
 
-        final int readCount = log10Likelihoods.evidenceCount();
         final double[] perReadMaxima = new double[readCount];
         Arrays.fill(perReadMaxima, 0, readCount, Double.NEGATIVE_INFINITY);
 
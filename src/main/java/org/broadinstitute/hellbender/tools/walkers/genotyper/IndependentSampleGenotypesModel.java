@@ -17,7 +17,18 @@ import java.util.List;
  * under the assumption that sample genotypes are independent conditional on their population frequencies.
  */
 public final class IndependentSampleGenotypesModel implements GenotypingModel {
-    public IndependentSampleGenotypesModel() { }
+    private final boolean collapseUnsupportedAlleles;
+
+    public IndependentSampleGenotypesModel() { this(false); }
+
+    /**
+     * @param collapseUnsupportedAlleles whether to collapse the alleles that no read of a sample supports before enumerating
+     *                                   the genotypes of the sample, as in
+     *                                   {@link GenotypeLikelihoodCalculator#log10GenotypeLikelihoodsCollapsingUnsupportedAlleles}
+     */
+    public IndependentSampleGenotypesModel(final boolean collapseUnsupportedAlleles) {
+        this.collapseUnsupportedAlleles = collapseUnsupportedAlleles;
+    }
 
     public <A extends Allele> GenotypingLikelihoods<A> calculateLikelihoods(final AlleleList<A> genotypingAlleles,
                                                                             final GenotypingData<A> data,
@@ -38,7 +49,9 @@ public final class IndependentSampleGenotypesModel implements GenotypingModel {
             final int samplePloidy = ploidyModel.samplePloidy(i);
 
             final LikelihoodMatrix<GATKRead, A> sampleLikelihoods = alleleLikelihoodMatrixMapper.mapAlleles(data.readLikelihoods().sampleMatrix(i));
-            genotypeLikelihoods.add(GenotypeLikelihoodCalculator.log10GenotypeLikelihoods(samplePloidy, sampleLikelihoods));
+            genotypeLikelihoods.add(collapseUnsupportedAlleles ?
+                    GenotypeLikelihoodCalculator.log10GenotypeLikelihoodsCollapsingUnsupportedAlleles(samplePloidy, sampleLikelihoods) :
+                    GenotypeLikelihoodCalculator.log10GenotypeLikelihoods(samplePloidy, sampleLikelihoods));
         }
         return new GenotypingLikelihoods<>(genotypingAlleles, ploidyModel, genotypeLikelihoods);
     }
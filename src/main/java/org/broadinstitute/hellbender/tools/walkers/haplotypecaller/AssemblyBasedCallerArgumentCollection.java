@@ -12,6 +12,9 @@ import org.broadinstitute.hellbender.utils.haplotype.HaplotypeBAMWriter;
 import org.broadinstitute.hellbender.utils.smithwaterman.SmithWatermanAligner;
 import org.broadinstitute.hellbender.utils.smithwaterman.SmithWatermanAlignmentConstants;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Set of arguments for Assembly Based Callers
  */
@@ -80,6 +83,40 @@ public abstract class AssemblyBasedCallerArgumentCollection {
         return assemblyEngine;
     }
 
+    /**
+     * @return the long names of the arguments in use that make the engine write an output as it calls each region.
+     *         Such an output can only be written by a single engine, so these arguments can't be combined with calling
+     *         regions on several threads, each of which has its own engine.
+     */
+    public List<String> getRegionCallingOutputArgumentsInUse() {
+        final List<String> arguments = new ArrayList<>();
+        if (bamOutputPath != null) {
+            arguments.add(BAM_OUTPUT_LONG_NAME);
+        }
+        if (alleleLikelihoodMatrixPath != null) {
+            arguments.add(ALLELE_LIKELIHOOD_MATRIX_PATH);
+        }
+        if (assemblerArgs.debugAssemblyVariantsOut != null) {
+            arguments.add(ReadThreadingAssemblerArgumentCollection.DEBUG_ASSEMBLY_VARIANTS_OUT_LONG_NAME);
+        }
+        if (assemblerArgs.graphOutput != null) {
+            arguments.add(ReadThreadingAssemblerArgumentCollection.GRAPH_OUTPUT_LONG_NAME);
+        }
+        if (assemblerArgs.haplotypeHistogramOutput != null) {
+            arguments.add(ReadThreadingAssemblerArgumentCollection.HAPLOTYPE_DEBUG_HISTOGRAM_OUTPUT_LONG_NAME);
+        }
+        if (assemblerArgs.captureAssemblyFailureBAM) {
+            arguments.add(ReadThreadingAssemblerArgumentCollection.CAPTURE_ASSEMBLY_FAILURE_BAM_LONG_NAME);
+        }
+        if (likelihoodArgs.pairHmmResultsFile != null) {
+            arguments.add(LikelihoodEngineArgumentCollection.PAIR_HMM_RESULTS_FILE_LONG_NAME);
+        }
+        if (pileupDetectionArgs.pdhmmDebugOutputResults != null) {
+            arguments.add(PileupDetectionArgumentCollection.PDHMM_DEBUG_OUTPUT);
+        }
+        return arguments;
+    }
+
     protected abstract ReadThreadingAssemblerArgumentCollection getReadThreadingAssemblerArgumentCollection();
 
     @ArgumentCollection
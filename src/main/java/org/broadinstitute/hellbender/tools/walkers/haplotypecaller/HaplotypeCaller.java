@@ -2,9 +2,11 @@ package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
 
 import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.ArgumentCollection;
+import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
 import org.broadinstitute.barclay.help.DocumentedFeature;
 import org.broadinstitute.hellbender.cmdline.GATKPlugin.GATKReadFilterPluginDescriptor;
@@ -20,13 +22,18 @@ import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.walkers.annotator.Annotation;
 import org.broadinstitute.hellbender.tools.walkers.annotator.HaplotypeFilteringAnnotation;
 import org.broadinstitute.hellbender.tools.walkers.annotator.VariantAnnotatorEngine;
+import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading.ReadThreadingAssembler;
 import org.broadinstitute.hellbender.transformers.DRAGENMappingQualityReadTransformer;
 import org.broadinstitute.hellbender.transformers.ReadTransformer;
 import org.broadinstitute.hellbender.utils.fasta.CachingIndexedFastaSequenceFile;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
 
 
 /**
@@ -134,6 +141,9 @@ import java.util.Optional;
  *     is automatically set to 0. This cannot be overridden by the command line. The threshold can be set manually
  *     to the desired level in the next step of the workflow (GenotypeGVCFs)</li>
  *     <li>We recommend using a list of intervals to speed up analysis. See <a href='https://software.broadinstitute.org/gatk/documentation/article?id=4133'>this document</a> for details.</li>
+ *     <li>Regions can be called on several threads with `--assembly-region-threads`, each thread calling with its own
+ *     engine. The output is the same as with a single thread. Debug outputs that are written as regions are called,
+ *     such as the bamout, can't be combined with several threads.</li>
  * </ul>
  *
  */
@@ -160,6 +170,15 @@ public class HaplotypeCaller extends AssemblyRegionWalker {
 
     private HaplotypeCallerEngine hcEngine;
 
+    // engines that call regions on the worker threads when there is more than one assembly region thread, one per thread
+    private final List<HaplotypeCallerEngine> workerEngines = new ArrayList<>();
+
+    private ThreadLocal<HaplotypeCallerEngine> workerEngine;
+
+    // kmer assembly pool shared by the worker engines, so that they use --kmer-assembly-threads threads between them
+    // rather than that many each
+    private ExecutorService kmerAssemblyExecutor;
+
     @Override
     public List<ReadFilter> getDefaultReadFilters() {
         return HaplotypeCallerEngine.makeStandardHCReadFilters();
@@ -190,6 +209,17 @@ public class HaplotypeCaller extends AssemblyRegionWalker {
                     hcArgs.flowMode.getNameValuePairs(),
                     HaplotypeCallerArgumentCollection.FLOW_GATK_MODE_LONG_NAME);
         }
+        if (assemblyRegionThreads > 1) {
+            final List<String> regionCallingOutputs = hcArgs.getRegionCallingOutputArgumentsInUse();
+            if (!regionCallingOutputs.isEmpty()) {
+                throw new CommandLineException.BadArgumentValue(ASSEMBLY_REGION_THREADS_LONG_NAME, String.valueOf(assemblyRegionThreads),
+                        "regions can't be called on multiple threads with --" + String.join(", --", regionCallingOutputs));
+            }
+            if (hcArgs.refConfidenceFromActiveRegionDetection) {
+                throw new CommandLineException.BadArgumentValue(ASSEMBLY_REGION_THREADS_LONG_NAME, String.valueOf(assemblyRegionThreads),
+                        "regions can't be called on multiple threads with --" + HaplotypeCallerArgumentCollection.REF_CONFIDENCE_FROM_ACTIVE_REGION_DETECTION_LONG_NAME);
+            }
+        }
 
         return null;
     }
@@ -249,10 +279,26 @@ public class HaplotypeCaller extends AssemblyRegionWalker {
         final VariantAnnotatorEngine variantAnnotatorEngine = new VariantAnnotatorEngine(makeVariantAnnotations(),
                 hcArgs.dbsnp.dbsnp, hcArgs.comps,  hcArgs.emitReferenceConfidence != ReferenceConfidenceMode.NONE, false);
         hcEngine = buildHaplotypeCallerEngine(hcArgs, assemblyRegionArgs, createOutputBamIndex, createOutputBamMD5, getHeaderForReads(), getReferenceReader(referenceArguments), variantAnnotatorEngine);
+        if (assemblyRegionThreads > 1) {
+            // The engines are not thread-safe, so each worker thread claims an engine of its own the first time it calls
+            // a region. hcEngine still determines the active regions on the traversal thread.
+            for (int i = 0; i < assemblyRegionThreads; i++) {
+                workerEngines.add(buildHaplotypeCallerEngine(hcArgs, assemblyRegionArgs, createOutputBamIndex, createOutputBamMD5, getHeaderForReads(), getReferenceReader(referenceArguments), variantAnnotatorEngine));
+            }
+            if (hcArgs.assemblerArgs.kmerAssemblyThreads > 1) {
+                kmerAssemblyExecutor = ReadThreadingAssembler.makeKmerAssemblyExecutor(hcArgs.assemblerArgs.kmerAssemblyThreads);
+                // hcEngine doesn't call regions, so it doesn't need a pool of its own
+                hcEngine.setKmerAssemblyExecutor(null);
+                workerEngines.forEach(engine -> engine.setKmerAssemblyExecutor(kmerAssemblyExecutor));
+            }
+            final Queue<HaplotypeCallerEngine> unclaimedEngines = new ConcurrentLinkedQueue<>(workerEngines);
+            workerEngine = ThreadLocal.withInitial(unclaimedEngines::remove);
+        }
 
         // The HC engine will make the right kind (VCF or GVCF) of writer for us
         final SAMSequenceDictionary sequenceDictionary = getHeaderForReads().getSequenceDictionary();
-        vcfWriter = hcEngine.makeVCFWriter(outputVCF, sequenceDictionary, createOutputVariantIndex, createOutputVariantMD5, outputSitesOnlyVCFs);
+        vcfWriter = timeVariantWrites(hcEngine.makeVCFWriter(outputVCF, sequenceDictionary, createOutputVariantIndex, createOutputVariantMD5, outputSitesOnlyVCFs));
+        hcEngine.wrapDebugVariantWriters(this::timeVariantWrites);
         hcEngine.writeHeader(vcfWriter, sequenceDictionary, getDefaultToolVCFHeaderLines());
     }
 
@@ -269,6 +315,17 @@ public class HaplotypeCaller extends AssemblyRegionWalker {
         hcEngine.callRegion(region, featureContext, referenceContext).forEach(vcfWriter::add);
     }
 
+    @Override
+    public boolean supportsConcurrentApply() {
+        return true;
+    }
+
+    @Override
+    public Runnable applyConcurrently(final AssemblyRegion region, final ReferenceContext referenceContext, final FeatureContext featureContext) {
+        final List<VariantContext> calls = workerEngine.get().callRegion(region, featureContext, referenceContext);
+        return () -> calls.forEach(vcfWriter::add);
+    }
+
     @Override
     public void closeTool() {
         if ( vcfWriter != null ) {
@@ -278,6 +335,10 @@ public class HaplotypeCaller extends AssemblyRegionWalker {
         if ( hcEngine != null ) {
             hcEngine.shutdown();
         }
+        workerEngines.forEach(HaplotypeCallerEngine::shutdown);
+        if ( kmerAssemblyExecutor != null ) {
+            kmerAssemblyExecutor.shutdownNow();
+        }
 
     }
 }
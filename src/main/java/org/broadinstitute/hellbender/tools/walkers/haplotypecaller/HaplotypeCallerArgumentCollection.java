@@ -46,6 +46,8 @@ public class HaplotypeCallerArgumentCollection extends AssemblyBasedCallerArgume
     public static final String DEBUG_ASSEMBLY_REGION_STATE_LONG_NAME = "debug-assembly-region-state";
     public static final String DEBUG_GENOTYPER_OUTPUT_LONG_NAME = "debug-genotyper-output";
     public static final String DONT_GENOTYPE_LONG_NAME = "dont-genotype";
+    public static final String REF_CONFIDENCE_FROM_ACTIVE_REGION_DETECTION_LONG_NAME = "ref-confidence-from-active-region-detection";
+    public static final String SPARSE_GENOTYPE_LIKELIHOODS_LONG_NAME = "sparse-genotype-likelihoods";
 
     @ArgumentCollection
     public StandardCallerArgumentCollection standardArgs = new StandardCallerArgumentCollection();
@@ -61,6 +63,18 @@ public class HaplotypeCallerArgumentCollection extends AssemblyBasedCallerArgume
         return new HaplotypeCallerReadThreadingAssemblerArgumentCollection();
     }
 
+    @Override
+    public List<String> getRegionCallingOutputArgumentsInUse() {
+        final List<String> arguments = super.getRegionCallingOutputArgumentsInUse();
+        if (assemblyStateOutput != null) {
+            arguments.add(DEBUG_ASSEMBLY_REGION_STATE_LONG_NAME);
+        }
+        if (genotyperDebugOutStream != null) {
+            arguments.add(DEBUG_GENOTYPER_OUTPUT_LONG_NAME);
+        }
+        return arguments;
+    }
+
     /**
      * You can use this argument to specify that HC should process a single sample out of a multisample BAM file. This
      * is especially useful if your samples are all in the same file but you need to run them individually through HC
@@ -131,6 +145,18 @@ public class HaplotypeCallerArgumentCollection extends AssemblyBasedCallerArgume
     @Argument(fullName = "indel-size-to-eliminate-in-ref-model", doc = "The size of an indel to check for in the reference model", optional = true)
     public int indelSizeToEliminateInRefModel = 10;
 
+    /**
+     * If set, the reference confidence of the positions outside of active regions is computed from the pileups that are
+     * built to determine the active regions, instead of building pileups over the finalized reads of each inactive region
+     * a second time. This saves a large share of the runtime in GVCF mode, but the reference confidence is only an
+     * approximation of the default one: the reads are not clipped or quality-corrected as they are before genotyping,
+     * and bases next to indels and soft clips count as evidence against the reference. Has no effect when reference
+     * confidence is not emitted or when genotype priors are applied from supporting callsets.
+     */
+    @Advanced
+    @Argument(fullName = REF_CONFIDENCE_FROM_ACTIVE_REGION_DETECTION_LONG_NAME, doc = "Compute the reference confidence of inactive regions from the pileups of active region determination", optional = true)
+    public boolean refConfidenceFromActiveRegionDetection = false;
+
     /**
      * If set, certain "early exit" optimizations in HaplotypeCaller, which aim to save compute and time by skipping
      * calculations if an ActiveRegion is determined to contain no variants, will be disabled. This is most likely to be useful if
@@ -174,6 +200,17 @@ public class HaplotypeCallerArgumentCollection extends AssemblyBasedCallerArgume
     @Argument(fullName = APPLY_FRD_LONG_NAME, doc = "If enabled this argument will apply the DRAGEN-GATK ForeignReadDetection model to the genotyping model for filtering sites.", optional = true)
     public boolean applyFRD = false;
 
+    /**
+     * Before enumerating the genotypes of a sample, collapse the alleles that are not the most likely allele of any of its
+     * reads into a single allele.  This makes genotyping high ploidy samples with many alleles, such as pools, much faster.
+     * The likelihoods of genotypes containing an unsupported allele are approximated from above, and all other
+     * genotype likelihoods are exact.  This argument does not apply to the DRAGEN-GATK genotyping models enabled by
+     * --apply-bqd and --apply-frd.
+     */
+    @Advanced
+    @Argument(fullName = SPARSE_GENOTYPE_LIKELIHOODS_LONG_NAME, doc = "Collapse alleles with no read support in a sample before calculating its genotype likelihoods", optional = true)
+    public boolean sparseGenotypeLikelihoods = false;
+
     @Advanced
     @Argument(fullName = DISABLE_SPANNING_EVENT_GENOTYPING_LONG_NAME, doc = "If enabled this argument will disable inclusion of the '*' spanning event when genotyping events that overlap deletions", optional = true)
     public boolean disableSpanningEventGenotyping = false;
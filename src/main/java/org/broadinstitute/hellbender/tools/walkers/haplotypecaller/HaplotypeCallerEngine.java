@@ -57,6 +57,8 @@ import org.broadinstitute.hellbender.utils.genotyper.SampleList;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 /**
@@ -120,6 +122,9 @@ public class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
 
     private final DragstrParams dragstrParams;
 
+    // the reference confidence of the positions seen by isActive(), when inactive regions reuse it
+    private PileupReferenceConfidenceBuffer pileupReferenceConfidence = null;
+
     public static final byte MIN_TAIL_QUALITY_WITH_ERROR_CORRECTION = 6;
 
     /**
@@ -254,6 +259,12 @@ public class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
                 !hcArgs.overrideSoftclipFragmentCheck,
                 isFlowBased);
 
+        if ( emitReferenceConfidence() && hcArgs.refConfidenceFromActiveRegionDetection && hcArgs.standardArgs.genotypeArgs.supportVariants == null ) {
+            pileupReferenceConfidence = new PileupReferenceConfidenceBuffer(referenceConfidenceModel, readsHeader.getSequenceDictionary(),
+                    samplesList.getSample(0), genotypingEngine.getPloidyModel().samplePloidy(0), hcArgs.indelSizeToEliminateInRefModel,
+                    read -> ! isNonPassingRead(read) && (hcArgs.sampleNameToUse == null || ReadUtils.getSampleName(read, readsHeader).equals(hcArgs.sampleNameToUse)));
+        }
+
         //Allele-specific annotations are not yet supported in the VCF mode
         if (isAlleleSpecificExceptHmerLengthOrStrandBiasMode(annotationEngine) && isVCFMode()){
            throw new UserException("Allele-specific annotations are not yet supported in the VCF mode");
@@ -445,6 +456,17 @@ public class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
         return writer;
     }
 
+    /**
+     * Wrap the variant writers this engine creates for its debug outputs, for example to record the time spent writing
+     * to them. Must be called before any variants are written.
+     *
+     * @param wrapper function from each writer to the writer that wraps it
+     */
+    public void wrapDebugVariantWriters(final UnaryOperator<VariantContextWriter> wrapper) {
+        Utils.nonNull(wrapper);
+        assembledEventMapVcfOutputWriter = assembledEventMapVcfOutputWriter.map(wrapper);
+    }
+
     /**
      * Create a VCF header.
      *
@@ -537,6 +559,10 @@ public class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
      */
     @Override
     public ActivityProfileState isActive(final AlignmentContext context, final ReferenceContext ref, final FeatureContext features) {
+        if ( pileupReferenceConfidence != null ) {
+            pileupReferenceConfidence.add(context == null ? null : context.getBasePileup(), ref);
+        }
+
         if (forceCallingAllelesPresent && features.getValues(hcArgs.alleles, ref).stream().anyMatch(vc -> hcArgs.forceCallFiltered || vc.isNotFiltered())) {
             return new ActivityProfileState(ref.getInterval(), 1.0);
         }
@@ -626,8 +652,9 @@ public class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
 
         if( ! region.isActive() ) {
             // Not active so nothing to do!
-            return referenceModelForNoVariation(region, true, VCpriors);
+            return referenceModelForInactiveRegion(region, VCpriors);
         }
+        discardActiveRegionDetectionReferenceModel(region);
 
         final List<Event> givenAlleles = features.getValues(hcArgs.alleles).stream()
                 .filter(vc -> hcArgs.forceCallFiltered || vc.isNotFiltered())
@@ -974,6 +1001,46 @@ public class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
         }
     }
 
+    /**
+     * Create the ref model result for a region that is not active, using the reference confidence computed during
+     * active region determination when {@link HaplotypeCallerArgumentCollection#refConfidenceFromActiveRegionDetection}
+     * is set and it covers the whole region
+     *
+     * @param region the inactive region to return a no-variation result
+     * @return a list of variant contexts (can be empty) to emit for this ref region
+     */
+    protected List<VariantContext> referenceModelForInactiveRegion(final AssemblyRegion region, final List<VariantContext> VCpriors) {
+        if ( pileupReferenceConfidence != null ) {
+            final List<VariantContext> refConfidence = pileupReferenceConfidence.take(region.getSpan());
+            if ( refConfidence != null ) {
+                return refConfidence;
+            }
+        }
+        return referenceModelForNoVariation(region, true, VCpriors);
+    }
+
+    /**
+     * Drop the reference confidence computed during active region determination for an active region, whose reference
+     * confidence is computed from its finalized reads
+     *
+     * @param region the active region
+     */
+    protected void discardActiveRegionDetectionReferenceModel(final AssemblyRegion region) {
+        if ( pileupReferenceConfidence != null ) {
+            pileupReferenceConfidence.discard(region.getSpan());
+        }
+    }
+
+    /**
+     * Build the assembly graphs of this engine's regions on the given kmer assembly pool instead of a pool of its own.
+     * See {@link ReadThreadingAssembler#setKmerAssemblyExecutor}.
+     *
+     * @param executor pool shared with other engines, owned by the caller
+     */
+    public void setKmerAssemblyExecutor(final ExecutorService executor) {
+        assemblyEngine.setKmerAssemblyExecutor(executor);
+    }
+
     /**
      * Shutdown this HC engine, closing resources as appropriate
      */
@@ -981,6 +1048,7 @@ public class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
         likelihoodCalculationEngine.close();
         if (pdhmmLikelihoodCalculationEngine != null) pdhmmLikelihoodCalculationEngine.close();
         aligner.close();
+        assemblyEngine.close();
         haplotypeBAMWriter.ifPresent(HaplotypeBAMWriter::close);
         assembledEventMapVcfOutputWriter.ifPresent(writer -> {assembledEventMapVariants.get().forEach(event -> writer.add(event)); writer.close();});
         if ( referenceReader != null) {
@@ -1009,10 +1077,7 @@ public class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
 
         final Set<GATKRead> readsToRemove = new LinkedHashSet<>();
         for( final GATKRead rec : activeRegion.getReads() ) {
-            if( AlignmentUtils.unclippedReadLength(rec) < READ_LENGTH_FILTER_THRESHOLD ||
-                    rec.getMappingQuality() < hcArgs.mappingQualityThreshold ||
-                    !ReadFilterLibrary.MATE_ON_SAME_CONTIG_OR_NO_MAPPED_MATE.test(rec) ||
-                    (hcArgs.keepRG != null && !rec.getReadGroup().equals(hcArgs.keepRG)) ) {
+            if( isNonPassingRead(rec) ) {
                 if (HaplotypeCallerGenotypingDebugger.isEnabled()) {
                     HaplotypeCallerGenotypingDebugger.println("Filtered before assembly the read: " + rec);
                 }
@@ -1023,6 +1088,13 @@ public class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
         return readsToRemove;
     }
 
+    private boolean isNonPassingRead( final GATKRead rec ) {
+        return AlignmentUtils.unclippedReadLength(rec) < READ_LENGTH_FILTER_THRESHOLD ||
+                rec.getMappingQuality() < hcArgs.mappingQualityThreshold ||
+                !ReadFilterLibrary.MATE_ON_SAME_CONTIG_OR_NO_MAPPED_MATE.test(rec) ||
+                (hcArgs.keepRG != null && !rec.getReadGroup().equals(hcArgs.keepRG));
+    }
+
     /**
      * Are we emitting a reference confidence in some form, or not?
      *
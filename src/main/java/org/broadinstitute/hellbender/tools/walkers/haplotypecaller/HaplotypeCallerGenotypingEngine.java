@@ -75,7 +75,7 @@ public class HaplotypeCallerGenotypingEngine extends GenotypingEngine<StandardCa
         dragstrParams = DragstrParamUtils.parse(configuration.likelihoodArgs.dragstrParams);
         genotypingModel = hcArgs.applyBQD || hcArgs.applyFRD ?
                 new DRAGENGenotypesModel(applyBQD, hcArgs.applyFRD, hcArgs.informativeReadOverlapMargin, hcArgs.maxEffectiveDepthAdjustment, dragstrParams) :
-                new IndependentSampleGenotypesModel();
+                new IndependentSampleGenotypesModel(hcArgs.sparseGenotypeLikelihoods);
         maxGenotypeCountToEnumerate = configuration.standardArgs.genotypeArgs.maxGenotypeCount;
         referenceConfidenceMode = configuration.emitReferenceConfidence;
         snpHeterozygosity = configuration.standardArgs.genotypeArgs.snpHeterozygosity;
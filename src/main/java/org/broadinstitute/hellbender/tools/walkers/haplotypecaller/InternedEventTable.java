@@ -0,0 +1,92 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
+
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.haplotype.Event;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A table of the distinct events of a calling region, each of which gets a canonical integer id once, so that sets of
+ * events can be represented as bitsets of ids rather than as sets of {@link Event}s.
+ *
+ * <p>
+ *     Ids are assigned in the order of the events given to the constructor, so when those events are sorted the ids of a
+ *     set of events enumerate them in sorted order, and set operations (unions, intersections and containment tests) cost
+ *     a few word operations instead of hashing every event.
+ * </p>
+ */
+final class InternedEventTable {
+    private final List<Event> events;
+    private final Map<Event, Integer> ids;
+
+    /**
+     * @param eventsInOrder the distinct events of the region, in the order of their ids
+     */
+    InternedEventTable(final List<Event> eventsInOrder) {
+        Utils.nonNull(eventsInOrder);
+        events = new ArrayList<>(eventsInOrder);
+        ids = new HashMap<>(events.size() * 2);
+        for (int id = 0; id < events.size(); id++) {
+            final Event event = events.get(id);
+            Utils.validateArg(ids.put(event, id) == null, () -> "duplicate event " + event);
+        }
+    }
+
+    /**
+     * @return the number of events in the table
+     */
+    int size() {
+        return events.size();
+    }
+
+    /**
+     * @return the id of the event, or -1 if the event is not in the table
+     */
+    int id(final Event event) {
+        return ids.getOrDefault(event, -1);
+    }
+
+    /**
+     * @return the event with this id
+     */
+    Event event(final int id) {
+        return events.get(id);
+    }
+
+    /**
+     * @return all of the events, in the order of their ids
+     */
+    List<Event> events() {
+        return events;
+    }
+
+    /**
+     * @return the bitset of the ids of those events that are in the table
+     */
+    BitSet ids(final Collection<Event> eventsToIntern) {
+        final BitSet result = new BitSet(events.size());
+        for (final Event event : eventsToIntern) {
+            final int id = id(event);
+            if (id >= 0) {
+                result.set(id);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the events whose ids are set, in the order of their ids
+     */
+    List<Event> events(final BitSet eventIds) {
+        final List<Event> result = new ArrayList<>(eventIds.cardinality());
+        for (int id = eventIds.nextSetBit(0); id >= 0; id = eventIds.nextSetBit(id + 1)) {
+            result.add(events.get(id));
+        }
+        return result;
+    }
+}
@@ -1,6 +1,9 @@
 package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
 
 import com.google.common.annotations.VisibleForTesting;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import org.broadinstitute.hellbender.utils.Utils;
 
 import java.util.*;
@@ -9,13 +12,33 @@ import java.util.*;
  * generic utility class that counts kmers
  *
  * Basically you add kmers to the counter, and it tells you how many occurrences of each kmer it's seen.
+ *
+ * Kmers of up to {@link PackedKmers#MAX_PACKED_KMER_SIZE} upper-case A, C, G and T bases are counted as 2-bit packed
+ * longs in a primitive hash table, so counting them allocates no {@link Kmer} objects; all other kmers are counted
+ * as {@link Kmer}s.  {@link CountedKmer}s are only created when {@link #getCountedKmers()} is called, and are
+ * returned in the same order they would have been if every kmer had been counted as a {@link Kmer}.
  */
 public final class KMerCounter {
 
+    private static final int NO_INDEX = -1;
+
+    /**
+     * The index of each distinct kmer in the order they were first added, for packed and unpackable kmers
+     */
+    private final Long2IntOpenHashMap packedKmerIndices = new Long2IntOpenHashMap();
+    private final Map<Kmer, Integer> unpackedKmerIndices = new HashMap<>();
+
     /**
-     * A map of for each kmer to its num occurrences in addKmers
+     * The packed kmer ({@link PackedKmers#NOT_PACKABLE} for kmers that are kept in unpackedKmerIndices) and the count
+     * of each distinct kmer, by index
      */
-    private final Map<Kmer, CountedKmer> countsByKMer = new HashMap<>();
+    private final LongArrayList packedKmers = new LongArrayList();
+    private final IntArrayList counts = new IntArrayList();
+
+    /**
+     * A map of for each kmer to its num occurrences in addKmers, built lazily by {@link #getCountedKmers()}
+     */
+    private Map<Kmer, CountedKmer> countsByKMer = null;
     private final int kmerLength;
 
     /**
@@ -26,6 +49,7 @@ public final class KMerCounter {
     public KMerCounter(final int kmerLength) {
         Utils.validateArg( kmerLength > 0, () -> "kmerLength must be > 0 but got " + kmerLength);
         this.kmerLength = kmerLength;
+        packedKmerIndices.defaultReturnValue(NO_INDEX);
     }
 
     /**
@@ -35,15 +59,33 @@ public final class KMerCounter {
      */
     public int getKmerCount(final Kmer kmer) {
         Utils.nonNull(kmer, "kmer cannot be null");
-        final CountedKmer counted = countsByKMer.get(kmer);
-        return counted == null ? 0 : counted.count;
+        final int index = indexOf(kmer);
+        return index == NO_INDEX ? 0 : counts.getInt(index);
     }
 
     /**
      * Get an unordered collection of the counted kmers in this counter
+     *
+     * The collection is a snapshot of the current counts, and is reused until kmers are added or the counter is
+     * cleared.
+     *
      * @return a non-null collection
      */
     public Collection<CountedKmer> getCountedKmers() {
+        if ( countsByKMer == null ) {
+            // adding the kmers in the order they were first seen gives the same iteration order as the map the
+            // kmers used to be counted in
+            final Kmer[] unpackedKmers = new Kmer[packedKmers.size()];
+            for ( final Map.Entry<Kmer, Integer> entry : unpackedKmerIndices.entrySet() ) {
+                unpackedKmers[entry.getValue()] = entry.getKey();
+            }
+            countsByKMer = new HashMap<>();
+            for ( int i = 0; i < packedKmers.size(); i++ ) {
+                final long packed = packedKmers.getLong(i);
+                final Kmer kmer = packed == PackedKmers.NOT_PACKABLE ? unpackedKmers[i] : new Kmer(PackedKmers.unpack(packed, kmerLength));
+                countsByKMer.put(kmer, new CountedKmer(kmer, counts.getInt(i)));
+            }
+        }
         return countsByKMer.values();
     }
 
@@ -66,7 +108,11 @@ public final class KMerCounter {
      * Remove all current counts, resetting the counter to an empty state
      */
     public void clear() {
-        countsByKMer.clear();
+        packedKmerIndices.clear();
+        unpackedKmerIndices.clear();
+        packedKmers.clear();
+        counts.clear();
+        countsByKMer = null;
     }
 
     /**
@@ -79,18 +125,101 @@ public final class KMerCounter {
         Utils.validateArg(kmer.length() == kmerLength, () -> "bad kmer length " + kmer + " expected size " + kmerLength);
         Utils.validateArg( kmerCount >= 0, () -> "bad kmerCount " + kmerCount);
 
-        CountedKmer countFromMap = countsByKMer.get(kmer);
-        if ( countFromMap == null ) {
-            countFromMap = new CountedKmer(kmer);
-            countsByKMer.put(kmer, countFromMap);
+        final long packed = kmer.pack();
+        if ( packed == PackedKmers.NOT_PACKABLE ) {
+            addUnpackedKmer(kmer, kmerCount);
+        } else {
+            addPackedKmer(packed, kmerCount);
+        }
+    }
+
+    /**
+     * Add each of the kmers of sequence that occurred kmerCount times
+     *
+     * Packable kmers are extracted with a rolling 2-bit encoding, so this takes constant time per base and allocates
+     * no {@link Kmer} objects for them.
+     *
+     * @param sequence a non-null sequence, which must not be modified by the caller afterwards
+     * @param kmerCount the number of occurrences of each kmer
+     */
+    public void addKmers(final byte[] sequence, final int kmerCount) {
+        Utils.nonNull(sequence, "sequence cannot be null");
+        Utils.validateArg( kmerCount >= 0, () -> "bad kmerCount " + kmerCount);
+
+        if ( kmerLength > PackedKmers.MAX_PACKED_KMER_SIZE ) {
+            for ( int offset = 0; offset <= sequence.length - kmerLength; offset++ ) {
+                addUnpackedKmer(new Kmer(sequence, offset, kmerLength), kmerCount);
+            }
+            return;
+        }
+
+        final long kmerMask = PackedKmers.kmerMask(kmerLength);
+        long kmer = 0;
+        int lastUnpackableBase = -1;
+        for ( int i = 0; i < sequence.length; i++ ) {
+            final int code = PackedKmers.baseToCode(sequence[i]);
+            if ( code == PackedKmers.NOT_A_BASE ) {
+                lastUnpackableBase = i;
+            } else {
+                kmer = ((kmer << 2) | code) & kmerMask;
+            }
+
+            final int offset = i - kmerLength + 1;
+            if ( offset < 0 ) {
+                continue;
+            }
+            if ( lastUnpackableBase >= offset ) {
+                addUnpackedKmer(new Kmer(sequence, offset, kmerLength), kmerCount);
+            } else {
+                // all kmerLength bases of this kmer have been shifted into kmer since the last unpackable base
+                addPackedKmer(kmer, kmerCount);
+            }
+        }
+    }
+
+    private void addPackedKmer(final long packed, final int kmerCount) {
+        final int index = packedKmerIndices.get(packed);
+        if ( index == NO_INDEX ) {
+            packedKmerIndices.put(packed, packedKmers.size());
+            addNewKmer(packed, kmerCount);
+        } else {
+            counts.set(index, counts.getInt(index) + kmerCount);
+        }
+        countsByKMer = null;
+    }
+
+    private void addUnpackedKmer(final Kmer kmer, final int kmerCount) {
+        final Integer index = unpackedKmerIndices.get(kmer);
+        if ( index == null ) {
+            unpackedKmerIndices.put(kmer, packedKmers.size());
+            addNewKmer(PackedKmers.NOT_PACKABLE, kmerCount);
+        } else {
+            counts.set(index, counts.getInt(index) + kmerCount);
+        }
+        countsByKMer = null;
+    }
+
+    private void addNewKmer(final long packed, final int kmerCount) {
+        packedKmers.add(packed);
+        counts.add(kmerCount);
+    }
+
+    private int indexOf(final Kmer kmer) {
+        if ( kmer.length() != kmerLength ) {
+            return NO_INDEX;
+        }
+        final long packed = kmer.pack();
+        if ( packed != PackedKmers.NOT_PACKABLE ) {
+            return packedKmerIndices.get(packed);
         }
-        countFromMap.count += kmerCount;
+        final Integer index = unpackedKmerIndices.get(kmer);
+        return index == null ? NO_INDEX : index;
     }
 
     @Override
     public String toString() {
         final StringBuilder b = new StringBuilder("KMerCounter{");
-        b.append("counting ").append(countsByKMer.size()).append(" distinct kmers");
+        b.append("counting ").append(packedKmers.size()).append(" distinct kmers");
         b.append("\n}");
         return b.toString();
     }
@@ -99,8 +228,9 @@ public final class KMerCounter {
         final Kmer kmer;
         int count = 0;
 
-        private CountedKmer(final Kmer kmer) {
+        private CountedKmer(final Kmer kmer, final int count) {
             this.kmer = kmer;
+            this.count = count;
         }
 
         public Kmer getKmer() {
@@ -113,6 +113,16 @@ public final class Kmer {
         return length;
     }
 
+    /**
+     * Get this kmer packed into a long at 2 bits per base, without copying its bases
+     *
+     * @return the packed kmer, or {@link PackedKmers#NOT_PACKABLE} if this kmer is too long to be packed or contains
+     * bases other than upper-case A, C, G and T
+     */
+    public long pack() {
+        return PackedKmers.pack(bases, start, length);
+    }
+
     /**
      * Gets a set of differing positions and bases from another k-mer, limiting up to a max distance.
      * For example, if this = "ACATT" and other = "ACGGT":
@@ -141,10 +151,11 @@ public final class Kmer {
         int dist = 0;
         if (length == other.length()) {
             final byte[] f2 = other.bases;
+            final int otherStart = other.start;
             for (int i=0; i < length; i++) {
-                if (bases[start + i] != f2[i]) {
+                if (bases[start + i] != f2[otherStart + i]) {
                     differingIndeces[dist] = i;
-                    differingBases[dist++] = f2[i];
+                    differingBases[dist++] = f2[otherStart + i];
                     if (dist > maxDistance) {
                         return -1;
                     }
@@ -27,6 +27,8 @@ public final class LikelihoodEngineArgumentCollection implements Serializable {
     public static final String LIKELIHOOD_CALCULATION_ENGINE_FULL_NAME = "likelihood-calculation-engine";
     public static final String PAIR_HMM_GAP_CONTINUATION_PENALTY_LONG_NAME = "pair-hmm-gap-continuation-penalty";
     public static final String PAIR_HMM_IMPLEMENTATION_LONG_NAME = "pair-hmm-implementation";
+    public static final String PAIR_HMM_RESULTS_FILE_LONG_NAME = "pair-hmm-results-file";
+    public static final String PAIR_HMM_LIKELIHOOD_CACHE_SIZE_LONG_NAME = "pair-hmm-likelihood-cache-size";
     public static final String PCR_INDEL_MODEL_LONG_NAME = "pcr-indel-model";
     public static final String PHRED_SCALED_GLOBAL_READ_MISMAPPING_RATE_LONG_NAME = "phred-scaled-global-read-mismapping-rate";
     public static final String DISABLE_SYMMETRIC_HMM_NORMALIZING_LONG_NAME = "disable-symmetric-hmm-normalizing";
@@ -127,9 +129,18 @@ public final class LikelihoodEngineArgumentCollection implements Serializable {
      * Argument for generating a file of all of the inputs and outputs for the pair hmm
      */
     @Advanced
-    @Argument(fullName="pair-hmm-results-file", doc="File to write exact pairHMM inputs/outputs to for debugging purposes", optional = true)
+    @Argument(fullName=PAIR_HMM_RESULTS_FILE_LONG_NAME, doc="File to write exact pairHMM inputs/outputs to for debugging purposes", optional = true)
     public GATKPath pairHmmResultsFile = null;
 
+    /**
+     * Overlapping assembly regions and repeated genotyping of a region often evaluate the same read against the same
+     * haplotype more than once. When this is greater than 0, up to this many PairHMM likelihoods are cached by the
+     * content of the read and haplotype, and least recently used likelihoods are evicted first.
+     */
+    @Advanced
+    @Argument(fullName = PAIR_HMM_LIKELIHOOD_CACHE_SIZE_LONG_NAME, doc = "Maximum number of read/haplotype PairHMM likelihoods to cache (0 to disable)", optional = true, minValue = 0)
+    public int pairHMMLikelihoodCacheSize = 0;
+
     @ArgumentCollection
     public PairHMMNativeArgumentCollection pairHMMNativeArgs = new PairHMMNativeArgumentCollection();
 
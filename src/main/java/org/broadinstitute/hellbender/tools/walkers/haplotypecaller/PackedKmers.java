@@ -0,0 +1,88 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
+
+import org.broadinstitute.hellbender.utils.Utils;
+
+/**
+ * Utilities for encoding kmers of up to {@link #MAX_PACKED_KMER_SIZE} upper-case A, C, G and T bases as longs at
+ * 2 bits per base.
+ *
+ * The first base of a kmer is stored in the most significant occupied bits, so the kmer starting one base later in a
+ * sequence can be computed in constant time from the previous one with
+ * <code>((kmer << 2) | baseToCode(nextBase)) & kmerMask(kmerSize)</code>.
+ */
+public final class PackedKmers {
+
+    /**
+     * The largest kmer size whose kmers can be packed into a long at 2 bits per base
+     */
+    public static final int MAX_PACKED_KMER_SIZE = 31;
+
+    /**
+     * Returned by {@link #baseToCode} for bases that cannot be packed
+     */
+    public static final int NOT_A_BASE = -1;
+
+    /**
+     * Returned by {@link #pack} for kmers that cannot be packed. As packed kmers use at most 62 bits this is never a
+     * valid packed kmer.
+     */
+    public static final long NOT_PACKABLE = -1L;
+
+    private static final byte[] BASES = {'A', 'C', 'G', 'T'};
+
+    private PackedKmers() {}
+
+    /**
+     * @return the 2-bit code of base, or {@link #NOT_A_BASE} if base is not one of the upper-case bases A, C, G or T
+     */
+    public static int baseToCode(final byte base) {
+        switch ( base ) {
+            case 'A': return 0;
+            case 'C': return 1;
+            case 'G': return 2;
+            case 'T': return 3;
+            default: return NOT_A_BASE;
+        }
+    }
+
+    /**
+     * @param kmerSize must be between 1 and {@link #MAX_PACKED_KMER_SIZE}
+     * @return a mask selecting the bits used by a packed kmer of kmerSize bases
+     */
+    public static long kmerMask(final int kmerSize) {
+        Utils.validateArg(kmerSize > 0 && kmerSize <= MAX_PACKED_KMER_SIZE, () -> "kmerSize must be between 1 and " + MAX_PACKED_KMER_SIZE + " but got " + kmerSize);
+        return (1L << (2 * kmerSize)) - 1;
+    }
+
+    /**
+     * Pack the kmerSize bases of sequence starting at start into a long
+     *
+     * @return the packed kmer, or {@link #NOT_PACKABLE} if kmerSize is larger than {@link #MAX_PACKED_KMER_SIZE} or
+     * any of the bases cannot be packed
+     */
+    public static long pack(final byte[] sequence, final int start, final int kmerSize) {
+        if ( kmerSize > MAX_PACKED_KMER_SIZE ) {
+            return NOT_PACKABLE;
+        }
+        long kmer = 0;
+        for ( int i = start; i < start + kmerSize; i++ ) {
+            final int code = baseToCode(sequence[i]);
+            if ( code == NOT_A_BASE ) {
+                return NOT_PACKABLE;
+            }
+            kmer = (kmer << 2) | code;
+        }
+        return kmer;
+    }
+
+    /**
+     * @return the kmerSize bases of the packed kmer
+     */
+    public static byte[] unpack(final long kmer, final int kmerSize) {
+        final byte[] bases = new byte[kmerSize];
+        for ( int i = 0; i < kmerSize; i++ ) {
+            bases[i] = BASES[(int) (kmer >>> (2 * (kmerSize - 1 - i))) & 3];
+        }
+        return bases;
+    }
+}
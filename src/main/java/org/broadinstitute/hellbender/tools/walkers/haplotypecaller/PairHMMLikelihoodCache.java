@@ -0,0 +1,291 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
+
+import com.google.common.annotations.VisibleForTesting;
+import htsjdk.variant.variantcontext.Allele;
+import org.broadinstitute.hellbender.utils.LRUCache;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.genotyper.LikelihoodMatrix;
+import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
+import org.broadinstitute.hellbender.utils.pairhmm.PairHMM;
+import org.broadinstitute.hellbender.utils.pairhmm.PairHMMInputScoreImputation;
+import org.broadinstitute.hellbender.utils.pairhmm.PairHMMInputScoreImputator;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bounded, least-recently-used cache of PairHMM log10 likelihoods, keyed on the content of the read and haplotype
+ * they were computed from.
+ *
+ * <p>
+ *     Overlapping assembly regions and repeated genotyping of the same region (for example when force-calling
+ *     alleles) often evaluate the same processed read against the same haplotype bases again. The PairHMM result only
+ *     depends on the read bases, base qualities, gap open and continuation penalties and the haplotype bases, so for
+ *     such read/haplotype pairs the cached value can be used instead of filling the PairHMM matrices again.
+ * </p>
+ *
+ * <p>
+ *     Reads are only skipped by the PairHMM when their likelihoods against every haplotype are in the cache; the
+ *     remaining reads are evaluated together against all haplotypes so that vectorized implementations still see
+ *     whole batches. This class is not thread-safe.
+ * </p>
+ */
+final class PairHMMLikelihoodCache {
+
+    private final LRUCache<ReadHaplotypeKey, Double> likelihoods;
+
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * @param maxEntries the maximum number of read/haplotype likelihoods to keep, must be > 0
+     */
+    PairHMMLikelihoodCache(final int maxEntries) {
+        Utils.validateArg(maxEntries > 0, () -> "maxEntries must be > 0 but got " + maxEntries);
+        likelihoods = new LRUCache<>(maxEntries);
+    }
+
+    /**
+     * Fill in the log10 likelihoods of the processed reads given each haplotype, using cached likelihoods where they
+     * are available and the PairHMM otherwise.
+     *
+     * @param logLikelihoods the matrix to fill, whose evidence corresponds one to one to processedReads
+     * @param processedReads the reads, with qualities modified for the PairHMM, to evaluate
+     * @param inputScoreImputator the imputator of gap penalties the PairHMM will use
+     * @param pairHMM the PairHMM to compute likelihoods that are not in the cache with
+     */
+    void computeLog10Likelihoods(final LikelihoodMatrix<GATKRead, Haplotype> logLikelihoods,
+                                 final List<GATKRead> processedReads,
+                                 final PairHMMInputScoreImputator inputScoreImputator,
+                                 final PairHMM pairHMM) {
+        final List<Haplotype> haplotypes = logLikelihoods.alleles();
+        final int haplotypeCount = haplotypes.size();
+        final HaplotypeKey[] haplotypeKeys = new HaplotypeKey[haplotypeCount];
+        for (int h = 0; h < haplotypeCount; h++) {
+            haplotypeKeys[h] = new HaplotypeKey(haplotypes.get(h).getBases());
+        }
+
+        final List<ReadKey> uncachedReadKeys = new ArrayList<>();
+        final List<GATKRead> uncachedReads = new ArrayList<>();
+        final List<Integer> uncachedReadIndices = new ArrayList<>();
+        // the imputed gap penalties of the uncached reads, so that the PairHMM doesn't impute them again
+        final Map<GATKRead, PairHMMInputScoreImputation> uncachedImputations = new IdentityHashMap<>();
+        for (int r = 0; r < processedReads.size(); r++) {
+            final GATKRead read = processedReads.get(r);
+            final PairHMMInputScoreImputation inputScoreImputation = inputScoreImputator.impute(read);
+            final ReadKey readKey = new ReadKey(read, inputScoreImputation);
+            boolean allCached = true;
+            for (int h = 0; h < haplotypeCount && allCached; h++) {
+                final Double likelihood = likelihoods.get(new ReadHaplotypeKey(readKey, haplotypeKeys[h]));
+                if (likelihood == null) {
+                    allCached = false;
+                } else {
+                    logLikelihoods.set(h, r, likelihood);
+                }
+            }
+            if (allCached) {
+                hits += haplotypeCount;
+            } else {
+                misses += haplotypeCount;
+                uncachedReadKeys.add(readKey);
+                uncachedReads.add(read);
+                uncachedReadIndices.add(r);
+                uncachedImputations.put(read, inputScoreImputation);
+            }
+        }
+
+        if (uncachedReads.isEmpty()) {
+            return;
+        }
+        final LikelihoodMatrix<GATKRead, Haplotype> uncachedLikelihoods = uncachedReads.size() == processedReads.size() ?
+                logLikelihoods : new EvidenceSubsetLikelihoodMatrix(logLikelihoods, uncachedReadIndices);
+        pairHMM.computeLog10Likelihoods(uncachedLikelihoods, uncachedReads, read -> {
+            final PairHMMInputScoreImputation inputScoreImputation = uncachedImputations.get(read);
+            return inputScoreImputation != null ? inputScoreImputation : inputScoreImputator.impute(read);
+        });
+        for (int r = 0; r < uncachedReads.size(); r++) {
+            for (int h = 0; h < haplotypeCount; h++) {
+                likelihoods.put(new ReadHaplotypeKey(uncachedReadKeys.get(r), haplotypeKeys[h]), uncachedLikelihoods.get(h, r));
+            }
+        }
+    }
+
+    /**
+     * @return the number of read/haplotype likelihoods that were taken from the cache
+     */
+    long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return the number of read/haplotype likelihoods that were computed by the PairHMM
+     */
+    long getMisses() {
+        return misses;
+    }
+
+    @VisibleForTesting
+    int size() {
+        return likelihoods.size();
+    }
+
+    @Override
+    public String toString() {
+        final long lookups = hits + misses;
+        return String.format("PairHMM likelihood cache: %d hits, %d misses (%.2f%% hit rate)", hits, misses, lookups == 0 ? 0.0 : 100.0 * hits / lookups);
+    }
+
+    /**
+     * The bases of a haplotype, with their hash code computed once per batch of reads
+     */
+    private static final class HaplotypeKey {
+        private final byte[] bases;
+        private final int hash;
+
+        private HaplotypeKey(final byte[] bases) {
+            this.bases = bases;
+            this.hash = Arrays.hashCode(bases);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return this == o || (o instanceof HaplotypeKey && hash == ((HaplotypeKey) o).hash && Arrays.equals(bases, ((HaplotypeKey) o).bases));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * All of the inputs of the PairHMM that come from a processed read
+     */
+    private static final class ReadKey {
+        private final byte[] bases;
+        private final byte[] quals;
+        private final byte[] insertionGOP;
+        private final byte[] deletionGOP;
+        private final byte[] overallGCP;
+        private final int hash;
+
+        private ReadKey(final GATKRead read, final PairHMMInputScoreImputation inputScoreImputation) {
+            bases = read.getBases();
+            quals = read.getBaseQualities();
+            insertionGOP = inputScoreImputation.insOpenPenalties();
+            deletionGOP = inputScoreImputation.delOpenPenalties();
+            overallGCP = inputScoreImputation.gapContinuationPenalties();
+            int h = Arrays.hashCode(bases);
+            h = 31 * h + Arrays.hashCode(quals);
+            h = 31 * h + Arrays.hashCode(insertionGOP);
+            h = 31 * h + Arrays.hashCode(deletionGOP);
+            hash = 31 * h + Arrays.hashCode(overallGCP);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ReadKey)) {
+                return false;
+            }
+            final ReadKey other = (ReadKey) o;
+            return hash == other.hash && Arrays.equals(bases, other.bases) && Arrays.equals(quals, other.quals)
+                    && Arrays.equals(insertionGOP, other.insertionGOP) && Arrays.equals(deletionGOP, other.deletionGOP)
+                    && Arrays.equals(overallGCP, other.overallGCP);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class ReadHaplotypeKey {
+        private final ReadKey read;
+        private final HaplotypeKey haplotype;
+
+        private ReadHaplotypeKey(final ReadKey read, final HaplotypeKey haplotype) {
+            this.read = read;
+            this.haplotype = haplotype;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ReadHaplotypeKey)) {
+                return false;
+            }
+            final ReadHaplotypeKey other = (ReadHaplotypeKey) o;
+            return read.equals(other.read) && haplotype.equals(other.haplotype);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * read.hash + haplotype.hash;
+        }
+    }
+
+    /**
+     * A view of a subset of the evidence of a likelihood matrix, so that the PairHMM only fills in the likelihoods of
+     * the reads that were not found in the cache.
+     */
+    private static final class EvidenceSubsetLikelihoodMatrix implements LikelihoodMatrix<GATKRead, Haplotype> {
+        private final LikelihoodMatrix<GATKRead, Haplotype> matrix;
+        private final List<Integer> evidenceIndices;
+        private final List<GATKRead> evidence;
+
+        private EvidenceSubsetLikelihoodMatrix(final LikelihoodMatrix<GATKRead, Haplotype> matrix, final List<Integer> evidenceIndices) {
+            this.matrix = matrix;
+            this.evidenceIndices = evidenceIndices;
+            this.evidence = new ArrayList<>(evidenceIndices.size());
+            for (final int index : evidenceIndices) {
+                evidence.add(matrix.getEvidence(index));
+            }
+        }
+
+        @Override
+        public List<GATKRead> evidence() { return evidence; }
+
+        @Override
+        public List<Haplotype> alleles() { return matrix.alleles(); }
+
+        @Override
+        public void set(final int alleleIndex, final int evidenceIndex, final double value) { matrix.set(alleleIndex, evidenceIndices.get(evidenceIndex), value); }
+
+        @Override
+        public double get(final int alleleIndex, final int evidenceIndex) { return matrix.get(alleleIndex, evidenceIndices.get(evidenceIndex)); }
+
+        @Override
+        public int indexOfAllele(final Allele allele) { return matrix.indexOfAllele(allele); }
+
+        @Override
+        public int indexOfEvidence(final GATKRead evidence) { return this.evidence.indexOf(evidence); }
+
+        @Override
+        public int numberOfAlleles() { return matrix.numberOfAlleles(); }
+
+        @Override
+        public int evidenceCount() { return evidence.size(); }
+
+        @Override
+        public Haplotype getAllele(final int alleleIndex) { return matrix.getAllele(alleleIndex); }
+
+        @Override
+        public GATKRead getEvidence(final int evidenceIndex) { return evidence.get(evidenceIndex); }
+
+        @Override
+        public void copyAlleleLikelihoods(final int alleleIndex, final double[] dest, final int offset) {
+            for (int r = 0; r < evidenceIndices.size(); r++) {
+                dest[offset + r] = get(alleleIndex, r);
+            }
+        }
+    }
+}
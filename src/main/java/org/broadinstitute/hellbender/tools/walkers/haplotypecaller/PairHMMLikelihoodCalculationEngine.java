@@ -2,6 +2,7 @@ package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
 
 import com.google.common.annotations.VisibleForTesting;
 import htsjdk.samtools.SAMFileHeader;
+import htsjdk.variant.variantcontext.Allele;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.broadinstitute.gatk.nativebindings.pairhmm.PairHMMNativeArguments;
@@ -41,6 +42,11 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
 
     private final PairHMM pairHMM;
 
+    /**
+     * Cache of PairHMM results by read and haplotype content, or null if likelihoods are not cached
+     */
+    private final PairHMMLikelihoodCache likelihoodCache;
+
     // DRAGEN-GATK related parameters
     private final DragstrParams dragstrParams;
     private final boolean dynamicDisqualification;
@@ -130,7 +136,61 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
                                               final boolean symmetricallyNormalizeAllelesToReference,
                                               final boolean disableCapReadQualitiesToMapQ,
                                               final boolean modifySoftclippedBases) {
-        Utils.nonNull(hmmType, "hmmType is null");
+        this(constantGCP, dragstrParams, arguments, hmmType, resultsFile, log10globalReadMismappingRate, pcrErrorModel, baseQualityScoreThreshold,
+                dynamicReadDisqualificaiton, readDisqualificationScale, expectedErrorRatePerBase, symmetricallyNormalizeAllelesToReference,
+                disableCapReadQualitiesToMapQ, modifySoftclippedBases, 0);
+    }
+
+    /**
+     * Create a new PairHMMLikelihoodCalculationEngine using provided parameters and hmm to do its calculations
+     *
+     * @param likelihoodCacheSize the maximum number of read/haplotype likelihoods to cache by the content of the read and
+     *                            haplotype, so that pairs seen again (e.g. in overlapping assembly regions) skip the
+     *                            PairHMM. 0 disables the cache. The cache is not used when a results file is written.
+     *
+     * See {@link #PairHMMLikelihoodCalculationEngine(byte, DragstrParams, PairHMMNativeArguments, PairHMM.Implementation, GATKPath, double, PCRErrorModel, byte, boolean, double, double, boolean, boolean, boolean)}
+     * for the other parameters.
+     */
+    public PairHMMLikelihoodCalculationEngine(final byte constantGCP,
+                                              final DragstrParams dragstrParams,
+                                              final PairHMMNativeArguments arguments,
+                                              final PairHMM.Implementation hmmType,
+                                              final GATKPath resultsFile,
+                                              final double log10globalReadMismappingRate,
+                                              final PCRErrorModel pcrErrorModel,
+                                              final byte baseQualityScoreThreshold,
+                                              final boolean dynamicReadDisqualificaiton,
+                                              final double readDisqualificationScale,
+                                              final double expectedErrorRatePerBase,
+                                              final boolean symmetricallyNormalizeAllelesToReference,
+                                              final boolean disableCapReadQualitiesToMapQ,
+                                              final boolean modifySoftclippedBases,
+                                              final int likelihoodCacheSize) {
+        this(constantGCP, dragstrParams, Utils.nonNull(hmmType, "hmmType is null").makeNewHMM(arguments), resultsFile, log10globalReadMismappingRate,
+                pcrErrorModel, baseQualityScoreThreshold, dynamicReadDisqualificaiton, readDisqualificationScale, expectedErrorRatePerBase,
+                symmetricallyNormalizeAllelesToReference, disableCapReadQualitiesToMapQ, modifySoftclippedBases, likelihoodCacheSize);
+    }
+
+    /**
+     * Create a new PairHMMLikelihoodCalculationEngine that does its calculations with the given pairHMM, which it closes
+     * when it is closed.
+     */
+    @VisibleForTesting
+    PairHMMLikelihoodCalculationEngine(final byte constantGCP,
+                                       final DragstrParams dragstrParams,
+                                       final PairHMM pairHMM,
+                                       final GATKPath resultsFile,
+                                       final double log10globalReadMismappingRate,
+                                       final PCRErrorModel pcrErrorModel,
+                                       final byte baseQualityScoreThreshold,
+                                       final boolean dynamicReadDisqualificaiton,
+                                       final double readDisqualificationScale,
+                                       final double expectedErrorRatePerBase,
+                                       final boolean symmetricallyNormalizeAllelesToReference,
+                                       final boolean disableCapReadQualitiesToMapQ,
+                                       final boolean modifySoftclippedBases,
+                                       final int likelihoodCacheSize) {
+        Utils.nonNull(pairHMM, "pairHMM is null");
         Utils.nonNull(pcrErrorModel, "pcrErrorModel is null");
         if (constantGCP < 0){
             throw new IllegalArgumentException("gap continuation penalty must be non-negative");
@@ -138,14 +198,19 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
         if (log10globalReadMismappingRate > 0){
             throw new IllegalArgumentException("log10globalReadMismappingRate must be negative");
         }
+        if (likelihoodCacheSize < 0){
+            throw new IllegalArgumentException("likelihoodCacheSize must be non-negative");
+        }
         this.dragstrParams = dragstrParams;
         this.constantGCP = constantGCP;
         this.log10globalReadMismappingRate = log10globalReadMismappingRate;
         this.pcrErrorModel = this.dragstrParams == null ? pcrErrorModel : PCRErrorModel.NONE;
-        this.pairHMM = hmmType.makeNewHMM(arguments);
+        this.pairHMM = pairHMM;
         if (resultsFile != null) {
             pairHMM.setAndInitializeDebugOutputStream(new OutputStreamWriter(resultsFile.getOutputStream()));
         }
+        // cached likelihoods would be missing from the results file
+        this.likelihoodCache = likelihoodCacheSize > 0 && resultsFile == null ? new PairHMMLikelihoodCache(likelihoodCacheSize) : null;
         this.dynamicDisqualification = dynamicReadDisqualificaiton;
         this.readDisqualificationScale = readDisqualificationScale;
         this.symmetricallyNormalizeAllelesToReference = symmetricallyNormalizeAllelesToReference;
@@ -164,6 +229,14 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
     @Override
     public void close() {
         pairHMM.close();
+        if (likelihoodCache != null) {
+            logger.info(likelihoodCache.toString());
+        }
+    }
+
+    @VisibleForTesting
+    PairHMMLikelihoodCache getLikelihoodCache() {
+        return likelihoodCache;
     }
 
     @Override
@@ -192,10 +265,7 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
 
         // Add likelihoods for each sample's reads to our result
         final AlleleLikelihoods<GATKRead, Haplotype> result = new AlleleLikelihoods<>(samples, haplotypes, perSampleReadList);
-        final int sampleCount = result.numberOfSamples();
-        for (int i = 0; i < sampleCount; i++) {
-            computeReadLikelihoods(result.sampleMatrix(i));
-        }
+        computeReadLikelihoods(result);
 
         result.normalizeLikelihoods(log10globalReadMismappingRate, symmetricallyNormalizeAllelesToReference);
         filterPoorlyModeledEvidence(result, dynamicDisqualification, expectedErrorRatePerBase, readDisqualificationScale);
@@ -257,7 +327,30 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
         pairHMM.initialize(haplotypes, perSampleReadList, readMaxLength, haplotypeMaxLength);
     }
 
-    private void computeReadLikelihoods(final LikelihoodMatrix<GATKRead, Haplotype> likelihoods) {
+    /**
+     * Compute the likelihoods of the reads of all samples in a single batch, so that the PairHMM (and in particular the
+     * multi-threaded native implementation) sees all of the reads of the region at once rather than one sample at a time
+     */
+    private void computeReadLikelihoods(final AlleleLikelihoods<GATKRead, Haplotype> result) {
+        final int sampleCount = result.numberOfSamples();
+        final List<LikelihoodMatrix<GATKRead, Haplotype>> sampleMatrices = new ArrayList<>(sampleCount);
+        final List<GATKRead> processedReads = new ArrayList<>();
+        for (int i = 0; i < sampleCount; i++) {
+            final LikelihoodMatrix<GATKRead, Haplotype> sampleMatrix = result.sampleMatrix(i);
+            if (sampleMatrix.evidenceCount() > 0) {
+                sampleMatrices.add(sampleMatrix);
+                processedReads.addAll(processReads(sampleMatrix));
+            }
+        }
+        if (sampleMatrices.isEmpty()) {
+            return;
+        }
+        final LikelihoodMatrix<GATKRead, Haplotype> likelihoods = sampleMatrices.size() == 1 ?
+                sampleMatrices.get(0) : new ConcatenatedLikelihoodMatrix(sampleMatrices);
+        computeReadLikelihoods(likelihoods, processedReads);
+    }
+
+    private List<GATKRead> processReads(final LikelihoodMatrix<GATKRead, Haplotype> likelihoods) {
         // Modify the read qualities by applying the PCR error model and capping the minimum base,insertion,deletion qualities
         final List<GATKRead> processedReads = modifyReadQualities(likelihoods.evidence());
 
@@ -268,8 +361,16 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
                 HaplotypeCallerGenotypingDebugger.println(Arrays.toString(read.getBaseQualitiesNoCopy()));
             }
         }
+        return processedReads;
+    }
+
+    private void computeReadLikelihoods(final LikelihoodMatrix<GATKRead, Haplotype> likelihoods, final List<GATKRead> processedReads) {
         // Run the PairHMM to calculate the log10 likelihood of each (processed) reads' arising from each haplotype
-        pairHMM.computeLog10Likelihoods(likelihoods, processedReads, inputScoreImputator);
+        if (likelihoodCache != null) {
+            likelihoodCache.computeLog10Likelihoods(likelihoods, processedReads, inputScoreImputator, pairHMM);
+        } else {
+            pairHMM.computeLog10Likelihoods(likelihoods, processedReads, inputScoreImputator);
+        }
     }
 
     /**
@@ -370,4 +471,76 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
         }
     }
 
+    /**
+     * A view of the likelihood matrices of several samples as a single matrix whose evidence is the concatenation of the
+     * evidence of each sample, so that the likelihoods of all samples can be computed by a single PairHMM call and are
+     * written directly into the matrix of each sample.
+     */
+    private static final class ConcatenatedLikelihoodMatrix implements LikelihoodMatrix<GATKRead, Haplotype> {
+        private final List<LikelihoodMatrix<GATKRead, Haplotype>> matrices;
+        private final List<GATKRead> evidence;
+        // the matrix and the index within it of each evidence of the concatenation
+        private final int[] matrixIndices;
+        private final int[] evidenceIndices;
+
+        private ConcatenatedLikelihoodMatrix(final List<LikelihoodMatrix<GATKRead, Haplotype>> matrices) {
+            this.matrices = matrices;
+            final int evidenceCount = matrices.stream().mapToInt(LikelihoodMatrix::evidenceCount).sum();
+            evidence = new ArrayList<>(evidenceCount);
+            matrixIndices = new int[evidenceCount];
+            evidenceIndices = new int[evidenceCount];
+            int r = 0;
+            for (int m = 0; m < matrices.size(); m++) {
+                final LikelihoodMatrix<GATKRead, Haplotype> matrix = matrices.get(m);
+                evidence.addAll(matrix.evidence());
+                for (int i = 0; i < matrix.evidenceCount(); i++, r++) {
+                    matrixIndices[r] = m;
+                    evidenceIndices[r] = i;
+                }
+            }
+        }
+
+        @Override
+        public List<GATKRead> evidence() { return Collections.unmodifiableList(evidence); }
+
+        @Override
+        public List<Haplotype> alleles() { return matrices.get(0).alleles(); }
+
+        @Override
+        public void set(final int alleleIndex, final int evidenceIndex, final double value) {
+            matrices.get(matrixIndices[evidenceIndex]).set(alleleIndex, evidenceIndices[evidenceIndex], value);
+        }
+
+        @Override
+        public double get(final int alleleIndex, final int evidenceIndex) {
+            return matrices.get(matrixIndices[evidenceIndex]).get(alleleIndex, evidenceIndices[evidenceIndex]);
+        }
+
+        @Override
+        public int indexOfAllele(final Allele allele) { return matrices.get(0).indexOfAllele(allele); }
+
+        @Override
+        public int indexOfEvidence(final GATKRead evidence) { return this.evidence.indexOf(evidence); }
+
+        @Override
+        public int numberOfAlleles() { return matrices.get(0).numberOfAlleles(); }
+
+        @Override
+        public int evidenceCount() { return evidence.size(); }
+
+        @Override
+        public Haplotype getAllele(final int alleleIndex) { return matrices.get(0).getAllele(alleleIndex); }
+
+        @Override
+        public GATKRead getEvidence(final int evidenceIndex) { return evidence.get(evidenceIndex); }
+
+        @Override
+        public void copyAlleleLikelihoods(final int alleleIndex, final double[] dest, final int offset) {
+            int matrixOffset = offset;
+            for (final LikelihoodMatrix<GATKRead, Haplotype> matrix : matrices) {
+                matrix.copyAlleleLikelihoods(alleleIndex, dest, matrixOffset);
+                matrixOffset += matrix.evidenceCount();
+            }
+        }
+    }
 }
@@ -92,15 +92,17 @@ public class PartiallyDeterminedHaplotypeComputationEngine {
         final boolean debug = pileupArgs.debugPileupStdout;
 
         final List<Event> eventsInOrder = makeFinalListOfEventsInOrder(sourceSet, badPileupEvents, goodPileupEvents, referenceHaplotype, pileupArgs, debug);
+        // from here on sets of events are bitsets of their ids, which enumerate the events in HAPLOTYPE_SNP_FIRST_COMPARATOR order
+        final InternedEventTable eventTable = new InternedEventTable(eventsInOrder);
 
         // TODO this is where we filter out if indels > 32 (a heuristic known from DRAGEN that is not implemented here)
         SortedMap<Integer, List<Event>> eventsByStartPos = eventsInOrder.stream()
                 .collect(Collectors.groupingBy(Event::getStart, TreeMap::new, Collectors.toList()));
 
-        List<List<Event>> disallowedCombinations = smithWatermanRealignPairsOfVariantsForEquivalentEvents(referenceHaplotype, aligner, args.getHaplotypeToReferenceSWParameters(), debug, eventsInOrder);
+        List<List<Event>> disallowedCombinations = smithWatermanRealignPairsOfVariantsForEquivalentEvents(referenceHaplotype, aligner, args.getHaplotypeToReferenceSWParameters(), debug, eventTable);
         dragenDisallowedGroupsMessage(referenceHaplotype.getStart(), debug, disallowedCombinations);
 
-        final List<EventGroup> eventGroups = getEventGroupClusters(eventsInOrder, disallowedCombinations);
+        final List<EventGroup> eventGroups = getEventGroupClusters(eventTable, disallowedCombinations);
         // if any of our merged event groups is too large, abort.
         if (eventGroups == null) {
             Utils.printIf(debug, () -> "Found event group with too many variants! Aborting haplotype building");
@@ -116,6 +118,7 @@ public class PartiallyDeterminedHaplotypeComputationEngine {
         final Set<Haplotype> outputHaplotypes = pileupArgs.useDeterminedHaplotypesDespitePdhmmMode ? Sets.newLinkedHashSet(List.of(referenceHaplotype)) : Sets.newLinkedHashSet();  // NOTE: output changes if this is not a LinkedHashSet!
         for (final int determinedLocus : eventsByStartPos.keySet()) {   // it's a SortedMap -- iterating over its keyset is okay!
             final List<Event> allEventsHere = eventsByStartPos.get(determinedLocus);
+            final BitSet allEventIdsHere = eventTable.ids(allEventsHere);
             Utils.printIf(debug, () -> "working with variants: " + allEventsHere + " at position " + determinedLocus);
 
             if (!Range.closed(callingSpan.getStart(), callingSpan.getEnd()).contains(determinedLocus)) {
@@ -129,21 +132,23 @@ public class PartiallyDeterminedHaplotypeComputationEngine {
                 Utils.printIf(debug, () -> "Working with determined allele(s) at site: "+(determinedAlleleIsRef? "[ref:"+(determinedLocus-referenceHaplotype.getStart())+"]" :
                         determinedEvents.stream().map(PartiallyDeterminedHaplotype.getDRAGENDebugEventString(referenceHaplotype.getStart())).collect(Collectors.joining(", "))));
 
-                final List<Set<Event>> branches = computeBranches(eventGroups, determinedEvents, allEventsHere);
+                final List<BitSet> branches = computeBranches(eventGroups, eventTable.ids(determinedEvents), allEventIdsHere);
 
                 if (branches == null) {
                     Utils.printIf(debug, () -> "Found too many branches for variants at: " + determinedLocus + " aborting and falling back to Assembly Variants!");
                     return sourceSet;
                 }
 
-                branchExcludeAllelesMessage(referenceHaplotype, debug, eventsInOrder, determinedEvents, branches);
+                branchExcludeAllelesMessage(referenceHaplotype, debug, eventTable, branches);
 
-                // from each set of branch exclusions make a single PD haplotype or a combinatorial number of determined haplotypes
-                for (Set<Event> branch : branches) {
+                // from each set of branch exclusions make a single PD haplotype or a combinatorial number of determined haplotypes.
+                // Unions of the sets of different event groups can yield the same branch more than once, and since identical
+                // branches yield identical haplotypes we only construct them once.
+                for (final BitSet branch : new LinkedHashSet<>(branches)) {
+                    final List<Event> eventsInBranch = eventTable.events(branch);
                     if (!pileupArgs.useDeterminedHaplotypesDespitePdhmmMode) {
-                        final List<Event> eventsInPDHap = branch.stream().sorted(HAPLOTYPE_SNP_FIRST_COMPARATOR).toList();
-                        PartiallyDeterminedHaplotype newPDHaplotype = createNewPDHaplotypeFromEvents(referenceHaplotype, determinedEvents, determinedLocus, eventsInPDHap, allEventsHere);
-                        branchHaplotypesDebugMessage(referenceHaplotype, debug, branch, List.of(newPDHaplotype));
+                        PartiallyDeterminedHaplotype newPDHaplotype = createNewPDHaplotypeFromEvents(referenceHaplotype, determinedEvents, determinedLocus, eventsInBranch, allEventsHere);
+                        branchHaplotypesDebugMessage(referenceHaplotype, debug, eventsInBranch, List.of(newPDHaplotype));
                         outputHaplotypes.add(newPDHaplotype);
                     } else {
                         // TODO currently this approach doesn't properly handle a bunch of duplicate events...
@@ -155,7 +160,7 @@ public class PartiallyDeterminedHaplotypeComputationEngine {
 
                         for (final int locus : eventsByStartPos.keySet()) {
                             if (determinedLocus < locus) {
-                                final List<List<Event>> children = eventsByStartPos.get(locus).stream().filter(branch::contains)
+                                final List<List<Event>> children = eventsByStartPos.get(locus).stream().filter(event -> branch.get(eventTable.id(event)))
                                         .flatMap(event -> fullyDeterminedHaplotypes.stream().map(group -> growEventList(group, event))).toList();
                                 children.forEach(child -> child.sort(HAPLOTYPE_SNP_FIRST_COMPARATOR));
                                 fullyDeterminedHaplotypes.addAll(children);
@@ -169,7 +174,7 @@ public class PartiallyDeterminedHaplotypeComputationEngine {
                         fullyDeterminedHaplotypes.forEach(events -> Utils.printIf(debug, () -> "Constructing Haplotype From Events:" + formatEventsLikeDragenLogs(events, referenceHaplotype.getStart())));
                         final List<Haplotype> branchHaps = fullyDeterminedHaplotypes.stream()
                                 .map(events -> constructHaplotypeFromEvents(referenceHaplotype, events, true)).toList();
-                        branchHaplotypesDebugMessage(referenceHaplotype, debug, branch, branchHaps);
+                        branchHaplotypesDebugMessage(referenceHaplotype, debug, eventsInBranch, branchHaps);
                         outputHaplotypes.addAll(branchHaps);
                     }
 
@@ -244,8 +249,11 @@ public class PartiallyDeterminedHaplotypeComputationEngine {
      *
      * @return A list of lists of variant contexts that correspond to disallowed groups. This list may be empty if none are found.
      */
-    private static List<List<Event>> smithWatermanRealignPairsOfVariantsForEquivalentEvents(Haplotype referenceHaplotype, SmithWatermanAligner aligner, SWParameters swParameters, boolean debug, List<Event> eventsInOrder) {
+    private static List<List<Event>> smithWatermanRealignPairsOfVariantsForEquivalentEvents(Haplotype referenceHaplotype, SmithWatermanAligner aligner, SWParameters swParameters, boolean debug, InternedEventTable eventTable) {
+        final List<Event> eventsInOrder = eventTable.events();
         List<List<Event>> disallowedPairs = new ArrayList<>();
+        // disallowedTogether[i][j] is true if events i and j both belong to one of the disallowed pairs or trios found so far
+        final boolean[][] disallowedTogether = new boolean[eventsInOrder.size()][eventsInOrder.size()];
 
         //Iterate over all 2 element permutations in which one element is an indel and test for alignments
         for (int i = 0; i < eventsInOrder.size(); i++) {
@@ -259,8 +267,9 @@ public class PartiallyDeterminedHaplotypeComputationEngine {
                         final List<Event> events = new ArrayList<>(Arrays.asList(firstEvent, secondEvent));
                         events.sort(HAPLOTYPE_SNP_FIRST_COMPARATOR);
                         Utils.printIf(debug, () -> "Testing events: "+ formatEventsLikeDragenLogs(events,  referenceHaplotype.getStart()));
-                        if (constructArtificialHaplotypeAndTestEquivalentEvents(referenceHaplotype, aligner, swParameters, eventsInOrder, events, debug)) {
+                        if (constructArtificialHaplotypeAndTestEquivalentEvents(referenceHaplotype, aligner, swParameters, eventTable, events, debug)) {
                             disallowedPairs.add(events);
+                            disallowTogether(disallowedTogether, i, j);
                         }
                     }
                 }
@@ -279,7 +288,7 @@ public class PartiallyDeterminedHaplotypeComputationEngine {
                     // Don't compare the event to itself, to overlapping events, or to indels I've already examined me (to prevent double counting)
                     if (j != i && !eventsOverlapForPDHapsCode(firstEvent, secondEvent) && ((!secondEvent.isIndel()) || j > i)) {
                         // if i and j area already disallowed keep going
-                        if (disallowedPairs.stream().anyMatch(p -> p.contains(firstEvent) && p.contains(secondEvent))) {
+                        if (disallowedTogether[i][j]) {
                             continue;
                         }
                         final List<Event> events = new ArrayList<>(Arrays.asList(firstEvent, secondEvent));
@@ -288,15 +297,18 @@ public class PartiallyDeterminedHaplotypeComputationEngine {
                             final Event thirdEvent = eventsInOrder.get(k);
                             if (k != i && !eventsOverlapForPDHapsCode(thirdEvent, firstEvent) && !eventsOverlapForPDHapsCode(thirdEvent, secondEvent)) {
                                 // if k and j or k and i are disallowed, keep looking
-                                if (disallowedPairs.stream().anyMatch(p -> (p.contains(firstEvent) && p.contains(thirdEvent)) || (p.contains(secondEvent) && p.contains(thirdEvent)))) {
+                                if (disallowedTogether[i][k] || disallowedTogether[j][k]) {
                                     continue;
                                 }
                                 List<Event> subList = new ArrayList<>(events);
                                 subList.add(thirdEvent);
                                 subList.sort(HAPLOTYPE_SNP_FIRST_COMPARATOR);
                                 Utils.printIf(debug,() ->"Testing events: " + formatEventsLikeDragenLogs(subList,  referenceHaplotype.getStart()));
-                                if (constructArtificialHaplotypeAndTestEquivalentEvents(referenceHaplotype, aligner, swParameters, eventsInOrder, subList, debug)) {
+                                if (constructArtificialHaplotypeAndTestEquivalentEvents(referenceHaplotype, aligner, swParameters, eventTable, subList, debug)) {
                                     disallowedPairs.add(subList);
+                                    disallowTogether(disallowedTogether, i, j);
+                                    disallowTogether(disallowedTogether, i, k);
+                                    disallowTogether(disallowedTogether, j, k);
                                 }
                             }
                         }
@@ -308,6 +320,11 @@ public class PartiallyDeterminedHaplotypeComputationEngine {
         return disallowedPairs;
     }
 
+    private static void disallowTogether(final boolean[][] disallowedTogether, final int eventId1, final int eventId2) {
+        disallowedTogether[eventId1][eventId2] = true;
+        disallowedTogether[eventId2][eventId1] = true;
+    }
+
     /**
      * Partition events into the largest possible clusters such that events in distinct clusters are mutually compatible
      * i.e. can exist on the same haplotype.
@@ -336,6 +353,11 @@ public class PartiallyDeterminedHaplotypeComputationEngine {
      */
     @VisibleForTesting
     static List<EventGroup> getEventGroupClusters(List<Event> eventsInOrder, List<List<Event>> swForbiddenPairsAndTrios) {
+        return getEventGroupClusters(new InternedEventTable(eventsInOrder.stream().distinct().toList()), swForbiddenPairsAndTrios);
+    }
+
+    private static List<EventGroup> getEventGroupClusters(InternedEventTable eventTable, List<List<Event>> swForbiddenPairsAndTrios) {
+        final List<Event> eventsInOrder = eventTable.events();
         final List<List<Event>> allMutexes = new ArrayList<>(swForbiddenPairsAndTrios);
 
         // edges due to overlapping position
@@ -356,7 +378,7 @@ public class PartiallyDeterminedHaplotypeComputationEngine {
 
         final List<Set<Event>> components = new ConnectivityInspector<>(graph).connectedSets();
         return components.stream().anyMatch(comp -> comp.size() > MAX_VAR_IN_EVENT_GROUP) ? null :
-                components.stream().map(component -> new EventGroup(component, allMutexes)).toList();
+                components.stream().map(component -> new EventGroup(eventTable, component, allMutexes)).toList();
     }
 
     /**
@@ -370,21 +392,34 @@ public class PartiallyDeterminedHaplotypeComputationEngine {
      */
     @VisibleForTesting
     static List<Set<Event>> computeBranches(List<EventGroup> eventGroups, Set<Event> determinedEvents, final List<Event> allEventsAtDeterminedLocus) {
-        List<Set<Event>> branches = new ArrayList<>();
-        branches.add(new HashSet<>());   // start with a single empty branch
+        if (eventGroups.isEmpty()) {
+            return List.of(new HashSet<>());
+        }
+        final InternedEventTable eventTable = eventGroups.get(0).eventTable;
+        final List<BitSet> branches = computeBranches(eventGroups, eventTable.ids(determinedEvents), eventTable.ids(allEventsAtDeterminedLocus));
+        return branches == null ? null : branches.stream().<Set<Event>>map(branch -> new HashSet<>(eventTable.events(branch))).toList();
+    }
+
+    /**
+     * As {@link #computeBranches(List, Set, List)}, with the determined events, the events at the determined locus and
+     * the resulting branches represented by the bitsets of their ids in the event table of the event groups.
+     */
+    private static List<BitSet> computeBranches(List<EventGroup> eventGroups, BitSet determinedEventIds, final BitSet eventIdsAtDeterminedLocus) {
+        List<BitSet> branches = new ArrayList<>();
+        branches.add(new BitSet());   // start with a single empty branch
 
         for (EventGroup group : eventGroups) {
-            final List<Set<Event>> setsToAdd = group.eventSetsForPDHaplotypes(determinedEvents, allEventsAtDeterminedLocus);
+            final List<BitSet> setsToAdd = group.eventIdSetsForPDHaplotypes(determinedEventIds, eventIdsAtDeterminedLocus);
 
             // Take every possible union of existing branches and this event group's sets to add. As an optimization
             // we add the 0th set's elements in-place, and append unions with the 1st, 2nd etc sets to add.
-            final List<HashSet<Event>> extraBranches = setsToAdd.size() < 2 ? List.of() : branches.stream()
-                    .flatMap(branch -> setsToAdd.stream().skip(1).map(setToAdd -> Sets.newHashSet(Sets.union(branch, setToAdd))))
+            final List<BitSet> extraBranches = setsToAdd.size() < 2 ? List.of() : branches.stream()
+                    .flatMap(branch -> setsToAdd.stream().skip(1).map(setToAdd -> union(branch, setToAdd)))
                     .toList();
 
             // add the 0th exclusion set in-place
             if (!setsToAdd.isEmpty()) {
-                branches.forEach(branch -> branch.addAll(setsToAdd.get(0)));
+                branches.forEach(branch -> branch.or(setsToAdd.get(0)));
             }
             branches.addAll(extraBranches);
 
@@ -395,6 +430,12 @@ public class PartiallyDeterminedHaplotypeComputationEngine {
         return branches;
     }
 
+    private static BitSet union(final BitSet set1, final BitSet set2) {
+        final BitSet result = (BitSet) set1.clone();
+        result.or(set2);
+        return result;
+    }
+
     /**
      * Overlaps method to handle indels and snps correctly. Specifically for this branching codes purposes,
      * indels don't overlap on their anchor bases and insertions don't overlap anything except deletions spanning them or other insertions
@@ -431,7 +472,7 @@ public class PartiallyDeterminedHaplotypeComputationEngine {
      * @return true if we SHOULD NOT allow the eventsToTest alleles to appear as alleles together in determined haplotypes
      */
     @VisibleForTesting
-    private static boolean constructArtificialHaplotypeAndTestEquivalentEvents(Haplotype referenceHaplotype, SmithWatermanAligner aligner, SWParameters swParameters, Collection<Event> events, List<Event> eventsToTest, boolean debug) {
+    private static boolean constructArtificialHaplotypeAndTestEquivalentEvents(Haplotype referenceHaplotype, SmithWatermanAligner aligner, SWParameters swParameters, InternedEventTable eventTable, List<Event> eventsToTest, boolean debug) {
         final Haplotype realignHap = constructHaplotypeFromEvents(referenceHaplotype, eventsToTest, false);
         //Special case to capture events that equal the reference (and thus have empty event maps).
         if (Arrays.equals(realignHap.getBases(), referenceHaplotype.getBases())) {
@@ -450,7 +491,7 @@ public class PartiallyDeterminedHaplotypeComputationEngine {
                 // Are there any variants NOT in our initial list
                 .filter(event -> eventsToTest.stream().noneMatch(event::equals))
                 // Do any of variants (that were not in our set of 2-3 targets) appear in our overall list of alleles
-                .anyMatch(event -> events.stream().anyMatch(event::equals));
+                .anyMatch(event -> eventTable.id(event) >= 0);
         Utils.printIf(debug, () -> formatEventsLikeDragenLogs(realignHap.getEventMap().getEvents(),  referenceHaplotype.getStart(), "\n"));
         Utils.printIf(debug && wasEquivalentEvent,()->"Events mismatched!");
 
@@ -631,9 +672,13 @@ public class PartiallyDeterminedHaplotypeComputationEngine {
     // A helper class for managing mutually exclusive event clusters and the logic around forming valid events vs each other.
     @VisibleForTesting
     static class EventGroup {
+        private final InternedEventTable eventTable;
         private final ImmutableList<Event> eventsInOrder;
         private final ImmutableMap<Event, Integer> eventIndices;
 
+        // the ids in the event table of the events of this group, indexed by their indices in this group
+        private final int[] eventIds;
+
         // There are BitSets and SmallBitSets going around.  The SmallBitSets represent sets of events -- mutexes and other subsets
         // of the event group.  This BitSet is a set of sets of events!  Each element/bit represents a subset of events.  If the bit is true
         // then the corresponding subset of events is allowed i.e. doesn't contain a mutex.  For example, if the 11th bit is true we know
@@ -642,17 +687,21 @@ public class PartiallyDeterminedHaplotypeComputationEngine {
         private final BitSet allowedSubsets;
 
         // Optimization to save ourselves recomputing the subsets at every point its necessary to do so.
-        List<Set<Event>> cachedEventSets = null;
+        List<BitSet> cachedEventIdSets = null;
 
         /**
+         * @param eventTable the ids of all events in this calling region
          * @param events all events in this event group
          * @param mutexPairsAndTrios all mutexes of two or three events, defined by overlap and by the Smith-Waterman heuristic,
          *                           that determined the event groups in this calling region
          */
-        public EventGroup(final Collection<Event> events, List<List<Event>> mutexPairsAndTrios) {
+        public EventGroup(final InternedEventTable eventTable, final Collection<Event> events, List<List<Event>> mutexPairsAndTrios) {
             Utils.validate(events.size() <= MAX_VAR_IN_EVENT_GROUP, () -> "Too many events (" + events.size() + ") for populating bitset.");
+            this.eventTable = Utils.nonNull(eventTable);
             eventsInOrder = events.stream().sorted(HAPLOTYPE_SNP_FIRST_COMPARATOR).collect(ImmutableList.toImmutableList());
             eventIndices = IntStream.range(0, events.size()).boxed().collect(ImmutableMap.toImmutableMap(eventsInOrder::get, n -> n));
+            eventIds = eventsInOrder.stream().mapToInt(eventTable::id).toArray();
+            Utils.validate(Arrays.stream(eventIds).allMatch(id -> id >= 0), () -> "Event group " + eventsInOrder + " has events missing from the event table");
             allowedSubsets = new BitSet(1 << eventsInOrder.size());
 
             final List<List<Event>> overlappingMutexes = mutexPairsAndTrios.stream()
@@ -682,17 +731,20 @@ public class PartiallyDeterminedHaplotypeComputationEngine {
              // initialize all events as being allowed and then disallow them in turn .
              allowedSubsets.set(1, 1 << eventsInOrder.size());
 
-             // make SmallBitSet of the event indices of each mutex
-             final List<SmallBitSet> mutexes = mutexPairsAndTrios.stream().map(mutex -> new SmallBitSet(mutex.stream().map(eventIndices::get).toList())).toList();
-
-             // Now forbid all subsets that contain forbidden combinations
-             //TODO This method is potentially very inefficient! We don't technically have to iterate over every i,
-             //TODO we know there is an optimization involving minimizing the number of checks necessary here by iterating
-             //TODO using the bitmask values themselves for the loop
-             if (!mutexes.isEmpty()) {
-                 for (final SmallBitSet subset = new SmallBitSet().increment(); !subset.hasElementGreaterThan(eventsInOrder.size()); subset.increment()) {
-                     if (mutexes.stream().anyMatch(subset::contains)) {
-                         allowedSubsets.set(subset.index(), false);
+             // make bit masks of the event indices of each mutex, as in SmallBitSet.index()
+             final int[] mutexMasks = mutexPairsAndTrios.stream()
+                     .mapToInt(mutex -> new SmallBitSet(mutex.stream().map(eventIndices::get).toList()).index()).distinct().toArray();
+
+             // Now forbid all subsets that contain forbidden combinations, testing the masks directly rather than
+             // through SmallBitSet objects since this loop runs over up to 2^MAX_VAR_IN_EVENT_GROUP subsets
+             if (mutexMasks.length > 0) {
+                 final int end = 1 << eventsInOrder.size();
+                 for (int subset = 1; subset < end; subset++) {
+                     for (final int mask : mutexMasks) {
+                         if ((subset & mask) == mask) {
+                             allowedSubsets.clear(subset);
+                             break;
+                         }
                      }
                  }
              }
@@ -714,21 +766,32 @@ public class PartiallyDeterminedHaplotypeComputationEngine {
          * @return
          */
         public List<Set<Event>> eventSetsForPDHaplotypes(final Set<Event> determinedEvents, final List<Event> locusEvents) {
-            final SmallBitSet locusOverlapSet = overlapSet(locusEvents);
-            final SmallBitSet determinedOverlapSet = overlapSet(determinedEvents);
+            return eventIdSetsForPDHaplotypes(eventTable.ids(determinedEvents), eventTable.ids(locusEvents)).stream()
+                    .<Set<Event>>map(ids -> new HashSet<>(eventTable.events(ids))).toList();
+        }
+
+        /**
+         * As {@link #eventSetsForPDHaplotypes(Set, List)}, with the determined events, the events at the determined locus
+         * and the resulting sets of events represented by the bitsets of their ids in the event table
+         *
+         * @return the bitsets of ids of the maximal allowed subsets, which must not be modified
+         */
+        List<BitSet> eventIdSetsForPDHaplotypes(final BitSet determinedEventIds, final BitSet locusEventIds) {
+            final SmallBitSet locusOverlapSet = overlapSet(locusEventIds);
+            final SmallBitSet determinedOverlapSet = overlapSet(determinedEventIds);
 
             if (eventsInOrder.size() == 1) {
                 // if this is the determined locus and ref is determined, return an empty set; otherwise return a singleton set of the lone event
-                return (!locusOverlapSet.isEmpty() && determinedEvents.isEmpty()) ? Collections.singletonList(Set.of()) :
-                        Collections.singletonList(Set.of(eventsInOrder.get(0))); // if only one event, there are no mutexes
+                return (!locusOverlapSet.isEmpty() && determinedEventIds.isEmpty()) ? Collections.singletonList(new BitSet()) :
+                        Collections.singletonList(toEventIds(SmallBitSet.fullSet(1))); // if only one event, there are no mutexes
             }
 
             // the repeated case is when the determined locus is external to this event group
             final boolean cachedCase = locusOverlapSet.isEmpty() && determinedOverlapSet.isEmpty();
 
             // We use a cache for the recurring case where the determined events do not belong to this event group
-            if (cachedCase && cachedEventSets != null) {
-                return cachedEventSets;
+            if (cachedCase && cachedEventIdSets != null) {
+                return cachedEventIdSets;
             }
 
             final List<SmallBitSet> maximalAllowedContainingDetermined = new ArrayList<>();
@@ -744,20 +807,32 @@ public class PartiallyDeterminedHaplotypeComputationEngine {
                 }
             }
 
-            // Now that we have all the maximal sets, map bitset indices to Events
-            List<Set<Event>> output = maximalAllowedContainingDetermined.stream()
-                    .map(bitset -> bitset.stream(eventsInOrder.size()).mapToObj(eventsInOrder::get).collect(Collectors.toSet())).toList();
+            // Now that we have all the maximal sets, map bitset indices to event ids
+            List<BitSet> output = maximalAllowedContainingDetermined.stream().map(this::toEventIds).toList();
 
             // Cache the result
             if(cachedCase) {
-                cachedEventSets = Collections.unmodifiableList(output);
+                cachedEventIdSets = output;
             }
             return output;
         }
 
-        // create the SmallBitSet of those elements from some collection of events that overlap this EventGroup
-        private SmallBitSet overlapSet(final Collection<Event> events) {
-            return new SmallBitSet(events.stream().map(e -> eventIndices.getOrDefault(e, -1)).filter(n -> n != -1).toList());
+        // create the SmallBitSet of the indices in this EventGroup of those event ids that belong to it
+        private SmallBitSet overlapSet(final BitSet eventIdsToOverlap) {
+            final SmallBitSet result = new SmallBitSet();
+            for (int n = 0; n < eventIds.length; n++) {
+                if (eventIdsToOverlap.get(eventIds[n])) {
+                    result.add(n);
+                }
+            }
+            return result;
+        }
+
+        // map a SmallBitSet of indices in this EventGroup to the BitSet of the corresponding event ids
+        private BitSet toEventIds(final SmallBitSet subset) {
+            final BitSet result = new BitSet(eventTable.size());
+            subset.stream(eventsInOrder.size()).forEach(n -> result.set(eventIds[n]));
+            return result;
         }
 
         public boolean causesBranching() {
@@ -816,14 +891,15 @@ public class PartiallyDeterminedHaplotypeComputationEngine {
         Utils.printIf(debug, () -> "disallowed groups:" + disallowedPairs.stream().map(group -> formatEventsLikeDragenLogs(group, refStart)).collect(Collectors.joining("\n")));
     }
 
-    private static void branchExcludeAllelesMessage(Haplotype referenceHaplotype, boolean debug, Collection<Event> eventsInOrder,
-                                                    final Set<Event> determinedEvents, List<Set<Event>> branches) {
+    private static void branchExcludeAllelesMessage(Haplotype referenceHaplotype, boolean debug, InternedEventTable eventTable, List<BitSet> branches) {
         if (debug) {
             System.out.println("Branches:");
             for (int i = 0; i < branches.size(); i++) {
                 System.out.println("Branch " + i + " VCs:");
-                final Set<Event> included = branches.get(i);
-                final Set<Event> excluded = eventsInOrder.stream().filter(event -> !included.contains(event)).collect(Collectors.toSet());
+                final List<Event> included = eventTable.events(branches.get(i));
+                final BitSet excludedIds = (BitSet) branches.get(i).clone();
+                excludedIds.flip(0, eventTable.size());
+                final List<Event> excluded = eventTable.events(excludedIds);
                 System.out.println("exclude:" + formatEventsLikeDragenLogs(excluded, referenceHaplotype.getStart()));
                 //to match dragen debug output for personal sanity
                 System.out.println("include:" + formatEventsLikeDragenLogs(included, referenceHaplotype.getStart()));
@@ -831,7 +907,7 @@ public class PartiallyDeterminedHaplotypeComputationEngine {
         }
     }
 
-    private static void branchHaplotypesDebugMessage(final Haplotype referenceHaplotype, final boolean debug, final Set<Event> excludeEvents, final List<Haplotype> branchHaps) {
+    private static void branchHaplotypesDebugMessage(final Haplotype referenceHaplotype, final boolean debug, final Collection<Event> excludeEvents, final List<Haplotype> branchHaps) {
         Utils.printIf(debug, () -> "Constructed Haps for Branch" + formatEventsLikeDragenLogs(excludeEvents,  referenceHaplotype.getStart(), ",") + ":");
         Utils.printIf(debug, () -> branchHaps.stream().map(h -> h.getCigar() + " " + h).collect(Collectors.joining("\n")));
     }
@@ -0,0 +1,169 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.variant.variantcontext.VariantContext;
+import org.broadinstitute.hellbender.engine.ReferenceContext;
+import org.broadinstitute.hellbender.utils.IntervalUtils;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.pileup.PileupElement;
+import org.broadinstitute.hellbender.utils.pileup.ReadPileup;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * The reference confidence of the positions seen during active region determination, computed from the same pileups
+ * that {@link HaplotypeCallerEngine#isActive} evaluates, so that the GVCF blocks of inactive regions can be emitted
+ * without building pileups over the reads of each region a second time.
+ *
+ * <p>
+ *     Positions are added in the order of the activity profile, which runs ahead of the assembly regions, and are
+ *     taken out in the order of the regions. The reference confidence of a region is only available if every position
+ *     of its span was added, and callers should fall back to {@link ReferenceConfidenceModel#calculateRefConfidence}
+ *     otherwise.
+ * </p>
+ *
+ * <p>
+ *     The reads seen during active region determination have not been finalized and realigned, so the results
+ *     approximate those of {@link ReferenceConfidenceModel#calculateRefConfidence}: low quality tails and overlapping
+ *     mates are not clipped or corrected, bases next to indels and soft clips count against the reference as they do
+ *     in active region determination, and the indel informativeness of each read is computed against the reference up
+ *     to the end of the read rather than to the end of the padded region. This class is not thread-safe.
+ * </p>
+ */
+final class PileupReferenceConfidenceBuffer {
+
+    private final ReferenceConfidenceModel referenceConfidenceModel;
+    private final SAMSequenceDictionary dictionary;
+    private final String sampleName;
+    private final int ploidy;
+    private final int maxIndelSize;
+    private final Predicate<GATKRead> readFilter;
+
+    // reference confidence of the positions that were added and not yet taken, in genomic order
+    private final ArrayDeque<VariantContext> buffer = new ArrayDeque<>();
+
+    // the indel informative offsets of the reads in the last pileup, carried forward to the next one
+    private Map<GATKRead, BitSet> indelInformativeBases = new IdentityHashMap<>();
+
+    /**
+     * @param referenceConfidenceModel the model to compute the reference confidence of each position with
+     * @param dictionary the sequence dictionary the positions are ordered by
+     * @param sampleName the name of the sample the reference confidence is computed for
+     * @param ploidy the ploidy of the sample
+     * @param maxIndelSize the max size of indels to consider when calculating indel informative depths
+     * @param readFilter the reads of the pileups to use
+     */
+    PileupReferenceConfidenceBuffer(final ReferenceConfidenceModel referenceConfidenceModel,
+                                    final SAMSequenceDictionary dictionary,
+                                    final String sampleName,
+                                    final int ploidy,
+                                    final int maxIndelSize,
+                                    final Predicate<GATKRead> readFilter) {
+        this.referenceConfidenceModel = Utils.nonNull(referenceConfidenceModel);
+        this.dictionary = Utils.nonNull(dictionary);
+        this.sampleName = Utils.nonNull(sampleName);
+        Utils.validateArg(ploidy > 0, () -> "ploidy must be > 0 but got " + ploidy);
+        Utils.validateArg(maxIndelSize >= 0, () -> "maxIndelSize must be >= 0 but got " + maxIndelSize);
+        this.ploidy = ploidy;
+        this.maxIndelSize = maxIndelSize;
+        this.readFilter = Utils.nonNull(readFilter);
+    }
+
+    /**
+     * Compute and keep the reference confidence of the next position of the activity profile
+     *
+     * @param pileup the pileup at the position, null if there are no reads there
+     * @param ref the reference context of the position
+     */
+    void add(final ReadPileup pileup, final ReferenceContext ref) {
+        final SimpleInterval position = ref.getInterval();
+        final ReadPileup filteredPileup = pileup == null ? new ReadPileup(position) : pileup.makeFilteredPileup(p -> readFilter.test(p.getRead()));
+        final int nIndelInformativeReads = countIndelInformativeReads(filteredPileup, ref);
+        buffer.add(referenceConfidenceModel.makeReferenceConfidenceVariantContextBeforeAssembly(ploidy, ref.getBase(), sampleName,
+                filteredPileup, position, nIndelInformativeReads));
+    }
+
+    /**
+     * Take the reference confidence of every position of a span out of the buffer, discarding the positions before it
+     *
+     * @param span the span of an assembly region, which must not start before the span of a previous call
+     * @return the reference confidence of each position of span in order, or null if some positions were not added
+     */
+    List<VariantContext> take(final SimpleInterval span) {
+        while ( ! buffer.isEmpty() && IntervalUtils.isBefore(buffer.peekFirst(), span, dictionary) ) {
+            buffer.pollFirst();
+        }
+        if ( buffer.isEmpty() || buffer.peekFirst().getStart() != span.getStart() || ! buffer.peekFirst().getContig().equals(span.getContig()) ) {
+            return null;
+        }
+
+        final List<VariantContext> result = new ArrayList<>(span.size());
+        for ( final VariantContext vc : buffer ) {
+            if ( result.size() == span.size() ) {
+                break;
+            }
+            if ( ! vc.getContig().equals(span.getContig()) || vc.getStart() != span.getStart() + result.size() ) {
+                return null;
+            }
+            result.add(vc);
+        }
+        if ( result.size() != span.size() ) {
+            return null;
+        }
+        for ( int i = 0; i < result.size(); i++ ) {
+            buffer.pollFirst();
+        }
+        return result;
+    }
+
+    /**
+     * Discard the reference confidence of the positions before and within a span
+     *
+     * @param span the span of an assembly region whose reference confidence is computed otherwise
+     */
+    void discard(final SimpleInterval span) {
+        while ( ! buffer.isEmpty() && ! IntervalUtils.isAfter(buffer.peekFirst(), span, dictionary) ) {
+            buffer.pollFirst();
+        }
+    }
+
+    /**
+     * Count the reads of the pileup with no plausible indels at its position, as
+     * {@link ReferenceConfidenceModel#calcNReadsWithNoPlausibleIndelsReads} does, keeping the indel informative offsets
+     * of each read in this class instead of in the read itself
+     */
+    private int countIndelInformativeReads(final ReadPileup pileup, final ReferenceContext ref) {
+        final Map<GATKRead, BitSet> currentIndelInformativeBases = new IdentityHashMap<>(pileup.size());
+        int nInformative = 0;
+        for ( final PileupElement p : pileup ) {
+            final GATKRead read = p.getRead();
+            BitSet informativeBases = indelInformativeBases.get(read);
+            // doesn't count as evidence
+            if ( ! (p.isBeforeDeletionStart() || p.isBeforeInsertion() || p.isDeletion()) ) {
+                final int offset = referenceConfidenceModel.getCigarModifiedOffset(p);
+                if ( informativeBases == null ) {
+                    // the reference bases up to past the end of the read, so that the read always ends first
+                    final SimpleInterval window = new SimpleInterval(ref.getContig(), ref.getStart(), Math.max(ref.getStart(), read.getSoftEnd()) + maxIndelSize + 1);
+                    informativeBases = ReferenceConfidenceModel.calculateIndelInformativeBases(read, offset, ref.getBases(window), 0, maxIndelSize);
+                }
+                if ( informativeBases.get(offset) ) {
+                    nInformative++;
+                }
+            }
+            if ( informativeBases != null ) {
+                currentIndelInformativeBases.put(read, informativeBases);
+            }
+        }
+        // reads that are no longer in the pileup are dropped here
+        indelInformativeBases = currentIndelInformativeBases;
+        return Math.min(nInformative, ReferenceConfidenceModel.MAX_N_INDEL_INFORMATIVE_READS);
+    }
+}
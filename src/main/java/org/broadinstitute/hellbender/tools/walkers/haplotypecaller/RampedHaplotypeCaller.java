@@ -80,5 +80,14 @@ public class RampedHaplotypeCaller extends HaplotypeCaller {
         return true;
     }
 
+    /**
+     * The ramps are files that the engine writes or reads as it calls each region, so regions are always called on a
+     * single thread.
+     */
+    @Override
+    public boolean supportsConcurrentApply() {
+        return false;
+    }
+
 
 }
@@ -241,9 +241,10 @@ public class RampedHaplotypeCallerEngine extends HaplotypeCallerEngine {
 
         if (!context.region.isActive()) {
             // Not active so nothing to do!
-            context.regionVariants = referenceModelForNoVariation(context.region, true, context.VCpriors);
+            context.regionVariants = referenceModelForInactiveRegion(context.region, context.VCpriors);
             return;
         }
+        discardActiveRegionDetectionReferenceModel(context.region);
 
         context.givenAlleles = context.features.getValues(hcArgs.alleles).stream()
                 .filter(vc -> hcArgs.forceCallFiltered || vc.isNotFiltered())
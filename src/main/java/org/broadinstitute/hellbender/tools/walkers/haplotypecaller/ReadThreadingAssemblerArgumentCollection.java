@@ -25,6 +25,8 @@ public abstract class ReadThreadingAssemblerArgumentCollection implements Serial
     public static final String KMER_SIZE_LONG_NAME = "kmer-size";
     public static final String DONT_INCREASE_KMER_SIZE_LONG_NAME = "dont-increase-kmer-sizes-for-cycles";
     public static final String LINKED_DE_BRUIJN_GRAPH_LONG_NAME = "linked-de-bruijn-graph";
+    public static final String KMER_ASSEMBLY_THREADS_LONG_NAME = "kmer-assembly-threads";
+    public static final String PACKED_READ_THREADING_GRAPH_LONG_NAME = "packed-read-threading-graph";
     public static final String ALLOW_NON_UNIQUE_KMERS_IN_REF_LONG_NAME = "allow-non-unique-kmers-in-ref";
     public static final String NUM_PRUNING_SAMPLES_LONG_NAME = "num-pruning-samples";
     public static final String MIN_DANGLING_BRANCH_LENGTH_LONG_NAME = "min-dangling-branch-length";
@@ -164,6 +166,26 @@ public abstract class ReadThreadingAssemblerArgumentCollection implements Serial
     @Argument(fullName= LINKED_DE_BRUIJN_GRAPH_LONG_NAME, doc = "If enabled, the Assembly Engine will construct a Linked De Bruijn graph to recover better haplotypes", optional = true)
     public boolean useLinkedDeBruijnGraph = false;
 
+    /**
+     * The graphs for the different kmer sizes of an active region (including the larger kmer sizes tried when the graphs
+     * contain cycles) are independent of each other. With more than one thread, they are built, pruned and searched for
+     * haplotypes concurrently, and the results are merged in kmer size order, so the output is the same as with one thread.
+     * Larger kmer sizes are built speculatively, so this trades extra CPU time for lower latency on difficult regions.
+     * When regions are also called on several threads with --assembly-region-threads, the workers share one pool of this
+     * many kmer assembly threads, so the tool runs at most assembly-region-threads + kmer-assembly-threads threads.
+     */
+    @Advanced
+    @Argument(fullName= KMER_ASSEMBLY_THREADS_LONG_NAME, doc = "Number of threads used to assemble the graphs for the different kmer sizes of an active region", optional = true, minValue = 1)
+    public int kmerAssemblyThreads = 1;
+
+    /**
+     * Thread the reads through a primitive, array-backed de Bruijn graph with 2-bit packed kmers before converting it to the
+     * regular assembly graph. This builds the same graph while allocating far fewer objects. Kmer sizes above 31, reads with
+     * bases other than A, C, G and T, and linked de Bruijn graphs use the regular graph.
+     */
+    @Advanced
+    @Argument(fullName= PACKED_READ_THREADING_GRAPH_LONG_NAME, doc = "Use a packed, array-backed graph to thread reads during assembly", optional = true)
+    public boolean usePackedReadThreadingGraph = false;
 
     /**
      * This is used to disable the recovery of paths that were dropped in the graph based on the junction trees. Disabling this
@@ -298,11 +298,50 @@ public class ReferenceConfidenceModel {
         }
     }
 
+    /**
+     * Calculate the reference confidence of a single position from a pileup of reads that were not realigned to
+     * haplotypes, such as the pileups seen during active region determination.
+     *
+     * Unlike {@link #makeReferenceConfidenceVariantContext} the number of indel informative reads is provided by the
+     * caller, since it depends on reference bases past the end of the pileup position.
+     *
+     * @param ploidy the ploidy of the sample
+     * @param refBase the reference base at curPos
+     * @param sampleName the name of the sample
+     * @param pileup the pileup of the reads of the sample at curPos
+     * @param curPos the position of the pileup
+     * @param nIndelInformativeReads the number of reads in the pileup with no plausible indels at curPos
+     * @return a reference confidence variant context for curPos
+     */
+    public VariantContext makeReferenceConfidenceVariantContextBeforeAssembly(final int ploidy,
+                                                                              final byte refBase,
+                                                                              final String sampleName,
+                                                                              final ReadPileup pileup,
+                                                                              final Locatable curPos,
+                                                                              final int nIndelInformativeReads) {
+        final ReferenceConfidenceResult homRefCalc = calcGenotypeLikelihoodsOfRefVsAny(ploidy, pileup, refBase, BASE_QUAL_THRESHOLD, null, false);
+
+        final Allele refAllele = Allele.create(refBase, true);
+        final List<Allele> refSiteAlleles = Arrays.asList(refAllele, Allele.NON_REF_ALLELE);
+        final VariantContextBuilder vcb = new VariantContextBuilder("HC", curPos.getContig(), curPos.getStart(), curPos.getStart(), refSiteAlleles);
+        final GenotypeBuilder gb = new GenotypeBuilder(sampleName, GATKVariantContextUtils.homozygousAlleleList(refAllele, ploidy));
+        gb.AD(homRefCalc.getAD());
+        gb.DP(homRefCalc.getDP());
+
+        combineSnpAndIndelGenotypeLikelihoods(ploidy, nIndelInformativeReads, (RefVsAnyResult) homRefCalc);
+
+        addGenotypeData(homRefCalc, gb);
+        return vcb.genotypes(gb.make()).make();
+    }
+
     public void doIndelRefConfCalc(final int ploidy, final byte[] ref, final ReadPileup pileup, final int refOffset, final ReferenceConfidenceResult refResult) {
-        final RefVsAnyResult homRefCalc = (RefVsAnyResult)refResult;
+        final int nIndelInformativeReads = calcNReadsWithNoPlausibleIndelsReads(pileup, refOffset, ref, indelInformativeDepthIndelSize);
+        combineSnpAndIndelGenotypeLikelihoods(ploidy, nIndelInformativeReads, (RefVsAnyResult) refResult);
+    }
+
+    private void combineSnpAndIndelGenotypeLikelihoods(final int ploidy, final int nIndelInformativeReads, final RefVsAnyResult homRefCalc) {
         // genotype likelihood calculation
         final GenotypeLikelihoods snpGLs = GenotypeLikelihoods.fromLog10Likelihoods(homRefCalc.getGenotypeLikelihoodsCappedByHomRefLikelihood());
-        final int nIndelInformativeReads = calcNReadsWithNoPlausibleIndelsReads(pileup, refOffset, ref, indelInformativeDepthIndelSize);
         final GenotypeLikelihoods indelGLs = getIndelPLs(ploidy,nIndelInformativeReads);
 
         // now that we have the SNP and indel GLs, we take the one with the least confidence,
@@ -599,97 +638,115 @@ public class ReferenceConfidenceModel {
                                                           final boolean useCachedResults) {
         BitSet cachedResult = (BitSet) read.getTransientAttribute(INDEL_INFORMATIVE_BASES_CACHE_ATTRIBUTE_NAME);
         if (cachedResult == null || !useCachedResults) {
-            Utils.validate(readStart >= 0, "readStart must >= 0");
-            Utils.validate(refStart >= 0, "refStart must >= 0");
-            BitSet informativeBases = new BitSet(read.getLength());
-
-            // Check that we aren't so close to the end of the end of the read that we don't have to compute anything more
-            if ( !(read.getLength() - readStart < maxIndelSize) && !(refBases.length - refStart < maxIndelSize) ) {
-                //TODO this should be removed, see https://github.com/broadinstitute/gatk/issues/5646 to track its progress
-                final int secondaryReadBreakPosition = read.getLength() - maxIndelSize;
-
-                // We are safe to use the faster no-copy versions of getBases and getBaseQualities here,
-                // since we're not modifying the returned arrays in any way. This makes a small difference
-                // in the HaplotypeCaller profile, since this method is a major hotspot.
-                final Pair<byte[], byte[]> readBasesAndBaseQualities = AlignmentUtils.getBasesAndBaseQualitiesAlignedOneToOne(read);  //calls getBasesNoCopy if CIGAR is all match
-                final byte[] readBases = readBasesAndBaseQualities.getLeft();
-                final byte[] readQualities = readBasesAndBaseQualities.getRight();
-
-                // Need to check for closeness to the end of the read again as the array size may be different than read.Len() due to deletions in the cigar
-                if (readBases.length - readStart > maxIndelSize) {
-
-                    // Compute where the end of marking would have been given the above two break conditions so we can stop marking there for our cached results
-                    final int lastReadBaseToMarkAsIndelRelevant;
-                    final boolean referenceWasShorter;
-                    if (readBases.length < refBases.length - refStart + readStart + 1) {
-                        // If the read ends first, then we don't mark the last maxIndelSize bases from it as relevant
-                        lastReadBaseToMarkAsIndelRelevant = readBases.length - maxIndelSize;
-                        referenceWasShorter = false;
-                    } else {
-                        // If the reference ends first, then we don't mark the last maxIndelSize bases from it as relevant
-                        lastReadBaseToMarkAsIndelRelevant = refBases.length - refStart + readStart - maxIndelSize + 1;
-                        referenceWasShorter = true;
-                    }
+            cachedResult = calculateIndelInformativeBases(read, readStart, refBases, refStart, maxIndelSize);
+            read.setTransientAttribute(INDEL_INFORMATIVE_BASES_CACHE_ATTRIBUTE_NAME, cachedResult);
+        }
+        return cachedResult.get(readStart);
+    }
+
+    /**
+     * Compute, for readStart and every later offset of the reference-aligned read, whether the read can eliminate the
+     * possibility that there's an indel of size <= maxIndelSize segregating at the corresponding reference base.
+     *
+     * See {@link #readHasNoPlausibleIdealsOfSize} for the meaning of the arguments. Only the bits of offsets >= readStart
+     * are meaningful, and as with the values cached by {@link #readHasNoPlausibleIdealsOfSize} they are meant to be
+     * reused for the later reference positions of the read.
+     *
+     * @return a bitset indexed by the offsets into the reference-aligned read, with a 1 for informative offsets
+     */
+    static BitSet calculateIndelInformativeBases(final GATKRead read,
+                                                 final int readStart,
+                                                 final byte[] refBases,
+                                                 final int refStart,
+                                                 final int maxIndelSize) {
+        Utils.validate(readStart >= 0, "readStart must >= 0");
+        Utils.validate(refStart >= 0, "refStart must >= 0");
+        BitSet informativeBases = new BitSet(read.getLength());
+
+        // Check that we aren't so close to the end of the end of the read that we don't have to compute anything more
+        if ( !(read.getLength() - readStart < maxIndelSize) && !(refBases.length - refStart < maxIndelSize) ) {
+            //TODO this should be removed, see https://github.com/broadinstitute/gatk/issues/5646 to track its progress
+            final int secondaryReadBreakPosition = read.getLength() - maxIndelSize;
+
+            // We are safe to use the faster no-copy versions of getBases and getBaseQualities here,
+            // since we're not modifying the returned arrays in any way. This makes a small difference
+            // in the HaplotypeCaller profile, since this method is a major hotspot.
+            final Pair<byte[], byte[]> readBasesAndBaseQualities = AlignmentUtils.getBasesAndBaseQualitiesAlignedOneToOne(read);  //calls getBasesNoCopy if CIGAR is all match
+            final byte[] readBases = readBasesAndBaseQualities.getLeft();
+            final byte[] readQualities = readBasesAndBaseQualities.getRight();
+
+            // Need to check for closeness to the end of the read again as the array size may be different than read.Len() due to deletions in the cigar
+            if (readBases.length - readStart > maxIndelSize) {
+
+                // Compute where the end of marking would have been given the above two break conditions so we can stop marking there for our cached results
+                final int lastReadBaseToMarkAsIndelRelevant;
+                final boolean referenceWasShorter;
+                if (readBases.length < refBases.length - refStart + readStart + 1) {
+                    // If the read ends first, then we don't mark the last maxIndelSize bases from it as relevant
+                    lastReadBaseToMarkAsIndelRelevant = readBases.length - maxIndelSize;
+                    referenceWasShorter = false;
+                } else {
+                    // If the reference ends first, then we don't mark the last maxIndelSize bases from it as relevant
+                    lastReadBaseToMarkAsIndelRelevant = refBases.length - refStart + readStart - maxIndelSize + 1;
+                    referenceWasShorter = true;
+                }
 
 
-                    // Compute the absolute baseline sum against which to test
-                    final int[] baselineMisMatchSums = calculateBaselineMMQualities(readBases, readQualities, readStart, refBases, refStart);
-
-                    // consider each indel size up to max in term, checking if an indel that deletes either the ref bases (deletion)
-                    // or read bases (insertion) would fit as well as the origin baseline sum of mismatching quality scores. These scores
-                    // are computed starting from the last base in the read/reference that would be offset by the indel and compared against
-                    // the mismatch cost for the same base of the reference. Once the sum of mismatch qualities counting from the back for
-                    // one indel size exceeds the global indel mismatch cost, the code stops as it will never find a better mismatch value.
-                    for (int indelSize = 1; indelSize <= maxIndelSize; indelSize++) {
-                        // Computing mismatches corresponding to a deletion
-                        traverseEndOfReadForIndelMismatches(informativeBases,
-                                readStart,
-                                readBases,
-                                readQualities,
-                                lastReadBaseToMarkAsIndelRelevant,
-                                secondaryReadBreakPosition,
-                                refStart,
-                                refBases,
-                                baselineMisMatchSums,
-                                indelSize,
-                                false);
-
-                        // Computing mismatches corresponding to an insertion
-                        traverseEndOfReadForIndelMismatches(informativeBases,
-                                readStart,
-                                readBases,
-                                readQualities,
-                                lastReadBaseToMarkAsIndelRelevant,
-                                secondaryReadBreakPosition,
-                                refStart,
-                                refBases,
-                                baselineMisMatchSums,
-                                indelSize,
-                                true);
-                    }
+                // Compute the absolute baseline sum against which to test
+                final int[] baselineMisMatchSums = calculateBaselineMMQualities(readBases, readQualities, readStart, refBases, refStart);
+
+                // consider each indel size up to max in term, checking if an indel that deletes either the ref bases (deletion)
+                // or read bases (insertion) would fit as well as the origin baseline sum of mismatching quality scores. These scores
+                // are computed starting from the last base in the read/reference that would be offset by the indel and compared against
+                // the mismatch cost for the same base of the reference. Once the sum of mismatch qualities counting from the back for
+                // one indel size exceeds the global indel mismatch cost, the code stops as it will never find a better mismatch value.
+                for (int indelSize = 1; indelSize <= maxIndelSize; indelSize++) {
+                    // Computing mismatches corresponding to a deletion
+                    traverseEndOfReadForIndelMismatches(informativeBases,
+                            readStart,
+                            readBases,
+                            readQualities,
+                            lastReadBaseToMarkAsIndelRelevant,
+                            secondaryReadBreakPosition,
+                            refStart,
+                            refBases,
+                            baselineMisMatchSums,
+                            indelSize,
+                            false);
+
+                    // Computing mismatches corresponding to an insertion
+                    traverseEndOfReadForIndelMismatches(informativeBases,
+                            readStart,
+                            readBases,
+                            readQualities,
+                            lastReadBaseToMarkAsIndelRelevant,
+                            secondaryReadBreakPosition,
+                            refStart,
+                            refBases,
+                            baselineMisMatchSums,
+                            indelSize,
+                            true);
+                }
 
 
-                    // Flip the bases at the front of the read (the ones not within maxIndelSize of the end as those are never informative)
-                    // These must be flipped because thus far we have marked reads for which there were plausible indels with a true value in
-                    // the bitset. This method returns false for cases where we have discovered plausible indels so we must flip them. This
-                    // is done in part to preserve a sensible default behavior for bases not considered by this approach.
-                    if ( lastReadBaseToMarkAsIndelRelevant <= secondaryReadBreakPosition) {
-                        informativeBases.flip(0, lastReadBaseToMarkAsIndelRelevant);
-                        // Resolve the fact that the old approach would always mark the last base examined as being indel uninformative when the reference
-                        // ends first despite it corresponding to a comparison of zero bases against the read
-                        if (referenceWasShorter) {
-                            informativeBases.set(lastReadBaseToMarkAsIndelRelevant - 1, false);
-                        }
-                    } else {
-                        informativeBases.flip(0, secondaryReadBreakPosition + 1);
+                // Flip the bases at the front of the read (the ones not within maxIndelSize of the end as those are never informative)
+                // These must be flipped because thus far we have marked reads for which there were plausible indels with a true value in
+                // the bitset. This method returns false for cases where we have discovered plausible indels so we must flip them. This
+                // is done in part to preserve a sensible default behavior for bases not considered by this approach.
+                if ( lastReadBaseToMarkAsIndelRelevant <= secondaryReadBreakPosition) {
+                    informativeBases.flip(0, lastReadBaseToMarkAsIndelRelevant);
+                    // Resolve the fact that the old approach would always mark the last base examined as being indel uninformative when the reference
+                    // ends first despite it corresponding to a comparison of zero bases against the read
+                    if (referenceWasShorter) {
+                        informativeBases.set(lastReadBaseToMarkAsIndelRelevant - 1, false);
                     }
-
+                } else {
+                    informativeBases.flip(0, secondaryReadBreakPosition + 1);
                 }
+
             }
-            cachedResult = informativeBases;
-            read.setTransientAttribute(INDEL_INFORMATIVE_BASES_CACHE_ATTRIBUTE_NAME, informativeBases);
         }
-        return cachedResult.get(readStart);
+        return informativeBases;
     }
 
     /**
@@ -310,6 +310,43 @@ public abstract class AbstractReadThreadingGraph extends BaseGraph<MultiDeBruijn
         }
     }
 
+    /**
+     * Thread all of the pending sequences through the graph, one sample at a time, flushing the single sample edge
+     * multiplicities after each sample.
+     */
+    protected void threadPendingSequences() {
+        for (final List<SequenceForKmers> sequencesForSample : pending.values()) {
+            for (final SequenceForKmers sequenceForKmers : sequencesForSample) {
+                threadSequence(sequenceForKmers);
+                if (WRITE_GRAPH) {
+                    printGraph(new File("threading." + counter++ + '.' + sequenceForKmers.name.replace(" ", "_") + ".dot"), 0);
+                }
+            }
+
+            // flush the single sample edge values from the graph
+            for (final MultiSampleEdge e : edgeSet()) {
+                e.flushSingleSampleMultiplicity();
+            }
+        }
+    }
+
+    /**
+     * Record the reference source kmer and the reference path, for subclasses that thread the pending sequences
+     * themselves instead of calling {@link #threadPendingSequences()}.
+     */
+    final void setReferenceSourceAndPath(final Kmer refSource, final List<MultiDeBruijnVertex> referencePath) {
+        this.refSource = refSource;
+        this.referencePath = referencePath == null ? null : Collections.unmodifiableList(referencePath);
+    }
+
+    final boolean isThreadingStartOnlyAtExistingVertex() {
+        return startThreadingOnlyAtExistingVertex;
+    }
+
+    final boolean isIncreaseCountsThroughBranches() {
+        return increaseCountsThroughBranches;
+    }
+
     /**
      * Changes the threading start location policy.
      *
@@ -337,19 +374,7 @@ public abstract class AbstractReadThreadingGraph extends BaseGraph<MultiDeBruijn
         }
 
         // go through the pending sequences, and add them to the graph
-        for (final List<SequenceForKmers> sequencesForSample : pending.values()) {
-            for (final SequenceForKmers sequenceForKmers : sequencesForSample) {
-                threadSequence(sequenceForKmers);
-                if (WRITE_GRAPH) {
-                    printGraph(new File("threading." + counter++ + '.' + sequenceForKmers.name.replace(" ", "_") + ".dot"), 0);
-                }
-            }
-
-            // flush the single sample edge values from the graph
-            for (final MultiSampleEdge e : edgeSet()) {
-                e.flushSingleSampleMultiplicity();
-            }
-        }
+        threadPendingSequences();
 
         // clear the pending reads pile to conserve memory
         if (shouldRemoveReadsAfterGraphConstruction()) {
@@ -0,0 +1,428 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading;
+
+import com.google.common.annotations.VisibleForTesting;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.Kmer;
+import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.PackedKmers;
+import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.graphs.MultiSampleEdge;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.*;
+
+/**
+ * A {@link ReadThreadingGraph} that threads its reads through a primitive, array-backed de Bruijn graph.
+ *
+ * <p>
+ *     Building a {@link ReadThreadingGraph} allocates a {@link Kmer} object for every position of every read, both to
+ *     find the non-unique kmers and to thread the reads, and walks the jgrapht edge sets of a vertex for every base.
+ *     This graph instead encodes kmers of up to {@link #MAX_PACKED_KMER_SIZE} bases as 2-bit packed longs, keeps the
+ *     kmer to vertex map in a primitive open-addressing table, and stores vertices, edges, adjacency lists and edge
+ *     multiplicities in int arrays. Once all of the pending sequences have been threaded, the (comparatively small)
+ *     graph is copied into the jgrapht vertices and edges of this object, so the pruning, dangling end recovery, cycle
+ *     detection and haplotype finding code works on it unchanged.
+ * </p>
+ *
+ * <p>
+ *     The threading algorithm is the same as that of {@link ReadThreadingGraph}, and vertices and edges are added in
+ *     the same order, so the resulting graph is identical to the one a {@link ReadThreadingGraph} would build from
+ *     the same sequences. Graphs whose kmer size is too large to pack, whose sequences contain bases other than
+ *     upper-case A, C, G and T in the part to be threaded, or that are built with debugging of graph transformations
+ *     turned on are built by {@link ReadThreadingGraph} itself.
+ * </p>
+ */
+public final class PackedReadThreadingGraph extends ReadThreadingGraph {
+    private static final long serialVersionUID = 1l;
+
+    /**
+     * The largest kmer size whose kmers can be packed into a long at 2 bits per base
+     */
+    public static final int MAX_PACKED_KMER_SIZE = PackedKmers.MAX_PACKED_KMER_SIZE;
+
+    private static final int NO_VERTEX = -1;
+
+    private boolean threadedFromPackedKmers = false;
+
+    /**
+     * Non-unique kmers as packed longs, only needed while the graph is being built
+     */
+    private transient LongOpenHashSet packedNonUniqueKmers = null;
+
+    /**
+     * @param kmerSize must be >= 1
+     */
+    public PackedReadThreadingGraph(final int kmerSize, final boolean debugGraphTransformations, final byte minBaseQualityToUseInAssembly, final int numPruningSamples, final int numDanglingMatchingPrefixBases) {
+        super(kmerSize, debugGraphTransformations, minBaseQualityToUseInAssembly, numPruningSamples, numDanglingMatchingPrefixBases);
+    }
+
+    /**
+     * @return true if this graph was (or will be) threaded using packed kmers, false if it falls back to the
+     * {@link ReadThreadingGraph} implementation
+     */
+    @VisibleForTesting
+    boolean isPacked() {
+        return threadedFromPackedKmers;
+    }
+
+    @Override
+    protected void preprocessReads() {
+        if ( kmerSize > MAX_PACKED_KMER_SIZE || debugGraphTransformations || !pendingSequencesArePackable() ) {
+            super.preprocessReads();
+            return;
+        }
+
+        // like ReadThreadingGraph.determineNonUniqueKmers(), a kmer is non-unique if it occurs more than once within a
+        // single sequence. Note that kmers are taken from the start of the underlying array, not just from the part
+        // of it that will be threaded, so they may contain bases that cannot be packed; those are rare and are
+        // tracked as Kmer objects.
+        final LongOpenHashSet nonUniques = new LongOpenHashSet();
+        final Set<Kmer> unpackableNonUniques = new HashSet<>();
+        final Long2IntOpenHashMap lastSequenceWithKmer = new Long2IntOpenHashMap();
+        lastSequenceWithKmer.defaultReturnValue(-1);
+        final long kmerMask = PackedKmers.kmerMask(kmerSize);
+
+        int sequenceIndex = 0;
+        for ( final List<SequenceForKmers> sequencesForSample : pending.values() ) {
+            for ( final SequenceForKmers sequenceForKmers : sequencesForSample ) {
+                final byte[] sequence = sequenceForKmers.sequence;
+                Set<Kmer> unpackableKmersInSequence = null;
+                long kmer = 0;
+                int packableRunLength = 0;
+                for ( int i = 0; i < sequenceForKmers.stop; i++ ) {
+                    final int code = PackedKmers.baseToCode(sequence[i]);
+                    if ( code == PackedKmers.NOT_A_BASE ) {
+                        packableRunLength = 0;
+                    } else {
+                        kmer = ((kmer << 2) | code) & kmerMask;
+                        packableRunLength++;
+                    }
+
+                    final int kmerStart = i - kmerSize + 1;
+                    if ( kmerStart < 0 ) {
+                        continue;
+                    }
+                    if ( packableRunLength >= kmerSize ) {
+                        if ( lastSequenceWithKmer.put(kmer, sequenceIndex) == sequenceIndex ) {
+                            nonUniques.add(kmer);
+                        }
+                    } else {
+                        if ( unpackableKmersInSequence == null ) {
+                            unpackableKmersInSequence = new HashSet<>();
+                        }
+                        final Kmer unpackableKmer = new Kmer(sequence, kmerStart, kmerSize);
+                        if ( !unpackableKmersInSequence.add(unpackableKmer) ) {
+                            unpackableNonUniques.add(unpackableKmer);
+                        }
+                    }
+                }
+                sequenceIndex++;
+            }
+        }
+
+        threadedFromPackedKmers = true;
+        packedNonUniqueKmers = nonUniques;
+        nonUniqueKmers = new HashSet<>(unpackableNonUniques);
+        for ( final long nonUnique : nonUniques ) {
+            nonUniqueKmers.add(new Kmer(PackedKmers.unpack(nonUnique, kmerSize)));
+        }
+    }
+
+    @Override
+    protected void threadPendingSequences() {
+        if ( !isPacked() ) {
+            super.threadPendingSequences();
+            return;
+        }
+
+        final PackedGraphBuilder builder = new PackedGraphBuilder();
+        for ( final List<SequenceForKmers> sequencesForSample : pending.values() ) {
+            for ( final SequenceForKmers sequenceForKmers : sequencesForSample ) {
+                builder.threadSequence(sequenceForKmers);
+            }
+            builder.flushSingleSampleMultiplicities();
+        }
+        builder.copyToGraph();
+        packedNonUniqueKmers = null;
+    }
+
+    /**
+     * @return true if the parts of all pending sequences that will be threaded into the graph contain only bases that
+     * can be packed
+     */
+    private boolean pendingSequencesArePackable() {
+        for ( final List<SequenceForKmers> sequencesForSample : pending.values() ) {
+            for ( final SequenceForKmers sequenceForKmers : sequencesForSample ) {
+                // the reference is always threaded from its first base
+                final int start = sequenceForKmers.isRef ? 0 : sequenceForKmers.start;
+                for ( int i = start; i < sequenceForKmers.stop; i++ ) {
+                    if ( PackedKmers.baseToCode(sequenceForKmers.sequence[i]) == PackedKmers.NOT_A_BASE ) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The primitive graph the pending sequences are threaded through. Vertices and edges are numbered in the order they
+     * are created, and the outgoing and incoming edges of each vertex are kept as singly linked lists in that order.
+     */
+    private final class PackedGraphBuilder {
+        private final long kmerMask = PackedKmers.kmerMask(kmerSize);
+        private final boolean startThreadingOnlyAtExistingVertex = isThreadingStartOnlyAtExistingVertex();
+        private final boolean increaseCountsThroughBranches = isIncreaseCountsThroughBranches();
+
+        // unique kmer -> vertex; the equivalent of kmerToVertexMap
+        private final Long2IntOpenHashMap kmerToVertex = new Long2IntOpenHashMap();
+        private final BitSet trackedVertices = new BitSet();
+
+        private int numVertices = 0;
+        private long[] vertexKmers = new long[1024];
+        private int[] firstOutgoingEdge = new int[1024];
+        private int[] lastOutgoingEdge = new int[1024];
+        private int[] firstIncomingEdge = new int[1024];
+        private int[] lastIncomingEdge = new int[1024];
+        private int[] inDegrees = new int[1024];
+
+        private int numEdges = 0;
+        private int[] edgeSources = new int[1024];
+        private int[] edgeTargets = new int[1024];
+        private int[] nextOutgoingEdge = new int[1024];
+        private int[] nextIncomingEdge = new int[1024];
+        private int[] initialMultiplicities = new int[1024];
+        private int[] singleSampleMultiplicities = new int[1024];
+        private int[] edgeFirstSamples = new int[1024];
+        private final BitSet refEdges = new BitSet();
+
+        // the single sample multiplicities of all edges, one block of numEdges values per flushed sample
+        private final IntArrayList flushedMultiplicities = new IntArrayList();
+        private final IntArrayList flushedSampleOffsets = new IntArrayList();
+
+        private boolean hasRefSource = false;
+        private long refSourceKmer;
+        private IntArrayList referencePath = null;
+
+        PackedGraphBuilder() {
+            kmerToVertex.defaultReturnValue(NO_VERTEX);
+        }
+
+        /**
+         * Same as AbstractReadThreadingGraph.threadSequence()
+         */
+        void threadSequence(final SequenceForKmers seqForKmers) {
+            final int startPos = findStart(seqForKmers);
+            if ( startPos == -1 ) {
+                return;
+            }
+
+            long kmer = PackedKmers.pack(seqForKmers.sequence, startPos, kmerSize);
+            final int startingVertex = getOrCreateKmerVertex(kmer);
+
+            // increase the counts of all edges incoming into the starting vertex supported by going back in sequence
+            increaseCountsInMatchedKmers(seqForKmers.count, startingVertex, kmer, kmerSize - 2);
+
+            if ( seqForKmers.isRef ) {
+                if ( hasRefSource ) {
+                    throw new IllegalStateException("Found two refSources! prev: " + new String(PackedKmers.unpack(refSourceKmer, kmerSize)) + ", new: " + new String(PackedKmers.unpack(kmer, kmerSize)));
+                }
+                referencePath = new IntArrayList(seqForKmers.sequence.length - kmerSize);
+                referencePath.add(startingVertex);
+                hasRefSource = true;
+                refSourceKmer = PackedKmers.pack(seqForKmers.sequence, seqForKmers.start, kmerSize);
+            }
+
+            int vertex = startingVertex;
+            for ( int i = startPos + 1; i <= seqForKmers.stop - kmerSize; i++ ) {
+                kmer = ((kmer << 2) | PackedKmers.baseToCode(seqForKmers.sequence[i + kmerSize - 1])) & kmerMask;
+                vertex = extendChainByOne(vertex, kmer, seqForKmers.count, seqForKmers.isRef);
+                if ( seqForKmers.isRef ) {
+                    referencePath.add(vertex);
+                }
+            }
+        }
+
+        private int findStart(final SequenceForKmers seqForKmers) {
+            if ( seqForKmers.isRef ) {
+                return 0;
+            }
+
+            final int end = seqForKmers.stop - kmerSize;
+            if ( seqForKmers.start >= end ) {
+                return -1;
+            }
+            long kmer = PackedKmers.pack(seqForKmers.sequence, seqForKmers.start, kmerSize);
+            for ( int i = seqForKmers.start; i < end; i++ ) {
+                if ( i > seqForKmers.start ) {
+                    kmer = ((kmer << 2) | PackedKmers.baseToCode(seqForKmers.sequence[i + kmerSize - 1])) & kmerMask;
+                }
+                if ( startThreadingOnlyAtExistingVertex ? kmerToVertex.containsKey(kmer) : !packedNonUniqueKmers.contains(kmer) ) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void increaseCountsInMatchedKmers(final int count, final int vertex, final long originalKmer, final int offset) {
+            if ( offset == -1 ) {
+                return;
+            }
+
+            final int seqBase = (int) (originalKmer >>> (2 * (kmerSize - 1 - offset))) & 3;
+            for ( int edge = firstIncomingEdge[vertex]; edge != NO_VERTEX; edge = nextIncomingEdge[edge] ) {
+                final int prev = edgeSources[edge];
+                if ( suffix(prev) == seqBase && (increaseCountsThroughBranches || inDegrees[vertex] == 1) ) {
+                    incMultiplicity(edge, count);
+                    increaseCountsInMatchedKmers(count, prev, originalKmer, offset - 1);
+                }
+            }
+        }
+
+        private int getOrCreateKmerVertex(final long kmer) {
+            final int vertex = kmerToVertex.get(kmer);
+            return vertex != NO_VERTEX ? vertex : createVertex(kmer);
+        }
+
+        /**
+         * Same as AbstractReadThreadingGraph.extendChainByOne() and ReadThreadingGraph.getNextKmerVertexForChainExtension()
+         */
+        private int extendChainByOne(final int prevVertex, final long kmer, final int count, final boolean isRef) {
+            final int nextBase = (int) (kmer & 3);
+            for ( int edge = firstOutgoingEdge[prevVertex]; edge != NO_VERTEX; edge = nextOutgoingEdge[edge] ) {
+                final int target = edgeTargets[edge];
+                if ( suffix(target) == nextBase ) {
+                    incMultiplicity(edge, count);
+                    return target;
+                }
+            }
+
+            final int mergeVertex = hasRefSource && kmer == refSourceKmer ? NO_VERTEX : kmerToVertex.get(kmer);
+            Utils.validate(!(isRef && mergeVertex != NO_VERTEX), () -> "Found a unique vertex to merge into the reference graph "
+                    + new String(PackedKmers.unpack(vertexKmers[prevVertex], kmerSize)) + " -> " + new String(PackedKmers.unpack(kmer, kmerSize)));
+
+            final int nextVertex = mergeVertex == NO_VERTEX ? createVertex(kmer) : mergeVertex;
+            createEdge(prevVertex, nextVertex, isRef, count);
+            return nextVertex;
+        }
+
+        private int suffix(final int vertex) {
+            return (int) (vertexKmers[vertex] & 3);
+        }
+
+        private int createVertex(final long kmer) {
+            if ( numVertices == vertexKmers.length ) {
+                final int capacity = 2 * numVertices;
+                vertexKmers = Arrays.copyOf(vertexKmers, capacity);
+                firstOutgoingEdge = Arrays.copyOf(firstOutgoingEdge, capacity);
+                lastOutgoingEdge = Arrays.copyOf(lastOutgoingEdge, capacity);
+                firstIncomingEdge = Arrays.copyOf(firstIncomingEdge, capacity);
+                lastIncomingEdge = Arrays.copyOf(lastIncomingEdge, capacity);
+                inDegrees = Arrays.copyOf(inDegrees, capacity);
+            }
+            final int vertex = numVertices++;
+            vertexKmers[vertex] = kmer;
+            firstOutgoingEdge[vertex] = NO_VERTEX;
+            lastOutgoingEdge[vertex] = NO_VERTEX;
+            firstIncomingEdge[vertex] = NO_VERTEX;
+            lastIncomingEdge[vertex] = NO_VERTEX;
+            inDegrees[vertex] = 0;
+
+            // the equivalent of ReadThreadingGraph.trackKmer()
+            if ( !packedNonUniqueKmers.contains(kmer) && !kmerToVertex.containsKey(kmer) ) {
+                kmerToVertex.put(kmer, vertex);
+                trackedVertices.set(vertex);
+            }
+            return vertex;
+        }
+
+        private void createEdge(final int source, final int target, final boolean isRef, final int multiplicity) {
+            if ( numEdges == edgeSources.length ) {
+                final int capacity = 2 * numEdges;
+                edgeSources = Arrays.copyOf(edgeSources, capacity);
+                edgeTargets = Arrays.copyOf(edgeTargets, capacity);
+                nextOutgoingEdge = Arrays.copyOf(nextOutgoingEdge, capacity);
+                nextIncomingEdge = Arrays.copyOf(nextIncomingEdge, capacity);
+                initialMultiplicities = Arrays.copyOf(initialMultiplicities, capacity);
+                singleSampleMultiplicities = Arrays.copyOf(singleSampleMultiplicities, capacity);
+                edgeFirstSamples = Arrays.copyOf(edgeFirstSamples, capacity);
+            }
+            final int edge = numEdges++;
+            edgeSources[edge] = source;
+            edgeTargets[edge] = target;
+            nextOutgoingEdge[edge] = NO_VERTEX;
+            nextIncomingEdge[edge] = NO_VERTEX;
+            initialMultiplicities[edge] = multiplicity;
+            singleSampleMultiplicities[edge] = multiplicity;
+            edgeFirstSamples[edge] = flushedSampleOffsets.size();
+            refEdges.set(edge, isRef);
+
+            if ( lastOutgoingEdge[source] == NO_VERTEX ) {
+                firstOutgoingEdge[source] = edge;
+            } else {
+                nextOutgoingEdge[lastOutgoingEdge[source]] = edge;
+            }
+            lastOutgoingEdge[source] = edge;
+
+            if ( lastIncomingEdge[target] == NO_VERTEX ) {
+                firstIncomingEdge[target] = edge;
+            } else {
+                nextIncomingEdge[lastIncomingEdge[target]] = edge;
+            }
+            lastIncomingEdge[target] = edge;
+            inDegrees[target]++;
+        }
+
+        private void incMultiplicity(final int edge, final int count) {
+            singleSampleMultiplicities[edge] += count;
+        }
+
+        /**
+         * The equivalent of calling {@link MultiSampleEdge#flushSingleSampleMultiplicity()} on every edge
+         */
+        void flushSingleSampleMultiplicities() {
+            flushedSampleOffsets.add(flushedMultiplicities.size());
+            flushedMultiplicities.addElements(flushedMultiplicities.size(), singleSampleMultiplicities, 0, numEdges);
+            Arrays.fill(singleSampleMultiplicities, 0, numEdges, 0);
+        }
+
+        /**
+         * Add the vertices and edges to the jgrapht graph in the order they were created, replaying the per-sample
+         * multiplicities of each edge so that its multiplicity and pruning multiplicity are the same as if it had been
+         * built by {@link ReadThreadingGraph}.
+         */
+        void copyToGraph() {
+            final MultiDeBruijnVertex[] vertices = new MultiDeBruijnVertex[numVertices];
+            for ( int vertex = 0; vertex < numVertices; vertex++ ) {
+                final byte[] bases = PackedKmers.unpack(vertexKmers[vertex], kmerSize);
+                vertices[vertex] = new MultiDeBruijnVertex(bases);
+                addVertex(vertices[vertex]);
+                if ( trackedVertices.get(vertex) ) {
+                    kmerToVertexMap.put(new Kmer(bases), vertices[vertex]);
+                }
+            }
+
+            final MyEdgeFactory edgeFactory = (MyEdgeFactory) getEdgeFactory();
+            final int numFlushedSamples = flushedSampleOffsets.size();
+            for ( int edge = 0; edge < numEdges; edge++ ) {
+                final MultiSampleEdge multiSampleEdge = edgeFactory.createEdge(refEdges.get(edge), initialMultiplicities[edge]);
+                int alreadyCounted = initialMultiplicities[edge];
+                for ( int sample = edgeFirstSamples[edge]; sample < numFlushedSamples; sample++ ) {
+                    multiSampleEdge.incMultiplicity(flushedMultiplicities.getInt(flushedSampleOffsets.getInt(sample) + edge) - alreadyCounted);
+                    multiSampleEdge.flushSingleSampleMultiplicity();
+                    alreadyCounted = 0;
+                }
+                addEdge(vertices[edgeSources[edge]], vertices[edgeTargets[edge]], multiSampleEdge);
+            }
+
+            List<MultiDeBruijnVertex> refPath = null;
+            if ( referencePath != null ) {
+                refPath = new ArrayList<>(referencePath.size());
+                for ( int i = 0; i < referencePath.size(); i++ ) {
+                    refPath.add(vertices[referencePath.getInt(i)]);
+                }
+            }
+            setReferenceSourceAndPath(hasRefSource ? new Kmer(PackedKmers.unpack(refSourceKmer, kmerSize)) : null, refPath);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreadin
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import htsjdk.samtools.Cigar;
 import htsjdk.samtools.CigarOperator;
 import htsjdk.samtools.SAMFileHeader;
@@ -14,6 +15,7 @@ import org.apache.logging.log4j.Logger;
 import org.broadinstitute.gatk.nativebindings.smithwaterman.SWOverhangStrategy;
 import org.broadinstitute.gatk.nativebindings.smithwaterman.SWParameters;
 import org.broadinstitute.hellbender.engine.AssemblyRegion;
+import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.AssemblyResult;
 import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.AssemblyResultSet;
@@ -35,6 +37,10 @@ import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 public final class ReadThreadingAssembler {
@@ -55,6 +61,7 @@ public final class ReadThreadingAssembler {
     private final boolean pruneBeforeCycleCounting;
 
     private boolean removePathsNotConnectedToRef = true;
+    private boolean usePackedReadThreadingGraph = false;
     private boolean justReturnRawGraph = false;
 
     /**
@@ -81,6 +88,18 @@ public final class ReadThreadingAssembler {
     private Histogram haplotypeHistogram = null;
     private Histogram kmersUsedHistogram = null;
 
+    /**
+     * Pool on which the graphs for the different kmer sizes are built concurrently, or null to build them one after
+     * another on the calling thread. See {@link #setNumKmerAssemblyThreads}.
+     */
+    private ExecutorService kmerAssemblyExecutor = null;
+
+    /**
+     * Whether {@link #kmerAssemblyExecutor} was created by this assembler, and so is shut down by {@link #close}, rather
+     * than shared with other assemblers. See {@link #setKmerAssemblyExecutor}.
+     */
+    private boolean ownsKmerAssemblyExecutor = false;
+
     public ReadThreadingAssembler(final int maxAllowedPathsForReadThreadingAssembler, final List<Integer> kmerSizes,
                                   final boolean dontIncreaseKmerSizesForCycles, final boolean allowNonUniqueKmersInRef,
                                   final int numPruningSamples, final int pruneFactor, final boolean useAdaptivePruning,
@@ -242,49 +261,64 @@ public final class ReadThreadingAssembler {
 
         boolean hasAdequatelyAssembledGraph = false;
         List<Integer> kmersToTry = getExpandedKmerList();
-        // first, try using the requested kmer sizes
-        for ( int i = 0; i < kmersToTry.size(); i++ ) {
-            final int kmerSize = kmersToTry.get(i);
-            final boolean isLastCycle = i == kmersToTry.size() - 1;
-            if (!hasAdequatelyAssembledGraph) {
-                AssemblyResult assembledResult = createGraph(correctedReads, refHaplotype, kmerSize, isLastCycle || dontIncreaseKmerSizesForCycles, isLastCycle || allowNonUniqueKmersInRef, header, aligner, danglingEndSWParameters);
-                if (assembledResult != null && assembledResult.getStatus() == AssemblyResult.Status.ASSEMBLED_SOME_VARIATION) {
-                    // do some QC on the graph
-                    sanityCheckGraph(assembledResult.getThreadingGraph(), refHaplotype);
-                    assembledResult.getThreadingGraph().postProcessForHaplotypeFinding(debugGraphOutputPath, refHaplotype);
-                    // add it to graphs with meaningful non-reference features
-                    nonRefRTGraphs.add(assembledResult.getThreadingGraph());
-
-                    if (graphHaplotypeHistogramPath != null) {
-                        kmersUsedHistogram.add((double) assembledResult.getKmerSize());
-                    }
 
-                    AbstractReadThreadingGraph graph = assembledResult.getThreadingGraph();
-                    findBestPaths(Collections.singletonList(graph), Collections.singletonMap(graph, assembledResult),
-                            refHaplotype, refLoc, activeRegionExtendedLocation, null, aligner, haplotypeToReferenceSWParameters);
+        // when running concurrently, speculatively build the graphs for every kmer size we might need; the results are
+        // consumed below in kmer size order and those past the first adequate graph are discarded
+        final List<Future<AssemblyResult>> concurrentResults = new ArrayList<>();
+        if ( kmerAssemblyExecutor != null ) {
+            for ( int i = 0; i < kmersToTry.size(); i++ ) {
+                final int kmerSize = kmersToTry.get(i);
+                final boolean isLastCycle = i == kmersToTry.size() - 1;
+                concurrentResults.add(kmerAssemblyExecutor.submit(() -> createLinkedGraph(correctedReads, refHaplotype, kmerSize, isLastCycle, header, aligner, danglingEndSWParameters)));
+            }
+        }
+
+        try {
+            // first, try using the requested kmer sizes
+            for ( int i = 0; i < kmersToTry.size(); i++ ) {
+                final int kmerSize = kmersToTry.get(i);
+                final boolean isLastCycle = i == kmersToTry.size() - 1;
+                if (!hasAdequatelyAssembledGraph) {
+                    AssemblyResult assembledResult = kmerAssemblyExecutor == null ?
+                            createLinkedGraph(correctedReads, refHaplotype, kmerSize, isLastCycle, header, aligner, danglingEndSWParameters) :
+                            getKmerAssemblyResult(concurrentResults.get(i));
+                    if (assembledResult != null && assembledResult.getStatus() == AssemblyResult.Status.ASSEMBLED_SOME_VARIATION) {
+                        // add it to graphs with meaningful non-reference features
+                        nonRefRTGraphs.add(assembledResult.getThreadingGraph());
+
+                        if (graphHaplotypeHistogramPath != null) {
+                            kmersUsedHistogram.add((double) assembledResult.getKmerSize());
+                        }
+
+                        AbstractReadThreadingGraph graph = assembledResult.getThreadingGraph();
+                        findBestPaths(Collections.singletonList(graph), Collections.singletonMap(graph, assembledResult),
+                                refHaplotype, refLoc, activeRegionExtendedLocation, null, aligner, haplotypeToReferenceSWParameters);
 
-                    savedAssemblyResults.add(assembledResult);
+                        savedAssemblyResults.add(assembledResult);
 
-                    //TODO LOGIC PLAN HERE - we want to check if we have a trustworthy graph (i.e. no badly assembled haplotypes) if we do, emit it.
-                    //TODO                 - but if we failed to assemble due to excessive looping or did have badly assembled haplotypes then we expand kmer size.
-                    //TODO                 - If we get no variation
+                        //TODO LOGIC PLAN HERE - we want to check if we have a trustworthy graph (i.e. no badly assembled haplotypes) if we do, emit it.
+                        //TODO                 - but if we failed to assemble due to excessive looping or did have badly assembled haplotypes then we expand kmer size.
+                        //TODO                 - If we get no variation
 
-                    // if assembly didn't fail ( which is a degenerate case that occurs for some subset of graphs with difficult loops)
-                    if (! assembledResult.getDiscoveredHaplotypes().isEmpty()) {
-                        // we have found our workable kmer size so let's add the results and finish
-                        if (!assembledResult.containsSuspectHaplotypes()) {
-                            for (Haplotype h : assembledResult.getDiscoveredHaplotypes()) {
-                                resultSet.add(h, assembledResult);
+                        // if assembly didn't fail ( which is a degenerate case that occurs for some subset of graphs with difficult loops)
+                        if (! assembledResult.getDiscoveredHaplotypes().isEmpty()) {
+                            // we have found our workable kmer size so let's add the results and finish
+                            if (!assembledResult.containsSuspectHaplotypes()) {
+                                for (Haplotype h : assembledResult.getDiscoveredHaplotypes()) {
+                                    resultSet.add(h, assembledResult);
+                                }
+                                hasAdequatelyAssembledGraph = true;
                             }
-                            hasAdequatelyAssembledGraph = true;
                         }
-                    }
 
-                // if no variation is discovered in the graph don't bother expanding the kmer size.
-                } else if (assembledResult != null && assembledResult.getStatus() == AssemblyResult.Status.JUST_ASSEMBLED_REFERENCE) {
-                    hasAdequatelyAssembledGraph = true;
+                    // if no variation is discovered in the graph don't bother expanding the kmer size.
+                    } else if (assembledResult != null && assembledResult.getStatus() == AssemblyResult.Status.JUST_ASSEMBLED_REFERENCE) {
+                        hasAdequatelyAssembledGraph = true;
+                    }
                 }
             }
+        } finally {
+            cancelKmerAssemblies(concurrentResults);
         }
 
 
@@ -330,17 +364,21 @@ public final class ReadThreadingAssembler {
         final int activeRegionStart = refHaplotype.getAlignmentStartHapwrtRef();
         int failedCigars = 0;
 
-        // Validate that the graph is valid with extant source and sink before operating
+        // the best paths through each graph are independent of each other, so when there are several graphs search them
+        // concurrently; the haplotypes are still aligned and merged below one graph at a time, in order
+        final List<Future<List<KBestHaplotype<V, E>>>> concurrentBestHaplotypes = new ArrayList<>();
+        if ( kmerAssemblyExecutor != null && graphs.size() > 1 ) {
+            for (final BaseGraph<V, E> graph : graphs) {
+                concurrentBestHaplotypes.add(kmerAssemblyExecutor.submit(() -> findBestHaplotypes(graph)));
+            }
+        }
+
+        int graphIndex = 0;
         for (final BaseGraph<V, E> graph : graphs) {
             final AssemblyResult assemblyResult = assemblyResultByGraph.get(graph);
-            final V source = graph.getReferenceSourceVertex();
-            final V sink = graph.getReferenceSinkVertex();
-            Utils.validateArg(source != null && sink != null, () -> "Both source and sink cannot be null but got " + source + " and sink " + sink + " for graph " + graph);
-
-            List<KBestHaplotype<V, E>> bestHaplotypes = (generateSeqGraph ?
-                    new GraphBasedKBestHaplotypeFinder<>(graph, source, sink) :
-                    new JunctionTreeKBestHaplotypeFinder<>(graph, source, sink, JunctionTreeKBestHaplotypeFinder.DEFAULT_OUTGOING_JT_EVIDENCE_THRESHOLD_TO_BELEIVE, recoverHaplotypesFromEdgesNotCoveredInJunctionTrees))
-                    .findBestHaplotypes(numBestHaplotypesPerGraph);
+            final List<KBestHaplotype<V, E>> bestHaplotypes = concurrentBestHaplotypes.isEmpty() ?
+                    findBestHaplotypes(graph) : getKmerAssemblyResult(concurrentBestHaplotypes.get(graphIndex));
+            graphIndex++;
 
             for (final KBestHaplotype<V, E> kBestHaplotype : bestHaplotypes) {
                 // TODO for now this seems like the solution, perhaps in the future it will be to excise the haplotype completely)
@@ -443,6 +481,21 @@ public final class ReadThreadingAssembler {
         return new ArrayList<>(returnHaplotypes);
     }
 
+    /**
+     * Find the best haplotypes through a single graph
+     */
+    private <V extends BaseVertex, E extends BaseEdge> List<KBestHaplotype<V, E>> findBestHaplotypes(final BaseGraph<V, E> graph) {
+        // Validate that the graph is valid with extant source and sink before operating
+        final V source = graph.getReferenceSourceVertex();
+        final V sink = graph.getReferenceSinkVertex();
+        Utils.validateArg(source != null && sink != null, () -> "Both source and sink cannot be null but got " + source + " and sink " + sink + " for graph " + graph);
+
+        return (generateSeqGraph ?
+                new GraphBasedKBestHaplotypeFinder<>(graph, source, sink) :
+                new JunctionTreeKBestHaplotypeFinder<>(graph, source, sink, JunctionTreeKBestHaplotypeFinder.DEFAULT_OUTGOING_JT_EVIDENCE_THRESHOLD_TO_BELEIVE, recoverHaplotypesFromEdgesNotCoveredInJunctionTrees))
+                .findBestHaplotypes(numBestHaplotypesPerGraph);
+    }
+
     /**
      * We use CigarOperator.N as the signal that an incomplete or too divergent bubble was found during bubble traversal
      * @param c the cigar to test
@@ -551,6 +604,10 @@ public final class ReadThreadingAssembler {
      */
     @VisibleForTesting
     List<AssemblyResult> assemble(final List<GATKRead> reads, final Haplotype refHaplotype, final SAMFileHeader header, final SmithWatermanAligner aligner, final SWParameters danglingEndSWParameters) {
+        if ( kmerAssemblyExecutor != null ) {
+            return assembleConcurrently(reads, refHaplotype, header, aligner, danglingEndSWParameters);
+        }
+
         final List<AssemblyResult> results = new LinkedList<>();
 
         // first, try using the requested kmer sizes
@@ -574,6 +631,77 @@ public final class ReadThreadingAssembler {
         return results;
     }
 
+    /**
+     * Same as the single-threaded path of {@link #assemble}, but the graphs for all of the requested kmer sizes are
+     * built at once on the kmer assembly pool. If none of them works, the graphs for all of the larger kmer sizes are
+     * then built at once as well, and the smallest one that works is kept, as it would have been in the serial loop.
+     * Results are returned in kmer size order, so the output is identical to that of the single-threaded path.
+     */
+    private List<AssemblyResult> assembleConcurrently(final List<GATKRead> reads, final Haplotype refHaplotype, final SAMFileHeader header, final SmithWatermanAligner aligner, final SWParameters danglingEndSWParameters) {
+        final List<AssemblyResult> results = new LinkedList<>();
+
+        final List<Future<AssemblyResult>> requestedKmerResults = new ArrayList<>(kmerSizes.size());
+        try {
+            for ( final int kmerSize : kmerSizes ) {
+                requestedKmerResults.add(kmerAssemblyExecutor.submit(() -> createGraph(reads, refHaplotype, kmerSize, dontIncreaseKmerSizesForCycles, allowNonUniqueKmersInRef, header, aligner, danglingEndSWParameters)));
+            }
+            for ( final Future<AssemblyResult> result : requestedKmerResults ) {
+                addResult(results, getKmerAssemblyResult(result));
+            }
+        } finally {
+            cancelKmerAssemblies(requestedKmerResults);
+        }
+
+        if ( results.isEmpty() && !dontIncreaseKmerSizesForCycles ) {
+            final List<Future<AssemblyResult>> largerKmerResults = new ArrayList<>(MAX_KMER_ITERATIONS_TO_ATTEMPT);
+            try {
+                int kmerSize = arrayMaxInt(kmerSizes) + KMER_SIZE_ITERATION_INCREASE;
+                for ( int numIterations = 1; numIterations <= MAX_KMER_ITERATIONS_TO_ATTEMPT; numIterations++ ) {
+                    // on the last attempt we will allow low complexity graphs
+                    final boolean lastAttempt = numIterations == MAX_KMER_ITERATIONS_TO_ATTEMPT;
+                    final int attemptKmerSize = kmerSize;
+                    largerKmerResults.add(kmerAssemblyExecutor.submit(() -> createGraph(reads, refHaplotype, attemptKmerSize, lastAttempt, lastAttempt, header, aligner, danglingEndSWParameters)));
+                    kmerSize += KMER_SIZE_ITERATION_INCREASE;
+                }
+                for ( int i = 0; results.isEmpty() && i < largerKmerResults.size(); i++ ) {
+                    addResult(results, getKmerAssemblyResult(largerKmerResults.get(i)));
+                }
+            } finally {
+                cancelKmerAssemblies(largerKmerResults);
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Wait for a graph submitted to the kmer assembly pool, rethrowing any exception thrown while building it
+     */
+    private static <T> T getKmerAssemblyResult(final Future<T> result) {
+        try {
+            return result.get();
+        } catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while waiting for a kmer assembly graph", e);
+        } catch ( final ExecutionException e ) {
+            final Throwable cause = e.getCause();
+            if ( cause instanceof RuntimeException ) {
+                throw (RuntimeException) cause;
+            } else if ( cause instanceof Error ) {
+                throw (Error) cause;
+            }
+            throw new GATKException("Exception thrown while building a kmer assembly graph", cause);
+        }
+    }
+
+    /**
+     * Cancel any graphs submitted to the kmer assembly pool whose results are no longer needed. Has no effect on
+     * graphs that have already been built.
+     */
+    private static void cancelKmerAssemblies(final List<? extends Future<?>> results) {
+        results.forEach(result -> result.cancel(true));
+    }
+
     /**
      * Method for getting a list of all the specified kmer sizes to test for the graph including kmer expansions
      */
@@ -631,7 +759,9 @@ public final class ReadThreadingAssembler {
         }
 
         // TODO figure out how you want to hook this in
-        final AbstractReadThreadingGraph rtgraph = generateSeqGraph ? new ReadThreadingGraph(kmerSize, debugGraphTransformations, minBaseQualityToUseInAssembly, numPruningSamples, minMatchingBasesToDanglingEndRecovery) :
+        final AbstractReadThreadingGraph rtgraph = generateSeqGraph ?
+                (usePackedReadThreadingGraph ? new PackedReadThreadingGraph(kmerSize, debugGraphTransformations, minBaseQualityToUseInAssembly, numPruningSamples, minMatchingBasesToDanglingEndRecovery) :
+                        new ReadThreadingGraph(kmerSize, debugGraphTransformations, minBaseQualityToUseInAssembly, numPruningSamples, minMatchingBasesToDanglingEndRecovery)) :
                 new JunctionTreeLinkedDeBruijnGraph(kmerSize, debugGraphTransformations, minBaseQualityToUseInAssembly, numPruningSamples, minMatchingBasesToDanglingEndRecovery);
 
         rtgraph.setThreadingStartOnlyAtExistingVertex(!recoverDanglingBranches);
@@ -675,6 +805,30 @@ public final class ReadThreadingAssembler {
         return result;
     }
 
+    /**
+     * Creates the graph for the given kmerSize in linked de Bruijn graph mode, and if it contains any variation
+     * checks it and builds its junction trees so that it is ready for haplotype finding.
+     *
+     * @param isLastCycle true if this is the last kmer size that will be attempted, in which case low complexity
+     *                    graphs and non-unique reference kmers are allowed
+     * @return the assembly result or null if no graph could be created
+     */
+    private AssemblyResult createLinkedGraph(final Iterable<GATKRead> reads,
+                                             final Haplotype refHaplotype,
+                                             final int kmerSize,
+                                             final boolean isLastCycle,
+                                             final SAMFileHeader header,
+                                             final SmithWatermanAligner aligner,
+                                             final SWParameters danglingEndSWParameters) {
+        final AssemblyResult assembledResult = createGraph(reads, refHaplotype, kmerSize, isLastCycle || dontIncreaseKmerSizesForCycles, isLastCycle || allowNonUniqueKmersInRef, header, aligner, danglingEndSWParameters);
+        if (assembledResult != null && assembledResult.getStatus() == AssemblyResult.Status.ASSEMBLED_SOME_VARIATION) {
+            // do some QC on the graph
+            sanityCheckGraph(assembledResult.getThreadingGraph(), refHaplotype);
+            assembledResult.getThreadingGraph().postProcessForHaplotypeFinding(debugGraphOutputPath, refHaplotype);
+        }
+        return assembledResult;
+    }
+
     private AssemblyResult getAssemblyResult(final AbstractReadThreadingGraph rtgraph, final SmithWatermanAligner aligner, final SWParameters danglingEndSWParameters, final DotFilePrinter dotFilePrinter) {
         if (!pruneBeforeCycleCounting) {
             chainPruner.pruneLowWeightChains(rtgraph);
@@ -868,6 +1022,14 @@ public final class ReadThreadingAssembler {
         this.removePathsNotConnectedToRef = removePathsNotConnectedToRef;
     }
 
+    /**
+     * Thread reads using {@link PackedReadThreadingGraph} instead of {@link ReadThreadingGraph}. Has no effect in linked
+     * de Bruijn graph mode.
+     */
+    public void setUsePackedReadThreadingGraph(final boolean usePackedReadThreadingGraph) {
+        this.usePackedReadThreadingGraph = usePackedReadThreadingGraph;
+    }
+
     public void setArtificialHaplotypeRecoveryMode(boolean disableUncoveredJunctionTreeHaplotypeRecovery) {
         if (disableUncoveredJunctionTreeHaplotypeRecovery) {
             if (!generateSeqGraph) {
@@ -877,6 +1039,62 @@ public final class ReadThreadingAssembler {
         }
     }
 
+    /**
+     * Build, prune and search the graphs for all of the kmer sizes of an active region concurrently on a pool of
+     * the given number of threads, instead of one kmer size after another. Results are still merged in kmer size
+     * order, so the output does not depend on the number of threads. Call {@link #close} to shut the pool down.
+     *
+     * @param numThreads number of threads to use for assembly (1 to assemble on the calling thread)
+     */
+    public void setNumKmerAssemblyThreads(final int numThreads) {
+        Utils.validateArg(numThreads >= 1, () -> "numThreads must be >= 1 but got " + numThreads);
+        close();
+        if ( numThreads > 1 ) {
+            kmerAssemblyExecutor = makeKmerAssemblyExecutor(numThreads);
+            ownsKmerAssemblyExecutor = true;
+        }
+    }
+
+    /**
+     * Build the graphs for the different kmer sizes of an active region on a pool that is owned by the caller, as
+     * {@link #setNumKmerAssemblyThreads} does with a pool of its own. Several assemblers that run on different threads,
+     * such as those of the engines calling regions on the assembly region worker threads, can share one pool this way,
+     * so that the total number of kmer assembly threads doesn't grow with the number of assemblers. Assembly tasks never
+     * wait on the pool themselves, so sharing it can't deadlock. {@link #close} does not shut a shared pool down.
+     *
+     * @param executor pool to build the graphs on, typically made by {@link #makeKmerAssemblyExecutor}, or null to
+     *                 assemble on the calling thread
+     */
+    public void setKmerAssemblyExecutor(final ExecutorService executor) {
+        close();
+        kmerAssemblyExecutor = executor;
+    }
+
+    /**
+     * Make a pool of daemon threads suitable for {@link #setKmerAssemblyExecutor}. The caller must shut it down.
+     *
+     * @param numThreads number of threads in the pool, at least 1
+     */
+    public static ExecutorService makeKmerAssemblyExecutor(final int numThreads) {
+        Utils.validateArg(numThreads >= 1, () -> "numThreads must be >= 1 but got " + numThreads);
+        return Executors.newFixedThreadPool(numThreads, new ThreadFactoryBuilder()
+                .setNameFormat("kmer-assembly-%d")
+                .setDaemon(true).build());
+    }
+
+    /**
+     * Shut down the kmer assembly thread pool, if this assembler created one, and stop using any pool set with
+     * {@link #setKmerAssemblyExecutor}. The assembler can still be used afterwards, but will build its graphs on the
+     * calling thread.
+     */
+    public void close() {
+        if ( kmerAssemblyExecutor != null && ownsKmerAssemblyExecutor ) {
+            kmerAssemblyExecutor.shutdownNow();
+        }
+        kmerAssemblyExecutor = null;
+        ownsKmerAssemblyExecutor = false;
+    }
+
     // Debug output writer for the event map that ensures events are correctly sorted (even if there are cross region overlaps)
     public static void addAssembledVariantsToEventMapOutput(final AssemblyResultSet untrimmedAssemblyResult, final Optional<PriorityQueue<VariantContext>> assembledEventMapVariants, final int maxMnpDistance, final Optional<VariantContextWriter> assembledEventMapVcfOutputWriter) {
         assembledEventMapVariants.ifPresent(queue ->
@@ -94,6 +94,15 @@ public class M2ArgumentCollection extends AssemblyBasedCallerArgumentCollection
         return new MutectReadThreadingAssemblerArgumentCollection();
     }
 
+    @Override
+    public List<String> getRegionCallingOutputArgumentsInUse() {
+        final List<String> arguments = super.getRegionCallingOutputArgumentsInUse();
+        if (mutect3Dataset != null) {
+            arguments.add(MUTECT3_DATASET_LONG_NAME);
+        }
+        return arguments;
+    }
+
     @Override
     public ReadThreadingAssembler createReadThreadingAssembler(){
         if(mitochondria ) {
@@ -1,5 +1,6 @@
 package org.broadinstitute.hellbender.tools.walkers.mutect;
 
+import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.ArgumentCollection;
@@ -14,6 +15,7 @@ import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.walkers.annotator.*;
 import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.HaplotypeCallerArgumentCollection;
 import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.ReferenceConfidenceMode;
+import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading.ReadThreadingAssembler;
 import org.broadinstitute.hellbender.transformers.ReadTransformer;
 import org.broadinstitute.hellbender.utils.downsampling.MutectDownsampler;
 import org.broadinstitute.hellbender.utils.downsampling.ReadsDownsampler;
@@ -22,6 +24,8 @@ import org.broadinstitute.hellbender.utils.variant.writers.SomaticGVCFWriter;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
 
 /**
  * <p>Call somatic short mutations via local assembly of haplotypes.
@@ -206,6 +210,9 @@ import java.util.*;
  *     variant. Variants with tumor LODs exceeding the threshold pass filtering.</li>
  * </ul></p>
  *</li>
+ * <li>Regions can be called on several threads with --assembly-region-threads, each thread calling with its own engine.
+ * The output is the same as with a single thread. Outputs that are written as regions are called, such as the bamout
+ * and the Mutect3 dataset, can't be combined with several threads.</li>
  * </ol>
  */
  @CommandLineProgramProperties(
@@ -228,6 +235,15 @@ public final class Mutect2 extends AssemblyRegionWalker {
 
     private Mutect2Engine m2Engine;
 
+    // engines that call regions on the worker threads when there is more than one assembly region thread, one per thread
+    private final List<Mutect2Engine> workerEngines = new ArrayList<>();
+
+    private ThreadLocal<Mutect2Engine> workerEngine;
+
+    // kmer assembly pool shared by the worker engines, so that they use --kmer-assembly-threads threads between them
+    // rather than that many each
+    private ExecutorService kmerAssemblyExecutor;
+
     @Override
     public boolean useVariantAnnotations() { return true;}
 
@@ -263,6 +279,23 @@ public final class Mutect2 extends AssemblyRegionWalker {
     public void onTraversalStart() {
         VariantAnnotatorEngine annotatorEngine = new VariantAnnotatorEngine(makeVariantAnnotations(), null, Collections.emptyList(), false, false);
         m2Engine = new Mutect2Engine(MTAC, assemblyRegionArgs, createOutputBamIndex, createOutputBamMD5, getHeaderForReads(), referenceArguments.getReferenceSpecifier(), annotatorEngine);
+        m2Engine.wrapDebugVariantWriters(this::timeVariantWrites);
+        if (assemblyRegionThreads > 1) {
+            // The engines are not thread-safe, so each worker thread claims an engine of its own the first time it calls
+            // a region. m2Engine still determines the active regions, and with them the callable sites and F1R2 counts,
+            // on the traversal thread.
+            for (int i = 0; i < assemblyRegionThreads; i++) {
+                workerEngines.add(new Mutect2Engine(MTAC, assemblyRegionArgs, createOutputBamIndex, createOutputBamMD5, getHeaderForReads(), referenceArguments.getReferenceSpecifier(), annotatorEngine, false));
+            }
+            if (MTAC.assemblerArgs.kmerAssemblyThreads > 1) {
+                kmerAssemblyExecutor = ReadThreadingAssembler.makeKmerAssemblyExecutor(MTAC.assemblerArgs.kmerAssemblyThreads);
+                // m2Engine doesn't call regions, so it doesn't need a pool of its own
+                m2Engine.setKmerAssemblyExecutor(null);
+                workerEngines.forEach(engine -> engine.setKmerAssemblyExecutor(kmerAssemblyExecutor));
+            }
+            final Queue<Mutect2Engine> unclaimedEngines = new ConcurrentLinkedQueue<>(workerEngines);
+            workerEngine = ThreadLocal.withInitial(unclaimedEngines::remove);
+        }
         vcfWriter = createVCFWriter(outputVCF);
         if (m2Engine.emitReferenceConfidence()) {
             logger.warn("Note that the Mutect2 reference confidence mode is in BETA -- the likelihoods model and output format are subject to change in subsequent versions.");
@@ -304,6 +337,17 @@ public final class Mutect2 extends AssemblyRegionWalker {
         m2Engine.callRegion(region, referenceContext, featureContext).forEach(vcfWriter::add);
     }
 
+    @Override
+    public boolean supportsConcurrentApply() {
+        return true;
+    }
+
+    @Override
+    public Runnable applyConcurrently(final AssemblyRegion region, final ReferenceContext referenceContext, final FeatureContext featureContext) {
+        final List<VariantContext> calls = workerEngine.get().callRegion(region, referenceContext, featureContext);
+        return () -> calls.forEach(vcfWriter::add);
+    }
+
     @Override
     public void closeTool() {
         if (vcfWriter != null) {
@@ -312,6 +356,10 @@ public final class Mutect2 extends AssemblyRegionWalker {
         if (m2Engine != null) {
             m2Engine.close();
         }
+        workerEngines.forEach(Mutect2Engine::close);
+        if (kmerAssemblyExecutor != null) {
+            kmerAssemblyExecutor.shutdownNow();
+        }
     }
 
     /**
@@ -327,6 +375,13 @@ public final class Mutect2 extends AssemblyRegionWalker {
                     M2ArgumentCollection.FLOW_M2_MODE_LONG_NAME
                     );
         }
+        if (assemblyRegionThreads > 1) {
+            final List<String> regionCallingOutputs = MTAC.getRegionCallingOutputArgumentsInUse();
+            if (!regionCallingOutputs.isEmpty()) {
+                throw new CommandLineException.BadArgumentValue(ASSEMBLY_REGION_THREADS_LONG_NAME, String.valueOf(assemblyRegionThreads),
+                        "regions can't be called on multiple threads with --" + String.join(", --", regionCallingOutputs));
+            }
+        }
         return null;
     }
 }
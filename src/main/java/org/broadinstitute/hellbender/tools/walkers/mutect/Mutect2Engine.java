@@ -63,6 +63,8 @@ import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
 import java.io.File;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -137,6 +139,17 @@ public final class Mutect2Engine implements AssemblyRegionEvaluator, AutoCloseab
      * @param annotatorEngine annotator engine built with desired annotations
      */
     public Mutect2Engine(final M2ArgumentCollection MTAC, AssemblyRegionArgumentCollection assemblyRegionArgs, final boolean createBamOutIndex, final boolean createBamOutMD5, final SAMFileHeader header, final GATKPath referenceSpec, final VariantAnnotatorEngine annotatorEngine) {
+        this(MTAC, assemblyRegionArgs, createBamOutIndex, createBamOutMD5, header, referenceSpec, annotatorEngine, true);
+    }
+
+    /**
+     * Create and initialize a new Mutect2Engine that may only call regions, for instance on one of several threads
+     * that call regions while another engine determines them.
+     *
+     * @param evaluatesActivity false if {@link #isActive} will never be called on this engine, which then does not
+     *                          collect the F1R2 counts that are accumulated there
+     */
+    public Mutect2Engine(final M2ArgumentCollection MTAC, AssemblyRegionArgumentCollection assemblyRegionArgs, final boolean createBamOutIndex, final boolean createBamOutMD5, final SAMFileHeader header, final GATKPath referenceSpec, final VariantAnnotatorEngine annotatorEngine, final boolean evaluatesActivity) {
         this.MTAC = Utils.nonNull(MTAC);
         this.header = Utils.nonNull(header);
         minCallableDepth = MTAC.callableDepth;
@@ -171,7 +184,7 @@ public final class Mutect2Engine implements AssemblyRegionEvaluator, AutoCloseab
         referenceConfidenceModel = new SomaticReferenceConfidenceModel(samplesList, header, 0,
                 MTAC.minAF, MTAC.refModelDelQual, !MTAC.overrideSoftclipFragmentCheck, isFlowBased);  //TODO: do something classier with the indel size arg
         final List<String> tumorSamples = ReadUtils.getSamplesFromHeader(header).stream().filter(this::isTumorSample).collect(Collectors.toList());
-        f1R2CountsCollector = MTAC.f1r2TarGz == null ? Optional.empty() : Optional.of(new F1R2CountsCollector(MTAC.f1r2Args, header, MTAC.f1r2TarGz, tumorSamples));
+        f1R2CountsCollector = MTAC.f1r2TarGz == null || !evaluatesActivity ? Optional.empty() : Optional.of(new F1R2CountsCollector(MTAC.f1r2Args, header, MTAC.f1r2TarGz, tumorSamples));
         assembledEventMapVcfOutputWriter = Optional.ofNullable(MTAC.assemblerArgs.debugAssemblyVariantsOut != null ?
                 GATKVariantContextUtils.createVCFWriter(
                         new GATKPath(MTAC.assemblerArgs.debugAssemblyVariantsOut).toPath(),
@@ -444,10 +457,32 @@ public final class Mutect2Engine implements AssemblyRegionEvaluator, AutoCloseab
         });
     }
 
+    /**
+     * Wrap the variant writers this engine creates for its debug outputs, for example to record the time spent writing
+     * to them. Must be called before any variants are written.
+     *
+     * @param wrapper function from each writer to the writer that wraps it
+     */
+    public void wrapDebugVariantWriters(final UnaryOperator<VariantContextWriter> wrapper) {
+        Utils.nonNull(wrapper);
+        assembledEventMapVcfOutputWriter = assembledEventMapVcfOutputWriter.map(wrapper);
+    }
+
+    /**
+     * Build the assembly graphs of this engine's regions on the given kmer assembly pool instead of a pool of its own.
+     * See {@link ReadThreadingAssembler#setKmerAssemblyExecutor}.
+     *
+     * @param executor pool shared with other engines, owned by the caller
+     */
+    public void setKmerAssemblyExecutor(final ExecutorService executor) {
+        assemblyEngine.setKmerAssemblyExecutor(executor);
+    }
+
     @Override
     public void close() {
         likelihoodCalculationEngine.close();
         aligner.close();
+        assemblyEngine.close();
         haplotypeBAMWriter.ifPresent(HaplotypeBAMWriter::close);
         assembledEventMapVcfOutputWriter.ifPresent(writer -> {assembledEventMapVariants.get().forEach(writer::add); writer.close();});
         referenceReader.close();
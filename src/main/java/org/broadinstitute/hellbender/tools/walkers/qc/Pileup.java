@@ -135,6 +135,12 @@ public final class Pileup extends LocusWalker {
         return defaultFilters;
     }
 
+    // Each pileup is formatted and written out within apply()
+    @Override
+    public boolean reusePileupElements() {
+        return true;
+    }
+
     @Override
     public void onTraversalStart() {
         try {
@@ -351,6 +351,9 @@ public class FilterAlignmentArtifacts extends MultiVariantWalkerGroupedOnStart {
         if ( vcfWriter != null ) {
             vcfWriter.close();
         }
+        if ( assemblyEngine != null ) {
+            assemblyEngine.close();
+        }
     }
 
 }
@@ -260,7 +260,8 @@ public final class CalculateGenotypePosteriors extends VariantWalker {
     @Argument(fullName=StandardArgumentDefinitions.PEDIGREE_FILE_LONG_NAME, shortName=StandardArgumentDefinitions.PEDIGREE_FILE_SHORT_NAME, doc="Pedigree file for samples", optional=true)
     private GATKPath pedigreeFile = null;
 
-    private FamilyLikelihoods famUtils;
+    // FamilyLikelihoods keeps per-variant scratch state, so each thread needs its own
+    private ThreadLocal<FamilyLikelihoods> famUtils;
 
     private VariantContextWriter vcfWriter;
 
@@ -317,7 +318,7 @@ public final class CalculateGenotypePosteriors extends VariantWalker {
         vcfWriter.writeHeader(new VCFHeader(headerLines, vcfSamples));
 
         final Map<String,Set<Sample>> families = sampleDB.getFamilies(vcfSamples);
-        famUtils = new FamilyLikelihoods(sampleDB, deNovoPrior, vcfSamples, families);
+        famUtils = ThreadLocal.withInitial(() -> new FamilyLikelihoods(sampleDB, deNovoPrior, vcfSamples, families));
 
         options = new PosteriorProbabilitiesUtils.PosteriorProbabilitiesOptions(globalPriorSnp, globalPriorIndel,
                         !ignoreInputSamples, !defaultToAC, ignoreInputSamplesForMissingResources, useFlatPriorsForIndels);
@@ -328,7 +329,24 @@ public final class CalculateGenotypePosteriors extends VariantWalker {
                       final ReadsContext readsContext,
                       final ReferenceContext referenceContext,
                       final FeatureContext featureContext) {
+        vcfWriter.add(calculatePosteriors(variant, featureContext));
+    }
+
+    @Override
+    public boolean supportsConcurrentApply() {
+        return true;
+    }
+
+    @Override
+    public Runnable applyConcurrently(final VariantContext variant,
+                                      final ReadsContext readsContext,
+                                      final ReferenceContext referenceContext,
+                                      final FeatureContext featureContext) {
+        final VariantContext posteriors = calculatePosteriors(variant, featureContext);
+        return () -> vcfWriter.add(posteriors);
+    }
 
+    private VariantContext calculatePosteriors(final VariantContext variant, final FeatureContext featureContext) {
         final Collection<VariantContext> otherVCs = featureContext.getValues(supportVariants);
 
         //If no resource contains a matching variant, then add numRefIfMissing as a pseudocount to the priors
@@ -339,7 +357,7 @@ public final class CalculateGenotypePosteriors extends VariantWalker {
         final VariantContextBuilder builder = new VariantContextBuilder(variant);
         //only compute family priors for biallelelic sites
         if (!skipFamilyPriors && variant.isBiallelic()){
-            final GenotypesContext gc = famUtils.calculatePosteriorGLs(variant);
+            final GenotypesContext gc = famUtils.get().calculatePosteriorGLs(variant);
             builder.genotypes(gc);
         }
         VariantContextUtils.calculateChromosomeCounts(builder, false);
@@ -352,7 +370,7 @@ public final class CalculateGenotypePosteriors extends VariantWalker {
         } else {
             vc_bothPriors = vc_familyPriors;
         }
-        vcfWriter.add(vc_bothPriors);
+        return vc_bothPriors;
     }
 
     @Override
@@ -539,7 +539,8 @@ public final class SelectVariants extends VariantWalker {
     private boolean discordanceOnly = false;
     private boolean concordanceOnly = false;
 
-    private MendelianViolation mv = null;
+    // MendelianViolation keeps counts as it checks each variant, so each thread checks variants with its own
+    private ThreadLocal<MendelianViolation> mv = null;
     private SampleDB sampleDB = null;
 
     // Random number generator for the genotypes to remove
@@ -611,7 +612,7 @@ public final class SelectVariants extends VariantWalker {
 
         if (mendelianViolations) {
             sampleDB = SampleDB.createSampleDBFromPedigree(pedigreeFile);
-            mv = new MendelianViolation(mendelianViolationQualThreshold, false, true);
+            mv = ThreadLocal.withInitial(() -> new MendelianViolation(mendelianViolationQualThreshold, false, true));
         }
 
         if (fractionToKeep < 1.0) {
@@ -659,22 +660,69 @@ public final class SelectVariants extends VariantWalker {
 
     @Override
     public void apply(VariantContext vc, ReadsContext readsContext, ReferenceContext ref, FeatureContext featureContext) {
+        writePendingVariantsBefore(vc);
+        if (isRandomlyExcluded(vc)) {
+            return;
+        }
+
+        final VariantContext selected = select(vc, featureContext);
+        if (selected != null) {
+            pendingVariants.add(selected);
+        }
+    }
+
+    @Override
+    public boolean supportsConcurrentApply() {
+        return true;
+    }
+
+    /**
+     * Select the variant on a worker thread.  The random selection of variants draws from a single generator, so it is
+     * made when the variant is emitted, in the order of the variants, to select the same variants as {@link #apply}.
+     */
+    @Override
+    public Runnable applyConcurrently(final VariantContext vc, final ReadsContext readsContext, final ReferenceContext ref, final FeatureContext featureContext) {
+        final VariantContext selected = select(vc, featureContext);
+        return () -> {
+            writePendingVariantsBefore(vc);
+            if (!isRandomlyExcluded(vc) && selected != null) {
+                pendingVariants.add(selected);
+            }
+        };
+    }
 
-        /*check for pending variants to write out
-        since variant starts will only be moved further right, we can write out a pending variant if the current variant start is after the pending variant start
-        variant record locations can move to the right due to allele trimming if preserveAlleles is false
-         */
+    /**
+     * Check for pending variants to write out.  Since variant starts will only be moved further right, we can write
+     * out a pending variant if the current variant start is after the pending variant start.  Variant record locations
+     * can move to the right due to allele trimming if preserveAlleles is false.
+     */
+    private void writePendingVariantsBefore(final VariantContext vc) {
         while (!pendingVariants.isEmpty() && (pendingVariants.peek().getStart()<=vc.getStart() || !(pendingVariants.peek().getContig().equals(vc.getContig())))) {
             vcfWriter.add(pendingVariants.poll());
         }
+    }
+
+    /**
+     * Draw whether to drop the variant when selecting a random fraction of the variants.  Filtered variants that are
+     * excluded anyway don't draw, so that the selection only depends on the order of the remaining variants.
+     */
+    private boolean isRandomlyExcluded(final VariantContext vc) {
+        return !(excludeFiltered && vc.isFiltered()) && fractionToKeep < 1.0 && Utils.getRandomGenerator().nextDouble() >= fractionToKeep;
+    }
 
+    /**
+     * Apply all of the selection criteria except the random selection of variants.
+     *
+     * @return the subsetted variant to write out, or null if the variant is not selected
+     */
+    private VariantContext select(VariantContext vc, final FeatureContext featureContext) {
         // fullyDecode means to convert from strings to appropriate data types (e.g. int, array)
         if (fullyDecode) {
             vc = vc.fullyDecode(getHeaderForVariants(), lenientVCFProcessing);
         }
 
         if (applyFirstRoundOfFiltering(vc, featureContext)){
-            return;
+            return null;
         }
 
         // Filtered genotypes are ones with the FT FORMAT field
@@ -683,14 +731,14 @@ public final class SelectVariants extends VariantWalker {
             final double fractionFilteredGenotypes = samples.isEmpty() ? 0.0 : numFilteredSamples / samples.size();
             if (numFilteredSamples > maxFilteredGenotypes || numFilteredSamples < minFilteredGenotypes ||
                     fractionFilteredGenotypes > maxFractionFilteredGenotypes || fractionFilteredGenotypes < minFractionFilteredGenotypes)
-                return;
+                return null;
         }
 
         if (considerNoCallGenotypes()) {
             final int numNoCallSamples = numNoCallGenotypes(vc);
             final double fractionNoCallGenotypes = samples.isEmpty() ? 0.0 : ((double) numNoCallSamples) / samples.size();
             if (numNoCallSamples > maxNOCALLnumber || fractionNoCallGenotypes > maxNOCALLfraction)
-                return;
+                return null;
         }
 
         VariantContext result = subsetGenotypesBySampleNames(vc, preserveAlleles, removeUnusedAlternates);
@@ -710,21 +758,21 @@ public final class SelectVariants extends VariantWalker {
             // when we have many samples, so we call it only when excludeNonVariants is set to true.
             final boolean nonVariant = ! result.isPolymorphicInSamples() || GATKVariantContextUtils.isSpanningDeletionOnly(result);
             if (nonVariant) {
-                return;
+                return null;
             }
         }
 
         if (!applyJexlFiltersBeforeFilteringGenotypes && ! passesJexlFilters(result)){
-            return;
+            return null;
         }
 
-        pendingVariants.add(dropAnnotations(result, infoAnnotationsToDrop, genotypeAnnotationsToDrop));
+        return dropAnnotations(result, infoAnnotationsToDrop, genotypeAnnotationsToDrop);
     }
 
     /**
      * Group all the initial checks we do before subsetting samples.
      * If any of these predicates evaluates to true we are safe to remove the present variant from the output,
-     * return (i.e. short-circuit) out of apply(), and skip to the next variant.
+     * return (i.e. short-circuit) out of select(), and skip to the next variant.
      */
     private boolean applyFirstRoundOfFiltering(final VariantContext vc, final FeatureContext featureContext){
         // Since SelectVariants does not modify the filter field,
@@ -733,11 +781,7 @@ public final class SelectVariants extends VariantWalker {
             return true;
         }
 
-        if (fractionToKeep < 1.0 && Utils.getRandomGenerator().nextDouble() >= fractionToKeep){
-            return true;
-        }
-
-        if (mendelianViolations && invertLogic((mv.countFamilyViolations(sampleDB, samples, vc) == 0), invertMendelianViolations)) {
+        if (mendelianViolations && invertLogic((mv.get().countFamilyViolations(sampleDB, samples, vc) == 0), invertMendelianViolations)) {
             return true;
         }
 
@@ -3,15 +3,14 @@ package org.broadinstitute.hellbender.transformers;
 import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.SAMTag;
 import htsjdk.samtools.SAMUtils;
+import it.unimi.dsi.fastutil.longs.Long2DoubleOpenHashMap;
 import org.broadinstitute.hellbender.exceptions.UserException.MalformedRead;
 import org.broadinstitute.hellbender.tools.ApplyBQSRArgumentCollection;
 import org.broadinstitute.hellbender.utils.QualityUtils;
 import org.broadinstitute.hellbender.utils.Utils;
-import org.broadinstitute.hellbender.utils.collections.NestedIntegerArray;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.read.ReadUtils;
 import org.broadinstitute.hellbender.utils.recalibration.*;
-import org.broadinstitute.hellbender.utils.recalibration.covariates.CovariateKeyCache;
 import org.broadinstitute.hellbender.utils.recalibration.covariates.ReadCovariates;
 import org.broadinstitute.hellbender.utils.recalibration.covariates.StandardCovariateList;
 
@@ -42,12 +41,23 @@ public final class BQSRReadTransformer implements ReadTransformer {
 
     private static final int BASE_SUBSTITUTION_INDEX = EventType.BASE_SUBSTITUTION.ordinal();
 
-    //Note: varargs allocates a new array every time. We'll pre-allocate one array and reuse it to avoid object allocation for every base of every read.
-    private final RecalDatum[] empiricalQualCovsArgs;
     private final boolean useOriginalBaseQualities;
 
     private byte[] staticQuantizedMapping;
-    private final CovariateKeyCache keyCache;
+    private final ReadCovariates readCovariates;
+
+    // Lookup tables so that the per-base work is table indexing rather than Bayesian estimation:
+    // the prior for the additional covariates (the read group and quality score levels of the hierarchical estimate)
+    // of every (read group, reported quality), computed up front and NaN for read groups without data,
+    private final int numReadGroups;
+    private final int qualDimension;
+    private final double[] conditionalPriors;
+    // the delta of each additional covariate for every (read group, reported quality, covariate key) cell, computed
+    // the first time the cell is seen and keyed by the row-major index of the cell,
+    private final int[] covariateDimensions;
+    private final Long2DoubleOpenHashMap[] covariateDeltas;
+    // and the final quality score of every recalibrated quality, after quantization and static binning
+    private final byte[] finalQuals;
 
     /**
      * Constructor using a GATK Report file
@@ -95,9 +105,62 @@ public final class BQSRReadTransformer implements ReadTransformer {
         totalCovariateCount = covariates.size();
         specialCovariateCount = covariates.numberOfSpecialCovariates();
 
-        //Note: We pre-create the varargs arrays that will be used in the calls. Otherwise we're spending a lot of time allocating those int[] objects
-        empiricalQualCovsArgs = new RecalDatum[totalCovariateCount - specialCovariateCount];
-        keyCache = new CovariateKeyCache();//one cache per transformer
+        readCovariates = new ReadCovariates(totalCovariateCount);//one per transformer, reused for every read
+
+        final int[] qualTableDimensions = recalibrationTables.getQualityScoreTable().getDimensions();
+        numReadGroups = qualTableDimensions[0];
+        qualDimension = qualTableDimensions[1];
+        conditionalPriors = computeConditionalPriors();
+
+        covariateDimensions = new int[totalCovariateCount];
+        covariateDeltas = new Long2DoubleOpenHashMap[totalCovariateCount];
+        for (int i = specialCovariateCount; i < totalCovariateCount; i++) {
+            covariateDimensions[i] = recalibrationTables.getTable(i).getDimensions()[2];
+            covariateDeltas[i] = new Long2DoubleOpenHashMap();
+            covariateDeltas[i].defaultReturnValue(Double.NaN);
+        }
+
+        finalQuals = new byte[MAX_RECALIBRATED_Q_SCORE + 1];
+        final List<Byte> quantizedQuals = quantizationInfo.getQuantizedQuals();
+        for (int qual = 1; qual <= MAX_RECALIBRATED_Q_SCORE; qual++) { // the range of getRecalibratedQual
+            final byte quantizedQual = quantizedQuals.get(qual);
+            finalQuals[qual] = staticQuantizedMapping == null ? quantizedQual : staticQuantizedMapping[quantizedQual];
+        }
+    }
+
+    /**
+     * The read group and quality score levels of {@link #hierarchicalBayesianQualityEstimate} for every read group and
+     * reported quality, which is the conditional prior of the additional covariates
+     */
+    private double[] computeConditionalPriors() {
+        final double[] result = new double[numReadGroups * qualDimension];
+        for (int rgKey = 0; rgKey < numReadGroups; rgKey++) {
+            final RecalDatum empiricalQualRG = recalibrationTables.getReadGroupTable().get2Keys(rgKey, BASE_SUBSTITUTION_INDEX);
+            if (empiricalQualRG == null) {
+                Arrays.fill(result, rgKey * qualDimension, (rgKey + 1) * qualDimension, Double.NaN);
+                continue;
+            }
+            final double epsilon = globalQScorePrior > 0.0 ? globalQScorePrior : empiricalQualRG.getEstimatedQReported();
+            for (int qualKey = 0; qualKey < qualDimension; qualKey++) {
+                final RecalDatum empiricalQualQS = recalibrationTables.getQualityScoreTable().get3Keys(rgKey, qualKey, BASE_SUBSTITUTION_INDEX);
+                result[rgKey * qualDimension + qualKey] = hierarchicalBayesianQualityEstimate(epsilon, empiricalQualRG, empiricalQualQS);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The contribution of the ith covariate to {@link #hierarchicalBayesianQualityEstimate}, memoized per cell
+     */
+    private double covariateDelta(final int i, final int rgKey, final int qualKey, final int covariateKey, final double conditionalPrior) {
+        final long cell = ((long) rgKey * qualDimension + qualKey) * covariateDimensions[i] + covariateKey;
+        double delta = covariateDeltas[i].get(cell);
+        if (Double.isNaN(delta)) {
+            final RecalDatum empiricalQualCov = recalibrationTables.getTable(i).get4Keys(rgKey, qualKey, covariateKey, BASE_SUBSTITUTION_INDEX);
+            delta = empiricalQualCov == null ? 0.0 : empiricalQualCov.getEmpiricalQuality(conditionalPrior) - conditionalPrior;
+            covariateDeltas[i].put(cell, delta);
+        }
+        return delta;
     }
 
     /**
@@ -142,30 +205,24 @@ public final class BQSRReadTransformer implements ReadTransformer {
             }
         }
 
-        final ReadCovariates readCovariates = RecalUtils.computeCovariates(read, header, covariates, false, keyCache);
+        RecalUtils.computeCovariates(read, header, covariates, readCovariates, false);
 
         //clear indel qualities
         read.clearAttribute(ReadUtils.BQSR_BASE_INSERTION_QUALITIES);
         read.clearAttribute(ReadUtils.BQSR_BASE_DELETION_QUALITIES);
 
-        // get the keyset for this base using the error model
-        final int[][] fullReadKeySet = readCovariates.getKeySet(EventType.BASE_SUBSTITUTION);
+        // get the keys of all bases for the error model
+        final int[] keys = readCovariates.getKeys();
 
         // the rg key is constant over the whole read, the global deltaQ is too
-        final int rgKey = fullReadKeySet[0][0];
+        final int rgKey = keys[readCovariates.getKeySetOffset(0, EventType.BASE_SUBSTITUTION)];
 
-        final RecalDatum empiricalQualRG = recalibrationTables.getReadGroupTable().get2Keys(rgKey, BASE_SUBSTITUTION_INDEX);
-
-        if (empiricalQualRG == null) {
+        if (rgKey >= numReadGroups || Double.isNaN(conditionalPriors[rgKey * qualDimension])) {
             return read;
         }
         final byte[] quals = read.getBaseQualities();
 
         final int readLength = quals.length;
-        final double epsilon = globalQScorePrior > 0.0 ? globalQScorePrior : empiricalQualRG.getEstimatedQReported();
-
-        final NestedIntegerArray<RecalDatum> qualityScoreTable = recalibrationTables.getQualityScoreTable();
-        final List<Byte> quantizedQuals = quantizationInfo.getQuantizedQuals();
 
         //Note: this loop is under very heavy use in applyBQSR. Keep it slim.
         for (int offset = 0; offset < readLength; offset++) { // recalibrate all bases in the read
@@ -174,23 +231,22 @@ public final class BQSRReadTransformer implements ReadTransformer {
             if (quals[offset] < preserveQLessThan) {
                 continue;
             }
-            Arrays.fill(empiricalQualCovsArgs, null);  //clear the array
-            final int[] keySet = fullReadKeySet[offset];
-
-
-            final RecalDatum empiricalQualQS = qualityScoreTable.get3Keys(keySet[0], keySet[1], BASE_SUBSTITUTION_INDEX);
+            final int keySetOffset = readCovariates.getKeySetOffset(offset, EventType.BASE_SUBSTITUTION);
+            final int qualKey = keys[keySetOffset + 1];
+            final double conditionalPrior = conditionalPriors[rgKey * qualDimension + qualKey];
 
+            // sum the covariate deltas in the same order as hierarchicalBayesianQualityEstimate
+            double deltaQCovariates = 0.0;
             for (int i = specialCovariateCount; i < totalCovariateCount; i++) {
-                if (keySet[i] >= 0) {
-                    empiricalQualCovsArgs[i - specialCovariateCount] = recalibrationTables.getTable(i).get4Keys(keySet[0], keySet[1], keySet[i], BASE_SUBSTITUTION_INDEX);
+                final int key = keys[keySetOffset + i];
+                if (key >= 0 && key < covariateDimensions[i]) {
+                    deltaQCovariates += covariateDelta(i, rgKey, qualKey, key, conditionalPrior);
                 }
             }
-            final double recalibratedQualDouble = hierarchicalBayesianQualityEstimate(epsilon, empiricalQualRG, empiricalQualQS, empiricalQualCovsArgs);
-
-            final byte recalibratedQualityScore = quantizedQuals.get(getRecalibratedQual(recalibratedQualDouble));
+            final double recalibratedQualDouble = conditionalPrior + deltaQCovariates;
 
-            // Bin to static quals
-            quals[offset] = staticQuantizedMapping == null ? recalibratedQualityScore : staticQuantizedMapping[recalibratedQualityScore];
+            // quantize and bin to static quals
+            quals[offset] = finalQuals[getRecalibratedQual(recalibratedQualDouble)];
         }
         read.setBaseQualities(quals);
         return read;
@@ -0,0 +1,171 @@
+package org.broadinstitute.hellbender.utils.iterators;
+
+import htsjdk.samtools.util.CloseableIterator;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An iterator that pulls elements from a source iterator on a background thread, ahead of the consumer,
+ * and hands them over through a bounded queue of batches.
+ *
+ * All of the work done by the source iterator's {@code hasNext()}/{@code next()} (I/O, decompression,
+ * decoding, etc.) happens on the background thread, so the consuming thread only pays for the work it
+ * does with each element. At most {@code maxBatches} full batches are held in memory at a time.
+ *
+ * The source iterator must not be used by any other thread while this iterator is open. {@link #close} must
+ * be called before the resources backing the source iterator are closed or reused: it stops the background
+ * task and waits for it to finish, but does not close the source iterator itself.
+ *
+ * Exceptions thrown by the source iterator are re-thrown on the consuming thread, in order, once the elements
+ * read before the exception have been consumed.
+ *
+ * @param <T> type of the elements
+ */
+public final class PrefetchingIterator<T> implements CloseableIterator<T> {
+
+    /**
+     * How often the background task re-checks whether it has been asked to stop while waiting for queue space.
+     */
+    private static final long QUEUE_POLL_MILLISECONDS = 100L;
+
+    private final BlockingQueue<Batch<T>> queue;
+    private final Future<?> prefetchTask;
+    private volatile boolean stopRequested = false;
+
+    private Iterator<T> currentBatch = Collections.emptyIterator();
+    private boolean sourceExhausted = false;
+    private Throwable pendingError = null;
+
+    /**
+     * @param source iterator to prefetch from. Will be advanced only on the background thread from now on.
+     * @param batchSize number of elements to hand over at a time
+     * @param maxBatches maximum number of batches that may be waiting for the consumer
+     * @param executorService executor on which to run the background task. Must have a thread available for it.
+     */
+    public PrefetchingIterator(final Iterator<T> source, final int batchSize, final int maxBatches, final ExecutorService executorService) {
+        Utils.nonNull(source);
+        Utils.validateArg(batchSize >= 1, "batchSize must be >= 1");
+        Utils.validateArg(maxBatches >= 1, "maxBatches must be >= 1");
+        Utils.nonNull(executorService);
+
+        this.queue = new ArrayBlockingQueue<>(maxBatches);
+        this.prefetchTask = executorService.submit(() -> prefetch(source, batchSize));
+    }
+
+    private void prefetch(final Iterator<T> source, final int batchSize) {
+        List<T> elements = Collections.emptyList();
+        try {
+            boolean isLast = false;
+            while ( ! isLast && ! stopRequested ) {
+                elements = new ArrayList<>(batchSize);
+                while ( elements.size() < batchSize && source.hasNext() ) {
+                    elements.add(source.next());
+                }
+                isLast = elements.size() < batchSize || ! source.hasNext();
+
+                final Batch<T> batch = new Batch<>(elements, isLast, null);
+                elements = Collections.emptyList();
+                enqueue(batch);
+            }
+        } catch ( final Throwable e ) {
+            // hand over the elements read before the failure along with the error itself
+            enqueue(new Batch<>(elements, true, e));
+        }
+    }
+
+    private void enqueue(final Batch<T> batch) {
+        try {
+            while ( ! stopRequested ) {
+                if ( queue.offer(batch, QUEUE_POLL_MILLISECONDS, TimeUnit.MILLISECONDS) ) {
+                    return;
+                }
+            }
+        } catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while ( ! currentBatch.hasNext() ) {
+            if ( pendingError != null ) {
+                final Throwable error = pendingError;
+                pendingError = null;
+                if ( error instanceof RuntimeException ) {
+                    throw (RuntimeException) error;
+                } else if ( error instanceof Error ) {
+                    throw (Error) error;
+                }
+                throw new GATKException("Error while prefetching records", error);
+            }
+            if ( sourceExhausted ) {
+                return false;
+            }
+
+            final Batch<T> nextBatch;
+            try {
+                nextBatch = queue.take();
+            } catch ( final InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                throw new GATKException("Interrupted while waiting for prefetched records", e);
+            }
+            currentBatch = nextBatch.elements.iterator();
+            sourceExhausted = nextBatch.isLast;
+            pendingError = nextBatch.error;
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if ( ! hasNext() ) {
+            throw new NoSuchElementException("next() called when there are no more elements");
+        }
+        return currentBatch.next();
+    }
+
+    /**
+     * Stop the background task and wait for it to finish. Does not close the source iterator.
+     */
+    @Override
+    public void close() {
+        stopRequested = true;
+        queue.clear();
+        try {
+            prefetchTask.get();
+        } catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while stopping record prefetching", e);
+        } catch ( final ExecutionException e ) {
+            // errors from the source are delivered through the queue, so there is nothing left to report
+        }
+        queue.clear();
+        currentBatch = Collections.emptyIterator();
+        sourceExhausted = true;
+        pendingError = null;
+    }
+
+    private static final class Batch<T> {
+        final List<T> elements;
+        final boolean isLast;
+        final Throwable error;
+
+        Batch(final List<T> elements, final boolean isLast, final Throwable error) {
+            this.elements = elements;
+            this.isLast = isLast;
+            this.error = error;
+        }
+    }
+}
@@ -12,6 +12,7 @@ import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.iterators.IntervalLocusIterator;
 import org.broadinstitute.hellbender.utils.iterators.IntervalOverlappingIterator;
+import org.broadinstitute.hellbender.utils.pileup.PileupElementPool;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 
 import java.util.Iterator;
@@ -30,6 +31,7 @@ public class AlignmentContextIteratorBuilder {
     private boolean isIncludeDeletions;
     private boolean isIncludeNs;
     private LIBSDownsamplingInfo downsamplingInfo;
+    private PileupElementPool pileupElementPool;
 
     public void setEmitEmptyLoci(boolean emitEmptyLoci) {
         isEmitEmptyLoci = emitEmptyLoci;
@@ -47,11 +49,21 @@ public class AlignmentContextIteratorBuilder {
         this.downsamplingInfo = downsamplingInfo;
     }
 
+    /**
+     * @param pileupElementPool pool from which to obtain the elements of the pileups, or {@code null} (the default)
+     *                          to allocate new elements. If not {@code null}, the consumer of the iterator must release
+     *                          the base pileup of each alignment context to this pool once done with it.
+     */
+    public void setPileupElementPool(PileupElementPool pileupElementPool) {
+        this.pileupElementPool = pileupElementPool;
+    }
+
     public AlignmentContextIteratorBuilder() {
         isEmitEmptyLoci = false;
         isIncludeDeletions = true;
         isIncludeNs = false;
         downsamplingInfo = LocusIteratorByState.NO_DOWNSAMPLING;
+        pileupElementPool = null;
     }
 
     /**
@@ -69,7 +81,7 @@ public class AlignmentContextIteratorBuilder {
         Utils.nonNull(readIterator, "Read iterator cannot be null");
         final boolean isDefinitelyReference = (dictionary != null) && isReference ;
         return createAlignmentContextIterator(intervalsForTraversal, header, readIterator, dictionary, downsamplingInfo,
-                isDefinitelyReference, isEmitEmptyLoci, isIncludeDeletions, isIncludeNs);
+                isDefinitelyReference, isEmitEmptyLoci, isIncludeDeletions, isIncludeNs, pileupElementPool);
     }
 
     /**
@@ -86,6 +98,7 @@ public class AlignmentContextIteratorBuilder {
      * @param emitEmptyLoci whether loci with no coverage should be emitted.  In this case, the AlignmentContext will be empty (not null).
      * @param isIncludeDeletions include reads with deletion on the loci in question
      * @param isIncludeNs include reads with N on the loci in question
+     * @param pileupElementPool pool from which to obtain pileup elements (for {@link LocusIteratorByState}), or {@code null}
      * @return iterator that produces AlignmentContexts ready for consumption (e.g. by a {@link org.broadinstitute.hellbender.engine.LocusWalker})
      */
     private static Iterator<AlignmentContext> createAlignmentContextIterator(final List<SimpleInterval> intervalsForTraversal,
@@ -96,7 +109,8 @@ public class AlignmentContextIteratorBuilder {
                                                                              final boolean isReference,
                                                                              boolean emitEmptyLoci,
                                                                              boolean isIncludeDeletions,
-                                                                             boolean isIncludeNs) {
+                                                                             boolean isIncludeNs,
+                                                                             final PileupElementPool pileupElementPool) {
 
         // get the samples from the read groups
         final Set<String> samples = header.getReadGroups().stream()
@@ -104,7 +118,7 @@ public class AlignmentContextIteratorBuilder {
                 .collect(Collectors.toSet());
 
         // get the LIBS
-        final LocusIteratorByState libs = new LocusIteratorByState(readIterator, downsamplingInfo, samples, header, isIncludeDeletions, isIncludeNs);
+        final LocusIteratorByState libs = new LocusIteratorByState(readIterator, downsamplingInfo, samples, header, isIncludeDeletions, isIncludeNs, pileupElementPool);
 
         List<SimpleInterval> finalIntervals = intervalsForTraversal;
         validateEmitEmptyLociParameters(emitEmptyLoci, dictionary, intervalsForTraversal, isReference);
@@ -7,6 +7,7 @@ import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.pileup.PileupElement;
+import org.broadinstitute.hellbender.utils.pileup.PileupElementPool;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 
 /**
@@ -311,5 +312,22 @@ public final class AlignmentStateMachine {
                 getCurrentCigarElementOffset(),
                 getOffsetIntoCurrentCigarElement());
     }
+
+    /**
+     * Get a PileupElement from pool based on the current state of this element
+     *
+     * Must not be a left or right edge
+     *
+     * @param pool pool from which to obtain the element
+     * @return a pileup element owned by pool, valid until the pileup containing it is released to pool
+     */
+    public final PileupElement makePileupElement(final PileupElementPool pool) {
+        Utils.validate(!(isLeftEdge() || isRightEdge()), "Cannot make a pileup element from an edge alignment state");
+        return pool.obtain(read,
+                getReadOffset(),
+                getCurrentCigarElement(),
+                getCurrentCigarElementOffset(),
+                getOffsetIntoCurrentCigarElement());
+    }
 }
 
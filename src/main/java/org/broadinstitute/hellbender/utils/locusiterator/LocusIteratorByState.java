@@ -10,6 +10,7 @@ import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.downsampling.DownsamplingMethod;
 import org.broadinstitute.hellbender.utils.pileup.PileupElement;
+import org.broadinstitute.hellbender.utils.pileup.PileupElementPool;
 import org.broadinstitute.hellbender.utils.pileup.ReadPileup;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.read.ReadUtils;
@@ -37,6 +38,10 @@ import java.util.*;
  *   -- A read that could be aligned to a position will actually occur in the pileup (downsampled away)
  *   -- A read that appears in a previous pileup that could align to a future position will actually occur
  *      in that pileup.  That is, a read might show up at position i but be downsampled away in the pileup at j
+ *
+ * If constructed with a {@link PileupElementPool}, LIBS obtains the PileupElements of its pileups from that pool
+ * instead of allocating new ones.  The consumer must then release each pileup to the pool once it is done with it,
+ * and must not keep references to it (or its elements) afterwards.
  */
 public final class LocusIteratorByState implements Iterator<AlignmentContext> {
     /** Indicates that we shouldn't do any downsampling */
@@ -76,6 +81,19 @@ public final class LocusIteratorByState implements Iterator<AlignmentContext> {
      */
     private AlignmentContext nextAlignmentContext;
 
+    /**
+     * Pool from which to obtain PileupElements, or null to allocate new ones
+     */
+    private final PileupElementPool pileupElementPool;
+
+    /**
+     * Size of the last pileup we created, used as the initial capacity of the next one so that
+     * we don't repeatedly grow the element list at deep coverage
+     */
+    private int lastPileupSize = INITIAL_PILEUP_CAPACITY;
+
+    private static final int INITIAL_PILEUP_CAPACITY = 100;
+
     // -----------------------------------------------------------------------------------------------------------------
     //
     // constructors and other basic operations
@@ -182,6 +200,39 @@ public final class LocusIteratorByState implements Iterator<AlignmentContext> {
                                 final SAMFileHeader header,
                                 final boolean includeReadsWithDeletionAtLoci,
                                 final boolean includeReadsWithNsAtLoci) {
+        this(samIterator,
+                downsamplingInfo,
+                samples,
+                header,
+                includeReadsWithDeletionAtLoci,
+                includeReadsWithNsAtLoci,
+                null
+        );
+    }
+
+    /**
+     * Create a new LocusIteratorByState
+     * @param samIterator                    the iterator of reads to process into pileups.  Reads must be ordered
+     *                                       according to standard coordinate-sorted BAM conventions
+     * @param downsamplingInfo               meta-information about how to downsample the reads
+     * @param samples                        a complete list of samples present in the read groups for the reads coming from samIterator.
+     *                                       This is generally just the set of read group sample fields in the SAMFileHeader.  This
+     *                                       list of samples may contain a null element, and all reads without read groups will
+     *                                       be mapped to this null sample
+     * @param header                         header from the reads
+     * @param includeReadsWithDeletionAtLoci Include reads with deletion at loci
+     * @param includeReadsWithNsAtLoci       Include reads with Ns at loci (usually it is not needed)
+     * @param pileupElementPool              pool from which to obtain the elements of our pileups, or null to allocate
+     *                                       new elements.  If not null, the consumer must release each pileup to this
+     *                                       pool when done with it, or the pool will never recycle anything.
+     */
+    public LocusIteratorByState(final Iterator<GATKRead> samIterator,
+                                final LIBSDownsamplingInfo downsamplingInfo,
+                                final Collection<String> samples,
+                                final SAMFileHeader header,
+                                final boolean includeReadsWithDeletionAtLoci,
+                                final boolean includeReadsWithNsAtLoci,
+                                final PileupElementPool pileupElementPool) {
         Utils.nonNull(samIterator, "samIterator cannot be null");
         Utils.nonNull(downsamplingInfo, "downsamplingInfo cannot be null");
         Utils.nonNull(samples, "Samples cannot be null");
@@ -195,6 +246,7 @@ public final class LocusIteratorByState implements Iterator<AlignmentContext> {
 
         this.includeReadsWithDeletionAtLoci = includeReadsWithDeletionAtLoci;
         this.includeReadsWithNsAtLoci = includeReadsWithNsAtLoci;
+        this.pileupElementPool = pileupElementPool;
         this.readStates = new ReadStateManager(samIterator, samples, downsamplingInfo, header);
     }
 
@@ -292,7 +344,7 @@ public final class LocusIteratorByState implements Iterator<AlignmentContext> {
             // since they are just going to get combined into one monolithic pileup anyway
             // when we construct the final ReadPileup below. This optimization speeds up the
             // HaplotypeCaller by quite a bit!
-            final List<PileupElement> allPileupElements = new ArrayList<>(100);
+            final List<PileupElement> allPileupElements = new ArrayList<>(lastPileupSize);
 
             for (final Map.Entry<String, PerSampleReadStateManager> sampleStatePair : readStates) {
                 final PerSampleReadStateManager readState = sampleStatePair.getValue();
@@ -313,13 +365,14 @@ public final class LocusIteratorByState implements Iterator<AlignmentContext> {
                             continue;
                         }
 
-                        allPileupElements.add(state.makePileupElement());
+                        allPileupElements.add(pileupElementPool == null ? state.makePileupElement() : state.makePileupElement(pileupElementPool));
                     }
                 }
             }
 
             readStates.updateReadStates(); // critical - must be called after we get the current state offsets and location
             if (!allPileupElements.isEmpty()) { // if we got reads with non-D/N over the current position, we are done
+                lastPileupSize = Math.max(INITIAL_PILEUP_CAPACITY, allPileupElements.size());
                 nextAlignmentContext = new AlignmentContext(location, new ReadPileup(location, allPileupElements));
             }
         }
@@ -0,0 +1,195 @@
+package org.broadinstitute.hellbender.utils.pairhmm;
+
+import org.broadinstitute.hellbender.utils.QualityUtils;
+
+import static org.broadinstitute.hellbender.utils.pairhmm.PairHMMModel.*;
+
+/**
+ * Pure Java version of {@link LoglessPairHMM} that fills the match, insertion and deletion matrices one anti-diagonal
+ * at a time, as the native AVX implementation does.
+ *
+ * <p>
+ *     All of the cells of an anti-diagonal only depend on the two previous anti-diagonals, so the inner loop has no
+ *     loop-carried dependency and reads and writes primitive arrays with unit stride, which the JIT compiler can turn
+ *     into SIMD instructions on any platform. Only three anti-diagonals of each matrix are kept, so memory use is linear
+ *     in the read length instead of quadratic in the read and haplotype lengths.
+ * </p>
+ *
+ * <p>
+ *     The arithmetic is performed in the same order as in {@link LoglessPairHMM}, so both implementations compute
+ *     exactly the same likelihoods. Unlike {@link LoglessPairHMM} the cells of a haplotype prefix shared with the
+ *     previous haplotype are recomputed rather than cached.
+ * </p>
+ */
+public final class AntiDiagonalLoglessPairHMM extends PairHMM {
+
+    // per read position, padded by one so that index i holds the values for the i-th read base as in LoglessPairHMM
+    private double[] matchToMatchProbs;
+    private double[] indelToMatchProbs;
+    private double[] matchToInsertionProbs;
+    private double[] insertionToInsertionProbs;
+    private double[] matchToDeletionProbs;
+    private double[] deletionToDeletionProbs;
+    private double[] matchPriors;
+    private double[] mismatchPriors;
+    private byte[] paddedReadBases;
+
+    // the haplotype bases in reverse order, so that the haplotype base of each cell of an anti-diagonal is contiguous
+    private byte[] reversedHaplotypeBases;
+    private double[] priors;
+
+    // the match, insertion and deletion values of the current and two previous anti-diagonals, indexed by read position
+    private double[] match, insertion, deletion;
+    private double[] previousMatch, previousInsertion, previousDeletion;
+    private double[] secondPreviousMatch, secondPreviousInsertion, secondPreviousDeletion;
+
+    @Override
+    public void initialize(final int readMaxLength, final int haplotypeMaxLength) {
+        super.initialize(readMaxLength, haplotypeMaxLength);
+
+        matchToMatchProbs = new double[paddedMaxReadLength];
+        indelToMatchProbs = new double[paddedMaxReadLength];
+        matchToInsertionProbs = new double[paddedMaxReadLength];
+        insertionToInsertionProbs = new double[paddedMaxReadLength];
+        matchToDeletionProbs = new double[paddedMaxReadLength];
+        deletionToDeletionProbs = new double[paddedMaxReadLength];
+        matchPriors = new double[paddedMaxReadLength];
+        mismatchPriors = new double[paddedMaxReadLength];
+        paddedReadBases = new byte[paddedMaxReadLength];
+
+        reversedHaplotypeBases = new byte[maxHaplotypeLength];
+        priors = new double[paddedMaxReadLength];
+
+        match = new double[paddedMaxReadLength];
+        insertion = new double[paddedMaxReadLength];
+        deletion = new double[paddedMaxReadLength];
+        previousMatch = new double[paddedMaxReadLength];
+        previousInsertion = new double[paddedMaxReadLength];
+        previousDeletion = new double[paddedMaxReadLength];
+        secondPreviousMatch = new double[paddedMaxReadLength];
+        secondPreviousInsertion = new double[paddedMaxReadLength];
+        secondPreviousDeletion = new double[paddedMaxReadLength];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected double subComputeReadLikelihoodGivenHaplotypeLog10(final byte[] haplotypeBases,
+                                                                 final byte[] readBases,
+                                                                 final byte[] readQuals,
+                                                                 final byte[] insertionGOP,
+                                                                 final byte[] deletionGOP,
+                                                                 final byte[] overallGCP,
+                                                                 final int hapStartIndex,
+                                                                 final boolean recacheReadValues,
+                                                                 final int nextHapStartIndex) {
+        if ( ! constantsAreInitialized || recacheReadValues ) {
+            initializeReadValues(readBases, readQuals, insertionGOP, deletionGOP, overallGCP);
+            constantsAreInitialized = true;
+        }
+
+        final int readLength = readBases.length;
+        final int haplotypeLength = haplotypeBases.length;
+        for ( int j = 0; j < haplotypeLength; j++ ) {
+            reversedHaplotypeBases[j] = haplotypeBases[haplotypeLength - 1 - j];
+        }
+
+        // free deletions in the beginning of the haplotype
+        final double initialValue = LoglessPairHMM.INITIAL_CONDITION / haplotypeLength;
+
+        // the anti-diagonals 0 and 1 only consist of the row and column of initial conditions
+        resetInitialConditions(secondPreviousMatch, secondPreviousInsertion, secondPreviousDeletion, 0, readLength, initialValue);
+        resetInitialConditions(previousMatch, previousInsertion, previousDeletion, 1, readLength, initialValue);
+
+        final int endI = readLength;
+        double finalSumProbabilities = 0.0;
+        for ( int d = 2; d <= readLength + haplotypeLength; d++ ) {
+            resetInitialConditions(match, insertion, deletion, d, readLength, initialValue);
+
+            // the cells (i, d - i) of this anti-diagonal within the matrices
+            final int firstI = Math.max(1, d - haplotypeLength);
+            final int lastI = Math.min(readLength, d - 1);
+            // the haplotype base of cell (i, j) is reversedHaplotypeBases[haplotypeLength - j] = reversedHaplotypeBases[i + hapOffset]
+            final int hapOffset = haplotypeLength - d;
+
+            for ( int i = firstI; i <= lastI; i++ ) {
+                final byte x = paddedReadBases[i];
+                final byte y = reversedHaplotypeBases[i + hapOffset];
+                priors[i] = x == y || x == (byte) 'N' || y == (byte) 'N' ? matchPriors[i] : mismatchPriors[i];
+            }
+
+            for ( int i = firstI; i <= lastI; i++ ) {
+                match[i] = priors[i] * ( secondPreviousMatch[i - 1] * matchToMatchProbs[i] +
+                        secondPreviousInsertion[i - 1] * indelToMatchProbs[i] +
+                        secondPreviousDeletion[i - 1] * indelToMatchProbs[i] );
+                insertion[i] = previousMatch[i - 1] * matchToInsertionProbs[i] + previousInsertion[i - 1] * insertionToInsertionProbs[i];
+                deletion[i] = previousMatch[i] * matchToDeletionProbs[i] + previousDeletion[i] * deletionToDeletionProbs[i];
+            }
+
+            // final log probability is the log10 sum of the last row of the Match and Insertion state matrices,
+            // accumulated in the order of the haplotype positions as in LoglessPairHMM
+            if ( lastI == endI ) {
+                finalSumProbabilities += match[endI] + insertion[endI];
+            }
+
+            rotateAntiDiagonals();
+        }
+
+        return Math.log10(finalSumProbabilities) - LoglessPairHMM.INITIAL_CONDITION_LOG10;
+    }
+
+    /**
+     * Set the cells of anti-diagonal d in the row and column of initial conditions
+     */
+    private static void resetInitialConditions(final double[] match, final double[] insertion, final double[] deletion,
+                                               final int d, final int readLength, final double initialValue) {
+        // row 0, column d
+        match[0] = 0.0;
+        insertion[0] = 0.0;
+        deletion[0] = initialValue;
+        // row d, column 0
+        if ( d > 0 && d <= readLength ) {
+            match[d] = 0.0;
+            insertion[d] = 0.0;
+            deletion[d] = 0.0;
+        }
+    }
+
+    private void rotateAntiDiagonals() {
+        final double[] oldestMatch = secondPreviousMatch;
+        final double[] oldestInsertion = secondPreviousInsertion;
+        final double[] oldestDeletion = secondPreviousDeletion;
+        secondPreviousMatch = previousMatch;
+        secondPreviousInsertion = previousInsertion;
+        secondPreviousDeletion = previousDeletion;
+        previousMatch = match;
+        previousInsertion = insertion;
+        previousDeletion = deletion;
+        match = oldestMatch;
+        insertion = oldestInsertion;
+        deletion = oldestDeletion;
+    }
+
+    /**
+     * Cache the transition probabilities and match and mismatch priors of each read position, and the read bases
+     * shifted to the 1-based positions of the matrix rows
+     */
+    private void initializeReadValues(final byte[] readBases, final byte[] readQuals, final byte[] insertionGOP,
+                                      final byte[] deletionGOP, final byte[] overallGCP) {
+        final double[] transitions = new double[TRANS_PROB_ARRAY_LENGTH];
+        for ( int i = 0; i < readBases.length; i++ ) {
+            PairHMMModel.qualToTransProbs(transitions, insertionGOP[i], deletionGOP[i], overallGCP[i]);
+            matchToMatchProbs[i + 1] = transitions[matchToMatch];
+            indelToMatchProbs[i + 1] = transitions[indelToMatch];
+            matchToInsertionProbs[i + 1] = transitions[matchToInsertion];
+            insertionToInsertionProbs[i + 1] = transitions[insertionToInsertion];
+            matchToDeletionProbs[i + 1] = transitions[matchToDeletion];
+            deletionToDeletionProbs[i + 1] = transitions[deletionToDeletion];
+
+            matchPriors[i + 1] = QualityUtils.qualToProb(readQuals[i]);
+            mismatchPriors[i + 1] = QualityUtils.qualToErrorProb(readQuals[i]) / (doNotUseTristateCorrection ? 1.0 : LoglessPairHMM.TRISTATE_CORRECTION);
+            paddedReadBases[i + 1] = readBases[i];
+        }
+    }
+}
@@ -56,6 +56,12 @@ public abstract class PairHMM implements Closeable{
             logger.info("Using the non-hardware-accelerated Java LOGLESS_CACHING PairHMM implementation");
             return hmm;
         }),
+        /* Pure Java version of LOGLESS_CACHING that evaluates the matrices by anti-diagonals, which the JIT compiler can vectorize */
+        LOGLESS_ANTIDIAGONAL(args -> {
+            final AntiDiagonalLoglessPairHMM hmm = new AntiDiagonalLoglessPairHMM();
+            logger.info("Using the Java LOGLESS_ANTIDIAGONAL PairHMM implementation");
+            return hmm;
+        }),
         /* Optimized AVX implementation of LOGLESS_CACHING called through JNI. Throws if AVX is not available */
         AVX_LOGLESS_CACHING(args -> {
             // Constructor will throw a UserException if AVX is not available
@@ -74,7 +80,7 @@ public abstract class PairHMM implements Closeable{
            Order of precedence:
             1. AVX_LOGLESS_CACHING_OMP
             2. AVX_LOGLESS_CACHING
-            3. LOGLESS_CACHING
+            3. LOGLESS_ANTIDIAGONAL
          */
         FASTEST_AVAILABLE(args -> {
             try {
@@ -92,8 +98,8 @@ public abstract class PairHMM implements Closeable{
             }
             catch ( UserException.HardwareFeatureException e ) {
                 logger.warn("***WARNING: Machine does not have the AVX instruction set support needed for the accelerated AVX PairHmm. " +
-                            "Falling back to the MUCH slower LOGLESS_CACHING implementation!");
-                return new LoglessPairHMM();
+                            "Falling back to the slower Java LOGLESS_ANTIDIAGONAL implementation!");
+                return new AntiDiagonalLoglessPairHMM();
             }
         });
 
@@ -16,6 +16,9 @@ import static org.broadinstitute.hellbender.utils.BaseUtils.Base.D;
 
 /**
  * Represents an individual base in a reads pileup.
+ *
+ * PileupElements are immutable, except for those obtained from a {@link PileupElementPool}, which are recycled
+ * (and overwritten) once the pileup containing them has been released back to the pool.
  */
 public final class PileupElement {
 
@@ -29,12 +32,18 @@ public final class PileupElement {
     public static final byte T_FOLLOWED_BY_INSERTION_BASE = (byte) 89;
     public static final byte G_FOLLOWED_BY_INSERTION_BASE = (byte) 90;
 
-    private final GATKRead read;         // the read this base belongs to
-    private final int offset;            // the offset in the bases array for this base
+    // not final, so that elements owned by a PileupElementPool can be recycled
+    private GATKRead read;               // the read this base belongs to
+    private int offset;                  // the offset in the bases array for this base
 
-    private final CigarElement currentCigarElement;
-    private final int currentCigarOffset;
-    private final int offsetInCurrentCigar;
+    private CigarElement currentCigarElement;
+    private int currentCigarOffset;
+    private int offsetInCurrentCigar;
+
+    // the pool this element was obtained from and may be recycled by, or null if this element is immutable
+    private final PileupElementPool pool;
+    // true while this element is waiting in its pool to be recycled
+    private boolean released;
 
     /**
      * Create a new pileup element
@@ -51,6 +60,18 @@ public final class PileupElement {
                          final CigarElement currentElement,
                          final int currentCigarOffset,
                          final int offsetInCurrentCigar) {
+        this(read, baseOffset, currentElement, currentCigarOffset, offsetInCurrentCigar, null);
+    }
+
+    /**
+     * Create a new pileup element owned by {@code pool}, or an immutable one if {@code pool} is null
+     */
+    PileupElement(final GATKRead read,
+                  final int baseOffset,
+                  final CigarElement currentElement,
+                  final int currentCigarOffset,
+                  final int offsetInCurrentCigar,
+                  final PileupElementPool pool) {
         // Note: bounds checking on the indices proved quite expensive and affected the performance of
         // the HaplotypeCaller, as this class is a major hotspot -- therefore we are living a little
         // dangerously by going without runtime bounds checks here.
@@ -60,6 +81,48 @@ public final class PileupElement {
         this.currentCigarElement = currentElement;
         this.currentCigarOffset = currentCigarOffset;
         this.offsetInCurrentCigar = offsetInCurrentCigar;
+        this.pool = pool;
+        this.released = false;
+    }
+
+    /**
+     * Overwrite the state of a recycled element. Only for use by the {@link PileupElementPool} that owns it.
+     */
+    void reset(final GATKRead read,
+               final int baseOffset,
+               final CigarElement currentElement,
+               final int currentCigarOffset,
+               final int offsetInCurrentCigar) {
+        this.read = read;
+        this.offset = baseOffset;
+        this.currentCigarElement = currentElement;
+        this.currentCigarOffset = currentCigarOffset;
+        this.offsetInCurrentCigar = offsetInCurrentCigar;
+        this.released = false;
+    }
+
+    /**
+     * Mark this element as released to its pool, dropping its reference to the read so that the read can be
+     * garbage collected. Only for use by the {@link PileupElementPool} that owns it.
+     */
+    void markReleased() {
+        this.read = null;
+        this.currentCigarElement = null;
+        this.released = true;
+    }
+
+    /**
+     * @return the pool that owns this element, or null if it is immutable
+     */
+    PileupElementPool getPool() {
+        return pool;
+    }
+
+    /**
+     * @return true if this element has been released to its pool and not yet recycled
+     */
+    boolean isReleased() {
+        return released;
     }
 
     /**
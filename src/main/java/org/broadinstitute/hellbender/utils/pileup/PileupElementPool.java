@@ -0,0 +1,79 @@
+package org.broadinstitute.hellbender.utils.pileup;
+
+import htsjdk.samtools.CigarElement;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A pool of recyclable {@link PileupElement}s, used to avoid allocating a new element for every read at every locus
+ * when building pileups over deep coverage.
+ *
+ * Elements handed out by {@link #obtain} stay valid until the pileup containing them is passed to {@link #release},
+ * after which they will be overwritten by subsequent calls to {@link #obtain}. Consumers must therefore not keep
+ * references to a released pileup or to any of its elements (including pileups derived from it, such as filtered or
+ * per-sample pileups, which share the same elements). Use {@link PileupElement#PileupElement(PileupElement)} to make
+ * an immutable copy of an element that needs to be kept.
+ *
+ * This class is not thread-safe.
+ */
+public final class PileupElementPool {
+
+    private final Deque<PileupElement> freeElements = new ArrayDeque<>();
+    private long numAllocated = 0;
+
+    /**
+     * Get a pileup element with the given state, recycling a released element if one is available.
+     *
+     * See {@link PileupElement#PileupElement(GATKRead, int, CigarElement, int, int)} for the meaning of the arguments.
+     *
+     * @return an element owned by this pool
+     */
+    public PileupElement obtain(final GATKRead read,
+                                final int baseOffset,
+                                final CigarElement currentElement,
+                                final int currentCigarOffset,
+                                final int offsetInCurrentCigar) {
+        final PileupElement recycled = freeElements.pollLast();
+        if ( recycled == null ) {
+            numAllocated++;
+            return new PileupElement(read, baseOffset, currentElement, currentCigarOffset, offsetInCurrentCigar, this);
+        }
+        recycled.reset(read, baseOffset, currentElement, currentCigarOffset, offsetInCurrentCigar);
+        return recycled;
+    }
+
+    /**
+     * Return the elements of a pileup to this pool, to be recycled by later calls to {@link #obtain}.
+     *
+     * Elements that are not owned by this pool, or that have already been released, are ignored, so it is safe to
+     * release any pileup, or the same pileup more than once.
+     *
+     * @param pileup pileup whose elements are no longer in use
+     */
+    public void release(final ReadPileup pileup) {
+        Utils.nonNull(pileup);
+        for ( final PileupElement element : pileup ) {
+            if ( element.getPool() == this && ! element.isReleased() ) {
+                element.markReleased();
+                freeElements.addLast(element);
+            }
+        }
+    }
+
+    /**
+     * @return total number of elements allocated by this pool so far
+     */
+    public long getNumAllocated() {
+        return numAllocated;
+    }
+
+    /**
+     * @return number of released elements currently waiting to be recycled
+     */
+    public int getNumFree() {
+        return freeElements.size();
+    }
+}
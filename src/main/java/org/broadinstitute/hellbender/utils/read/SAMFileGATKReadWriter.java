@@ -1,6 +1,8 @@
 package org.broadinstitute.hellbender.utils.read;
 
 import htsjdk.samtools.SAMFileWriter;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.runtime.StageTimer;
 
 /**
  * A GATKRead writer that writes to a SAM/BAM file.
@@ -11,14 +13,26 @@ import htsjdk.samtools.SAMFileWriter;
 public final class SAMFileGATKReadWriter implements GATKReadWriter {
 
     private final SAMFileWriter samWriter;
+    private final StageTimer stageTimer;
 
     public SAMFileGATKReadWriter( final SAMFileWriter samWriter ) {
+        this(samWriter, StageTimer.DISABLED);
+    }
+
+    /**
+     * @param samWriter writer to which to write the reads
+     * @param stageTimer timer under which to record the time spent writing, as {@link StageTimer.Stage#WRITING}
+     */
+    public SAMFileGATKReadWriter( final SAMFileWriter samWriter, final StageTimer stageTimer ) {
         this.samWriter = samWriter;
+        this.stageTimer = Utils.nonNull(stageTimer);
     }
 
     @Override
     public void addRead( GATKRead read ) {
+        final long startNanos = stageTimer.start();
         samWriter.addAlignment(read.convertToSAMRecord(samWriter.getFileHeader()));
+        stageTimer.stop(StageTimer.Stage.WRITING, startNanos);
     }
 
     @Override
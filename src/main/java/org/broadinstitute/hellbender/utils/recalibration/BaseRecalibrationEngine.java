@@ -24,18 +24,33 @@ import org.broadinstitute.hellbender.utils.read.CigarBuilder;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.read.ReadUtils;
 import org.broadinstitute.hellbender.utils.recalibration.covariates.Covariate;
-import org.broadinstitute.hellbender.utils.recalibration.covariates.CovariateKeyCache;
 import org.broadinstitute.hellbender.utils.recalibration.covariates.ReadCovariates;
 import org.broadinstitute.hellbender.utils.recalibration.covariates.StandardCovariateList;
 
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
 
 public final class BaseRecalibrationEngine implements Serializable {
     private static final long serialVersionUID = 1L;
 
     protected static final Logger logger = LogManager.getLogger(BaseRecalibrationEngine.class);
-    private final CovariateKeyCache keyCache;
+    // reused for the covariates of every read, so that steady-state processing doesn't allocate them
+    private final ReadCovariates reusedReadCovariates;
+
+    /*
+     * In concurrent mode every thread calling processRead() has its own ReadCovariates and accumulates its counts separately,
+     * and finalizeData() adds the counts of all threads to recalTables.  These are null otherwise.
+     */
+    private final transient ThreadLocal<ReadCovariates> threadReadCovariates;
+    private final transient ThreadLocal<RecalibrationCounts> threadCounts;
+    private final transient Queue<RecalibrationCounts> allThreadCounts;
+
+    // the index of the quality score table in RecalibrationTables, which follows the read group table
+    private static final int QUALITY_SCORE_TABLE_INDEX = 1;
 
     /*
      * Every call to EventType.values() (or any enum type) creates a new array instance but they are all equal (ie contain identical elements).
@@ -74,7 +89,7 @@ public final class BaseRecalibrationEngine implements Serializable {
     private BAQ baq; // BAQ the reads on the fly to generate the alignment uncertainty vector
     private static final byte NO_BAQ_UNCERTAINTY = (byte)'@';
 
-    private long numReadsProcessed = 0L;
+    private final LongAdder numReadsProcessed = new LongAdder();
 
     /**
      * Has finalizeData() been called?
@@ -82,6 +97,14 @@ public final class BaseRecalibrationEngine implements Serializable {
     private boolean finalized = false;
 
     public BaseRecalibrationEngine( final RecalibrationArgumentCollection recalArgs, final SAMFileHeader readsHeader ) {
+        this(recalArgs, readsHeader, false);
+    }
+
+    /**
+     * @param concurrent if true, processRead() may be called from several threads at once, each of which accumulates
+     *                   its counts in its own primitive arrays until finalizeData() merges them
+     */
+    public BaseRecalibrationEngine( final RecalibrationArgumentCollection recalArgs, final SAMFileHeader readsHeader, final boolean concurrent ) {
         this.recalArgs = recalArgs;
         this.readsHeader = readsHeader;
 
@@ -98,7 +121,20 @@ public final class BaseRecalibrationEngine implements Serializable {
             throw new UserException("Number of read groups must be >= 1, but is " + numReadGroups);
         }
         recalTables = new RecalibrationTables(covariates, numReadGroups);
-        keyCache = new CovariateKeyCache();
+        reusedReadCovariates = new ReadCovariates(covariates.size());
+        if (concurrent) {
+            allThreadCounts = new ConcurrentLinkedQueue<>();
+            threadReadCovariates = ThreadLocal.withInitial(() -> new ReadCovariates(covariates.size()));
+            threadCounts = ThreadLocal.withInitial(() -> {
+                final RecalibrationCounts counts = new RecalibrationCounts(recalTables);
+                allThreadCounts.add(counts);
+                return counts;
+            });
+        } else {
+            allThreadCounts = null;
+            threadReadCovariates = null;
+            threadCounts = null;
+        }
         cachedEventTypes = recalArgs.computeIndelBQSRTables ? EventType.values() : new EventType[]{EventType.BASE_SUBSTITUTION};
     }
 
@@ -112,6 +148,8 @@ public final class BaseRecalibrationEngine implements Serializable {
     /**
      * For each read at this locus get the various covariate values and increment that location in the map based on
      * whether or not the base matches the reference at this particular location
+     *
+     * In concurrent mode this may be called from several threads at once, each with its own refDS.
      */
     public void processRead( final GATKRead originalRead, final ReferenceDataSource refDS, final Iterable<? extends Locatable> knownSites ) {
         final ReadTransformer transform = makeReadTransform();
@@ -135,7 +173,8 @@ public final class BaseRecalibrationEngine implements Serializable {
         final byte[] baqArray = (nErrors == 0 || !recalArgs.enableBAQ) ? flatBAQArray(read) : calculateBAQArray(read, refDS);
 
         if( baqArray != null ) { // some reads just can't be BAQ'ed
-            final ReadCovariates covariates = RecalUtils.computeCovariates(read, readsHeader, this.covariates, true, keyCache);
+            final ReadCovariates covariates = threadReadCovariates == null ? reusedReadCovariates : threadReadCovariates.get();
+            RecalUtils.computeCovariates(read, readsHeader, this.covariates, covariates, true);
             final boolean[] skip = calculateSkipArray(read, knownSites); // skip known sites of variation as well as low quality and non-regular bases
             final double[] snpErrors = calculateFractionalErrorArray(isSNP, baqArray);
             final double[] insertionErrors = calculateFractionalErrorArray(isInsertion, baqArray);
@@ -143,22 +182,26 @@ public final class BaseRecalibrationEngine implements Serializable {
 
             // aggregate all of the info into our info object, and update the data
             final ReadRecalibrationInfo info = new ReadRecalibrationInfo(read, covariates, skip, snpErrors, insertionErrors, deletionErrors);
-            updateRecalTablesForRead(info);
+            updateRecalTablesForRead(info, threadCounts == null ? null : threadCounts.get());
         }
 
-        numReadsProcessed++;
+        numReadsProcessed.increment();
     }
 
     /**
      * Finalize, if appropriate, all derived data in recalibrationTables.
      *
-     * Called once after all calls to processRead have been issued.
+     * Called once after all calls to processRead have been issued, and in concurrent mode after they have all returned.
      *
      * Assumes that all of the principal tables (by quality score) have been completely updated,
      * and walks over this data to create summary data tables like by read group table.
      */
     public void finalizeData() {
         Utils.validate(!finalized, "FinalizeData() has already been called");
+        if (allThreadCounts != null) {
+            allThreadCounts.forEach(counts -> counts.addTo(recalTables));
+            allThreadCounts.clear();
+        }
         finalizeRecalibrationTables(recalTables);
         finalized = true;
     }
@@ -173,22 +216,23 @@ public final class BaseRecalibrationEngine implements Serializable {
      */
     public static void finalizeRecalibrationTables( final RecalibrationTables tables ) {
         Utils.nonNull(tables);
-        final NestedIntegerArray<RecalDatum> byReadGroupTable = tables.getReadGroupTable();
-        final NestedIntegerArray<RecalDatum> byQualTable = tables.getQualityScoreTable();
+        final RecalDatumTable byReadGroupTable = tables.getReadGroupTable();
+        final RecalDatumTable byQualTable = tables.getQualityScoreTable();
 
         // iterate over all values in the qual table
         for ( final NestedIntegerArray.Leaf<RecalDatum> leaf : byQualTable.getAllLeaves() ) {
             final int rgKey = leaf.keys[0];
             final int eventIndex = leaf.keys[2];
-            final RecalDatum rgDatum = byReadGroupTable.get(rgKey, eventIndex);
+            final RecalDatum rgDatum = byReadGroupTable.get2Keys(rgKey, eventIndex);
             final RecalDatum qualDatum = leaf.value;
 
             if ( rgDatum == null ) {
-                // create a copy of qualDatum, and initialize byReadGroup table with it
-                byReadGroupTable.put(new RecalDatum(qualDatum), rgKey, eventIndex);
+                // initialize byReadGroup table with a copy of qualDatum
+                byReadGroupTable.put(qualDatum, rgKey, eventIndex);
             } else {
                 // combine the qual datum with the existing datum in the byReadGroup table
                 rgDatum.combine(qualDatum);
+                byReadGroupTable.put(rgDatum, rgKey, eventIndex);
             }
         }
 
@@ -200,16 +244,19 @@ public final class BaseRecalibrationEngine implements Serializable {
 
     private static void roundTableValues(final RecalibrationTables rt) {
         for (int i = 0; i < rt.numTables(); i++) {
-            for (final NestedIntegerArray.Leaf<RecalDatum> leaf : rt.getTable(i).getAllLeaves()) {
+            final RecalDatumTable table = rt.getTable(i);
+            for (final NestedIntegerArray.Leaf<RecalDatum> leaf : table.getAllLeaves()) {
                 leaf.value.setNumMismatches(MathUtils.roundToNDecimalPlaces(leaf.value.getNumMismatches(), RecalUtils.NUMBER_ERRORS_DECIMAL_PLACES));
                 leaf.value.setEmpiricalQuality(MathUtils.roundToNDecimalPlaces(leaf.value.getEmpiricalQuality(), RecalUtils.EMPIRICAL_QUAL_DECIMAL_PLACES));
                 leaf.value.setEstimatedQReported(MathUtils.roundToNDecimalPlaces(leaf.value.getEstimatedQReported(), RecalUtils.EMPIRICAL_Q_REPORTED_DECIMAL_PLACES));
+                table.put(leaf.value, leaf.keys);
             }
         }
     }
 
     /**
-     * Get a possibly not-final recalibration table, to deal with distributed execution.
+     * Get a possibly not-final recalibration table, to deal with distributed execution.  In concurrent mode the
+     * table does not include the counts of processRead() until finalizeData() has been called.
      */
     public RecalibrationTables getRecalibrationTables() {
         return recalTables;
@@ -234,41 +281,51 @@ public final class BaseRecalibrationEngine implements Serializable {
     }
 
     public long getNumReadsProcessed() {
-        return numReadsProcessed;
+        return numReadsProcessed.sum();
     }
 
     /**
      * Update the recalibration statistics using the information in recalInfo
      * @param recalInfo data structure holding information about the recalibration values for a single read
+     * @param counts the counts of the current thread in concurrent mode, or null to update the tables directly
      */
-    private void updateRecalTablesForRead( final ReadRecalibrationInfo recalInfo ) {
+    private void updateRecalTablesForRead( final ReadRecalibrationInfo recalInfo, final RecalibrationCounts counts ) {
         Utils.validate(!finalized, "FinalizeData() has already been called");
 
         final GATKRead read = recalInfo.getRead();
         final ReadCovariates readCovariates = recalInfo.getCovariatesValues();
-        final NestedIntegerArray<RecalDatum> qualityScoreTable = recalTables.getQualityScoreTable();
+        final RecalDatumTable qualityScoreTable = recalTables.getQualityScoreTable();
 
         final int nCovariates = covariates.size();
         final int nSpecialCovariates = covariates.numberOfSpecialCovariates();
         final int readLength = read.getLength();
+        final int[] keys = readCovariates.getKeys();
         for( int offset = 0; offset < readLength; offset++ ) {
             if( ! recalInfo.skip(offset) ) {
                 for (int idx = 0; idx < cachedEventTypes.length; idx++) { //Note: we loop explicitly over cached values for speed
                     final EventType eventType = cachedEventTypes[idx];
-                    final int[] keys = readCovariates.getKeySet(offset, eventType);
+                    final int keySetOffset = readCovariates.getKeySetOffset(offset, eventType);
                     final int eventIndex = eventType.ordinal();
                     final byte qual = recalInfo.getQual(eventType, offset);
                     final double isError = recalInfo.getErrorFraction(eventType, offset);
 
-                    final int key0 = keys[0];
-                    final int key1 = keys[1];
+                    final int key0 = keys[keySetOffset];
+                    final int key1 = keys[keySetOffset + 1];
 
-                    RecalUtils.incrementDatumOrPutIfNecessary3keys(qualityScoreTable, qual, isError, key0, key1, eventIndex);
+                    if (counts == null) {
+                        RecalUtils.incrementDatumOrPutIfNecessary3keys(qualityScoreTable, qual, isError, key0, key1, eventIndex);
+                    } else {
+                        counts.increment3keys(QUALITY_SCORE_TABLE_INDEX, isError, key0, key1, eventIndex);
+                    }
 
                     for (int i = nSpecialCovariates; i < nCovariates; i++) {
-                        final int keyi = keys[i];
+                        final int keyi = keys[keySetOffset + i];
                         if (keyi >= 0) {
-                            RecalUtils.incrementDatumOrPutIfNecessary4keys(recalTables.getTable(i), qual, isError, key0, key1, keyi, eventIndex);
+                            if (counts == null) {
+                                RecalUtils.incrementDatumOrPutIfNecessary4keys(recalTables.getTable(i), qual, isError, key0, key1, keyi, eventIndex);
+                            } else {
+                                counts.increment4keys(i, isError, key0, key1, keyi, eventIndex);
+                            }
                         }
                     }
                 }
@@ -362,16 +419,17 @@ public final class BaseRecalibrationEngine implements Serializable {
      * the total number of SNP/indel events.
      *
      * @param read read to inspect
-     * @param ref source of reference bses
+     * @param ref source of reference bses, read through {@link ReferenceDataSource#queryAsBuffer} so that data sources
+     *            such as a packed reference don't copy the bases of every read
      * @param snp storage for snp events (must be of length read.getBases().length and initialized to all 0's)
      * @param isIns storage for insertion events (must be of length read.getBases().length and initialized to all 0's)
      * @param isDel storage for deletion events (must be of length read.getBases().length and initialized to all 0's)
      * @return the total number of SNP and indel events
      */
     protected static int calculateIsSNPOrIndel(final GATKRead read, final ReferenceDataSource ref, int[] snp, int[] isIns, int[] isDel) {
-        final byte[] refBases = ref.queryAndPrefetch(read.getContig(), read.getStart(), read.getEnd()).getBases();
+        final ByteBuffer refBases = ref.queryAsBuffer(read.getContig(), read.getStart(), read.getEnd());
         int readPos = 0;
-        int refPos = 0;
+        int refPos = refBases.position();
         int nEvents = 0;
 
         for (final CigarElement ce : read.getCigarElements()) {
@@ -381,7 +439,7 @@ public final class BaseRecalibrationEngine implements Serializable {
                 case EQ:
                 case X:
                     for (int i = 0; i < elementLength; i++) {
-                        int snpInt = (BaseUtils.basesAreEqual(read.getBase(readPos), refBases[refPos]) ? 0 : 1);
+                        int snpInt = (BaseUtils.basesAreEqual(read.getBase(readPos), refBases.get(refPos)) ? 0 : 1);
                         snp[readPos] = snpInt;
                         nEvents += snpInt;
                         readPos++;
@@ -0,0 +1,76 @@
+package org.broadinstitute.hellbender.utils.recalibration;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A map from the row-major index of a cell of a recalibration table to the position of the cell's data, or -1 if the
+ * cell holds no data.
+ *
+ * The covariate tables are indexed by read group, quality score, covariate value and event type.  With the default
+ * arguments the context covariate has about a thousand values (1011) and so does the cycle covariate (1001), so rather
+ * than hashing the cell indices the positions are kept in one dense block per read group and quality score, covering
+ * all covariate values and event types.  A block is only allocated when the first of its cells is added, so a table
+ * only pays for the read groups and quality scores that actually occur.  Small tables keep all their positions in a
+ * single block.
+ *
+ * This class is not thread-safe.
+ */
+final class CellPositions implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    // tables with at most this many cells keep all of their positions in a single block
+    private static final long MAX_SINGLE_BLOCK_CELLS = 1 << 16;
+
+    // the number of leading dimensions, such as the read group and the quality score, that select a block
+    private static final int MAX_BLOCK_DIMENSIONS = 2;
+
+    private final int blockSize;
+    private final int[][] blocks;
+
+    /**
+     * @param dimensions the dimensions of the table, which must all be positive
+     */
+    CellPositions(final int[] dimensions) {
+        long numCells = 1;
+        for (final int dimension : dimensions) {
+            numCells = Math.multiplyExact(numCells, dimension);
+        }
+
+        final int numBlockDimensions = numCells <= MAX_SINGLE_BLOCK_CELLS ? 0 : Math.min(MAX_BLOCK_DIMENSIONS, dimensions.length - 1);
+        long numBlocks = 1;
+        for (int d = 0; d < numBlockDimensions; d++) {
+            numBlocks *= dimensions[d];
+        }
+        blockSize = Math.toIntExact(numCells / numBlocks);
+        blocks = new int[Math.toIntExact(numBlocks)][];
+        if (numBlocks == 1) {
+            blocks[0] = newBlock();
+        }
+    }
+
+    /**
+     * @return the position of the cell with the given row-major index, or -1 if the cell holds no data
+     */
+    int get(final long cell) {
+        final int[] block = blocks[(int) (cell / blockSize)];
+        return block == null ? -1 : block[(int) (cell % blockSize)];
+    }
+
+    /**
+     * Record the position of the cell with the given row-major index
+     */
+    void put(final long cell, final int position) {
+        final int blockIndex = (int) (cell / blockSize);
+        if (blocks[blockIndex] == null) {
+            blocks[blockIndex] = newBlock();
+        }
+        blocks[blockIndex][(int) (cell % blockSize)] = position;
+    }
+
+    private int[] newBlock() {
+        final int[] block = new int[blockSize];
+        Arrays.fill(block, -1);
+        return block;
+    }
+}
@@ -2,7 +2,6 @@ package org.broadinstitute.hellbender.utils.recalibration;
 
 import org.broadinstitute.hellbender.utils.MathUtils;
 import org.broadinstitute.hellbender.utils.QualityUtils;
-import org.broadinstitute.hellbender.utils.collections.NestedIntegerArray;
 import org.broadinstitute.hellbender.utils.report.GATKReportTable;
 
 import java.io.Serializable;
@@ -34,7 +33,7 @@ public final class QuantizationInfo implements Serializable {
         for (int i = 0; i < qualHistogram.length; i++)
             qualHistogram[i] = 0L;
 
-        final NestedIntegerArray<RecalDatum> qualTable = recalibrationTables.getQualityScoreTable(); // get the quality score table
+        final RecalDatumTable qualTable = recalibrationTables.getQualityScoreTable(); // get the quality score table
 
         for (final RecalDatum value : qualTable.getAllValues()) {
             final RecalDatum datum = value;
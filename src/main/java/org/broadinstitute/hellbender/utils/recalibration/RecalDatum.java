@@ -15,7 +15,7 @@ import java.io.Serializable;
  */
 public final class RecalDatum implements Serializable {
     public static final byte MAX_RECALIBRATED_Q_SCORE = SAMUtils.MAX_PHRED_SCORE;
-    private static final double UNINITIALIZED = -1.0;
+    static final double UNINITIALIZED = -1.0;
     private static final long serialVersionUID = 1L;
     private static final double MULTIPLIER = 100000.0;  //See discussion in numMismatches about what the multiplier is.
 
@@ -75,6 +75,21 @@ public final class RecalDatum implements Serializable {
         empiricalQuality = UNINITIALIZED;
     }
 
+    /**
+     * Create a RecalDatum from the fields of a cell of a {@link RecalDatumTable}
+     *
+     * @param numObservations       observations
+     * @param scaledNumMismatches   mismatches, already multiplied by the internal multiplier
+     * @param estimatedQReported    estimated Qreported
+     * @param empiricalQuality      empirical quality, or {@link #UNINITIALIZED} if it has not been computed yet
+     */
+    RecalDatum(final long numObservations, final double scaledNumMismatches, final double estimatedQReported, final double empiricalQuality) {
+        this.numObservations = numObservations;
+        this.numMismatches = scaledNumMismatches;
+        this.estimatedQReported = estimatedQReported;
+        this.empiricalQuality = empiricalQuality;
+    }
+
     /**
      * Copy copy into this recal datum, overwriting all of this objects data
      * @param copy  RecalDatum to copy
@@ -201,6 +216,27 @@ public final class RecalDatum implements Serializable {
         empiricalQuality = UNINITIALIZED;
     }
 
+    /**
+     * @return the number of mismatches multiplied by the internal multiplier, as stored by {@link RecalDatumTable}
+     */
+    double getScaledNumMismatches() {
+        return numMismatches;
+    }
+
+    /**
+     * @return the cached empirical quality, or {@link #UNINITIALIZED} if it has not been computed yet
+     */
+    double getCachedEmpiricalQuality() {
+        return empiricalQuality;
+    }
+
+    /**
+     * @return numMismatches multiplied by the internal multiplier, for accumulating mismatches outside of a RecalDatum
+     */
+    static double scaleNumMismatches(final double numMismatches) {
+        return numMismatches*MULTIPLIER;
+    }
+
     public final void incrementNumObservations(final long by) {
         numObservations += by;
         empiricalQuality = UNINITIALIZED;
@@ -0,0 +1,280 @@
+package org.broadinstitute.hellbender.utils.recalibration;
+
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.collections.NestedIntegerArray;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A table of recalibration data indexed by integer keys, one per dimension, stored column-wise in primitive arrays.
+ *
+ * Each cell is identified by its index in the row-major order of the table's dimensions, computed from the keys with
+ * precomputed strides.  The observations, mismatches, estimated reported quality and empirical quality of the cells
+ * that hold data are kept in parallel arrays in the order in which the cells were first written, so a table costs a few
+ * dozen bytes per occupied cell and no objects per cell.  The position of a cell is found by direct indexing into
+ * {@link CellPositions}, which for the context and cycle tables only allocates the read groups and quality scores
+ * that occur.
+ *
+ * {@link RecalDatum}s are only materialized at the boundary: {@link #get} returns a new copy of a cell, so changes to
+ * it must be written back with {@link #put}.  The hot path of counting observations uses the increment methods, which
+ * never allocate once a cell exists.
+ *
+ * This class is not thread-safe.
+ */
+public final class RecalDatumTable implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int[] dimensions;
+    private final long[] strides;
+
+    // the position in the columns of each cell index, or -1 if the cell is empty
+    private final CellPositions positions;
+
+    // the columns: the cell index and the data of each position
+    private long[] cells = new long[INITIAL_CAPACITY];
+    private long[] observations = new long[INITIAL_CAPACITY];
+    private double[] scaledMismatches = new double[INITIAL_CAPACITY];
+    private double[] estimatedQReported = new double[INITIAL_CAPACITY];
+    private double[] empiricalQuality = new double[INITIAL_CAPACITY];
+    private int size = 0;
+
+    public RecalDatumTable(final int... dimensions) {
+        Utils.nonNull(dimensions);
+        Utils.validateArg(dimensions.length > 0, "There must be at least one dimension to a RecalDatumTable");
+        this.dimensions = Arrays.copyOf(dimensions, dimensions.length);
+
+        strides = new long[dimensions.length];
+        long numCells = 1;
+        for (int d = dimensions.length - 1; d >= 0; d--) {
+            Utils.validateArg(dimensions[d] > 0, () -> "Dimensions must be positive but got " + Arrays.toString(dimensions));
+            strides[d] = numCells;
+            numCells = Math.multiplyExact(numCells, dimensions[d]);
+        }
+        positions = new CellPositions(this.dimensions);
+    }
+
+    /**
+     * @return the dimensions of this table.  DO NOT MODIFY
+     */
+    public int[] getDimensions() {
+        return dimensions;
+    }
+
+    /**
+     * @return the number of cells that hold data
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if no cell holds data
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return a copy of the data at the given keys, or null if there is none
+     */
+    public RecalDatum get(final int... keys) {
+        if (keys.length != dimensions.length) {
+            return null;
+        }
+        long cell = 0;
+        for (int d = 0; d < keys.length; d++) {
+            if (!inRange(keys[d], d)) {
+                return null;
+            }
+            cell += keys[d] * strides[d];
+        }
+        return datumAt(position(cell));
+    }
+
+    /**
+     * Specialized version of get for 2 parameters, which avoids allocating a varargs array.
+     */
+    public RecalDatum get2Keys(final int key0, final int key1) {
+        if (!inRange(key0, 0) || !inRange(key1, 1)) {
+            return null;
+        }
+        return datumAt(position(key0 * strides[0] + key1));
+    }
+
+    /**
+     * Specialized version of get for 3 parameters, which avoids allocating a varargs array.
+     */
+    public RecalDatum get3Keys(final int key0, final int key1, final int key2) {
+        if (!inRange(key0, 0) || !inRange(key1, 1) || !inRange(key2, 2)) {
+            return null;
+        }
+        return datumAt(position(key0 * strides[0] + key1 * strides[1] + key2));
+    }
+
+    /**
+     * Specialized version of get for 4 parameters, which avoids allocating a varargs array.
+     */
+    public RecalDatum get4Keys(final int key0, final int key1, final int key2, final int key3) {
+        if (!inRange(key0, 0) || !inRange(key1, 1) || !inRange(key2, 2) || !inRange(key3, 3)) {
+            return null;
+        }
+        return datumAt(position(key0 * strides[0] + key1 * strides[1] + key2 * strides[2] + key3));
+    }
+
+    /**
+     * Store the data of value at the position specified by the given keys, replacing any data already there.
+     * Later changes to value are not reflected in the table.
+     *
+     * @param value value to store
+     * @param keys keys specifying the location of the value in the table
+     */
+    public void put(final RecalDatum value, final int... keys) { // WARNING! value comes before the keys!
+        Utils.nonNull(value);
+        final int position = findOrAddPosition(cellOf(keys));
+        observations[position] = value.getNumObservations();
+        scaledMismatches[position] = value.getScaledNumMismatches();
+        estimatedQReported[position] = value.getEstimatedQReported();
+        empiricalQuality[position] = value.getCachedEmpiricalQuality();
+    }
+
+    /**
+     * Count one observation with the given error value at the given keys.  If the cell is empty its estimated
+     * reported quality is initialized to qual, otherwise the existing estimated reported quality is kept.
+     */
+    public void increment2Keys(final byte qual, final double isError, final int key0, final int key1) {
+        if (!inRange(key0, 0) || !inRange(key1, 1)) {
+            throw keysOutOfRange(key0, key1);
+        }
+        incrementCell(key0 * strides[0] + key1, 1L, isError, qual);
+    }
+
+    /**
+     * Count one observation with the given error value at the given keys.  If the cell is empty its estimated
+     * reported quality is initialized to qual, otherwise the existing estimated reported quality is kept.
+     */
+    public void increment3Keys(final byte qual, final double isError, final int key0, final int key1, final int key2) {
+        if (!inRange(key0, 0) || !inRange(key1, 1) || !inRange(key2, 2)) {
+            throw keysOutOfRange(key0, key1, key2);
+        }
+        incrementCell(key0 * strides[0] + key1 * strides[1] + key2, 1L, isError, qual);
+    }
+
+    /**
+     * Count one observation with the given error value at the given keys.  If the cell is empty its estimated
+     * reported quality is initialized to qual, otherwise the existing estimated reported quality is kept.
+     */
+    public void increment4Keys(final byte qual, final double isError, final int key0, final int key1, final int key2, final int key3) {
+        if (!inRange(key0, 0) || !inRange(key1, 1) || !inRange(key2, 2) || !inRange(key3, 3)) {
+            throw keysOutOfRange(key0, key1, key2, key3);
+        }
+        incrementCell(key0 * strides[0] + key1 * strides[1] + key2 * strides[2] + key3, 1L, isError, qual);
+    }
+
+    /**
+     * Add observations and mismatches to the cell with the given row-major index, initializing the cell's estimated
+     * reported quality to reportedQuality if the cell is empty.  The caller is responsible for the index being in range.
+     */
+    void incrementCell(final long cell, final long numObservations, final double numMismatches, final double reportedQuality) {
+        int position = position(cell);
+        if (position < 0) {
+            position = addPosition(cell);
+            estimatedQReported[position] = reportedQuality;
+        }
+        observations[position] += numObservations;
+        scaledMismatches[position] += RecalDatum.scaleNumMismatches(numMismatches);
+        empiricalQuality[position] = RecalDatum.UNINITIALIZED;
+    }
+
+    /**
+     * @return the key in the given dimension of the cell with the given row-major index
+     */
+    int keyOf(final long cell, final int dimension) {
+        return (int) (cell / strides[dimension] % dimensions[dimension]);
+    }
+
+    /**
+     * @return copies of the data of all cells that hold data, in the row-major order of their keys
+     */
+    public List<RecalDatum> getAllValues() {
+        final List<RecalDatum> result = new ArrayList<>(size);
+        for (final long cell : sortedCells()) {
+            result.add(datumAt(position(cell)));
+        }
+        return result;
+    }
+
+    /**
+     * @return the keys and copies of the data of all cells that hold data, in the row-major order of their keys
+     */
+    public List<NestedIntegerArray.Leaf<RecalDatum>> getAllLeaves() {
+        final List<NestedIntegerArray.Leaf<RecalDatum>> result = new ArrayList<>(size);
+        for (final long cell : sortedCells()) {
+            final int[] keys = new int[dimensions.length];
+            for (int d = 0; d < dimensions.length; d++) {
+                keys[d] = keyOf(cell, d);
+            }
+            result.add(new NestedIntegerArray.Leaf<>(keys, datumAt(position(cell))));
+        }
+        return result;
+    }
+
+    private boolean inRange(final int key, final int dimension) {
+        return key >= 0 && key < dimensions[dimension];
+    }
+
+    // only called once the keys are known to be out of range, so the varargs array is not allocated on the hot path
+    private IllegalArgumentException keysOutOfRange(final int... keys) {
+        return new IllegalArgumentException("Keys " + Arrays.toString(keys) + " are out of range for dimensions " + Arrays.toString(dimensions));
+    }
+
+    private long cellOf(final int[] keys) {
+        Utils.validateArg(keys.length == dimensions.length, () -> "Exactly " + dimensions.length + " keys should be passed to this RecalDatumTable but " + keys.length + " were provided");
+        long cell = 0;
+        for (int d = 0; d < keys.length; d++) {
+            if (!inRange(keys[d], d)) {
+                throw new IllegalArgumentException("Key " + keys[d] + " is out of range for dimension " + d + " (max is " + (dimensions[d] - 1) + ")");
+            }
+            cell += keys[d] * strides[d];
+        }
+        return cell;
+    }
+
+    private int position(final long cell) {
+        return positions.get(cell);
+    }
+
+    private int findOrAddPosition(final long cell) {
+        final int position = position(cell);
+        return position < 0 ? addPosition(cell) : position;
+    }
+
+    private int addPosition(final long cell) {
+        if (size == cells.length) {
+            final int newCapacity = 2 * size;
+            cells = Arrays.copyOf(cells, newCapacity);
+            observations = Arrays.copyOf(observations, newCapacity);
+            scaledMismatches = Arrays.copyOf(scaledMismatches, newCapacity);
+            estimatedQReported = Arrays.copyOf(estimatedQReported, newCapacity);
+            empiricalQuality = Arrays.copyOf(empiricalQuality, newCapacity);
+        }
+        cells[size] = cell;
+        positions.put(cell, size);
+        return size++;
+    }
+
+    private RecalDatum datumAt(final int position) {
+        return position < 0 ? null :
+                new RecalDatum(observations[position], scaledMismatches[position], estimatedQReported[position], empiricalQuality[position]);
+    }
+
+    private long[] sortedCells() {
+        final long[] result = Arrays.copyOf(cells, size);
+        Arrays.sort(result);
+        return result;
+    }
+}
@@ -15,7 +15,6 @@ import org.broadinstitute.hellbender.utils.io.Resource;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.read.ReadUtils;
 import org.broadinstitute.hellbender.utils.recalibration.covariates.Covariate;
-import org.broadinstitute.hellbender.utils.recalibration.covariates.CovariateKeyCache;
 import org.broadinstitute.hellbender.utils.recalibration.covariates.ReadCovariates;
 import org.broadinstitute.hellbender.utils.recalibration.covariates.StandardCovariateList;
 import org.broadinstitute.hellbender.utils.report.GATKReport;
@@ -191,7 +190,7 @@ public final class RecalUtils {
 
         GATKReportTable allCovsReportTable = null;
 
-        for (NestedIntegerArray<RecalDatum> table : recalibrationTables){
+        for (RecalDatumTable table : recalibrationTables){
             final ArrayList<Pair<String, String>> columnNames = new ArrayList<>(); // initialize the array to hold the column names
             columnNames.add(new MutablePair<>(covariates.getReadGroupCovariate().parseNameForReport(), "%s")); // save the required covariate name so we can reference it in the future
             if (!recalibrationTables.isReadGroupTable(table)) {
@@ -268,7 +267,7 @@ public final class RecalUtils {
         return result;
     }
 
-    private static String getReportTableName(RecalibrationTables recalibrationTables, NestedIntegerArray<RecalDatum> table) {
+    private static String getReportTableName(RecalibrationTables recalibrationTables, RecalDatumTable table) {
         final String reportTableName;
         if (recalibrationTables.isReadGroupTable(table)){
             return READGROUP_REPORT_TABLE_TITLE;
@@ -365,7 +364,7 @@ public final class RecalUtils {
         final NestedIntegerArray<RecalDatum> deltaTable = createDeltaTable(recalibrationTables, covariates.size());
 
         // add the quality score table to the delta table
-        final NestedIntegerArray<RecalDatum> qualTable = recalibrationTables.getQualityScoreTable();
+        final RecalDatumTable qualTable = recalibrationTables.getQualityScoreTable();
         for (final NestedIntegerArray.Leaf<RecalDatum> leaf : qualTable.getAllLeaves()) { // go through every element in the covariates table to create the delta table
             final int[] newCovs = new int[4];
             newCovs[0] = leaf.keys[0];
@@ -376,7 +375,7 @@ public final class RecalUtils {
         }
 
         // add the optional covariates to the delta table
-        for(final NestedIntegerArray<RecalDatum> covTable : recalibrationTables.getAdditionalTables()){
+        for(final RecalDatumTable covTable : recalibrationTables.getAdditionalTables()){
             for (final NestedIntegerArray.Leaf<RecalDatum> leaf : covTable.getAllLeaves()) {
                 final int[] covs = new int[4];
                 covs[0] = leaf.keys[0];
@@ -428,7 +427,7 @@ public final class RecalUtils {
         final int[] dimensionsForDeltaTable = new int[4];
 
         // initialize the dimensions with those of the qual table to start with
-        final NestedIntegerArray<RecalDatum> qualTable = recalibrationTables.getQualityScoreTable();
+        final RecalDatumTable qualTable = recalibrationTables.getQualityScoreTable();
         final int[] dimensionsOfQualTable = qualTable.getDimensions();
         dimensionsForDeltaTable[0] = dimensionsOfQualTable[0];    // num read groups
         dimensionsForDeltaTable[1] = numCovariates + 1;           // num covariates
@@ -436,7 +435,7 @@ public final class RecalUtils {
         dimensionsForDeltaTable[3] = dimensionsOfQualTable[2];
 
         // now, update the dimensions based on the optional covariate tables as needed
-        for ( final NestedIntegerArray<RecalDatum> covTable : recalibrationTables.getAdditionalTables()) {
+        for ( final RecalDatumTable covTable : recalibrationTables.getAdditionalTables()) {
             final int[] dimensionsOfCovTable = covTable.getDimensions();
             dimensionsForDeltaTable[2] = Math.max(dimensionsForDeltaTable[2], dimensionsOfCovTable[2]);
             dimensionsForDeltaTable[3] = Math.max(dimensionsForDeltaTable[3], dimensionsOfCovTable[3]);
@@ -516,14 +515,17 @@ public final class RecalUtils {
      * value for the ith position in the read and the jth covariate in
      * reqeustedCovariates list.
      *
+     * Allocates a new ReadCovariates, so code that processes many reads should reuse one with
+     * {@link #computeCovariates(GATKRead, SAMFileHeader, StandardCovariateList, ReadCovariates, boolean)} instead.
+     *
      * @param read                The read for which to compute covariate values.
      * @param header              SAM header for the read
      * @param covariates The list of requested covariates.
      * @param recordIndelValues   should we compute covariates for indel BQSR?
      * @return a matrix with all the covariates calculated for every base in the read
      */
-    public static ReadCovariates computeCovariates(final GATKRead read, final SAMFileHeader header, final StandardCovariateList covariates, final boolean recordIndelValues, final CovariateKeyCache keyCache) {
-        final ReadCovariates readCovariates = new ReadCovariates(read.getLength(), covariates.size(), keyCache);
+    public static ReadCovariates computeCovariates(final GATKRead read, final SAMFileHeader header, final StandardCovariateList covariates, final boolean recordIndelValues) {
+        final ReadCovariates readCovariates = new ReadCovariates(covariates.size());
         computeCovariates(read, header, covariates, readCovariates, recordIndelValues);
         return readCovariates;
     }
@@ -536,6 +538,9 @@ public final class RecalUtils {
      * value for the ith position in the read and the jth covariate in
      * covariates list.
      *
+     * The resultsStorage is reset for the read, so it can be reused across reads without any allocation
+     * once it has grown to the length of the longest read.
+     *
      * @param read                The read for which to compute covariate values.
      * @param header              SAM header for the read
      * @param covariates          The list of covariates.
@@ -543,6 +548,7 @@ public final class RecalUtils {
      * @param recordIndelValues   should we compute covariates for indel BQSR?
      */
     public static void computeCovariates(final GATKRead read, final SAMFileHeader header, final StandardCovariateList covariates, final ReadCovariates resultsStorage, final boolean recordIndelValues) {
+        resultsStorage.reset(read.getLength());
         covariates.recordAllValuesInStorage(read, header, resultsStorage, recordIndelValues);
     }
 
@@ -554,7 +560,7 @@ public final class RecalUtils {
      * @param table1 the destination table to merge table2 into
      * @param table2 the source table to merge into table1
      */
-    public static void combineTables(final NestedIntegerArray<RecalDatum> table1, final NestedIntegerArray<RecalDatum> table2) {
+    public static void combineTables(final RecalDatumTable table1, final RecalDatumTable table2) {
         Utils.nonNull(table1, "table1 cannot be null");
         Utils.nonNull(table2, "table2 cannot be null");
         Utils.validateArg(Arrays.equals(table1.getDimensions(), table2.getDimensions()),
@@ -565,7 +571,9 @@ public final class RecalUtils {
             if (myDatum == null) {
                 table1.put(row.value, row.keys);
             } else {
+                // the table holds a copy of the datum, so write the combined datum back
                 myDatum.combine(row.value);
+                table1.put(myDatum, row.keys);
             }
         }
     }
@@ -581,19 +589,11 @@ public final class RecalUtils {
      * @param isError error value for this event
      * @param key0, key1 location in table of our item
      */
-    public static void incrementDatumOrPutIfNecessary2keys( final NestedIntegerArray<RecalDatum> table,
+    public static void incrementDatumOrPutIfNecessary2keys( final RecalDatumTable table,
                                                             final byte qual,
                                                             final double isError,
                                                             final int key0, final int key1) {
-        final RecalDatum existingDatum = table.get2Keys(key0, key1);
-
-        if ( existingDatum == null ) {
-            // No existing item, put a new one
-            table.put(createDatumObject(qual, isError), key0, key1);
-        } else {
-            // Easy case: already an item here, so increment it
-            existingDatum.increment(1L, isError);
-        }
+        table.increment2Keys(qual, isError, key0, key1);
     }
 
     /**
@@ -607,19 +607,11 @@ public final class RecalUtils {
      * @param isError error value for this event
      * @param key0, key1, key2 location in table of our item
      */
-    public static void incrementDatumOrPutIfNecessary3keys( final NestedIntegerArray<RecalDatum> table,
+    public static void incrementDatumOrPutIfNecessary3keys( final RecalDatumTable table,
                                                             final byte qual,
                                                             final double isError,
                                                             final int key0, final int key1, final int key2) {
-        final RecalDatum existingDatum = table.get3Keys(key0, key1, key2);
-
-        if ( existingDatum == null ) {
-            // No existing item, put a new one
-            table.put(createDatumObject(qual, isError), key0, key1, key2);
-        } else {
-            // Easy case: already an item here, so increment it
-            existingDatum.increment(1L, isError);
-        }
+        table.increment3Keys(qual, isError, key0, key1, key2);
     }
 
     /**
@@ -633,31 +625,13 @@ public final class RecalUtils {
      * @param isError error value for this event
      * @param key0, key1, key2, key3 location in table of our item
      */
-    public static void incrementDatumOrPutIfNecessary4keys( final NestedIntegerArray<RecalDatum> table,
+    public static void incrementDatumOrPutIfNecessary4keys( final RecalDatumTable table,
                                                             final byte qual,
                                                             final double isError,
                                                             final int key0,  final int key1, final int key2, final int key3) {
-        final RecalDatum existingDatum = table.get4Keys(key0, key1, key2, key3);
-
-        if ( existingDatum == null ) {
-            // No existing item, put a new one
-            table.put(createDatumObject(qual, isError), key0, key1, key2, key3);
-        } else {
-            // Easy case: already an item here, so increment it
-            existingDatum.increment(1L, isError);
-        }
+        table.increment4Keys(qual, isError, key0, key1, key2, key3);
     }
 
-    /**
-     * creates a datum object with one observation and one or zero error
-     *
-     * @param reportedQual  the quality score reported by the instrument for this base
-     * @param isError       whether or not the observation is an error
-     * @return a new RecalDatum object with the observation and the error
-     */
-    private static RecalDatum createDatumObject(final byte reportedQual, final double isError) {
-        return new RecalDatum(1, isError, reportedQual);
-    }
 
     /**
      * Retrieve the BQSR.R script
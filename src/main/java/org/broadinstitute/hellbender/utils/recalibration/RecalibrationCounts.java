@@ -0,0 +1,116 @@
+package org.broadinstitute.hellbender.utils.recalibration;
+
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.Arrays;
+
+/**
+ * The observations and mismatches of the quality score table and of the additional covariate tables of a
+ * {@link RecalibrationTables}, accumulated in primitive arrays.
+ *
+ * Each thread of a concurrent {@link BaseRecalibrationEngine} accumulates into its own instance without any
+ * synchronization, and the counts of all threads are added to the recalibration tables once all reads have been
+ * processed.  The cells of each table are identified by their index in the row-major order of the table's dimensions,
+ * and the counts are stored densely in the order in which their cells were first seen, with {@link CellPositions}
+ * giving the position of each cell in the arrays.
+ *
+ * The cells are numbered in the same order as those of a {@link RecalDatumTable}, and the reported quality of a cell is its
+ * quality score key, as in {@link RecalUtils#incrementDatumOrPutIfNecessary3keys}.
+ *
+ * This class is not thread-safe.
+ */
+final class RecalibrationCounts {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final TableCounts[] tables;
+
+    /**
+     * @param recalTables the tables whose counts to accumulate
+     */
+    RecalibrationCounts(final RecalibrationTables recalTables) {
+        Utils.nonNull(recalTables);
+        tables = new TableCounts[recalTables.numTables()];
+        for (int i = 0; i < tables.length; i++) {
+            // the read group table is derived from the quality score table when the tables are finalized
+            if (!recalTables.isReadGroupTable(recalTables.getTable(i))) {
+                tables[i] = new TableCounts(recalTables.getTable(i).getDimensions());
+            }
+        }
+    }
+
+    /**
+     * Count one observation in the cell of the table with the given index with three keys
+     */
+    void increment3keys(final int tableIndex, final double isError, final int key0, final int key1, final int key2) {
+        final TableCounts table = tables[tableIndex];
+        table.increment(((long) key0 * table.dimensions[1] + key1) * table.dimensions[2] + key2, isError);
+    }
+
+    /**
+     * Count one observation in the cell of the table with the given index with four keys
+     */
+    void increment4keys(final int tableIndex, final double isError, final int key0, final int key1, final int key2, final int key3) {
+        final TableCounts table = tables[tableIndex];
+        table.increment((((long) key0 * table.dimensions[1] + key1) * table.dimensions[2] + key2) * table.dimensions[3] + key3, isError);
+    }
+
+    /**
+     * Add all counts to the corresponding tables of recalTables, which must have the same layout as the tables these
+     * counts were created for
+     */
+    void addTo(final RecalibrationTables recalTables) {
+        Utils.validateArg(recalTables.numTables() == tables.length, "Attempting to add counts to RecalibrationTables with different sizes");
+        for (int i = 0; i < tables.length; i++) {
+            if (tables[i] != null) {
+                tables[i].addTo(recalTables.getTable(i));
+            }
+        }
+    }
+
+    private static final class TableCounts {
+        private final int[] dimensions;
+        private final CellPositions positions;
+
+        // the cell index, observations and mismatches of each position
+        private long[] cells = new long[INITIAL_CAPACITY];
+        private long[] observations = new long[INITIAL_CAPACITY];
+        private double[] mismatches = new double[INITIAL_CAPACITY];
+        private int size = 0;
+
+        private TableCounts(final int[] dimensions) {
+            this.dimensions = dimensions.clone();
+            positions = new CellPositions(this.dimensions);
+        }
+
+        private void increment(final long cell, final double isError) {
+            int position = positions.get(cell);
+            if (position < 0) {
+                position = add(cell);
+            }
+            observations[position]++;
+            mismatches[position] += isError;
+        }
+
+        private int add(final long cell) {
+            if (size == cells.length) {
+                cells = Arrays.copyOf(cells, 2 * size);
+                observations = Arrays.copyOf(observations, 2 * size);
+                mismatches = Arrays.copyOf(mismatches, 2 * size);
+            }
+            cells[size] = cell;
+            positions.put(cell, size);
+            return size++;
+        }
+
+        private void addTo(final RecalDatumTable table) {
+            Utils.validateArg(Arrays.equals(dimensions, table.getDimensions()),
+                    () -> "Table dimensions " + Arrays.toString(table.getDimensions()) + " not equal to " + Arrays.toString(dimensions));
+            // the cells of the table are numbered in the same row-major order as ours
+            for (int position = 0; position < size; position++) {
+                // the quality score key is the second key of every table with counts
+                final long cell = cells[position];
+                table.incrementCell(cell, observations[position], mismatches[position], table.keyOf(cell, 1));
+            }
+        }
+    }
+}
@@ -8,7 +8,6 @@ import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.QualityUtils;
 import org.broadinstitute.hellbender.utils.Utils;
-import org.broadinstitute.hellbender.utils.collections.NestedIntegerArray;
 import org.broadinstitute.hellbender.utils.recalibration.covariates.Covariate;
 import org.broadinstitute.hellbender.utils.recalibration.covariates.StandardCovariateList;
 import org.broadinstitute.hellbender.utils.report.GATKReport;
@@ -160,8 +159,8 @@ public final class RecalibrationReport {
             return this;
         }
         for ( int tableIndex = 0; tableIndex < recalibrationTables.numTables(); tableIndex++ ) {
-            final NestedIntegerArray<RecalDatum> myTable = recalibrationTables.getTable(tableIndex);
-            final NestedIntegerArray<RecalDatum> otherTable = other.recalibrationTables.getTable(tableIndex);
+            final RecalDatumTable myTable = recalibrationTables.getTable(tableIndex);
+            final RecalDatumTable otherTable = other.recalibrationTables.getTable(tableIndex);
             RecalUtils.combineTables(myTable, otherTable);
         }
         return this;
@@ -226,7 +225,7 @@ public final class RecalibrationReport {
      * @param reportTable            the GATKReport table containing data for this table
      * @param qualTable               the map representing this table
      */
-    private void parseQualityScoreTable(final GATKReportTable reportTable, final NestedIntegerArray<RecalDatum> qualTable) {
+    private void parseQualityScoreTable(final GATKReportTable reportTable, final RecalDatumTable qualTable) {
         final int[] tempQUALarray = new int[3];
         for ( int i = 0; i < reportTable.getNumRows(); i++ ) {
             final Object rg = reportTable.get(i, RecalUtils.READGROUP_COLUMN_NAME);
@@ -246,7 +245,7 @@ public final class RecalibrationReport {
      * @param reportTable            the GATKReport table containing data for this table
      * @param rgTable                the map representing this table
      */
-    private void parseReadGroupTable(final GATKReportTable reportTable, final NestedIntegerArray<RecalDatum> rgTable) {
+    private void parseReadGroupTable(final GATKReportTable reportTable, final RecalDatumTable rgTable) {
         final int[] tempRGarray = new int[2];
         for ( int i = 0; i < reportTable.getNumRows(); i++ ) {
             final Object rg = reportTable.get(i, RecalUtils.READGROUP_COLUMN_NAME);
@@ -3,7 +3,6 @@ package org.broadinstitute.hellbender.utils.recalibration;
 import org.broadinstitute.hellbender.utils.recalibration.covariates.Covariate;
 import org.broadinstitute.hellbender.utils.recalibration.covariates.StandardCovariateList;
 import org.broadinstitute.hellbender.utils.Utils;
-import org.broadinstitute.hellbender.utils.collections.NestedIntegerArray;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -14,8 +13,10 @@ import java.util.Map;
 
 /**
  * Utility class to facilitate base quality score recalibration.
+ *
+ * Holds one {@link RecalDatumTable} per covariate, each of which stores its data column-wise in primitive arrays.
  */
-public final class RecalibrationTables implements Serializable, Iterable<NestedIntegerArray<RecalDatum>> {
+public final class RecalibrationTables implements Serializable, Iterable<RecalDatumTable> {
     private static final long serialVersionUID = 1L;
     private final int qualDimension;
     private final int eventDimension = EventType.values().length;
@@ -24,15 +25,15 @@ public final class RecalibrationTables implements Serializable, Iterable<NestedI
     final StandardCovariateList covariates;  // save the covariates this was created with
 
     //These two tables are special
-    private final NestedIntegerArray<RecalDatum> readGroupTable;
-    private final NestedIntegerArray<RecalDatum> qualityScoreTable;
+    private final RecalDatumTable readGroupTable;
+    private final RecalDatumTable qualityScoreTable;
 
-    private final List<NestedIntegerArray<RecalDatum>> additionalTables;
-    private final List<NestedIntegerArray<RecalDatum>> allTables;    //special + additional
+    private final List<RecalDatumTable> additionalTables;
+    private final List<RecalDatumTable> allTables;    //special + additional
 
     //bidirectional mappings
-    private final Map<Covariate, NestedIntegerArray<RecalDatum>> covariateToTable;
-    private final Map<NestedIntegerArray<RecalDatum>, Covariate> tableToCovariate;
+    private final Map<Covariate, RecalDatumTable> covariateToTable;
+    private final Map<RecalDatumTable, Covariate> tableToCovariate;
 
 
 
@@ -51,7 +52,7 @@ public final class RecalibrationTables implements Serializable, Iterable<NestedI
         this.numReadGroups = numReadGroups;
 
         //two special tables
-        this.readGroupTable = new NestedIntegerArray<>(numReadGroups, eventDimension);
+        this.readGroupTable = new RecalDatumTable(numReadGroups, eventDimension);
         allTables.add(readGroupTable);
         covariateToTable.put(covariates.getReadGroupCovariate(), readGroupTable);
         tableToCovariate.put(readGroupTable, covariates.getReadGroupCovariate());
@@ -63,7 +64,7 @@ public final class RecalibrationTables implements Serializable, Iterable<NestedI
 
         //Non-special tables
         for (Covariate cov : covariates.getAdditionalCovariates()){
-            final NestedIntegerArray<RecalDatum> table = new NestedIntegerArray<>(numReadGroups, qualDimension, cov.maximumKeyValue() + 1, eventDimension);
+            final RecalDatumTable table = new RecalDatumTable(numReadGroups, qualDimension, cov.maximumKeyValue() + 1, eventDimension);
             additionalTables.add(table);
             allTables.add(table);
             covariateToTable.put(cov, table);
@@ -71,35 +72,35 @@ public final class RecalibrationTables implements Serializable, Iterable<NestedI
         }
     }
 
-    public NestedIntegerArray<RecalDatum> getTableForCovariate(Covariate cov) {
+    public RecalDatumTable getTableForCovariate(Covariate cov) {
         return covariateToTable.get(cov);
     }
 
-    public Covariate getCovariateForTable(NestedIntegerArray<RecalDatum> table) {
+    public Covariate getCovariateForTable(RecalDatumTable table) {
         return tableToCovariate.get(table);
     }
 
-    public boolean isReadGroupTable(NestedIntegerArray<RecalDatum> table) {
-        //Note: NestedIntegerArray does not implement equals so we use reference identity to check equality
-        //to explicitly check identity (and future-proof against an equals method in NestedIntegerArray).
+    public boolean isReadGroupTable(RecalDatumTable table) {
+        //Note: RecalDatumTable does not implement equals so we use reference identity to check equality
+        //to explicitly check identity (and future-proof against an equals method in RecalDatumTable).
         return table == getReadGroupTable();
     }
 
-    public boolean isQualityScoreTable(NestedIntegerArray<RecalDatum> table) {
-        //Note: NestedIntegerArray does not implement equals so we use reference identity to check equality
-        //to explicitly check identity (and future-proof against an equals method in NestedIntegerArray).
+    public boolean isQualityScoreTable(RecalDatumTable table) {
+        //Note: RecalDatumTable does not implement equals so we use reference identity to check equality
+        //to explicitly check identity (and future-proof against an equals method in RecalDatumTable).
         return table == getQualityScoreTable();
     }
 
-    public boolean isAdditionalCovariateTable(NestedIntegerArray<RecalDatum> table) {
+    public boolean isAdditionalCovariateTable(RecalDatumTable table) {
         return additionalTables.contains(table);
     }
 
-    public NestedIntegerArray<RecalDatum> getReadGroupTable() {
+    public RecalDatumTable getReadGroupTable() {
         return readGroupTable;
     }
 
-    public NestedIntegerArray<RecalDatum> getQualityScoreTable() {
+    public RecalDatumTable getQualityScoreTable() {
         return qualityScoreTable;
     }
 
@@ -108,7 +109,7 @@ public final class RecalibrationTables implements Serializable, Iterable<NestedI
     }
 
     @Override
-    public Iterator<NestedIntegerArray<RecalDatum>> iterator() {
+    public Iterator<RecalDatumTable> iterator() {
         return allTables.iterator();
     }
 
@@ -116,8 +117,8 @@ public final class RecalibrationTables implements Serializable, Iterable<NestedI
      * @return true if all the tables contain no RecalDatums
      */
     public boolean isEmpty() {
-        for( final NestedIntegerArray<RecalDatum> table : allTables ) {
-            if( !table.getAllValues().isEmpty() ) { return false; }
+        for( final RecalDatumTable table : allTables ) {
+            if( !table.isEmpty() ) { return false; }
         }
         return true;
     }
@@ -127,8 +128,8 @@ public final class RecalibrationTables implements Serializable, Iterable<NestedI
      * in this set of tables, without any data in it.
      * @return a newly allocated, empty read group x quality score table
      */
-    public NestedIntegerArray<RecalDatum> makeQualityScoreTable() {
-        return new NestedIntegerArray<>(numReadGroups, qualDimension, eventDimension);
+    public RecalDatumTable makeQualityScoreTable() {
+        return new RecalDatumTable(numReadGroups, qualDimension, eventDimension);
     }
 
     /**
@@ -139,8 +140,8 @@ public final class RecalibrationTables implements Serializable, Iterable<NestedI
             throw new IllegalArgumentException("Attempting to merge RecalibrationTables with different sizes");
 
         for ( int i = 0; i < numTables(); i++ ) {
-            final NestedIntegerArray<RecalDatum> myTable = this.allTables.get(i);
-            final NestedIntegerArray<RecalDatum> otherTable = toMerge.allTables.get(i);
+            final RecalDatumTable myTable = this.allTables.get(i);
+            final RecalDatumTable otherTable = toMerge.allTables.get(i);
             RecalUtils.combineTables(myTable, otherTable);
         }
 
@@ -179,11 +180,11 @@ public final class RecalibrationTables implements Serializable, Iterable<NestedI
     }
 
     //XXX this should not be accessible by index
-    public NestedIntegerArray<RecalDatum> getTable(int index) {
+    public RecalDatumTable getTable(int index) {
         return allTables.get(index);
     }
 
-    public List<NestedIntegerArray<RecalDatum>> getAdditionalTables() {
+    public List<RecalDatumTable> getAdditionalTables() {
         return additionalTables;
     }
 }
@@ -2,8 +2,6 @@ package org.broadinstitute.hellbender.utils.recalibration.covariates;
 
 import com.google.common.annotations.VisibleForTesting;
 import htsjdk.samtools.SAMFileHeader;
-import it.unimi.dsi.fastutil.ints.IntArrayList;
-import it.unimi.dsi.fastutil.ints.IntList;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.broadinstitute.barclay.argparser.CommandLineException;
@@ -58,42 +56,60 @@ public final class ContextCovariate implements Covariate {
     @Override
     public void recordValues(final GATKRead read, final SAMFileHeader header, final ReadCovariates values, final boolean recordIndelValues) {
 
-        final int originalReadLength = read.getLength();
+        final int readLength = read.getLength();
 
-        // store the original bases and then write Ns over low quality ones
-        final byte[] strandedClippedBases = getStrandedClippedBytes(read, lowQualTail);  //Note: this makes a copy of the read
-
-        //Note: we're using a non-standard library here because boxing came up on profiling as taking 20% of time in applyBQSR.
-        //IntList avoids boxing
-        final IntList mismatchKeys = contextWith(strandedClippedBases, mismatchesContextSize, mismatchesKeyMask);
-
-        final int readLengthAfterClipping = strandedClippedBases.length;
+        // the low quality tails of the read are treated as Ns, as if written over by ReadClipper.clipLowQualEnds,
+        // but without making a clipped copy of the read
+        int leftClipIndex = 0;
+        int rightClipIndex = readLength - 1;
+        while (rightClipIndex >= 0 && read.getBaseQuality(rightClipIndex) <= lowQualTail) {
+            rightClipIndex--;
+        }
+        while (leftClipIndex < readLength && read.getBaseQuality(leftClipIndex) <= lowQualTail) {
+            leftClipIndex++;
+        }
 
-        // this is necessary to ensure that we don't keep historical data in the ReadCovariates values
-        // since the context covariate may not span the entire set of values in read covariates
-        // due to the clipping of the low quality bases
-        if ( readLengthAfterClipping != originalReadLength) {
-            // don't bother zeroing out if we are going to overwrite the whole array
-            for ( int i = 0; i < originalReadLength; i++ ){
-                // this base has been clipped off, so zero out the covariate values here
+        // if the entire read is clipped there are no contexts, and we zero out the covariate values here
+        // so that we don't keep historical data in the ReadCovariates values
+        if (leftClipIndex > rightClipIndex) {
+            for (int i = 0; i < readLength; i++) {
                 values.addCovariate(0, 0, 0, i);
             }
+            return;
         }
 
         final boolean negativeStrand = read.isReverseStrand();
-
-        //Note: duplicated the loop to avoid checking recordIndelValues on each iteration
-        if (recordIndelValues) {
-            final IntList indelKeys = contextWith(strandedClippedBases, indelsContextSize, indelsKeyMask);
-            for (int i = 0; i < readLengthAfterClipping; i++) {
-                final int readOffset = getStrandedOffset(negativeStrand, i, readLengthAfterClipping);
-                final int indelKey = indelKeys.getInt(i);
-                values.addCovariate(mismatchKeys.getInt(i), indelKey, indelKey, readOffset);
+        final int mismatchesNewBaseOffset = 2 * (mismatchesContextSize - 1) + LENGTH_BITS;
+        final int indelsNewBaseOffset = 2 * (indelsContextSize - 1) + LENGTH_BITS;
+
+        // Walk the read in the direction of sequencing, rolling each new base into the keys of the contexts ending at
+        // it, and write the keys directly into values.  The key of the context ending at the i-th stranded base is the
+        // same as keyFromContext for the contextSize bases ending there, or -1 if that doesn't span contextSize bases
+        // or spans a non-ACGT base.
+        int mismatchKey = 0;
+        int indelKey = 0;
+        int lastNonACGTIndex = -1;
+        for (int i = 0; i < readLength; i++) {
+            final int readOffset = getStrandedOffset(negativeStrand, i, readLength);
+            final int baseIndex = readOffset < leftClipIndex || readOffset > rightClipIndex ? -1 :
+                    BaseUtils.simpleBaseToBaseIndex(negativeStrand ? BaseUtils.simpleComplement(read.getBase(readOffset)) : read.getBase(readOffset));
+            if (baseIndex == -1) {
+                lastNonACGTIndex = i;
+            } else {
+                // push this base's contribution onto the keys: shift everything 2 bits, mask out the non-context bits, and add the new base and the length in
+                mismatchKey = ((mismatchKey >> 2) & mismatchesKeyMask) | (baseIndex << mismatchesNewBaseOffset) | mismatchesContextSize;
+                indelKey = ((indelKey >> 2) & indelsKeyMask) | (baseIndex << indelsNewBaseOffset) | indelsContextSize;
             }
-        } else {
-            for (int i = 0; i < readLengthAfterClipping; i++) {
-                final int readOffset = getStrandedOffset(negativeStrand, i, readLengthAfterClipping);
-                values.addCovariate(mismatchKeys.getInt(i), 0, 0, readOffset);
+
+            // the number of ACGT bases ending at this one
+            final int numACGTBases = i - lastNonACGTIndex;
+            final int mismatchContext = numACGTBases >= mismatchesContextSize ? mismatchKey : -1;
+            //Note: check recordIndelValues in this loop rather than duplicating the loop, since the indel keys are computed anyway
+            if (recordIndelValues) {
+                final int indelContext = numACGTBases >= indelsContextSize ? indelKey : -1;
+                values.addCovariate(mismatchContext, indelContext, indelContext, readOffset);
+            } else {
+                values.addCovariate(mismatchContext, 0, 0, readOffset);
             }
         }
     }
@@ -153,72 +169,6 @@ public final class ContextCovariate implements Covariate {
         return mask << LENGTH_BITS;
     }
 
-    /**
-     * calculates the context of a base independent of the covariate mode (mismatch, insertion or deletion)
-     *
-     * @param bases       the bases in the read to build the context from
-     * @param contextSize context size to use building the context
-     * @param mask        mask for pulling out just the context bits
-     */
-    private static IntList contextWith(final byte[] bases, final int contextSize, final int mask) {
-
-        final int readLength = bases.length;
-
-        //Note: we use a specialized collection to avoid the cost of boxing and unboxing that otherwise comes up on the profiler.
-        final IntList keys = new IntArrayList(readLength);
-
-        // the first contextSize-1 bases will not have enough previous context
-        for (int i = 1; i < contextSize && i <= readLength; i++) {
-            keys.add(-1);
-        }
-
-        if (readLength < contextSize) {
-            return keys;
-        }
-
-        final int newBaseOffset = 2 * (contextSize - 1) + LENGTH_BITS;
-
-        // get (and add) the key for the context starting at the first base
-        int currentKey = keyFromContext(bases, 0, contextSize);
-        keys.add(currentKey);
-
-        // if the first key was -1 then there was an non-ACGT in the context; figure out how many more consecutive contexts it affects
-        int currentNPenalty = 0;
-        if (currentKey == -1) {
-            currentKey = 0;
-            currentNPenalty = contextSize - 1;
-            int offset = newBaseOffset;
-            int baseIndex;
-            while ((baseIndex = BaseUtils.simpleBaseToBaseIndex(bases[currentNPenalty])) != -1) {
-                currentKey |= (baseIndex << offset);
-                offset -= 2;
-                currentNPenalty--;
-            }
-        }
-
-        for (int currentIndex = contextSize; currentIndex < readLength; currentIndex++) {
-            final int baseIndex = BaseUtils.simpleBaseToBaseIndex(bases[currentIndex]);
-            if (baseIndex == -1) { // ignore non-ACGT bases
-                currentNPenalty = contextSize;
-                currentKey = 0; // reset the key
-            } else {
-                // push this base's contribution onto the key: shift everything 2 bits, mask out the non-context bits, and add the new base and the length in
-                currentKey = (currentKey >> 2) & mask;
-                currentKey |= (baseIndex << newBaseOffset);
-                currentKey |= contextSize;
-            }
-
-            if (currentNPenalty == 0) {
-                keys.add(currentKey);
-            } else {
-                currentNPenalty--;
-                keys.add(-1);
-            }
-        }
-
-        return keys;
-    }
-
     public static int keyFromContext(final String dna) {
         return keyFromContext(dna.getBytes(), 0, dna.length());
     }
@@ -5,16 +5,38 @@ import org.apache.logging.log4j.Logger;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.recalibration.EventType;
 
+import java.util.Arrays;
+
 /**
  * The object temporarily held by a read that describes all of its covariates.
+ *
+ * A ReadCovariates is meant to be reused across reads: {@link #reset} prepares it for a read of a given length, and the
+ * keys of all event types, read offsets and covariates are kept in a single flat array that only grows when a read is
+ * longer than any seen before.  Once the longest read has been seen, computing the covariates of a read allocates nothing.
+ * The keys of a read are only valid until the next call to {@link #reset}.
+ *
+ * This class is not thread-safe, so each thread should use its own instance.
  */
 public final class ReadCovariates {
     private static final Logger logger = LogManager.getLogger(ReadCovariates.class);
 
+    private static final int NUM_EVENT_TYPES = EventType.values().length;
+    private static final int BASE_SUBSTITUTION_INDEX = EventType.BASE_SUBSTITUTION.ordinal();
+    private static final int BASE_INSERTION_INDEX = EventType.BASE_INSERTION.ordinal();
+    private static final int BASE_DELETION_INDEX = EventType.BASE_DELETION.ordinal();
+
+    private final int numberOfCovariates;
+
+    /**
+     * Our keys, indexed by event type x read offset x covariate, with room for capacity read offsets per event type
+     */
+    private int[] keys = new int[0];
+    private int capacity = 0;
+
     /**
-     * Our keys, indexed by event type x read length x covariate
+     * The length of the current read
      */
-    private final int[][][] keys;
+    private int readLength = 0;
 
     /**
      * The index of the current covariate, used by addCovariate
@@ -22,20 +44,41 @@ public final class ReadCovariates {
     private int currentCovariateIndex = 0;
 
     /**
-     * Use an LRU cache to keep cache of keys (int[][][]) arrays for each read length we've seen.
-     * The cache allows us to avoid the expense of recreating these arrays for every read.  The LRU
-     * keeps the total number of cached arrays to less than LRU_CACHE_SIZE.
+     * Creates an empty ReadCovariates, which must be {@link #reset} for each read before its covariates are recorded.
      */
-    public ReadCovariates(final int readLength, final int numberOfCovariates, final CovariateKeyCache keysCache) {
-        Utils.nonNull(keysCache);
-        final int[][][] cachedKeys = keysCache.get(readLength);
-        if ( cachedKeys == null ) {
-            if ( logger.isDebugEnabled() ) logger.debug("Keys cache miss for length " + readLength + " cache size " + keysCache.size());
-            keys = new int[EventType.values().length][readLength][numberOfCovariates];
-            keysCache.put(readLength, keys);
-        } else {
-            keys = cachedKeys;
+    public ReadCovariates(final int numberOfCovariates) {
+        Utils.validateArg(numberOfCovariates > 0, () -> "numberOfCovariates must be positive but was " + numberOfCovariates);
+        this.numberOfCovariates = numberOfCovariates;
+    }
+
+    /**
+     * Creates a ReadCovariates ready to record the covariates of a read with the given length.
+     */
+    public ReadCovariates(final int readLength, final int numberOfCovariates) {
+        this(numberOfCovariates);
+        reset(readLength);
+    }
+
+    /**
+     * Prepare to record the covariates of a read with the given length, growing the keys if the read is longer than
+     * any seen so far.  The keys of the previous read are no longer valid after this call.
+     */
+    public void reset(final int readLength) {
+        Utils.validateArg(readLength >= 0, () -> "readLength must be non-negative but was " + readLength);
+        if ( readLength > capacity ) {
+            if ( logger.isDebugEnabled() ) logger.debug("Growing covariate keys from read length " + capacity + " to " + readLength);
+            capacity = readLength;
+            keys = new int[NUM_EVENT_TYPES * capacity * numberOfCovariates];
         }
+        this.readLength = readLength;
+        currentCovariateIndex = 0;
+    }
+
+    /**
+     * @return the length of the read whose covariates are held
+     */
+    public int getReadLength() {
+        return readLength;
     }
 
     public void setCovariateIndex(final int index) {
@@ -45,34 +88,63 @@ public final class ReadCovariates {
     /**
      * Update the keys for mismatch, insertion, and deletion for the current covariate at read offset
      *
-     * NOTE: no checks are performed on the number of covariates, for performance reasons.  If the count increases
-     * after the keysCache has been accessed, this method will throw an ArrayIndexOutOfBoundsException.  This currently
-     * only occurs in the testing harness, and we don't anticipate that it will become a part of normal runs.
+     * NOTE: no checks are performed on the read offset or the number of covariates, for performance reasons.  Keys
+     * written at an offset beyond the length of the current read or for a covariate index beyond the number of
+     * covariates are either lost or overwrite the keys of other offsets.
      *
      * @param mismatch the mismatch key value
      * @param insertion the insertion key value
      * @param deletion the deletion key value
-     * @param readOffset the read offset, must be >= 0 and <= the read length used to create this ReadCovariates
+     * @param readOffset the read offset, must be >= 0 and < the read length passed to {@link #reset}
      */
     public void addCovariate(final int mismatch, final int insertion, final int deletion, final int readOffset) {
-        keys[EventType.BASE_SUBSTITUTION.ordinal()][readOffset][currentCovariateIndex] = mismatch;
-        keys[EventType.BASE_INSERTION.ordinal()][readOffset][currentCovariateIndex] = insertion;
-        keys[EventType.BASE_DELETION.ordinal()][readOffset][currentCovariateIndex] = deletion;
+        final int index = readOffset * numberOfCovariates + currentCovariateIndex;
+        final int eventStride = capacity * numberOfCovariates;
+        keys[BASE_SUBSTITUTION_INDEX * eventStride + index] = mismatch;
+        keys[BASE_INSERTION_INDEX * eventStride + index] = insertion;
+        keys[BASE_DELETION_INDEX * eventStride + index] = deletion;
     }
 
     /**
-     * Get the keys for all covariates at read position for error model
+     * Get the flat array of all keys, for use together with {@link #getKeySetOffset} in performance-critical code.
+     * The keys of the covariate with index i at read position p for error model e are at getKeySetOffset(p, e) + i.
+     *
+     * @return the keys of all event types, read positions and covariates.  DO NOT MODIFY
+     */
+    public int[] getKeys() {
+        return keys;
+    }
+
+    /**
+     * @return the index in {@link #getKeys} of the key of the first covariate at the given read position for the given error model
+     */
+    public int getKeySetOffset(final int readPosition, final EventType errorModel) {
+        return (errorModel.ordinal() * capacity + readPosition) * numberOfCovariates;
+    }
+
+    /**
+     * Get a copy of the keys for all covariates at read position for error model.
+     * Performance-critical code should use {@link #getKeys} instead.
      *
      * @param readPosition
      * @param errorModel
      * @return
      */
     public int[] getKeySet(final int readPosition, final EventType errorModel) {
-        return keys[errorModel.ordinal()][readPosition];
+        final int start = getKeySetOffset(readPosition, errorModel);
+        return Arrays.copyOfRange(keys, start, start + numberOfCovariates);
     }
 
+    /**
+     * Get a copy of the keys for all covariates at every read position for error model.
+     * Performance-critical code should use {@link #getKeys} instead.
+     */
     public int[][] getKeySet(final EventType errorModel) {
-        return keys[errorModel.ordinal()];
+        final int[][] result = new int[readLength][];
+        for ( int readPosition = 0; readPosition < readLength; readPosition++ ) {
+            result[readPosition] = getKeySet(readPosition, errorModel);
+        }
+        return result;
     }
 
     // ----------------------------------------------------------------------
@@ -0,0 +1,124 @@
+package org.broadinstitute.hellbender.utils.runtime;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Consumer;
+
+/**
+ * Runs tasks on a fixed pool of worker threads, but hands their results to a consumer in the order in
+ * which the tasks were submitted. The consumer is always invoked on the thread that calls {@link #submit}
+ * or {@link #drain}, never on a worker thread, so it can safely write to non-thread-safe outputs.
+ *
+ * The number of tasks that may be in flight (running, queued, or completed but not yet consumed) is bounded
+ * by {@code maxPendingTasks}: once that bound is reached, {@link #submit} blocks on the oldest outstanding task
+ * and consumes its result before accepting new work. This bounds both memory usage and the distance by which
+ * output can lag behind input.
+ *
+ * Exceptions thrown by a task are re-thrown on the submitting thread when that task's result is consumed.
+ *
+ * @param <T> type of the task results
+ */
+public final class OrderedParallelExecutor<T> implements AutoCloseable {
+
+    private final ExecutorService executorService;
+    private final Deque<Future<T>> pendingTasks;
+    private final int maxPendingTasks;
+    private final Consumer<T> resultConsumer;
+
+    /**
+     * @param threadNamePrefix prefix for the names of the worker threads
+     * @param numThreads number of worker threads (must be >= 1)
+     * @param maxPendingTasks maximum number of tasks that may be outstanding at once (must be >= numThreads)
+     * @param resultConsumer consumer to which task results are passed, in submission order
+     */
+    public OrderedParallelExecutor(final String threadNamePrefix, final int numThreads, final int maxPendingTasks, final Consumer<T> resultConsumer) {
+        Utils.nonNull(threadNamePrefix);
+        Utils.validateArg(numThreads >= 1, "numThreads must be >= 1");
+        Utils.validateArg(maxPendingTasks >= numThreads, "maxPendingTasks must be >= numThreads");
+
+        final ThreadFactory threadFactory = new ThreadFactoryBuilder()
+                .setNameFormat(threadNamePrefix + "-%d")
+                .setDaemon(true).build();
+        this.executorService = Executors.newFixedThreadPool(numThreads, threadFactory);
+        this.pendingTasks = new ArrayDeque<>(maxPendingTasks);
+        this.maxPendingTasks = maxPendingTasks;
+        this.resultConsumer = Utils.nonNull(resultConsumer);
+    }
+
+    /**
+     * Submit a task for execution on the worker pool. Before returning, the results of any tasks at the head
+     * of the queue that have already completed are passed to the consumer. If the queue is full, blocks until
+     * the oldest outstanding task completes.
+     *
+     * @param task task to run
+     */
+    public void submit(final Callable<T> task) {
+        Utils.nonNull(task);
+
+        while ( pendingTasks.size() >= maxPendingTasks ) {
+            consumeNext();
+        }
+        pendingTasks.addLast(executorService.submit(task));
+
+        while ( ! pendingTasks.isEmpty() && pendingTasks.peekFirst().isDone() ) {
+            consumeNext();
+        }
+    }
+
+    /**
+     * Block until all submitted tasks have completed, and pass their results to the consumer in submission order.
+     */
+    public void drain() {
+        while ( ! pendingTasks.isEmpty() ) {
+            consumeNext();
+        }
+    }
+
+    /**
+     * @return the number of submitted tasks whose results have not yet been consumed
+     */
+    public int getNumPendingTasks() {
+        return pendingTasks.size();
+    }
+
+    private void consumeNext() {
+        final Future<T> nextTask = pendingTasks.pollFirst();
+        final T result;
+        try {
+            result = nextTask.get();
+        } catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while waiting for a parallel task to complete", e);
+        } catch ( final ExecutionException e ) {
+            final Throwable cause = e.getCause();
+            if ( cause instanceof RuntimeException ) {
+                throw (RuntimeException) cause;
+            } else if ( cause instanceof Error ) {
+                throw (Error) cause;
+            }
+            throw new GATKException("Exception thrown by a parallel task", cause);
+        }
+        resultConsumer.accept(result);
+    }
+
+    /**
+     * Shut down the worker pool, cancelling any tasks whose results have not been consumed. Callers that want
+     * all results must call {@link #drain} first.
+     */
+    @Override
+    public void close() {
+        pendingTasks.forEach(task -> task.cancel(true));
+        pendingTasks.clear();
+        executorService.shutdownNow();
+    }
+}
@@ -0,0 +1,151 @@
+package org.broadinstitute.hellbender.utils.runtime;
+
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Accumulates the wall-clock time spent in each {@link Stage} of a traversal, for runtime metrics reporting.
+ *
+ * Usage: {@code final long start = timer.start(); ...; timer.stop(Stage.APPLY, start);}
+ *
+ * A disabled timer ({@link #DISABLED}) never reads the clock, so instrumented code paths cost next to nothing when
+ * metrics are not requested. Times may be accumulated from several threads at once, in which case they are summed
+ * across threads. Stages may nest: for example, time spent {@link Stage#WRITING} output from within a tool's apply()
+ * is also counted towards {@link Stage#APPLY}.
+ */
+public final class StageTimer {
+
+    /**
+     * The traversal stages we keep track of
+     */
+    public enum Stage {
+        /** Reading and decoding records from the primary input */
+        READ_DECODING("readDecoding"),
+        /** Applying read filters */
+        FILTERING("filtering"),
+        /** Running the tool's apply() method */
+        APPLY("apply"),
+        /** Writing output records */
+        WRITING("writing");
+
+        private final String metricName;
+
+        Stage(final String metricName) {
+            this.metricName = metricName;
+        }
+
+        /**
+         * @return name of this stage in metrics output
+         */
+        public String getMetricName() {
+            return metricName;
+        }
+    }
+
+    /**
+     * A timer that records nothing
+     */
+    public static final StageTimer DISABLED = new StageTimer(false);
+
+    private final boolean enabled;
+    private final LongAdder[] cumulativeNanos;
+
+    /**
+     * Create an enabled timer with no time accumulated for any stage
+     */
+    public StageTimer() {
+        this(true);
+    }
+
+    private StageTimer(final boolean enabled) {
+        this.enabled = enabled;
+        this.cumulativeNanos = new LongAdder[Stage.values().length];
+        for ( int i = 0; i < cumulativeNanos.length; i++ ) {
+            cumulativeNanos[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @return true if this timer records time
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the start time to pass to {@link #stop}, or 0 if this timer is disabled
+     */
+    public long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Add the time elapsed since {@code startNanos} to the given stage
+     *
+     * @param stage stage to which to add the elapsed time
+     * @param startNanos value returned by {@link #start} when the timed operation began
+     */
+    public void stop(final Stage stage, final long startNanos) {
+        if ( enabled ) {
+            cumulativeNanos[stage.ordinal()].add(System.nanoTime() - startNanos);
+        }
+    }
+
+    /**
+     * @return total time recorded so far for the given stage, in nanoseconds
+     */
+    public long getCumulativeNanos(final Stage stage) {
+        return cumulativeNanos[Utils.nonNull(stage).ordinal()].sum();
+    }
+
+    /**
+     * Wrap an iterator so that the time spent in its {@code hasNext()} and {@code next()} methods is recorded
+     * under the given stage.
+     *
+     * @return the wrapping iterator, or {@code iterator} itself if this timer is disabled
+     */
+    public <T> Iterator<T> timeIterator(final Iterator<T> iterator, final Stage stage) {
+        Utils.nonNull(iterator);
+        if ( ! enabled ) {
+            return iterator;
+        }
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                final long startNanos = start();
+                final boolean hasNext = iterator.hasNext();
+                stop(stage, startNanos);
+                return hasNext;
+            }
+
+            @Override
+            public T next() {
+                final long startNanos = start();
+                final T next = iterator.next();
+                stop(stage, startNanos);
+                return next;
+            }
+        };
+    }
+
+    /**
+     * Wrap a predicate so that the time spent evaluating it is recorded under the given stage.
+     *
+     * @return the wrapping predicate, or {@code predicate} itself if this timer is disabled
+     */
+    public <T> Predicate<T> timePredicate(final Predicate<T> predicate, final Stage stage) {
+        Utils.nonNull(predicate);
+        if ( ! enabled ) {
+            return predicate;
+        }
+        return element -> {
+            final long startNanos = start();
+            final boolean result = predicate.test(element);
+            stop(stage, startNanos);
+            return result;
+        };
+    }
+}
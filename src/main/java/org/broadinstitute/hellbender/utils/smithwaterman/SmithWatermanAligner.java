@@ -47,8 +47,8 @@ public interface SmithWatermanAligner extends Closeable {
                 logger.info("Using AVX accelerated SmithWaterman implementation");
                 return aligner;
             } catch (UserException.HardwareFeatureException exception) {
-                logger.info("AVX accelerated SmithWaterman implementation is not supported, falling back to the Java implementation");
-                return SmithWatermanJavaAligner.getInstance();
+                logger.info("AVX accelerated SmithWaterman implementation is not supported, falling back to the anti-diagonal Java implementation");
+                return SmithWatermanAntiDiagonalAligner.getInstance();
             }
         }),
 
@@ -65,7 +65,13 @@ public interface SmithWatermanAligner extends Closeable {
         /**
          * use the pure java implementation of Smith-Waterman, works on all hardware
          */
-        JAVA(SmithWatermanJavaAligner::getInstance);
+        JAVA(SmithWatermanJavaAligner::getInstance),
+
+        /**
+         * use the pure java implementation of Smith-Waterman that evaluates the matrix by anti-diagonals, works on all
+         * hardware and produces the same alignments as {@link #JAVA}
+         */
+        JAVA_ANTIDIAGONAL(SmithWatermanAntiDiagonalAligner::getInstance);
 
         private final Supplier<SmithWatermanAligner> alignerSupplier;
 
@@ -0,0 +1,214 @@
+package org.broadinstitute.hellbender.utils.smithwaterman;
+
+import htsjdk.samtools.Cigar;
+import htsjdk.samtools.CigarElement;
+import htsjdk.samtools.CigarOperator;
+import org.broadinstitute.gatk.nativebindings.smithwaterman.SWOverhangStrategy;
+import org.broadinstitute.gatk.nativebindings.smithwaterman.SWParameters;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Pairwise discrete smith-waterman alignment implemented in pure java, which fills the Smith-Waterman matrix one
+ * anti-diagonal at a time.
+ *
+ * The cells of an anti-diagonal only depend on the two previous anti-diagonals, so unlike the row by row evaluation of
+ * {@link SmithWatermanJavaAligner} the inner loop has no loop-carried dependency, and the scores are computed from
+ * primitive arrays indexed with unit stride that the JIT compiler can vectorize. Only three anti-diagonals of scores
+ * are kept, along with the back track matrix and the scores of the last row and column that the CIGAR depends on.
+ *
+ * The recurrences, tie-breaking and back tracking are the same as in {@link SmithWatermanJavaAligner}, so both
+ * aligners produce the same alignments.
+ *
+ * ************************************************************************
+ * ****                    IMPORTANT NOTE:                             ****
+ * ****  This class assumes that all bytes come from UPPERCASED chars! ****
+ * ************************************************************************
+ */
+public final class SmithWatermanAntiDiagonalAligner implements SmithWatermanAligner {
+    private static final SmithWatermanAntiDiagonalAligner ALIGNER = new SmithWatermanAntiDiagonalAligner();
+
+    private static final int MATRIX_MIN_CUTOFF = (int) -1.0e8;   // never let matrix elements drop below this cutoff
+    private static final int LOW_INIT_VALUE = Integer.MIN_VALUE/2;
+
+    /**
+     * return the stateless singleton instance of SmithWatermanAntiDiagonalAligner
+     */
+    public static SmithWatermanAntiDiagonalAligner getInstance() {
+        return ALIGNER;
+    }
+
+    /**
+     * Create a new SW pairwise aligner, this has no state so instead of creating new instances, we create a singleton which is
+     * accessible via {@link #getInstance}
+     */
+    private SmithWatermanAntiDiagonalAligner(){}
+
+    /**
+     * Aligns the alternate sequence to the reference sequence
+     *
+     * @param reference  ref sequence
+     * @param alternate  alt sequence
+     */
+    @Override
+    public SmithWatermanAlignment align(final byte[] reference, final byte[] alternate, final SWParameters parameters, final SWOverhangStrategy overhangStrategy) {
+        if ( reference == null || reference.length == 0 || alternate == null || alternate.length == 0 ) {
+            throw new IllegalArgumentException("Non-null, non-empty sequences are required for the Smith-Waterman calculation");
+        }
+        Utils.nonNull(parameters);
+        Utils.nonNull(overhangStrategy);
+
+        // avoid running full Smith-Waterman if there is an exact match of alternate in reference
+        if (overhangStrategy == SWOverhangStrategy.SOFTCLIP || overhangStrategy == SWOverhangStrategy.IGNORE) {
+            final int matchIndex = Utils.lastIndexOf(reference, alternate);
+            if (matchIndex != -1) {
+                return new SmithWatermanJavaAligner.SWPairwiseAlignmentResult(new Cigar(Collections.singletonList(new CigarElement(alternate.length, CigarOperator.M))), matchIndex);
+            }
+        }
+
+        final int[] lastColumn = new int[reference.length+1];
+        final int[] bottomRow = new int[alternate.length+1];
+        final int[][] btrack = new int[reference.length+1][alternate.length+1];
+        calculateMatrix(reference, alternate, lastColumn, bottomRow, btrack, overhangStrategy, parameters);
+        return SmithWatermanJavaAligner.calculateCigar(lastColumn, bottomRow, btrack, overhangStrategy);
+    }
+
+    /**
+     * Calculates the Smith-Waterman matrix of the given sequences by anti-diagonals, keeping the back track matrix and the
+     * scores of its last column and row.
+     *
+     * The anti-diagonal d holds the cells (i, d - i), and the values of each anti-diagonal are indexed by the row i.
+     *
+     * @param reference  ref sequence, indexing the rows of the matrix
+     * @param alternate  alt sequence, indexing the columns of the matrix
+     * @param lastColumn the scores of the rightmost column to populate
+     * @param bottomRow  the scores of the bottom-most row to populate
+     * @param btrack     the back track matrix to populate
+     * @param overhangStrategy    the strategy to use for dealing with overhangs
+     * @param parameters the set of weights to use to configure the alignment
+     */
+    private static void calculateMatrix(final byte[] reference, final byte[] alternate, final int[] lastColumn, final int[] bottomRow,
+                                        final int[][] btrack, final SWOverhangStrategy overhangStrategy, final SWParameters parameters) {
+        final int refLength = reference.length;
+        final int altLength = alternate.length;
+
+        final int w_open = parameters.getGapOpenPenalty();
+        final int w_extend = parameters.getGapExtendPenalty();
+        final int w_match = parameters.getMatchValue();
+        final int w_mismatch = parameters.getMismatchPenalty();
+
+        // the scores of the top row and leftmost column, which include gap penalties if we want to keep track of indels at
+        // the edges of alignments
+        final int[] topRow = new int[altLength+1];
+        final int[] leftColumn = new int[refLength+1];
+        if ( overhangStrategy == SWOverhangStrategy.INDEL || overhangStrategy == SWOverhangStrategy.LEADING_INDEL ) {
+            for ( int j = 1; j <= altLength; j++ ) {
+                topRow[j] = w_open + (j-1) * w_extend;
+            }
+            for ( int i = 1; i <= refLength; i++ ) {
+                leftColumn[i] = w_open + (i-1) * w_extend;
+            }
+        }
+        lastColumn[0] = topRow[altLength];
+        bottomRow[0] = leftColumn[refLength];
+
+        // the alternate bases in reverse order, so that the alternate base of each cell of an anti-diagonal is contiguous
+        final byte[] reversedAlternate = new byte[altLength];
+        for ( int j = 0; j < altLength; j++ ) {
+            reversedAlternate[j] = alternate[altLength-1-j];
+        }
+
+        // scores of the current and two previous anti-diagonals
+        int[] score = new int[refLength+1];
+        int[] previousScore = new int[refLength+1];
+        int[] secondPreviousScore = new int[refLength+1];
+        // the best vertical gap ending in each cell, and its length, for the current and previous anti-diagonals
+        int[] bestGapV = new int[refLength+1];
+        int[] gapSizeV = new int[refLength+1];
+        int[] previousBestGapV = new int[refLength+1];
+        int[] previousGapSizeV = new int[refLength+1];
+        // the best horizontal gap of each row, which moves along the anti-diagonals in place
+        final int[] bestGapH = new int[refLength+1];
+        Arrays.fill(bestGapH, LOW_INIT_VALUE);
+        final int[] gapSizeH = new int[refLength+1];
+
+        final int[] stepDiag = new int[refLength+1];
+
+        secondPreviousScore[0] = topRow[0];
+        previousScore[0] = topRow[1];
+        previousScore[1] = leftColumn[1];
+        previousBestGapV[0] = LOW_INIT_VALUE;
+
+        for ( int d = 2; d <= refLength + altLength; d++ ) {
+            // the cells of the top row and leftmost column
+            if ( d <= altLength ) {
+                score[0] = topRow[d];
+            }
+            if ( d <= refLength ) {
+                score[d] = leftColumn[d];
+            }
+            bestGapV[0] = LOW_INIT_VALUE;
+            gapSizeV[0] = 0;
+
+            final int firstI = Math.max(1, d - altLength);
+            final int lastI = Math.min(refLength, d - 1);
+            // the alternate base of cell (i, j) is reversedAlternate[altLength - j] = reversedAlternate[i + altOffset]
+            final int altOffset = altLength - d;
+
+            for ( int i = firstI; i <= lastI; i++ ) {
+                stepDiag[i] = secondPreviousScore[i-1] + (reference[i-1] == reversedAlternate[i + altOffset] ? w_match : w_mismatch);
+            }
+
+            for ( int i = firstI; i <= lastI; i++ ) {
+                // gaps ending in the cell above, opened there or extended from a previously opened gap
+                final int openedGapV = previousScore[i-1] + w_open;
+                final int extendedGapV = previousBestGapV[i-1] + w_extend;
+                bestGapV[i] = Math.max(openedGapV, extendedGapV);
+                gapSizeV[i] = openedGapV > extendedGapV ? 1 : previousGapSizeV[i-1] + 1;
+
+                // gaps ending in the cell to the left
+                final int openedGapH = previousScore[i] + w_open;
+                final int extendedGapH = bestGapH[i] + w_extend;
+                bestGapH[i] = Math.max(openedGapH, extendedGapH);
+                gapSizeH[i] = openedGapH > extendedGapH ? 1 : gapSizeH[i] + 1;
+            }
+
+            for ( int i = firstI; i <= lastI; i++ ) {
+                final int step_diag = stepDiag[i];
+                final int step_down = bestGapV[i];
+                final int step_right = bestGapH[i];
+                //priority here will be step diagonal, step right, step down
+                if ( step_diag >= step_down && step_diag >= step_right ) {
+                    score[i] = Math.max(MATRIX_MIN_CUTOFF, step_diag);
+                    btrack[i][d-i] = 0;
+                } else if ( step_right >= step_down ) { //moving right is the highest
+                    score[i] = Math.max(MATRIX_MIN_CUTOFF, step_right);
+                    btrack[i][d-i] = -gapSizeH[i]; // negative = horizontal
+                } else {
+                    score[i] = Math.max(MATRIX_MIN_CUTOFF, step_down);
+                    btrack[i][d-i] = gapSizeV[i]; // positive=vertical
+                }
+            }
+
+            if ( firstI == d - altLength ) {
+                lastColumn[firstI] = score[firstI];
+            }
+            if ( lastI == refLength ) {
+                bottomRow[d - refLength] = score[refLength];
+            }
+
+            final int[] oldestScore = secondPreviousScore;
+            secondPreviousScore = previousScore;
+            previousScore = score;
+            score = oldestScore;
+            final int[] oldBestGapV = previousBestGapV;
+            previousBestGapV = bestGapV;
+            bestGapV = oldBestGapV;
+            final int[] oldGapSizeV = previousGapSizeV;
+            previousGapSizeV = gapSizeV;
+            gapSizeV = oldGapSizeV;
+        }
+    }
+}
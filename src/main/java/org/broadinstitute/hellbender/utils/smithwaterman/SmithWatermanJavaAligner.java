@@ -230,7 +230,7 @@ public final class SmithWatermanJavaAligner implements SmithWatermanAligner {
     /*
      * Class to store the result of calculating the CIGAR from the back track matrix
      */
-    private static final class SWPairwiseAlignmentResult implements SmithWatermanAlignment {
+    static final class SWPairwiseAlignmentResult implements SmithWatermanAlignment {
         private final Cigar cigar;
         private final int alignmentOffset;
 
@@ -259,11 +259,31 @@ public final class SmithWatermanJavaAligner implements SmithWatermanAligner {
      * @return non-null SWPairwiseAlignmentResult object
      */
     private static SWPairwiseAlignmentResult calculateCigar(final int[][] sw, final int[][] btrack, final SWOverhangStrategy overhangStrategy) {
+        final int refLength = sw.length-1;
+        final int altLength = sw[0].length-1;
+        final int[] lastColumn = new int[refLength+1];
+        for ( int i = 0; i <= refLength; i++ ) {
+            lastColumn[i] = sw[i][altLength];
+        }
+        return calculateCigar(lastColumn, sw[refLength], btrack, overhangStrategy);
+    }
+
+    /**
+     * Calculates the CIGAR for the alignment from the back track matrix and the scores of the last column and row of
+     * the Smith-Waterman matrix, the only scores the CIGAR depends on
+     *
+     * @param lastColumn           the scores of the rightmost column of the Smith-Waterman matrix, indexed by row
+     * @param bottomRow            the scores of the bottom-most row of the Smith-Waterman matrix, indexed by column
+     * @param btrack               the back track matrix to use
+     * @param overhangStrategy    the strategy to use for dealing with overhangs
+     * @return non-null SWPairwiseAlignmentResult object
+     */
+    static SWPairwiseAlignmentResult calculateCigar(final int[] lastColumn, final int[] bottomRow, final int[][] btrack, final SWOverhangStrategy overhangStrategy) {
         // p holds the position we start backtracking from; we will be assembling a cigar in the backwards order
         int p1 = 0, p2 = 0;
 
-        final int refLength = sw.length-1;
-        final int altLength = sw[0].length-1;
+        final int refLength = lastColumn.length-1;
+        final int altLength = bottomRow.length-1;
 
         int maxscore = Integer.MIN_VALUE; // sw scores are allowed to be negative
         int segment_length = 0; // length of the segment (continuous matches, insertions or deletions)
@@ -279,8 +299,8 @@ public final class SmithWatermanJavaAligner implements SmithWatermanAligner {
             //excluding high scoring local alignments
             p2=altLength;
 
-            for(int i=1;i<sw.length;i++)  {
-               final int curScore = sw[i][altLength];
+            for(int i=1;i<lastColumn.length;i++)  {
+               final int curScore = lastColumn[i];
                if (curScore >= maxscore ) {
                     p1 = i;
                     maxscore = curScore;
@@ -288,7 +308,6 @@ public final class SmithWatermanJavaAligner implements SmithWatermanAligner {
             }
             // now look for a larger score on the bottom-most row
             if ( overhangStrategy != SWOverhangStrategy.LEADING_INDEL ) {
-                final int[] bottomRow=sw[refLength];
                 for ( int j = 1 ; j < bottomRow.length; j++) {
                     final int curScore=bottomRow[j];
                     // data_offset is the offset of [n][j]
@@ -1075,6 +1075,23 @@ public final class GATKVariantContextUtils {
         return simpleMerge(unsortedVCs, priorityListOfVCs, originalNumOfVCs, filteredRecordMergeType, genotypeMergeOptions, filteredAreUncalled);
     }
 
+    /**
+     * Force the lazily-parsed genotypes of a variant, if any, to be decoded now. The VCF and BCF codecs parse genotypes
+     * lazily, using buffers shared by all of the records they produce, so records must be decoded on a single thread
+     * before they can be shared with other threads.
+     *
+     * @param vc variant whose genotypes should be decoded
+     * @return {@code vc}, with its genotypes decoded
+     */
+    public static VariantContext decodeGenotypes(final VariantContext vc) {
+        Utils.nonNull(vc);
+        final GenotypesContext genotypes = vc.getGenotypes();
+        if ( genotypes instanceof LazyGenotypesContext ) {
+            ((LazyGenotypesContext) genotypes).decode();
+        }
+        return vc;
+    }
+
     /**
      * Merges VariantContexts into a single hybrid.  Takes genotypes for common samples in priority order, if provided.
      * If uniquifySamples is true, the priority order is ignored and names are created by concatenating the VC name with
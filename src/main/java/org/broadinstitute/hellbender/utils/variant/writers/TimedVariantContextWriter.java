@@ -0,0 +1,53 @@
+package org.broadinstitute.hellbender.utils.variant.writers;
+
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.writer.VariantContextWriter;
+import htsjdk.variant.vcf.VCFHeader;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.runtime.StageTimer;
+
+/**
+ * A VariantContextWriter that records the time spent writing variants under {@link StageTimer.Stage#WRITING},
+ * and otherwise delegates everything to an underlying writer.
+ */
+public final class TimedVariantContextWriter implements VariantContextWriter {
+
+    private final VariantContextWriter underlyingWriter;
+    private final StageTimer stageTimer;
+
+    /**
+     * @param underlyingWriter the writer to which to delegate
+     * @param stageTimer timer under which to record the time spent in {@link #add}
+     */
+    public TimedVariantContextWriter(final VariantContextWriter underlyingWriter, final StageTimer stageTimer) {
+        this.underlyingWriter = Utils.nonNull(underlyingWriter);
+        this.stageTimer = Utils.nonNull(stageTimer);
+    }
+
+    @Override
+    public void writeHeader(final VCFHeader header) {
+        underlyingWriter.writeHeader(header);
+    }
+
+    @Override
+    public void close() {
+        underlyingWriter.close();
+    }
+
+    @Override
+    public boolean checkError() {
+        return underlyingWriter.checkError();
+    }
+
+    @Override
+    public void add(final VariantContext vc) {
+        final long startNanos = stageTimer.start();
+        underlyingWriter.add(vc);
+        stageTimer.stop(StageTimer.Stage.WRITING, startNanos);
+    }
+
+    @Override
+    public void setHeader(final VCFHeader header) {
+        underlyingWriter.setHeader(header);
+    }
+}
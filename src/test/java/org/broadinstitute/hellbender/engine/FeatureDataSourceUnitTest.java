@@ -673,6 +673,96 @@ public final class FeatureDataSourceUnitTest extends GATKBaseTest {
         Assert.assertEquals(cache.getCachedFeaturesUpToStopPosition(100), emptyRegion, "Should get back empty List for empty region");
     }
 
+    @Test
+    public void testMultipleCacheWindows() {
+        final FeatureCache<ArtificialTestFeature> cache = new FeatureCache<>();
+        final List<ArtificialTestFeature> firstWindowFeatures = Arrays.asList(new ArtificialTestFeature("1", 10, 20), new ArtificialTestFeature("1", 50, 60));
+        final List<ArtificialTestFeature> secondWindowFeatures = Arrays.asList(new ArtificialTestFeature("2", 10, 20));
+
+        cache.fill(firstWindowFeatures.iterator(), new SimpleInterval("1", 1, 100));
+        cache.fill(secondWindowFeatures.iterator(), new SimpleInterval("2", 1, 100));
+        Assert.assertEquals(cache.getNumWindows(), 2);
+        Assert.assertEquals(cache.getContig(), "2");
+
+        // switching back to the first window should be a hit, and make it the current window
+        Assert.assertTrue(cache.cacheHit(new SimpleInterval("1", 15, 55)), "Unexpected cache miss");
+        Assert.assertEquals(cache.getContig(), "1");
+        cache.trimToNewStartPosition(15);
+        Assert.assertEquals(cache.getCachedFeaturesUpToStopPosition(55), firstWindowFeatures);
+
+        Assert.assertTrue(cache.cacheHit(new SimpleInterval("2", 5, 15)), "Unexpected cache miss");
+        Assert.assertEquals(cache.getContig(), "2");
+        Assert.assertEquals(cache.getCachedFeaturesUpToStopPosition(15), secondWindowFeatures);
+
+        // a window overlapping an existing one replaces it
+        cache.fill(Collections.<ArtificialTestFeature>emptyList().iterator(), new SimpleInterval("1", 90, 200));
+        Assert.assertEquals(cache.getNumWindows(), 2);
+        Assert.assertFalse(cache.cacheHit(new SimpleInterval("1", 15, 55)), "Unexpected cache hit on replaced window");
+        Assert.assertEquals(cache.getNumEvictions(), 0);
+    }
+
+    @Test
+    public void testCacheWindowEviction() {
+        final FeatureCache<ArtificialTestFeature> cache = new FeatureCache<>(1000, 2, 3 * FeatureCache.ESTIMATED_BYTES_PER_FEATURE);
+
+        cache.fill(Arrays.asList(new ArtificialTestFeature("1", 10, 20)).iterator(), new SimpleInterval("1", 1, 100));
+        cache.fill(Arrays.asList(new ArtificialTestFeature("2", 10, 20)).iterator(), new SimpleInterval("2", 1, 100));
+
+        // exceeds the window count bound: the least-recently-used window is evicted
+        cache.fill(Arrays.asList(new ArtificialTestFeature("3", 10, 20)).iterator(), new SimpleInterval("3", 1, 100));
+        Assert.assertEquals(cache.getNumWindows(), 2);
+        Assert.assertEquals(cache.getNumEvictions(), 1);
+        Assert.assertFalse(cache.cacheHit(new SimpleInterval("1", 10, 20)), "Evicted window should not produce a hit");
+        Assert.assertTrue(cache.cacheHit(new SimpleInterval("2", 10, 20)), "Unexpected cache miss");
+
+        // exceeds the size bound: all other windows are evicted, but the current window is always kept
+        final List<ArtificialTestFeature> bigWindowFeatures = Arrays.asList(
+                new ArtificialTestFeature("4", 10, 20), new ArtificialTestFeature("4", 30, 40),
+                new ArtificialTestFeature("4", 50, 60), new ArtificialTestFeature("4", 70, 80));
+        cache.fill(bigWindowFeatures.iterator(), new SimpleInterval("4", 1, 100));
+        Assert.assertEquals(cache.getNumWindows(), 1);
+        Assert.assertEquals(cache.getNumEvictions(), 3);
+        Assert.assertEquals(cache.getEstimatedCacheBytes(), 4 * FeatureCache.ESTIMATED_BYTES_PER_FEATURE);
+        Assert.assertEquals(cache.getCachedFeaturesUpToStopPosition(100), bigWindowFeatures);
+
+        // trimming releases the space held by the discarded Features
+        Assert.assertTrue(cache.cacheHit(new SimpleInterval("4", 45, 100)), "Unexpected cache miss");
+        cache.trimToNewStartPosition(45);
+        Assert.assertEquals(cache.getEstimatedCacheBytes(), 2 * FeatureCache.ESTIMATED_BYTES_PER_FEATURE);
+    }
+
+    @Test
+    public void testAdaptiveLookahead() {
+        final int initialLookahead = 100;
+        final FeatureCache<ArtificialTestFeature> cache = new FeatureCache<>(initialLookahead, FeatureCache.DEFAULT_MAX_WINDOWS, FeatureCache.DEFAULT_MAX_CACHE_BYTES);
+        Assert.assertEquals(cache.getLookaheadForRefill(new SimpleInterval("1", 1, 10)), initialLookahead);
+
+        // many hits followed by a query running off the end of the window grows the lookahead
+        cache.fill(Collections.<ArtificialTestFeature>emptyList().iterator(), new SimpleInterval("1", 1, 110));
+        for ( int start = 1; start <= 100; start += 10 ) {
+            Assert.assertTrue(cache.cacheHit(new SimpleInterval("1", start, start + 9)), "Unexpected cache miss");
+        }
+        Assert.assertEquals(cache.getLookaheadForRefill(new SimpleInterval("1", 105, 115)), 2 * initialLookahead);
+
+        // a window that is never used after being filled shrinks it
+        cache.fill(Collections.<ArtificialTestFeature>emptyList().iterator(), new SimpleInterval("1", 105, 315));
+        Assert.assertEquals(cache.getLookaheadForRefill(new SimpleInterval("5", 1, 10)), initialLookahead);
+
+        // the lookahead never shrinks below its lower bound
+        for ( int i = 0; i < 10; ++i ) {
+            cache.fill(Collections.<ArtificialTestFeature>emptyList().iterator(), new SimpleInterval("6", i * 1000 + 1, i * 1000 + 10));
+            cache.getLookaheadForRefill(new SimpleInterval("7", 1, 10));
+        }
+        Assert.assertEquals(cache.getCurrentLookahead(), initialLookahead / FeatureCache.MAX_LOOKAHEAD_SCALE_FACTOR);
+    }
+
+    @Test
+    public void testLookaheadDisabled() {
+        final FeatureCache<ArtificialTestFeature> cache = new FeatureCache<>(0, FeatureCache.DEFAULT_MAX_WINDOWS, FeatureCache.DEFAULT_MAX_CACHE_BYTES);
+        cache.fill(Collections.<ArtificialTestFeature>emptyList().iterator(), new SimpleInterval("1", 1, 10));
+        Assert.assertEquals(cache.getLookaheadForRefill(new SimpleInterval("1", 11, 20)), 0);
+    }
+
     /*********************************************************
      * End of direct testing on the FeatureCache inner class
      *********************************************************/
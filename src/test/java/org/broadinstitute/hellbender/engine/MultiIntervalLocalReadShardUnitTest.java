@@ -7,6 +7,7 @@ import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.downsampling.ReadsDownsampler;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.runtime.StageTimer;
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -184,4 +185,28 @@ public class MultiIntervalLocalReadShardUnitTest extends GATKBaseTest {
 
         Assert.assertEquals(actualReadNames, expectedReadNames, "Wrong reads returned");
     }
+
+    @Test
+    public void testShardIterationIsTimed() {
+        final ReadsDataSource readsSource = new ReadsPathDataSource(IOUtils.getPath(publicTestDir + "org/broadinstitute/hellbender/engine/reads_data_source_test1.bam"));
+        final ReadFilter keepReadBOnly = new ReadFilter() {
+            private static final long serialVersionUID = 1l;
+            @Override
+            public boolean test( GATKRead read ) { return read.getName().equals("b"); };
+        };
+        final StageTimer stageTimer = new StageTimer();
+        final MultiIntervalLocalReadShard shard = new MultiIntervalLocalReadShard(Arrays.asList(new SimpleInterval("1", 200, 210)), 0, readsSource);
+        shard.setReadFilter(keepReadBOnly);
+        shard.setStageTimer(stageTimer);
+
+        final List<String> actualReadNames = new ArrayList<>();
+        for ( final GATKRead read : shard ) {
+            actualReadNames.add(read.getName());
+        }
+
+        Assert.assertEquals(actualReadNames, Arrays.asList("b"), "Wrong reads returned");
+        Assert.assertTrue(stageTimer.getCumulativeNanos(StageTimer.Stage.READ_DECODING) > 0, "reading was not timed");
+        Assert.assertTrue(stageTimer.getCumulativeNanos(StageTimer.Stage.FILTERING) > 0, "filtering was not timed");
+        Assert.assertEquals(stageTimer.getCumulativeNanos(StageTimer.Stage.APPLY), 0L);
+    }
 }
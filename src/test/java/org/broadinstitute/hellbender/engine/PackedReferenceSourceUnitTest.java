@@ -0,0 +1,177 @@
+package org.broadinstitute.hellbender.engine;
+
+import com.google.common.jimfs.Configuration;
+import com.google.common.jimfs.Jimfs;
+import htsjdk.samtools.SAMSequenceRecord;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public final class PackedReferenceSourceUnitTest extends GATKBaseTest {
+
+    private ReferenceDataSource fasta;
+    private PackedReferenceSource packed;
+
+    @BeforeClass
+    public void createPackedReference() {
+        final File packedFile = createTempFile("hg19mini", PackedReferenceSource.PACKED_REFERENCE_EXTENSION);
+        PackedReferenceSource.createPackedReference(new File(hg19MiniReference).toPath(), packedFile.toPath());
+        fasta = ReferenceDataSource.of(new File(hg19MiniReference).toPath());
+        packed = new PackedReferenceSource(packedFile.toPath());
+    }
+
+    @AfterClass
+    public void close() {
+        fasta.close();
+        packed.close();
+    }
+
+    @Test
+    public void testSequenceDictionary() {
+        Assert.assertTrue(packed.getSequenceDictionary().isSameDictionary(fasta.getSequenceDictionary()));
+        Assert.assertEquals(packed.getSequenceDictionary().getSequences().size(), fasta.getSequenceDictionary().getSequences().size());
+    }
+
+    @DataProvider
+    public Object[][] queryIntervals() {
+        return new Object[][] {
+                { new SimpleInterval("1", 1, 1) },
+                { new SimpleInterval("1", 5000, 6000) },
+                { new SimpleInterval("2", 1, 16000) },
+                { new SimpleInterval("4", 15999, 16000) },
+                { new SimpleInterval("3", 9000, 9050) }
+        };
+    }
+
+    @Test(dataProvider = "queryIntervals")
+    public void testQueryMatchesFasta(final SimpleInterval interval) {
+        final byte[] expected = fasta.queryAndPrefetch(interval).getBases();
+        Assert.assertEquals(packed.queryAndPrefetch(interval).getBases(), expected);
+
+        final ByteBuffer buffer = packed.queryAsBuffer(interval);
+        Assert.assertTrue(buffer.isReadOnly());
+        Assert.assertEquals(buffer.remaining(), expected.length);
+        final byte[] fromBuffer = new byte[buffer.remaining()];
+        buffer.get(fromBuffer);
+        Assert.assertEquals(fromBuffer, expected);
+    }
+
+    @Test
+    public void testEmptyBufferQuery() {
+        // a query with stop == start - 1, such as the reference span of a read with no aligned bases, is empty
+        Assert.assertEquals(packed.queryAsBuffer("1", 100, 99).remaining(), 0);
+    }
+
+    @Test
+    public void testWholeReferenceMatchesFasta() {
+        for ( final SAMSequenceRecord contig : fasta.getSequenceDictionary().getSequences() ) {
+            final SimpleInterval wholeContig = new SimpleInterval(contig.getSequenceName(), 1, contig.getSequenceLength());
+            Assert.assertEquals(packed.queryAndPrefetch(wholeContig).getBases(), fasta.queryAndPrefetch(wholeContig).getBases(), contig.getSequenceName());
+            Assert.assertEquals(packed.queryAndPrefetch(wholeContig).getContigIndex(), contig.getSequenceIndex());
+        }
+    }
+
+    @Test
+    public void testReferenceContextView() {
+        final SimpleInterval interval = new SimpleInterval("1", 10000, 10100);
+        final ReferenceContext context = new ReferenceContext(packed, interval, 5, 5);
+        final ByteBuffer view = context.getBasesAsBuffer();
+        final byte[] viewBases = new byte[view.remaining()];
+        view.get(viewBases);
+        Assert.assertEquals(viewBases, new ReferenceContext(fasta, interval, 5, 5).getBases());
+    }
+
+    @Test
+    public void testConcurrentQueries() throws Exception {
+        Assert.assertTrue(packed.isThreadSafe());
+        Assert.assertSame(SynchronizedReferenceDataSource.makeThreadSafe(packed), packed);
+
+        final int contigLength = fasta.getSequenceDictionary().getSequence("1").getSequenceLength();
+        final Random random = new Random(17);
+        final List<SimpleInterval> intervals = new ArrayList<>();
+        final List<byte[]> expected = new ArrayList<>();
+        for ( int i = 0; i < 1000; i++ ) {
+            final int start = 1 + random.nextInt(contigLength - 200);
+            final SimpleInterval interval = new SimpleInterval("1", start, start + random.nextInt(200));
+            intervals.add(interval);
+            expected.add(fasta.queryAndPrefetch(interval).getBases());
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Boolean>> results = new ArrayList<>();
+            for ( int thread = 0; thread < 4; thread++ ) {
+                results.add(executor.submit(() -> {
+                    for ( int i = 0; i < intervals.size(); i++ ) {
+                        if ( ! Arrays.equals(packed.queryAndPrefetch(intervals.get(i)).getBases(), expected.get(i)) ) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for ( final Future<Boolean> result : results ) {
+                Assert.assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @DataProvider
+    public Object[][] invalidQueries() {
+        return new Object[][] {
+                { "nonexistent", 1, 10 },
+                { "1", 0, 10 },
+                { "1", 15999, 16001 },
+                { "1", 100, 98 }
+        };
+    }
+
+    @Test(dataProvider = "invalidQueries", expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidQueries(final String contig, final long start, final long stop) {
+        packed.queryAndPrefetch(contig, start, stop);
+    }
+
+    @Test(expectedExceptions = UserException.MalformedFile.class)
+    public void testNotAPackedReference() {
+        new PackedReferenceSource(new File(hg19MiniReference).toPath());
+    }
+
+    @Test(expectedExceptions = UserException.MalformedFile.class)
+    public void testTruncatedPackedReference() throws IOException {
+        final File packedFile = createTempFile("truncated", PackedReferenceSource.PACKED_REFERENCE_EXTENSION);
+        PackedReferenceSource.createPackedReference(new File(hg19MiniReference).toPath(), packedFile.toPath());
+        final byte[] contents = Files.readAllBytes(packedFile.toPath());
+        Files.write(packedFile.toPath(), Arrays.copyOf(contents, contents.length - 1));
+        new PackedReferenceSource(packedFile.toPath());
+    }
+
+    @Test(expectedExceptions = UserException.CouldNotReadInputFile.class)
+    public void testPackedReferenceMustBeLocal() throws IOException {
+        try ( final FileSystem jimfs = Jimfs.newFileSystem(Configuration.unix()) ) {
+            final Path packedPath = jimfs.getPath("reference.fasta.packed");
+            Files.createFile(packedPath);
+            new PackedReferenceSource(packedPath);
+        }
+    }
+}
@@ -148,6 +148,33 @@ public final class ReadsPathDataSourceUnitTest extends GATKBaseTest {
         }
     }
 
+    @Test(dataProvider = "SingleFileCompleteTraversalData")
+    public void testSingleFileCompleteTraversalWithPrefetching( final Path samFile, final List<String> expectedReadNames ) {
+        try (ReadsDataSource readsSource = new ReadsPathDataSource(Collections.singletonList(samFile), null, null, 0, 0, 2)) {
+            traverseOnce(readsSource, samFile, expectedReadNames);
+            // a second traversal must stop the first prefetching thread and start over
+            traverseOnce(readsSource, samFile, expectedReadNames);
+        }
+    }
+
+    @Test(dataProvider = "MultipleFilesCompleteTraversalData")
+    public void testMultipleFilesCompleteTraversalWithPrefetching( final List<Path> samFiles, final List<String> expectedReadNames ) {
+        try (ReadsDataSource readsSource = new ReadsPathDataSource(samFiles, null, null, 0, 0, 1)) {
+            traverseOnce(readsSource, samFiles.get(0), expectedReadNames);
+        }
+    }
+
+    @Test
+    public void testAbandonedPrefetchingIteration() {
+        try (ReadsPathDataSource readsSource = new ReadsPathDataSource(Collections.singletonList(FIRST_TEST_BAM), null, null, 0, 0, 1)) {
+            final Iterator<GATKRead> abandoned = readsSource.iterator();
+            Assert.assertEquals(abandoned.next().getName(), "a");
+
+            // start a new query without exhausting the previous iteration
+            traverseOnceByInterval(readsSource, FIRST_TEST_BAM, new SimpleInterval("1", 200, 209), Arrays.asList("a", "b"));
+        }
+    }
+
     @DataProvider(name = "SingleFileTraversalWithIntervalsData")
     public Object[][] getSingleFileTraversalWithIntervalsData() {
         // Files, with intervals, and expected read names in the expected order
@@ -240,6 +267,14 @@ public final class ReadsPathDataSourceUnitTest extends GATKBaseTest {
         }
     }
 
+    @Test(dataProvider = "SingleFileQueryByIntervalData")
+    public void testSingleFileQueryByIntervalWithPrefetching( final Path samFile, final SimpleInterval interval, final List<String> expectedReadNames ) {
+        try (ReadsPathDataSource readsSource = new ReadsPathDataSource(Collections.singletonList(samFile), null, null, 0, 0, 2)) {
+            traverseOnceByInterval(readsSource, samFile, interval, expectedReadNames);
+            traverseOnceByInterval(readsSource, samFile, interval, expectedReadNames);
+        }
+    }
+
     @Test(dataProvider = "SingleFileQueryByIntervalData")
     public void testSingleFileQueryByIntervalSerialIteration( final Path samFile, final SimpleInterval interval, final List<String> expectedReadNames ) {
         try (ReadsPathDataSource readsSource = new ReadsPathDataSource(samFile)) {
@@ -506,6 +541,15 @@ public final class ReadsPathDataSourceUnitTest extends GATKBaseTest {
         }
     }
 
+    @Test(dataProvider = "QueryUnmappedTestData")
+    public void testQueryUnmappedWithPrefetching( final Path samFile, final List<String> expectedReadNames ) {
+        try (ReadsDataSource readsSource = new ReadsPathDataSource(Collections.singletonList(samFile), null, null, 0, 0, 2)) {
+            final List<String> readNames = new ArrayList<>();
+            readsSource.queryUnmapped().forEachRemaining(read -> readNames.add(read.getName()));
+            Assert.assertEquals(readNames, expectedReadNames);
+        }
+    }
+
     @DataProvider(name = "MergedHeaderIntervalQueries")
     public Object[][] mergedHeaderQueries() {
         return new Object[][] {
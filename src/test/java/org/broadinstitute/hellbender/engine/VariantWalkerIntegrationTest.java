@@ -4,6 +4,7 @@ import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.variant.variantcontext.VariantContext;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.CommandLineArgumentParser;
+import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.barclay.argparser.CommandLineParser;
 import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
@@ -51,6 +52,15 @@ public final class VariantWalkerIntegrationTest extends CommandLineProgramTest {
         this.runCommandLine(ab.getArgsArray());
     }
 
+    @Test(expectedExceptions = CommandLineException.BadArgumentValue.class)
+    public void testConcurrentApplyRequiresToolSupport() throws Exception {
+        final File ORIG_FILE = new File(getTestDataDir(), "count_variants_withSequenceDict.vcf");
+        final ArgumentsBuilder ab = new ArgumentsBuilder();
+        ab.addRaw("--variant " + ORIG_FILE.getAbsolutePath());
+        ab.add(VariantWalker.VARIANT_WALKER_THREADS_LONG_NAME, 2);
+        this.runCommandLine(ab.getArgsArray());
+    }
+
     @Test(expectedExceptions = UserException.class)
     public void testRequiresSequenceDictionaryForInterval() throws Exception {
         String fileIn = "count_variants.vcf";
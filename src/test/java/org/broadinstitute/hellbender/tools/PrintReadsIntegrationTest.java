@@ -4,19 +4,24 @@ import htsjdk.samtools.SamReaderFactory;
 import htsjdk.samtools.ValidationStringency;
 import org.broadinstitute.hellbender.GATKBaseTest;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
+import org.broadinstitute.hellbender.engine.GATKTool;
 import org.broadinstitute.hellbender.engine.ReadsDataSource;
 import org.broadinstitute.hellbender.engine.ReadsPathDataSource;
+import org.broadinstitute.hellbender.engine.RuntimeMetricsSink;
 import org.broadinstitute.hellbender.testutils.ArgumentsBuilder;
 import org.broadinstitute.hellbender.testutils.SamAssertionUtils;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
+import org.broadinstitute.hellbender.utils.runtime.StageTimer;
+import org.json.JSONObject;
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.List;
 
@@ -50,6 +55,32 @@ public final class PrintReadsIntegrationTest extends AbstractPrintReadsIntegrati
         Assert.assertNotNull(SamReaderFactory.makeDefault().open(outFile).getFileHeader().getProgramRecord("GATK PrintReads.1"));
     }
 
+    @Test
+    public void testRuntimeMetricsOutput() throws IOException {
+        final File inFile = new File(TEST_DATA_DIR, "print_reads_withPG.sam");
+        final File outFile = GATKBaseTest.createTempFile("testRuntimeMetricsOutput", ".sam");
+        final File metricsFile = GATKBaseTest.createTempFile("testRuntimeMetricsOutput", ".json");
+        final ArgumentsBuilder args = new ArgumentsBuilder()
+                .addInput(inFile)
+                .addOutput(outFile)
+                .add(GATKTool.RUNTIME_METRICS_OUTPUT_NAME, metricsFile);
+        runCommandLine(args);
+
+        final List<String> lines = Files.readAllLines(metricsFile.toPath());
+        Assert.assertFalse(lines.isEmpty(), "no metrics snapshots written");
+        final JSONObject finalSnapshot = new JSONObject(lines.get(lines.size() - 1));
+        Assert.assertEquals(finalSnapshot.getString("event"), RuntimeMetricsSink.TRAVERSAL_COMPLETE_EVENT);
+        Assert.assertEquals(finalSnapshot.getString("recordLabel"), "reads");
+        Assert.assertTrue(finalSnapshot.getLong("recordsProcessed") > 0);
+        Assert.assertTrue(finalSnapshot.getLong("heapUsedBytes") > 0);
+        Assert.assertEquals(finalSnapshot.getJSONArray("featureCaches").length(), 0);
+
+        final JSONObject stageTimes = finalSnapshot.getJSONObject("stageWallTimeMillis");
+        for ( final StageTimer.Stage stage : StageTimer.Stage.values() ) {
+            Assert.assertTrue(stageTimes.getLong(stage.getMetricName()) >= 0, "missing or invalid time for " + stage);
+        }
+    }
+
     @DataProvider
     public Object[][] getHttpPaths(){
         final String bam = "gs://hellbender/test/resources/benchmark/CEUTrio.HiSeq.WEx.b37.NA12892.bam";
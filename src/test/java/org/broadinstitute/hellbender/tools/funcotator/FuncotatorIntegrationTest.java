@@ -13,6 +13,7 @@ import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.engine.FeatureDataSource;
 import org.broadinstitute.hellbender.engine.GATKPath;
+import org.broadinstitute.hellbender.engine.VariantWalker;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.testutils.ArgumentsBuilder;
@@ -1364,6 +1365,39 @@ public class FuncotatorIntegrationTest extends CommandLineProgramTest {
         }
     }
 
+    // multi-threaded traversal must produce the same funcotations, in the same order
+    @Test
+    public void testMultiThreaded() {
+        final FuncotatorArgumentDefinitions.OutputFormatType outputFormatType = FuncotatorArgumentDefinitions.OutputFormatType.VCF;
+        final List<List<VariantContext>> outputs = new ArrayList<>();
+
+        for (final int threads : new int[] {1, 4}) {
+            final File outputFile = getOutputFile(outputFormatType);
+            final ArgumentsBuilder arguments = createBaselineArgumentsForFuncotator(
+                    PIK3CA_VCF_HG38,
+                    outputFile,
+                    hg38Chr3Ref,
+                    DS_PIK3CA_DIR,
+                    FuncotatorTestConstants.REFERENCE_VERSION_HG38,
+                    outputFormatType,
+                    false);
+            arguments.add(VariantWalker.VARIANT_WALKER_THREADS_LONG_NAME, threads);
+
+            runCommandLine(arguments);
+
+            outputs.add(VariantContextTestUtils.readEntireVCFIntoMemory(outputFile.getAbsolutePath()).getRight());
+        }
+
+        final List<VariantContext> singleThreadedVariants = outputs.get(0);
+        final List<VariantContext> multiThreadedVariants = outputs.get(1);
+        Assert.assertTrue(singleThreadedVariants.size() > 0);
+        Assert.assertEquals(multiThreadedVariants.size(), singleThreadedVariants.size());
+        for (int i = 0; i < singleThreadedVariants.size(); i++) {
+            VariantContextTestUtils.assertVariantContextsAreEqual(multiThreadedVariants.get(i), singleThreadedVariants.get(i),
+                    Collections.emptyList(), Collections.emptyList());
+        }
+    }
+
     @Test
     public void testCanAnnotateSpanningDeletions() {
         final FuncotatorArgumentDefinitions.OutputFormatType outputFormatType = FuncotatorArgumentDefinitions.OutputFormatType.VCF;
@@ -16,8 +16,10 @@ import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.Main;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.cmdline.argumentcollections.DbsnpArgumentCollection;
+import org.broadinstitute.hellbender.engine.VariantWalker;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.testutils.ArgumentsBuilder;
+import org.broadinstitute.hellbender.testutils.IntegrationTestSpec;
 import org.broadinstitute.hellbender.testutils.VariantContextTestUtils;
 import org.broadinstitute.hellbender.tools.walkers.mutect.Mutect2;
 import org.broadinstitute.hellbender.utils.MathUtils;
@@ -306,6 +308,28 @@ public class VariantAnnotatorIntegrationTest extends CommandLineProgramTest {
         }
     }
 
+    // multi-threaded traversal must produce the same output, in the same order
+    @Test
+    public void testMultiThreaded() throws IOException {
+        final File singleThreadedVCF = createTempFile("single-threaded", ".vcf");
+        final File multiThreadedVCF = createTempFile("multi-threaded", ".vcf");
+
+        for (final File outputVCF : new File[] {singleThreadedVCF, multiThreadedVCF}) {
+            final ArgumentsBuilder args = new ArgumentsBuilder()
+                    .addVCF(BASIC_INPUT)
+                    .addOutput(outputVCF)
+                    .add(DbsnpArgumentCollection.DBSNP_LONG_NAME, dbsnp_138_b37_20_21_vcf)
+                    .add(StandardArgumentDefinitions.COMPARISON_LONG_NAME + ":" + FOO2, INDELS)
+                    .add(StandardArgumentDefinitions.RESOURCE_LONG_NAME + ":" + FOO, INDELS)
+                    .add(VariantAnnotator.EXPRESSION_LONG_NAME, FOO_AC)
+                    .add(VariantWalker.VARIANT_WALKER_THREADS_LONG_NAME, outputVCF == singleThreadedVCF ? 1 : 4)
+                    .add(StandardArgumentDefinitions.ADD_OUTPUT_VCF_COMMANDLINE, false);
+            runCommandLine(args.getArgsList());
+        }
+
+        IntegrationTestSpec.assertEqualTextFiles(multiThreadedVCF, singleThreadedVCF);
+    }
+
     @Test
     public void testNoReads() {
         final File inputVCF = BASIC_INPUT;
@@ -9,6 +9,7 @@ import org.apache.commons.lang.StringUtils;
 import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
+import org.broadinstitute.hellbender.engine.ReadWalker;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.GATKBaseTest;
 import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
@@ -91,6 +92,9 @@ public final class ApplyBQSRIntegrationTest extends CommandLineProgramTest {
 
         //Note: these outputs were created using GATK3
         tests.add(new Object[]{new ABQSRTest(hiSeqBam, null, ".bam", null, resourceDir + "expected.HiSeq.1mb.1RG.2k_lines.alternate.recalibrated.DIQ.bam")});
+        // multi-threaded traversal must produce the same output, in the same order
+        tests.add(new Object[]{new ABQSRTest(hiSeqBam, null, ".bam", new String[] {"--" + ReadWalker.READ_WALKER_THREADS_LONG_NAME, "4"}, resourceDir + "expected.HiSeq.1mb.1RG.2k_lines.alternate.recalibrated.DIQ.bam")});
+        tests.add(new Object[]{new ABQSRTest(hiSeqBamAligned, null, ".bam", new String[] {"--" + ReadWalker.READ_WALKER_THREADS_LONG_NAME, "3", "-OQ"}, resourceDir + "expected.HiSeq.1mb.1RG.2k_lines.alternate_allaligned.recalibrated.DIQ.OQ.bam")});
 
         return tests.toArray(new Object[][]{});
     }
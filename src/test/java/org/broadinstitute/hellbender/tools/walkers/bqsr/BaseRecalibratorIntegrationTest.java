@@ -3,18 +3,27 @@ package org.broadinstitute.hellbender.tools.walkers.bqsr;
 import htsjdk.samtools.ValidationStringency;
 
 import org.broadinstitute.barclay.argparser.CommandLineException;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
+import org.broadinstitute.hellbender.engine.GATKTool;
+import org.broadinstitute.hellbender.engine.PackedReferenceSource;
+import org.broadinstitute.hellbender.engine.ReadWalker;
 import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.testutils.ArgumentsBuilder;
 import org.broadinstitute.hellbender.testutils.IntegrationTestSpec;
 import org.broadinstitute.hellbender.testutils.SamAssertionUtils;
+import org.broadinstitute.hellbender.tools.CreatePackedReference;
 import org.broadinstitute.hellbender.utils.Utils;
+import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.Arrays;
+import java.util.List;
 
 public final class BaseRecalibratorIntegrationTest extends CommandLineProgramTest{
 
@@ -106,6 +115,85 @@ public final class BaseRecalibratorIntegrationTest extends CommandLineProgramTes
         spec.executeTest("testBQSR-" + params.args, this);
     }
 
+    @DataProvider(name = "BQSRMultithreadedTest")
+    public Object[][] createBQSRMultithreadedTestData() {
+        final String hg18Reference = publicTestDir + "human_g1k_v37.chr17_1Mb.fasta";
+        final String hiSeqBam_chr20 = getResourceDir() + WGS_B37_CH20_1M_1M1K_BAM;
+        final String HiSeqBam_chr17 = getResourceDir() + "NA12878.chr17_69k_70k.dictFix.bam";
+        final String dbSNPb37_chr17 =  getResourceDir() + "dbsnp_132.b37.excluding_sites_after_129.chr17_69k_70k.vcf";
+        final String dbSNPb37_chr20 = getResourceDir() + DBSNP_138_B37_CH20_1M_1M1K_VCF;
+        final String GRCh37Ref_chr2021 = "src/test/resources/large/human_g1k_v37.20.21.fasta";
+        final String threads = " --" + ReadWalker.READ_WALKER_THREADS_LONG_NAME + " 4";
+
+        return new Object[][]{
+                {new BQSRTest(GRCh37Ref_chr2021, hiSeqBam_chr20, dbSNPb37_chr20, "-indels --enable-baq" + threads, getResourceDir() + BQSRTestData.EXPECTED_WGS_B37_CH20_1M_1M1K_RECAL)},
+                {new BQSRTest(hg18Reference, HiSeqBam_chr17, dbSNPb37_chr17, "-indels --enable-baq" + threads, getResourceDir() + "expected.NA12878.chr17_69k_70k.txt")},
+        };
+    }
+
+    /**
+     * With more than one thread the fractional errors are summed in a different order, so (as with the GATK3 tables
+     * above) a value may differ from the expected table by one unit in its last decimal place.
+     */
+    @Test(dataProvider = "BQSRMultithreadedTest")
+    public void testBQSRMultithreaded(BQSRTest params) throws IOException {
+        final File actualTable = createTempFile("bqsr.multithreaded", ".table");
+        new BaseRecalibrator().instanceMain(Utils.escapeExpressions(params.getCommandLine().replace("%s", actualTable.getAbsolutePath())));
+        assertTablesEqualWithinLastDecimal(actualTable, params.expectedFileName);
+    }
+
+    // with a packed reference the reference bases of each read are read in place, rather than from a fasta
+    @Test
+    public void testBQSRWithPackedReference() throws IOException {
+        final String hg18Reference = publicTestDir + "human_g1k_v37.chr17_1Mb.fasta";
+        final String HiSeqBam_chr17 = getResourceDir() + "NA12878.chr17_69k_70k.dictFix.bam";
+        final String dbSNPb37_chr17 =  getResourceDir() + "dbsnp_132.b37.excluding_sites_after_129.chr17_69k_70k.vcf";
+        final String expectedTable = getResourceDir() + "expected.NA12878.chr17_69k_70k.txt";
+        final File packed = createTempFile("bqsr.packed", PackedReferenceSource.PACKED_REFERENCE_EXTENSION);
+        new CreatePackedReference().instanceMain(new ArgumentsBuilder()
+                .addReference(new File(hg18Reference))
+                .addOutput(packed)
+                .getArgsArray());
+
+        final String packedArgs = "-indels --enable-baq --" + GATKTool.PACKED_REFERENCE_NAME + " " + packed.getAbsolutePath();
+        final IntegrationTestSpec spec = new IntegrationTestSpec(
+                new BQSRTest(hg18Reference, HiSeqBam_chr17, dbSNPb37_chr17, packedArgs, expectedTable).getCommandLine(),
+                Arrays.asList(expectedTable));
+        spec.executeTest("testBQSRWithPackedReference", this);
+
+        final File multithreadedTable = createTempFile("bqsr.packed.multithreaded", ".table");
+        final BQSRTest multithreaded = new BQSRTest(hg18Reference, HiSeqBam_chr17, dbSNPb37_chr17,
+                packedArgs + " --" + ReadWalker.READ_WALKER_THREADS_LONG_NAME + " 4", expectedTable);
+        new BaseRecalibrator().instanceMain(Utils.escapeExpressions(multithreaded.getCommandLine().replace("%s", multithreadedTable.getAbsolutePath())));
+        assertTablesEqualWithinLastDecimal(multithreadedTable, expectedTable);
+    }
+
+    private static void assertTablesEqualWithinLastDecimal(final File actualTable, final String expectedFileName) throws IOException {
+        final List<String> actualLines = Files.readAllLines(actualTable.toPath());
+        final List<String> expectedLines = Files.readAllLines(new File(expectedFileName).toPath());
+        Assert.assertEquals(actualLines.size(), expectedLines.size(), "number of lines in the recalibration table");
+        for ( int i = 0; i < expectedLines.size(); i++ ) {
+            final String[] actualFields = actualLines.get(i).trim().split("\\s+");
+            final String[] expectedFields = expectedLines.get(i).trim().split("\\s+");
+            Assert.assertEquals(actualFields.length, expectedFields.length, "number of fields in line " + (i + 1));
+            for ( int j = 0; j < expectedFields.length; j++ ) {
+                assertEqualWithinLastDecimal(actualFields[j], expectedFields[j], i + 1);
+            }
+        }
+    }
+
+    private static void assertEqualWithinLastDecimal(final String actual, final String expected, final int lineNumber) {
+        if ( actual.equals(expected) ) {
+            return;
+        }
+        final int decimalPoint = expected.indexOf('.');
+        Assert.assertTrue(decimalPoint >= 0 && NumberUtils.isCreatable(actual) && NumberUtils.isCreatable(expected),
+                "line " + lineNumber + ": expected " + expected + " but found " + actual);
+        final double lastDecimal = Math.pow(10, -(expected.length() - decimalPoint - 1));
+        Assert.assertEquals(Double.parseDouble(actual), Double.parseDouble(expected), lastDecimal * 1.5,
+                "line " + lineNumber + ": expected " + expected + " but found " + actual);
+    }
+
     @Test(description = "This is to test https://github.com/broadinstitute/hellbender/issues/322")
     public void testPlottingWorkflow() throws IOException {
         final String resourceDir = getTestDataDir() + "/" + "BQSR" + "/";
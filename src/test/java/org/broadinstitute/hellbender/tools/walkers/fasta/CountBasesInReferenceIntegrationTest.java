@@ -1,6 +1,10 @@
 package org.broadinstitute.hellbender.tools.walkers.fasta;
 
 import org.broadinstitute.hellbender.CommandLineProgramTest;
+import org.broadinstitute.hellbender.engine.GATKTool;
+import org.broadinstitute.hellbender.engine.PackedReferenceSource;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.CreatePackedReference;
 import org.broadinstitute.hellbender.testutils.ArgumentsBuilder;
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -40,6 +44,43 @@ public class CountBasesInReferenceIntegrationTest extends CommandLineProgramTest
         Assert.assertEquals(baseCounts['N'], 46000);
     }
 
+    @Test
+    public void testCountBasesInPackedReference(){
+        final File packed = createTempFile("testCountBasesInPackedReference", PackedReferenceSource.PACKED_REFERENCE_EXTENSION);
+        new CreatePackedReference().instanceMain(new ArgumentsBuilder()
+                .addReference(new File(hg19MiniReference))
+                .addOutput(packed)
+                .getArgsArray());
+
+        final ArgumentsBuilder args = new ArgumentsBuilder();
+        args.addReference(new File(hg19MiniReference))
+                .add(GATKTool.PACKED_REFERENCE_NAME, packed);
+
+        final CountBasesInReference walker = new CountBasesInReference();
+        walker.instanceMain(args.getArgsArray());
+        final long[] baseCounts = walker.baseCounts;
+
+        Assert.assertEquals(baseCounts['A'], 4546);
+        Assert.assertEquals(baseCounts['C'], 4995);
+        Assert.assertEquals(baseCounts['G'], 4559);
+        Assert.assertEquals(baseCounts['T'], 3900);
+        Assert.assertEquals(baseCounts['N'], 46000);
+    }
+
+    @Test(expectedExceptions = UserException.IncompatibleSequenceDictionaries.class)
+    public void testPackedReferenceFromOtherFasta(){
+        final File packed = createTempFile("testPackedReferenceFromOtherFasta", PackedReferenceSource.PACKED_REFERENCE_EXTENSION);
+        new CreatePackedReference().instanceMain(new ArgumentsBuilder()
+                .addReference(new File(exampleFASTA))
+                .addOutput(packed)
+                .getArgsArray());
+
+        final ArgumentsBuilder args = new ArgumentsBuilder();
+        args.addReference(new File(hg19MiniReference))
+                .add(GATKTool.PACKED_REFERENCE_NAME, packed);
+        new CountBasesInReference().instanceMain(args.getArgsArray());
+    }
+
     @Test
     public void testCountBasesInReferenceWithOutputFile() throws IOException {
         final File output = createTempFile("testCountBasesInReferenceWithOutputFile", ".txt");
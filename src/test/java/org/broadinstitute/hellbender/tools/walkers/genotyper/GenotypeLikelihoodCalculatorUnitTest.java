@@ -2,6 +2,7 @@ package org.broadinstitute.hellbender.tools.walkers.genotyper;
 
 import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.GenotypeLikelihoods;
+import org.broadinstitute.hellbender.utils.IndexRange;
 import org.broadinstitute.hellbender.utils.MathUtils;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.genotyper.AlleleLikelihoods;
@@ -49,6 +50,43 @@ public final class GenotypeLikelihoodCalculatorUnitTest {
     }
 
 
+    @Test(dataProvider = "ploidyAndMaximumAlleleAndReadCountsData")
+    public void testLikelihoodCalculationCollapsingUnsupportedAlleles(final int ploidy, final int alleleCount, final int[] readCount) {
+        final AlleleLikelihoods<GATKRead, Allele> readLikelihoods = ReadLikelihoodsUnitTester.readLikelihoods(alleleCount, readCount);
+        for (int s = 0; s < readCount.length; s++) {
+            final LikelihoodMatrix<GATKRead, Allele> sampleLikelihoods = readLikelihoods.sampleMatrix(s);
+            final double[] expected = GenotypeLikelihoodCalculator.log10GenotypeLikelihoods(ploidy, sampleLikelihoods).getAsVector();
+            final double[] actual = GenotypeLikelihoodCalculator.log10GenotypeLikelihoodsCollapsingUnsupportedAlleles(ploidy, sampleLikelihoods).getAsVector();
+            Assert.assertEquals(actual.length, expected.length);
+
+            // the calculation is exact if there is at most one unsupported allele
+            final boolean[] supported = new boolean[alleleCount];
+            for (int r = 0; r < sampleLikelihoods.evidenceCount(); r++) {
+                double max = Double.NEGATIVE_INFINITY;
+                for (int a = 0; a < alleleCount; a++) {
+                    max = Math.max(max, sampleLikelihoods.get(a, r));
+                }
+                for (int a = 0; a < alleleCount; a++) {
+                    supported[a] |= sampleLikelihoods.get(a, r) == max;
+                }
+            }
+
+            final boolean exact = new IndexRange(0, alleleCount).filter(a -> !supported[a]).size() < 2;
+
+            for (final GenotypeAlleleCounts gac : GenotypeAlleleCounts.iterable(ploidy, alleleCount)) {
+                final boolean hasUnsupportedAllele = Arrays.stream(new IndexRange(0, gac.distinctAlleleCount()).mapToInteger(gac::alleleIndexAt))
+                        .anyMatch(a -> !supported[a]);
+                final double tolerance = 0.0001 * Math.abs(expected[gac.index()]) + 1.0e-10;
+                if (exact || !hasUnsupportedAllele) {
+                    Assert.assertEquals(actual[gac.index()], expected[gac.index()], tolerance);
+                } else {
+                    // the likelihood of a genotype with an unsupported allele is approximated from above
+                    Assert.assertTrue(actual[gac.index()] >= expected[gac.index()] - tolerance);
+                }
+            }
+        }
+    }
+
     private static final int[] MAXIMUM_ALLELE = { 1, 2, 5, 6};
 
     private static final int[] PLOIDY = { 1, 2, 3, 20 };
@@ -12,9 +12,11 @@ import htsjdk.variant.vcf.VCFConstants;
 import htsjdk.variant.vcf.VCFHeader;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.tuple.Pair;
+import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.cmdline.argumentcollections.IntervalArgumentCollection;
+import org.broadinstitute.hellbender.engine.AssemblyRegionWalker;
 import org.broadinstitute.hellbender.engine.FeatureDataSource;
 import org.broadinstitute.hellbender.engine.ReadsDataSource;
 import org.broadinstitute.hellbender.engine.ReadsPathDataSource;
@@ -411,6 +413,50 @@ public class HaplotypeCallerIntegrationTest extends CommandLineProgramTest {
     }
 
 
+    @DataProvider(name = "MultithreadedModes")
+    public Object[][] getMultithreadedModes() {
+        return new Object[][] {
+                {ReferenceConfidenceMode.NONE, ".vcf"},
+                {ReferenceConfidenceMode.GVCF, ".g.vcf"}
+        };
+    }
+
+    /*
+     * Test that calling regions on several threads gives the same output as calling them on one
+     */
+    @Test(dataProvider = "MultithreadedModes")
+    public void testMultithreadedOutputMatchesSingleThreaded(final ReferenceConfidenceMode mode, final String extension) throws Exception {
+        final File singleThreadedOutput = createTempFile("testMultithreadedOutputMatchesSingleThreaded.1", extension);
+        final File multithreadedOutput = createTempFile("testMultithreadedOutputMatchesSingleThreaded.4", extension);
+
+        for ( final Pair<File, Integer> outputAndThreads : Arrays.asList(Pair.of(singleThreadedOutput, 1), Pair.of(multithreadedOutput, 4)) ) {
+            Utils.resetRandomGenerator();
+            final ArgumentsBuilder args = new ArgumentsBuilder()
+                    .addInput(NA12878_20_21_WGS_bam)
+                    .addReference(b37_reference_20_21)
+                    .addInterval("20:10000000-10100000")
+                    .addOutput(outputAndThreads.getLeft())
+                    .add(AssemblyBasedCallerArgumentCollection.EMIT_REF_CONFIDENCE_LONG_NAME, mode.toString())
+                    .add(AssemblyRegionWalker.ASSEMBLY_REGION_THREADS_LONG_NAME, outputAndThreads.getRight())
+                    .add(StandardArgumentDefinitions.ADD_OUTPUT_VCF_COMMANDLINE, false);
+            runCommandLine(args);
+        }
+
+        IntegrationTestSpec.assertEqualTextFiles(multithreadedOutput, singleThreadedOutput);
+    }
+
+    @Test(expectedExceptions = CommandLineException.BadArgumentValue.class)
+    public void testMultithreadedRejectsBamout() {
+        final ArgumentsBuilder args = new ArgumentsBuilder()
+                .addInput(NA12878_20_21_WGS_bam)
+                .addReference(b37_reference_20_21)
+                .addInterval("20:10000000-10010000")
+                .addOutput(createTempFile("testMultithreadedRejectsBamout", ".vcf"))
+                .add(AssemblyBasedCallerArgumentCollection.BAM_OUTPUT_LONG_NAME, createTempFile("testMultithreadedRejectsBamout", ".bam"))
+                .add(AssemblyRegionWalker.ASSEMBLY_REGION_THREADS_LONG_NAME, 2);
+        runCommandLine(args);
+    }
+
     /*
      * Minimal test that the non-seq graph haplotype detection code is equivalent using either seq graphs or kmer graphs
      *
@@ -0,0 +1,49 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
+
+import htsjdk.variant.variantcontext.Allele;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.haplotype.Event;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+
+public class InternedEventTableUnitTest extends GATKBaseTest {
+
+    private final Event SNP_C_100 = new Event("20",100, Allele.REF_A,Allele.ALT_C);
+    private final Event SNP_G_100 = new Event("20",100, Allele.REF_A,Allele.ALT_G);
+    private final Event DEL_AA_102 = new Event("20",102, Allele.create("AA", true),Allele.ALT_A);
+    private final Event SNP_T_105 = new Event("20",105, Allele.REF_A,Allele.ALT_T);
+
+    @Test
+    public void testIdsAndEvents() {
+        final List<Event> eventsInOrder = List.of(SNP_C_100, SNP_G_100, DEL_AA_102, SNP_T_105);
+        final InternedEventTable table = new InternedEventTable(eventsInOrder);
+
+        Assert.assertEquals(table.size(), 4);
+        Assert.assertEquals(table.events(), eventsInOrder);
+        for (int id = 0; id < eventsInOrder.size(); id++) {
+            Assert.assertEquals(table.id(eventsInOrder.get(id)), id);
+            // equal events that are different objects get the same id
+            final Event copy = new Event(eventsInOrder.get(id).getContig(), eventsInOrder.get(id).getStart(),
+                    eventsInOrder.get(id).refAllele(), eventsInOrder.get(id).altAllele());
+            Assert.assertEquals(table.id(copy), id);
+            Assert.assertEquals(table.event(id), eventsInOrder.get(id));
+        }
+        Assert.assertEquals(table.id(new Event("20",107, Allele.REF_A,Allele.ALT_T)), -1);
+
+        // events come out in id order regardless of the order they went in, and events missing from the table are ignored
+        final BitSet ids = table.ids(Set.of(SNP_T_105, SNP_C_100, new Event("20",107, Allele.REF_A,Allele.ALT_T)));
+        Assert.assertEquals(ids.cardinality(), 2);
+        Assert.assertTrue(ids.get(0) && ids.get(3));
+        Assert.assertEquals(table.events(ids), List.of(SNP_C_100, SNP_T_105));
+        Assert.assertTrue(table.events(new BitSet()).isEmpty());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testDuplicateEvents() {
+        new InternedEventTable(List.of(SNP_C_100, DEL_AA_102, new Event("20",100, Allele.REF_A,Allele.ALT_C)));
+    }
+}
@@ -2,6 +2,7 @@ package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
 
 import org.broadinstitute.hellbender.GATKBaseTest;
 import org.testng.Assert;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.util.*;
@@ -86,4 +87,52 @@ public final class KMerCounterUnitTest extends GATKBaseTest {
         Assert.assertEquals(list.get(0).getKmer().bases(), kmer2.getBytes());
         Assert.assertEquals(list.get(1).getKmer().bases(), kmer1.getBytes());
     }
+
+    @DataProvider(name = "SequenceKmers")
+    public Object[][] makeSequenceKmers() {
+        final String sequence = "ACGTTGCANNTTAGGCCATGACGATCGGaTTACCAGTACGTTGCATTTAGGCCATGACGATCGGATTACNAGT";
+        return new Object[][] {
+                {sequence, 1}, {sequence, 3}, {sequence, 11}, {sequence, PackedKmers.MAX_PACKED_KMER_SIZE}, {sequence, 35},
+                {"NNNN", 2}, {"ACG", 5}
+        };
+    }
+
+    @Test(dataProvider = "SequenceKmers")
+    public void testAddSequenceKmers(final String sequence, final int kmerLength) {
+        final byte[] bases = sequence.getBytes();
+        final KMerCounter counter = new KMerCounter(kmerLength);
+        counter.addKmers(bases, 1);
+        counter.addKmers(bases, 2);
+
+        // count the same kmers the way they used to be counted, as Kmer objects in a map
+        final Map<Kmer, Integer> expected = new HashMap<>();
+        for ( int pass = 1; pass <= 2; pass++ ) {
+            for ( int offset = 0; offset <= bases.length - kmerLength; offset++ ) {
+                expected.merge(new Kmer(bases, offset, kmerLength), pass, Integer::sum);
+            }
+        }
+
+        for ( final Map.Entry<Kmer, Integer> entry : expected.entrySet() ) {
+            Assert.assertEquals(counter.getKmerCount(entry.getKey()), (int) entry.getValue(), entry.getKey().toString());
+        }
+        final List<Kmer> actualKmers = new ArrayList<>();
+        for ( final KMerCounter.CountedKmer countedKmer : counter.getCountedKmers() ) {
+            Assert.assertEquals(countedKmer.getCount(), (int) expected.get(countedKmer.getKmer()));
+            actualKmers.add(countedKmer.getKmer());
+        }
+        Assert.assertEquals(actualKmers, new ArrayList<>(expected.keySet()));
+    }
+
+    @Test
+    public void testCountedKmersAreUpdatedByAdds() {
+        final KMerCounter counter = new KMerCounter(3);
+        counter.addKmers("ATG", "NTG");
+        Assert.assertEquals(counter.getCountedKmers().size(), 2);
+        counter.addKmers("ATG".getBytes(), 3);
+        Assert.assertEquals(counter.getKmerCount(new Kmer("ATG")), 4);
+        for ( final KMerCounter.CountedKmer countedKmer : counter.getCountedKmers() ) {
+            Assert.assertEquals(countedKmer.getCount(), countedKmer.getKmer().equals(new Kmer("ATG")) ? 4 : 1);
+        }
+        Assert.assertEquals(counter.getKmerCount(new Kmer("ATGC")), 0);
+    }
 }
@@ -0,0 +1,50 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+public final class PackedKmersUnitTest extends GATKBaseTest {
+
+    @Test
+    public void testPackAndUnpackKmers() {
+        final byte[] sequence = "GATTACAGATTACAGATTACAGATTACAGATTACA".getBytes();
+        for ( final int kmerSize : new int[] {1, 5, 17, PackedKmers.MAX_PACKED_KMER_SIZE} ) {
+            for ( int start = 0; start + kmerSize <= sequence.length; start++ ) {
+                final long packed = PackedKmers.pack(sequence, start, kmerSize);
+                Assert.assertEquals(PackedKmers.unpack(packed, kmerSize), Arrays.copyOfRange(sequence, start, start + kmerSize));
+                Assert.assertEquals(new Kmer(sequence, start, kmerSize).pack(), packed);
+            }
+        }
+        Assert.assertEquals(PackedKmers.baseToCode((byte) 'N'), PackedKmers.NOT_A_BASE);
+        Assert.assertEquals(PackedKmers.baseToCode((byte) 'a'), PackedKmers.NOT_A_BASE);
+    }
+
+    @Test
+    public void testRollingKmersMatchPackedKmers() {
+        final byte[] sequence = "ACGTTGCATTTAGGCCATGACGATCGGATTACCAGT".getBytes();
+        final int kmerSize = 13;
+        final long mask = PackedKmers.kmerMask(kmerSize);
+        long kmer = PackedKmers.pack(sequence, 0, kmerSize);
+        for ( int start = 1; start + kmerSize <= sequence.length; start++ ) {
+            kmer = ((kmer << 2) | PackedKmers.baseToCode(sequence[start + kmerSize - 1])) & mask;
+            Assert.assertEquals(kmer, PackedKmers.pack(sequence, start, kmerSize));
+        }
+    }
+
+    @Test
+    public void testUnpackableKmers() {
+        Assert.assertEquals(PackedKmers.pack("ACGNT".getBytes(), 0, 5), PackedKmers.NOT_PACKABLE);
+        Assert.assertEquals(PackedKmers.pack("ACGNT".getBytes(), 0, 3), PackedKmers.pack("ACG".getBytes(), 0, 3));
+        final byte[] tooLong = new byte[PackedKmers.MAX_PACKED_KMER_SIZE + 1];
+        Arrays.fill(tooLong, (byte) 'A');
+        Assert.assertEquals(PackedKmers.pack(tooLong, 0, tooLong.length), PackedKmers.NOT_PACKABLE);
+        Assert.assertEquals(new Kmer(tooLong).pack(), PackedKmers.NOT_PACKABLE);
+        // all-T kmers of the maximum size use every packed bit and must not collide with the sentinel
+        final byte[] allT = new byte[PackedKmers.MAX_PACKED_KMER_SIZE];
+        Arrays.fill(allT, (byte) 'T');
+        Assert.assertNotEquals(PackedKmers.pack(allT, 0, allT.length), PackedKmers.NOT_PACKABLE);
+    }
+}
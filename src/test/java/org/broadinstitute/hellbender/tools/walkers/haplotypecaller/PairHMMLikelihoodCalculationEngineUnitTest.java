@@ -7,9 +7,12 @@ import htsjdk.variant.variantcontext.Allele;
 import org.broadinstitute.gatk.nativebindings.pairhmm.PairHMMNativeArguments;
 import org.broadinstitute.hellbender.utils.MathUtils;
 import org.broadinstitute.hellbender.utils.QualityUtils;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.genotyper.*;
 import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
+import org.broadinstitute.hellbender.utils.pairhmm.LoglessPairHMM;
 import org.broadinstitute.hellbender.utils.pairhmm.PairHMM;
+import org.broadinstitute.hellbender.utils.pairhmm.PairHMMInputScoreImputator;
 import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.GATKBaseTest;
@@ -198,4 +201,170 @@ public final class PairHMMLikelihoodCalculationEngineUnitTest extends GATKBaseTe
         Assert.assertTrue(v1 > v2, "matching haplotype should have a higher likelihood");
         lce.close();
     }
+
+    @Test
+    public void testLikelihoodCacheMatchesPairHMM() {
+        final PairHMMLikelihoodCalculationEngine uncached = makeEngine(0);
+        final PairHMMLikelihoodCalculationEngine cached = makeEngine(1000);
+        final PairHMMLikelihoodCalculationEngine tinyCache = makeEngine(5);
+        Assert.assertNull(uncached.getLikelihoodCache());
+
+        final Random random = new Random(13);
+        final byte[] refBases = randomBases(random, 60);
+        final List<Haplotype> haplotypes = makeHaplotypes(refBases);
+        final List<GATKRead> reads = makeReads(random, refBases, "read", 8);
+
+        final SampleList samples = new IndexedSampleList("sample1");
+        // the second pass sees half of the reads again, as overlapping regions would
+        final List<List<GATKRead>> passes = Arrays.asList(reads.subList(0, 6), reads.subList(2, 8), reads.subList(2, 8));
+        for (final List<GATKRead> pass : passes) {
+            final Map<String, List<GATKRead>> perSampleReadList = Collections.singletonMap("sample1", new ArrayList<>(pass));
+            final LikelihoodMatrix<GATKRead, Haplotype> expected = uncached.computeReadLikelihoods(haplotypes, null, samples, perSampleReadList, false).sampleMatrix(0);
+            for (final PairHMMLikelihoodCalculationEngine engine : Arrays.asList(cached, tinyCache)) {
+                final LikelihoodMatrix<GATKRead, Haplotype> actual = engine.computeReadLikelihoods(haplotypes, null, samples, perSampleReadList, false).sampleMatrix(0);
+                Assert.assertEquals(actual.evidence(), expected.evidence());
+                for (int h = 0; h < haplotypes.size(); h++) {
+                    for (int r = 0; r < expected.evidenceCount(); r++) {
+                        Assert.assertEquals(actual.get(h, r), expected.get(h, r));
+                    }
+                }
+            }
+        }
+
+        // reads 2 to 5 against all haplotypes in the second pass, and all of the reads in the third
+        Assert.assertEquals(cached.getLikelihoodCache().getHits(), 3 * (4 + 6));
+        Assert.assertEquals(cached.getLikelihoodCache().getMisses(), 3 * (6 + 2));
+        Assert.assertEquals(cached.getLikelihoodCache().size(), 3 * 8);
+        Assert.assertEquals(tinyCache.getLikelihoodCache().size(), 5);
+
+        uncached.close();
+        cached.close();
+        tinyCache.close();
+    }
+
+    @Test
+    public void testLikelihoodCacheImputesEachReadOnce() {
+        final Random random = new Random(19);
+        final byte[] refBases = randomBases(random, 60);
+        final List<Haplotype> haplotypes = makeHaplotypes(refBases);
+        final List<GATKRead> reads = makeReads(random, refBases, "read", 6);
+        final AlleleLikelihoods<GATKRead, Haplotype> likelihoods = new AlleleLikelihoods<>(new IndexedSampleList("sample1"),
+                new IndexedAlleleList<>(haplotypes), Collections.singletonMap("sample1", reads));
+
+        final PairHMMInputScoreImputator imputator = StandardPairHMMInputScoreImputator.newInstance((byte) 10);
+        final int[] imputations = new int[1];
+        final PairHMMInputScoreImputator countingImputator = read -> {
+            imputations[0]++;
+            return imputator.impute(read);
+        };
+
+        final PairHMMLikelihoodCache cache = new PairHMMLikelihoodCache(1000);
+        final PairHMM pairHMM = new LoglessPairHMM();
+        // all of the reads are computed by the PairHMM, and then all are found in the cache
+        for (int pass = 1; pass <= 2; pass++) {
+            cache.computeLog10Likelihoods(likelihoods.sampleMatrix(0), reads, countingImputator, pairHMM);
+            Assert.assertEquals(imputations[0], pass * reads.size());
+        }
+        pairHMM.close();
+    }
+
+    @Test
+    public void testSamplesAreComputedInOneBatch() {
+        final CountingPairHMM countingPairHMM = new CountingPairHMM();
+        final PairHMMLikelihoodCalculationEngine engine = new PairHMMLikelihoodCalculationEngine((byte) 10, null, countingPairHMM,
+                null, -4.5, PairHMMLikelihoodCalculationEngine.PCRErrorModel.CONSERVATIVE, PairHMM.BASE_QUALITY_SCORE_THRESHOLD, false,
+                PairHMMLikelihoodCalculationEngine.DEFAULT_DYNAMIC_DISQUALIFICATION_SCALE_FACTOR, ReadLikelihoodCalculationEngine.DEFAULT_EXPECTED_ERROR_RATE_PER_BASE,
+                true, false, true, 0);
+        final Random random = new Random(17);
+        final byte[] refBases = randomBases(random, 60);
+        final List<Haplotype> haplotypes = makeHaplotypes(refBases);
+
+        final SampleList samples = new IndexedSampleList("sample1", "sample2", "sample3");
+        final Map<String, List<GATKRead>> perSampleReadList = new LinkedHashMap<>();
+        perSampleReadList.put("sample1", makeReads(random, refBases, "sample1_read", 5));
+        perSampleReadList.put("sample2", new ArrayList<>());
+        perSampleReadList.put("sample3", makeReads(random, refBases, "sample3_read", 7));
+        final AlleleLikelihoods<GATKRead, Haplotype> batched = engine.computeReadLikelihoods(haplotypes, null, samples, perSampleReadList, false);
+
+        // the reads of all samples go to the PairHMM in a single call
+        Assert.assertEquals(countingPairHMM.numberOfCalls, 1);
+        Assert.assertEquals(countingPairHMM.numberOfReads, 5 + 7);
+
+        for (int s = 0; s < samples.numberOfSamples(); s++) {
+            final String sample = samples.getSample(s);
+            final AlleleLikelihoods<GATKRead, Haplotype> single = engine.computeReadLikelihoods(haplotypes, null, new IndexedSampleList(sample),
+                    Collections.singletonMap(sample, new ArrayList<>(perSampleReadList.get(sample))), false);
+            final LikelihoodMatrix<GATKRead, Haplotype> expected = single.sampleMatrix(0);
+            final LikelihoodMatrix<GATKRead, Haplotype> actual = batched.sampleMatrix(s);
+            Assert.assertEquals(actual.evidence(), expected.evidence());
+            for (int h = 0; h < haplotypes.size(); h++) {
+                for (int r = 0; r < expected.evidenceCount(); r++) {
+                    Assert.assertEquals(actual.get(h, r), expected.get(h, r));
+                }
+            }
+        }
+        engine.close();
+    }
+
+    /**
+     * A LoglessPairHMM that counts the calls to computeLog10Likelihoods and the reads passed to them
+     */
+    private static final class CountingPairHMM extends LoglessPairHMM {
+        private int numberOfCalls = 0;
+        private int numberOfReads = 0;
+
+        @Override
+        public void computeLog10Likelihoods(final LikelihoodMatrix<GATKRead, Haplotype> logLikelihoods,
+                                            final List<GATKRead> processedReads,
+                                            final PairHMMInputScoreImputator inputScoreImputator) {
+            numberOfCalls++;
+            numberOfReads += processedReads.size();
+            super.computeLog10Likelihoods(logLikelihoods, processedReads, inputScoreImputator);
+        }
+    }
+
+    private static byte[] randomBases(final Random random, final int length) {
+        final byte[] bases = new byte[length];
+        for (int i = 0; i < bases.length; i++) {
+            bases[i] = "ACGT".getBytes()[random.nextInt(4)];
+        }
+        return bases;
+    }
+
+    private static List<Haplotype> makeHaplotypes(final byte[] refBases) {
+        final List<Haplotype> haplotypes = new ArrayList<>();
+        for (int h = 0; h < 3; h++) {
+            final byte[] bases = refBases.clone();
+            if (h > 0) {
+                bases[20 * h] = bases[20 * h] == 'A' ? (byte) 'C' : (byte) 'A';
+            }
+            final Haplotype haplotype = new Haplotype(bases, h == 0);
+            haplotype.setGenomeLocation(new SimpleInterval("1", 1, bases.length));
+            haplotypes.add(haplotype);
+        }
+        return haplotypes;
+    }
+
+    private static List<GATKRead> makeReads(final Random random, final byte[] refBases, final String namePrefix, final int count) {
+        final List<GATKRead> reads = new ArrayList<>();
+        for (int r = 0; r < count; r++) {
+            final int start = random.nextInt(20);
+            final byte[] quals = new byte[30];
+            for (int i = 0; i < quals.length; i++) {
+                quals[i] = (byte) (20 + random.nextInt(20));
+            }
+            final GATKRead read = ArtificialReadUtils.createArtificialRead(Arrays.copyOfRange(refBases, start, start + 30), quals, "30M");
+            read.setMappingQuality(60);
+            read.setName(namePrefix + r);
+            reads.add(read);
+        }
+        return reads;
+    }
+
+    private static PairHMMLikelihoodCalculationEngine makeEngine(final int likelihoodCacheSize) {
+        return new PairHMMLikelihoodCalculationEngine((byte) 10, null, new PairHMMNativeArguments(), PairHMM.Implementation.LOGLESS_CACHING,
+                null, -4.5, PairHMMLikelihoodCalculationEngine.PCRErrorModel.CONSERVATIVE, PairHMM.BASE_QUALITY_SCORE_THRESHOLD, false,
+                PairHMMLikelihoodCalculationEngine.DEFAULT_DYNAMIC_DISQUALIFICATION_SCALE_FACTOR, ReadLikelihoodCalculationEngine.DEFAULT_EXPECTED_ERROR_RATE_PER_BASE,
+                true, false, true, likelihoodCacheSize);
+    }
 }
@@ -0,0 +1,146 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMReadGroupRecord;
+import htsjdk.variant.variantcontext.Genotype;
+import htsjdk.variant.variantcontext.VariantContext;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.engine.AssemblyRegion;
+import org.broadinstitute.hellbender.engine.ReferenceContext;
+import org.broadinstitute.hellbender.engine.ReferenceMemorySource;
+import org.broadinstitute.hellbender.tools.walkers.genotyper.HomogeneousPloidyModel;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.genotyper.SampleList;
+import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
+import org.broadinstitute.hellbender.utils.pileup.ReadPileup;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.reference.ReferenceBases;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public final class PileupReferenceConfidenceBufferUnitTest extends GATKBaseTest {
+    private static final String SAMPLE = "NA12878";
+    private static final int CONTIG_LENGTH = 1000;
+    private static final int MAX_INDEL_SIZE = 10;
+
+    private final SampleList samples = SampleList.singletonSampleList(SAMPLE);
+    private SAMFileHeader header;
+    private SAMReadGroupRecord readGroup;
+    private byte[] refBases;
+    private ReferenceMemorySource reference;
+
+    @BeforeClass
+    public void setUp() {
+        header = ArtificialReadUtils.createArtificialSamHeader(1, 1, CONTIG_LENGTH);
+        readGroup = new SAMReadGroupRecord("ID1");
+        readGroup.setSample(SAMPLE);
+        header.addReadGroup(readGroup);
+
+        final Random random = new Random(13);
+        final byte[] bases = {'A', 'C', 'G', 'T'};
+        refBases = new byte[CONTIG_LENGTH];
+        for ( int i = 0; i < CONTIG_LENGTH; i++ ) {
+            refBases[i] = bases[random.nextInt(bases.length)];
+        }
+        // a homopolymer run, in which reads are not informative about indels
+        Arrays.fill(refBases, 229, 237, (byte) 'A');
+        reference = new ReferenceMemorySource(new ReferenceBases(refBases, new SimpleInterval("1", 1, CONTIG_LENGTH)), header.getSequenceDictionary());
+    }
+
+    private ReferenceConfidenceModel makeModel() {
+        return new ReferenceConfidenceModel(samples, header, MAX_INDEL_SIZE, -1, (byte) 30, true, false);
+    }
+
+    private PileupReferenceConfidenceBuffer makeBuffer(final ReferenceConfidenceModel model) {
+        return new PileupReferenceConfidenceBuffer(model, header.getSequenceDictionary(), SAMPLE, 2, MAX_INDEL_SIZE, read -> true);
+    }
+
+    private GATKRead makeRead(final int start, final int length) {
+        final GATKRead read = ArtificialReadUtils.createArtificialRead(header, "read" + start, 0, start,
+                Arrays.copyOfRange(refBases, start - 1, start - 1 + length), Utils.dupBytes((byte) 30, length), length + "M");
+        read.setReadGroup(readGroup.getId());
+        return read;
+    }
+
+    private void addPositions(final PileupReferenceConfidenceBuffer buffer, final List<GATKRead> reads, final int start, final int end) {
+        for ( int position = start; position <= end; position++ ) {
+            final SimpleInterval locus = new SimpleInterval("1", position, position);
+            buffer.add(reads.isEmpty() ? null : new ReadPileup(locus, reads), new ReferenceContext(reference, locus));
+        }
+    }
+
+    @Test
+    public void testTakeAndDiscard() {
+        final PileupReferenceConfidenceBuffer buffer = makeBuffer(makeModel());
+        addPositions(buffer, Collections.emptyList(), 1, 20);
+
+        final List<VariantContext> taken = buffer.take(new SimpleInterval("1", 5, 10));
+        Assert.assertNotNull(taken);
+        Assert.assertEquals(taken.size(), 6);
+        for ( int i = 0; i < taken.size(); i++ ) {
+            Assert.assertEquals(taken.get(i).getStart(), 5 + i);
+            Assert.assertEquals(taken.get(i).getReference().getBases()[0], refBases[4 + i]);
+            Assert.assertEquals(taken.get(i).getGenotype(SAMPLE).getDP(), 0);
+        }
+
+        // positions that were already taken and positions that were not added yet are not available
+        Assert.assertNull(buffer.take(new SimpleInterval("1", 3, 4)));
+        Assert.assertNull(buffer.take(new SimpleInterval("1", 15, 25)));
+
+        Assert.assertEquals(buffer.take(new SimpleInterval("1", 11, 14)).size(), 4);
+        buffer.discard(new SimpleInterval("1", 15, 17));
+        Assert.assertNull(buffer.take(new SimpleInterval("1", 16, 18)));
+        Assert.assertEquals(buffer.take(new SimpleInterval("1", 18, 20)).size(), 3);
+    }
+
+    @Test
+    public void testSameResultAsReferenceConfidenceModel() {
+        // reads that match the reference and end well within the padded region, for which the reference confidence
+        // computed from the pileups before assembly is the same as the one computed from the region
+        final SimpleInterval span = new SimpleInterval("1", 201, 260);
+        final AssemblyRegion region = new AssemblyRegion(span, 100, header);
+        final List<GATKRead> reads = new ArrayList<>();
+        for ( int start = 151; start <= 280; start += 3 ) {
+            reads.add(makeRead(start, 50));
+        }
+        region.addAll(reads);
+
+        final ReferenceConfidenceModel model = makeModel();
+        final SimpleInterval paddedSpan = region.getPaddedSpan();
+        final Haplotype refHaplotype = ReferenceConfidenceModel.createReferenceHaplotype(region,
+                Arrays.copyOfRange(refBases, paddedSpan.getStart() - 1, paddedSpan.getEnd()), paddedSpan);
+        final List<VariantContext> expected = model.calculateRefConfidence(refHaplotype, Collections.singletonList(refHaplotype),
+                paddedSpan, region, AssemblyBasedCallerUtils.createDummyStratifiedReadMap(refHaplotype, samples, header, region),
+                new HomogeneousPloidyModel(samples, 2), Collections.emptyList());
+
+        final PileupReferenceConfidenceBuffer buffer = makeBuffer(makeModel());
+        addPositions(buffer, reads, paddedSpan.getStart(), paddedSpan.getEnd());
+        final List<VariantContext> actual = buffer.take(span);
+
+        Assert.assertNotNull(actual);
+        Assert.assertEquals(actual.size(), expected.size());
+        for ( int i = 0; i < expected.size(); i++ ) {
+            Assert.assertEquals(actual.get(i).getStart(), expected.get(i).getStart());
+            Assert.assertEquals(actual.get(i).getAlleles(), expected.get(i).getAlleles());
+            final Genotype actualGenotype = actual.get(i).getGenotype(SAMPLE);
+            final Genotype expectedGenotype = expected.get(i).getGenotype(SAMPLE);
+            Assert.assertEquals(actualGenotype.getDP(), expectedGenotype.getDP());
+            Assert.assertEquals(actualGenotype.getAD(), expectedGenotype.getAD());
+            Assert.assertEquals(actualGenotype.getPL(), expectedGenotype.getPL(), "at " + actual.get(i).getStart());
+            Assert.assertEquals(actualGenotype.getGQ(), expectedGenotype.getGQ());
+        }
+        // the indel informativeness of the reads is not cached in the reads themselves
+        for ( final GATKRead read : reads ) {
+            Assert.assertNull(read.getTransientAttribute(ReferenceConfidenceModel.INDEL_INFORMATIVE_BASES_CACHE_ATTRIBUTE_NAME));
+        }
+    }
+}
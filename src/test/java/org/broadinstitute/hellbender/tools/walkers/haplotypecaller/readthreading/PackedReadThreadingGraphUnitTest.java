@@ -0,0 +1,167 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.Kmer;
+import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.graphs.LowWeightChainPruner;
+import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.graphs.MultiSampleEdge;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.*;
+
+public final class PackedReadThreadingGraphUnitTest extends GATKBaseTest {
+
+    private static final byte[] BASES = {'A', 'C', 'G', 'T'};
+
+    @DataProvider(name = "GraphData")
+    public Object[][] makeGraphData() {
+        final List<Object[]> tests = new ArrayList<>();
+        for ( final int kmerSize : new int[] {10, 25, 31} ) {
+            for ( final int numSamples : new int[] {1, 3} ) {
+                for ( final int numPruningSamples : new int[] {1, 2} ) {
+                    tests.add(new Object[] {kmerSize, numSamples, numPruningSamples, false, true});
+                }
+            }
+            // Ns in reads are only threaded around, so the packed graph is still used
+            tests.add(new Object[] {kmerSize, 2, 1, true, true});
+        }
+        // kmers that do not fit in a long fall back to the regular graph
+        tests.add(new Object[] {35, 2, 1, false, false});
+        return tests.toArray(new Object[][]{});
+    }
+
+    @Test(dataProvider = "GraphData")
+    public void testSameGraphAsReadThreadingGraph(final int kmerSize, final int numSamples, final int numPruningSamples, final boolean addNs, final boolean expectPacked) {
+        final Random random = new Random(kmerSize * 31 + numSamples);
+        final byte[] ref = randomBases(random, 300);
+        // duplicate a segment of the reference and add a short tandem repeat to create non-unique kmers
+        System.arraycopy(ref, 40, ref, 160, 40);
+        for ( int i = 220; i < 250; i++ ) {
+            ref[i] = i % 2 == 0 ? (byte) 'C' : (byte) 'A';
+        }
+
+        final ReadThreadingGraph expected = new ReadThreadingGraph(kmerSize, false, (byte) 10, numPruningSamples, -1);
+        final PackedReadThreadingGraph actual = new PackedReadThreadingGraph(kmerSize, false, (byte) 10, numPruningSamples, -1);
+        for ( final ReadThreadingGraph graph : Arrays.asList(expected, actual) ) {
+            graph.addSequence("ref", ref, true);
+        }
+
+        for ( int sample = 0; sample < numSamples; sample++ ) {
+            for ( int i = 0; i < 60; i++ ) {
+                final int start = random.nextInt(ref.length - 100);
+                final byte[] read = Arrays.copyOfRange(ref, start, start + 100);
+                if ( random.nextInt(3) == 0 ) {
+                    read[random.nextInt(read.length)] = BASES[random.nextInt(BASES.length)];
+                }
+                int threadingStart = 0;
+                if ( addNs && random.nextBoolean() ) {
+                    // like AbstractReadThreadingGraph.addRead(), only the part after the N is threaded
+                    threadingStart = 1 + random.nextInt(20);
+                    read[threadingStart - 1] = 'N';
+                }
+                final int count = 1 + random.nextInt(2);
+                for ( final ReadThreadingGraph graph : Arrays.asList(expected, actual) ) {
+                    graph.addSequence("read" + i, "sample" + sample, read, threadingStart, read.length, count, false);
+                }
+            }
+        }
+
+        expected.buildGraphIfNecessary();
+        actual.buildGraphIfNecessary();
+        Assert.assertEquals(actual.isPacked(), expectPacked);
+        assertSameGraph(actual, expected);
+
+        // the graphs must also stay the same through pruning
+        final LowWeightChainPruner<MultiDeBruijnVertex, MultiSampleEdge> pruner = new LowWeightChainPruner<>(2);
+        pruner.pruneLowWeightChains(expected);
+        pruner.pruneLowWeightChains(actual);
+        assertSameGraph(actual, expected);
+    }
+
+    @Test
+    public void testUnpackableReferenceFallsBack() {
+        final byte[] ref = "NNNNNGATTACAGGCATCGATCGGATCCGATTTACGACTAGCCTAGCTAGCNNNN".getBytes();
+        final ReadThreadingGraph expected = new ReadThreadingGraph(11, false, (byte) 10, 1, -1);
+        final PackedReadThreadingGraph actual = new PackedReadThreadingGraph(11, false, (byte) 10, 1, -1);
+        for ( final ReadThreadingGraph graph : Arrays.asList(expected, actual) ) {
+            graph.addSequence("ref", ref, true);
+            graph.addSequence("read", Arrays.copyOfRange(ref, 5, 40), false);
+            graph.buildGraphIfNecessary();
+        }
+        Assert.assertFalse(actual.isPacked());
+        assertSameGraph(actual, expected);
+    }
+
+    private static byte[] randomBases(final Random random, final int length) {
+        final byte[] bases = new byte[length];
+        for ( int i = 0; i < length; i++ ) {
+            bases[i] = BASES[random.nextInt(BASES.length)];
+        }
+        return bases;
+    }
+
+    private static void assertSameGraph(final ReadThreadingGraph actual, final ReadThreadingGraph expected) {
+        final List<MultiDeBruijnVertex> actualVertices = new ArrayList<>(actual.vertexSet());
+        final List<MultiDeBruijnVertex> expectedVertices = new ArrayList<>(expected.vertexSet());
+        Assert.assertEquals(actualVertices.size(), expectedVertices.size());
+        final Map<MultiDeBruijnVertex, Integer> actualIndices = new IdentityHashMap<>();
+        final Map<MultiDeBruijnVertex, Integer> expectedIndices = new IdentityHashMap<>();
+        for ( int i = 0; i < actualVertices.size(); i++ ) {
+            Assert.assertEquals(actualVertices.get(i).getSequenceString(), expectedVertices.get(i).getSequenceString());
+            Assert.assertEquals(actualVertices.get(i).getAdditionalInfo(), expectedVertices.get(i).getAdditionalInfo());
+            actualIndices.put(actualVertices.get(i), i);
+            expectedIndices.put(expectedVertices.get(i), i);
+        }
+
+        final List<MultiSampleEdge> actualEdges = new ArrayList<>(actual.edgeSet());
+        final List<MultiSampleEdge> expectedEdges = new ArrayList<>(expected.edgeSet());
+        Assert.assertEquals(actualEdges.size(), expectedEdges.size());
+        for ( int i = 0; i < actualEdges.size(); i++ ) {
+            final MultiSampleEdge actualEdge = actualEdges.get(i);
+            final MultiSampleEdge expectedEdge = expectedEdges.get(i);
+            Assert.assertEquals(actualIndices.get(actual.getEdgeSource(actualEdge)), expectedIndices.get(expected.getEdgeSource(expectedEdge)));
+            Assert.assertEquals(actualIndices.get(actual.getEdgeTarget(actualEdge)), expectedIndices.get(expected.getEdgeTarget(expectedEdge)));
+            Assert.assertEquals(actualEdge.getMultiplicity(), expectedEdge.getMultiplicity());
+            Assert.assertEquals(actualEdge.getPruningMultiplicity(), expectedEdge.getPruningMultiplicity());
+            Assert.assertEquals(actualEdge.isRef(), expectedEdge.isRef());
+        }
+
+        for ( int i = 0; i < actualVertices.size(); i++ ) {
+            Assert.assertEquals(edgeTargets(actual, actualVertices.get(i), actualIndices), edgeTargets(expected, expectedVertices.get(i), expectedIndices));
+        }
+
+        final List<Kmer> actualKmers = new ArrayList<>(actual.kmerToVertexMap.keySet());
+        Assert.assertEquals(actualKmers, new ArrayList<>(expected.kmerToVertexMap.keySet()));
+        for ( final Kmer kmer : actualKmers ) {
+            Assert.assertEquals(actualIndices.get(actual.kmerToVertexMap.get(kmer)), expectedIndices.get(expected.kmerToVertexMap.get(kmer)));
+        }
+
+        Assert.assertEquals(actual.getNonUniqueKmers(), expected.getNonUniqueKmers());
+        Assert.assertEquals(actual.isLowQualityGraph(), expected.isLowQualityGraph());
+        Assert.assertEquals(vertexIndices(actual.referencePath, actualIndices), vertexIndices(expected.referencePath, expectedIndices));
+    }
+
+    private static List<Integer> edgeTargets(final ReadThreadingGraph graph, final MultiDeBruijnVertex vertex, final Map<MultiDeBruijnVertex, Integer> indices) {
+        final List<Integer> targets = new ArrayList<>();
+        for ( final MultiSampleEdge edge : graph.outgoingEdgesOf(vertex) ) {
+            targets.add(indices.get(graph.getEdgeTarget(edge)));
+        }
+        for ( final MultiSampleEdge edge : graph.incomingEdgesOf(vertex) ) {
+            targets.add(-1 - indices.get(graph.getEdgeSource(edge)));
+        }
+        return targets;
+    }
+
+    private static List<Integer> vertexIndices(final List<MultiDeBruijnVertex> path, final Map<MultiDeBruijnVertex, Integer> indices) {
+        if ( path == null ) {
+            return null;
+        }
+        final List<Integer> result = new ArrayList<>();
+        for ( final MultiDeBruijnVertex vertex : path ) {
+            // vertices removed by pruning are no longer in the graph
+            result.add(indices.get(vertex));
+        }
+        return result;
+    }
+}
@@ -31,6 +31,9 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public final class ReadThreadingAssemblerUnitTest extends GATKBaseTest {
     private static final SWParameters DANGLING_END_SW_PARAMETERS = SmithWatermanAlignmentConstants.STANDARD_NGS;
@@ -246,6 +249,111 @@ public final class ReadThreadingAssemblerUnitTest extends GATKBaseTest {
         Assert.assertTrue(haplotypes_hash.contains(altHaplotype), "Alternate haplotype missing");
     }
 
+    @DataProvider(name = "ConcurrentKmerAssemblyData")
+    public Object[][] makeConcurrentKmerAssemblyData() {
+        return new Object[][] { { false }, { true } };
+    }
+
+    @Test(dataProvider = "ConcurrentKmerAssemblyData")
+    public void testConcurrentKmerAssemblyMatchesSerial(final boolean useLinkedDeBruijnGraphs) {
+        final byte[] refBases = makeNonUniqueKmerReference();
+        final SimpleInterval loc = new SimpleInterval("1", NON_UNIQUE_KMER_START, NON_UNIQUE_KMER_START + refBases.length - 1);
+        final List<GATKRead> reads = makeNonUniqueKmerReads(refBases, loc);
+
+        final List<Haplotype> serialHaplotypes = assemble(makeMultiKmerAssembler(useLinkedDeBruijnGraphs), refBases, loc, reads);
+        Assert.assertTrue(serialHaplotypes.size() > 1, "Failed to assemble any alt haplotype");
+
+        final ReadThreadingAssembler concurrentAssembler = makeMultiKmerAssembler(useLinkedDeBruijnGraphs);
+        concurrentAssembler.setNumKmerAssemblyThreads(4);
+        try {
+            for ( int repeatIndex = 0; repeatIndex < 5; repeatIndex++ ) {
+                final List<Haplotype> concurrentHaplotypes = assemble(concurrentAssembler, refBases, loc, reads);
+                Assert.assertEquals(concurrentHaplotypes, serialHaplotypes);
+                for ( int i = 0; i < serialHaplotypes.size(); i++ ) {
+                    Assert.assertEquals(concurrentHaplotypes.get(i).getCigar(), serialHaplotypes.get(i).getCigar());
+                    Assert.assertEquals(concurrentHaplotypes.get(i).getKmerSize(), serialHaplotypes.get(i).getKmerSize());
+                }
+            }
+        } finally {
+            concurrentAssembler.close();
+        }
+    }
+
+    @Test(dataProvider = "ConcurrentKmerAssemblyData")
+    public void testSharedKmerAssemblyExecutor(final boolean useLinkedDeBruijnGraphs) throws Exception {
+        final byte[] refBases = makeNonUniqueKmerReference();
+        final SimpleInterval loc = new SimpleInterval("1", NON_UNIQUE_KMER_START, NON_UNIQUE_KMER_START + refBases.length - 1);
+        final List<GATKRead> reads = makeNonUniqueKmerReads(refBases, loc);
+        final List<Haplotype> serialHaplotypes = assemble(makeMultiKmerAssembler(useLinkedDeBruijnGraphs), refBases, loc, reads);
+
+        // several assemblers, each used by a thread of its own, building their graphs on one small pool
+        final ExecutorService sharedExecutor = ReadThreadingAssembler.makeKmerAssemblyExecutor(2);
+        final ExecutorService callers = Executors.newFixedThreadPool(3);
+        try {
+            final List<Future<List<List<Haplotype>>>> results = new ArrayList<>();
+            for ( int i = 0; i < 3; i++ ) {
+                final ReadThreadingAssembler assembler = makeMultiKmerAssembler(useLinkedDeBruijnGraphs);
+                assembler.setKmerAssemblyExecutor(sharedExecutor);
+                final List<GATKRead> callerReads = makeNonUniqueKmerReads(refBases, loc);
+                results.add(callers.submit(() -> {
+                    try {
+                        final List<List<Haplotype>> haplotypes = new ArrayList<>();
+                        for ( int repeatIndex = 0; repeatIndex < 3; repeatIndex++ ) {
+                            haplotypes.add(assemble(assembler, refBases, loc, callerReads));
+                        }
+                        return haplotypes;
+                    } finally {
+                        assembler.close();
+                    }
+                }));
+            }
+
+            for ( final Future<List<List<Haplotype>>> result : results ) {
+                for ( final List<Haplotype> concurrentHaplotypes : result.get() ) {
+                    Assert.assertEquals(concurrentHaplotypes, serialHaplotypes);
+                }
+            }
+            // closing the assemblers leaves the pool they share to its owner
+            Assert.assertFalse(sharedExecutor.isShutdown());
+        } finally {
+            callers.shutdownNow();
+            sharedExecutor.shutdownNow();
+        }
+    }
+
+    private static final int NON_UNIQUE_KMER_START = 100000;
+
+    // the duplicated 40bp segment makes the reference kmers non-unique for the requested kmer sizes, so the
+    // assembler has to fall back to the larger kmer sizes
+    private byte[] makeNonUniqueKmerReference() {
+        final String contig = "1";
+        final int start = NON_UNIQUE_KMER_START;
+        final String flank = new String(seq.getSubsequenceAt(contig, start, start + 99).getBases());
+        final String repeat = new String(seq.getSubsequenceAt(contig, start + 200, start + 239).getBases());
+        final String spacer = new String(seq.getSubsequenceAt(contig, start + 300, start + 319).getBases());
+        final String otherFlank = new String(seq.getSubsequenceAt(contig, start + 400, start + 499).getBases());
+        return (flank + repeat + spacer + repeat + otherFlank).getBytes();
+    }
+
+    private List<GATKRead> makeNonUniqueKmerReads(final byte[] refBases, final SimpleInterval loc) {
+        final byte[] altBases = refBases.clone();
+        altBases[50] = altBases[50] == 'A' ? (byte) 'C' : (byte) 'A';
+        altBases[250] = altBases[250] == 'A' ? (byte) 'C' : (byte) 'A';
+
+        final List<GATKRead> reads = new LinkedList<>();
+        for ( int i = 0; i < 20; i++ ) {
+            final byte[] bases = (i % 2 == 0 ? altBases : refBases).clone();
+            final byte[] quals = Utils.dupBytes((byte) 30, bases.length);
+            reads.add(ArtificialReadUtils.createArtificialRead(header, "read" + i, loc.getContig(), loc.getStart(), bases, quals, bases.length + "M"));
+        }
+        return reads;
+    }
+
+    private static ReadThreadingAssembler makeMultiKmerAssembler(final boolean useLinkedDeBruijnGraphs) {
+        return new ReadThreadingAssembler(ReadThreadingAssembler.DEFAULT_NUM_PATHS_PER_GRAPH, Arrays.asList(10, 25, 30), false, false,
+                1, 2, false, 0.001, 2, 2, Integer.MAX_VALUE, useLinkedDeBruijnGraphs, false, 3);
+    }
+
     private static class TestAssembler {
         final ReadThreadingAssembler assembler;
         private final SAMFileHeader header;
@@ -8,10 +8,12 @@ import htsjdk.variant.vcf.VCFConstants;
 import htsjdk.variant.vcf.VCFHeader;
 import org.apache.commons.collections4.SetUtils;
 import org.apache.commons.lang3.tuple.Pair;
+import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.Main;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.cmdline.argumentcollections.IntervalArgumentCollection;
+import org.broadinstitute.hellbender.engine.AssemblyRegionWalker;
 import org.broadinstitute.hellbender.engine.FeatureDataSource;
 import org.broadinstitute.hellbender.engine.filters.ReadFilterLibrary;
 import org.broadinstitute.hellbender.engine.spark.AssemblyRegionArgumentCollection;
@@ -318,6 +320,37 @@ public class Mutect2IntegrationTest extends CommandLineProgramTest {
                    args -> args.add(M2ArgumentCollection.MUTECT3_DATASET_LONG_NAME, mutect3Dataset));
     }
 
+    // calling regions on several threads must give the same calls and statistics as calling them on one
+    @Test
+    public void testMultithreadedOutputMatchesSingleThreaded() throws IOException {
+        final List<File> tumor = Collections.singletonList(new File(DREAM_BAMS_DIR, "tumor.bam"));
+        final List<File> normal = Collections.singletonList(new File(DREAM_BAMS_DIR, "normal.bam"));
+        final File singleThreadedVcf = createTempFile("single-threaded", ".vcf");
+        final File multithreadedVcf = createTempFile("multithreaded", ".vcf");
+
+        for (final Pair<File, Integer> vcfAndThreads : Arrays.asList(Pair.of(singleThreadedVcf, 1), Pair.of(multithreadedVcf, 4))) {
+            Utils.resetRandomGenerator();
+            runMutect2(tumor, normal, vcfAndThreads.getLeft(), "20:10000000-10100000", b37Reference, Optional.of(GNOMAD),
+                    args -> args.add(AssemblyRegionWalker.ASSEMBLY_REGION_THREADS_LONG_NAME, vcfAndThreads.getRight()),
+                    args -> args.add(StandardArgumentDefinitions.ADD_OUTPUT_VCF_COMMANDLINE, false));
+        }
+
+        IntegrationTestSpec.assertEqualTextFiles(multithreadedVcf, singleThreadedVcf);
+        IntegrationTestSpec.assertEqualTextFiles(new File(multithreadedVcf + Mutect2.DEFAULT_STATS_EXTENSION),
+                new File(singleThreadedVcf + Mutect2.DEFAULT_STATS_EXTENSION));
+    }
+
+    @Test(expectedExceptions = CommandLineException.BadArgumentValue.class)
+    public void testMultithreadedRejectsMutect3Dataset() {
+        final File tumor = new File(NA12878_20_21_WGS_bam);
+        final File unfilteredVcf = createTempFile("unfiltered", ".vcf");
+        final File mutect3Dataset = createTempFile("mutect3", ".data");
+
+        runMutect2(tumor, unfilteredVcf, "20:10000000-10010000", b37Reference, Optional.empty(),
+                args -> args.add(M2ArgumentCollection.MUTECT3_DATASET_LONG_NAME, mutect3Dataset),
+                args -> args.add(AssemblyRegionWalker.ASSEMBLY_REGION_THREADS_LONG_NAME, 2));
+    }
+
     // make sure we can call tumor alts when the normal has a different alt at the same site
     // regression test for https://github.com/broadinstitute/gatk/issues/6901
     @Test
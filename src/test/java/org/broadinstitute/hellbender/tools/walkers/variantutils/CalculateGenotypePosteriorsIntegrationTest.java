@@ -3,6 +3,7 @@ package org.broadinstitute.hellbender.tools.walkers.variantutils;
 import htsjdk.samtools.util.BlockCompressedInputStream;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
+import org.broadinstitute.hellbender.engine.VariantWalker;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.testutils.ArgumentsBuilder;
 import org.broadinstitute.hellbender.testutils.IntegrationTestSpec;
@@ -115,6 +116,37 @@ public final class CalculateGenotypePosteriorsIntegrationTest extends CommandLin
         spec.executeTest("testFamilyPriors", this);
     }
 
+    @Test
+    public void testFamilyPriorsMultiThreaded() throws IOException {
+        // multi-threaded traversal must produce the same output, in the same order
+        final IntegrationTestSpec spec = new IntegrationTestSpec(
+                        "--discovered-allele-count-priors-off" +
+                        " -O %s" +
+                        " -ped " + CEUtrioFamilyFile +
+                        " -V " + CEUtrioTest +
+                        " --supporting-callsets " + CEUtrioPopPriorsTest +
+                        " --" + VariantWalker.VARIANT_WALKER_THREADS_LONG_NAME + " 3" +
+                        " --" + StandardArgumentDefinitions.ADD_OUTPUT_VCF_COMMANDLINE +" false",
+                Collections.singletonList(dir + "expectedCGP_testFamilyPriors_chr1.vcf")
+        );
+        spec.executeTest("testFamilyPriorsMultiThreaded", this);
+    }
+
+    @Test
+    public void testDefaultsWithPanelMultiThreaded() throws IOException {
+        final IntegrationTestSpec spec = new IntegrationTestSpec(
+                " -O %s" +
+                        " -R " + b37_reference_20_21 +    //NOTE: we need a reference for -L
+                        " -L 20:10,000,000-10,010,000" +
+                        " -" +CalculateGenotypePosteriors.SUPPORTING_CALLSETS_SHORT_NAME + " " + largeDir + "1000G.phase3.broad.withGenotypes.chr20.10100000.vcf" +
+                        " --" + VariantWalker.VARIANT_WALKER_THREADS_LONG_NAME + " 4" +
+                        " --" + StandardArgumentDefinitions.ADD_OUTPUT_VCF_COMMANDLINE +" false" +
+                        " -V " + dir + "NA12878.Jan2013.haplotypeCaller.subset.indels.vcf",
+                Collections.singletonList(dir + "expectedCGP_testDefaultsWithPanel.vcf")
+        );
+        spec.executeTest("testDefaultsWithPanelMultiThreaded", this);
+    }
+
     @Test
     public void testSingleParentFamily() throws IOException {
         final IntegrationTestSpec spec = new IntegrationTestSpec(
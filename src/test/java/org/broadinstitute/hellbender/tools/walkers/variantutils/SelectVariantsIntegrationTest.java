@@ -12,9 +12,11 @@ import org.broadinstitute.hellbender.GATKBaseTest;
 import org.broadinstitute.hellbender.Main;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.engine.GATKPath;
+import org.broadinstitute.hellbender.engine.VariantWalker;
 import org.broadinstitute.hellbender.testutils.ArgumentsBuilder;
 import org.broadinstitute.hellbender.testutils.VariantContextTestUtils;
 import org.broadinstitute.hellbender.utils.MathUtils;
+import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
 import org.testng.Assert;
@@ -728,6 +730,26 @@ public class SelectVariantsIntegrationTest extends CommandLineProgramTest {
         Assert.assertEquals(MathUtils.compareDoubles(fractionToKeep, fractionKept, epsilon), 0);
     }
 
+    // the random selection is made in the order of the variants, so a multi-threaded traversal keeps the same variants
+    @Test
+    public void testSelectRandomFractionMultiThreaded() throws IOException {
+        final File inputVcf = getTestFile("tetraploid-multisample-sac.g.vcf");
+        final File singleThreadedOutput = createTempFile("random_fraction_single_threaded", ".vcf");
+        final File multiThreadedOutput = createTempFile("random_fraction_multi_threaded", ".vcf");
+
+        for (final Pair<File, Integer> outputAndThreads : Arrays.asList(Pair.of(singleThreadedOutput, 1), Pair.of(multiThreadedOutput, 4))) {
+            Utils.resetRandomGenerator();
+            runCommandLine(Arrays.asList("-V", inputVcf.getAbsolutePath(),
+                            "-O", outputAndThreads.getLeft().getAbsolutePath(),
+                            "-" + SelectVariants.FRACTION_TO_KEEP_SHORT_NAME, "0.5",
+                            "--" + VariantWalker.VARIANT_WALKER_THREADS_LONG_NAME, outputAndThreads.getRight().toString(),
+                            "--" + StandardArgumentDefinitions.ADD_OUTPUT_VCF_COMMANDLINE, "false"),
+                    SelectVariants.class.getSimpleName());
+        }
+
+        IntegrationTestSpec.assertEqualTextFiles(multiThreadedOutput, singleThreadedOutput);
+    }
+
     // Check that the applying JEXL filter before the sample subsetting does not affect the final output
     @Test
     public void testJEXLFilterFirst() {
@@ -1000,6 +1022,20 @@ public class SelectVariantsIntegrationTest extends CommandLineProgramTest {
         spec.executeTest("testMendelianViolationSelection--" + testFile, this);
     }
 
+    @Test
+    public void testMendelianViolationSelectionMultiThreaded() throws IOException {
+        final String testFile = getToolTestDataDir() + "CEUtrioTest.vcf";
+        final String pedFile = getToolTestDataDir() + "CEUtrio.ped";
+
+        final IntegrationTestSpec spec = new IntegrationTestSpec(
+                baseTestString(" -ped " + pedFile + " --mendelian-violation --mendelian-violation-qual-threshold 0 " +
+                        " --" + VariantWalker.VARIANT_WALKER_THREADS_LONG_NAME + " 4 ", testFile),
+                Collections.singletonList(getToolTestDataDir() + "expected/" + "testSelectVariants_MendelianViolationSelection.vcf")
+        );
+
+        spec.executeTest("testMendelianViolationSelectionMultiThreaded--" + testFile, this);
+    }
+
     @Test
     public void testInvertMendelianViolationSelection() throws IOException {
         final String testFile = getToolTestDataDir() + "CEUtrioTest.vcf";
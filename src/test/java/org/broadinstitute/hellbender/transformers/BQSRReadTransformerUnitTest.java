@@ -1,11 +1,24 @@
 package org.broadinstitute.hellbender.transformers;
 
+import htsjdk.samtools.SAMFileHeader;
+import org.broadinstitute.hellbender.engine.ReadsPathDataSource;
+import org.broadinstitute.hellbender.tools.ApplyBQSRArgumentCollection;
+import org.broadinstitute.hellbender.utils.MathUtils;
 import org.broadinstitute.hellbender.utils.QualityUtils;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.recalibration.EventType;
 import org.broadinstitute.hellbender.utils.recalibration.RecalDatum;
 import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.recalibration.RecalUtils;
+import org.broadinstitute.hellbender.utils.recalibration.RecalibrationReport;
+import org.broadinstitute.hellbender.utils.recalibration.RecalibrationTables;
+import org.broadinstitute.hellbender.utils.recalibration.covariates.StandardCovariateList;
 import org.testng.Assert;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.io.File;
 import java.util.Arrays;
 import java.util.List;
 
@@ -36,6 +49,63 @@ public final class BQSRReadTransformerUnitTest extends GATKBaseTest {
         }
     }
 
+    @DataProvider(name = "applyArgs")
+    public Object[][] applyArgs() {
+        final ApplyBQSRArgumentCollection defaultArgs = new ApplyBQSRArgumentCollection();
+        final ApplyBQSRArgumentCollection priorAndStaticQuals = new ApplyBQSRArgumentCollection();
+        priorAndStaticQuals.globalQScorePrior = 30.0;
+        priorAndStaticQuals.staticQuantizationQuals = Arrays.asList(10, 20, 30);
+        return new Object[][] { { defaultArgs }, { priorAndStaticQuals } };
+    }
+
+    // the lookup tables of the transformer must give the same qualities as the hierarchical estimate of every base
+    @Test(dataProvider = "applyArgs")
+    public void testRecalibrationMatchesHierarchicalEstimate(final ApplyBQSRArgumentCollection args) {
+        final String resourceDir = toolsTestDir + "BQSR/";
+        final RecalibrationReport report = new RecalibrationReport(new File(resourceDir + "HiSeq.20mb.1RG.table.gz"));
+        final RecalibrationTables tables = report.getRecalibrationTables();
+        final StandardCovariateList covariates = report.getCovariates();
+        final int substitution = EventType.BASE_SUBSTITUTION.ordinal();
+
+        try (final ReadsPathDataSource reads = new ReadsPathDataSource(IOUtils.getPath(resourceDir + "HiSeq.1mb.1RG.2k_lines.alternate.bam"))) {
+            final SAMFileHeader header = reads.getHeader();
+            final BQSRReadTransformer transformer = new BQSRReadTransformer(header, report, args);
+            final List<Byte> quantizedQuals = report.getQuantizationInfo().getQuantizedQuals();
+            final byte[] staticQuals = args.staticQuantizationQuals.isEmpty() ? null :
+                    BQSRReadTransformer.constructStaticQuantizedMapping(args.staticQuantizationQuals, args.roundDown);
+
+            int numRecalibratedBases = 0;
+            for (final GATKRead read : reads) {
+                final byte[] originalQuals = read.getBaseQualities();
+                final int[][] keys = RecalUtils.computeCovariates(read, header, covariates, false).getKeySet(EventType.BASE_SUBSTITUTION);
+                final byte[] actualQuals = transformer.apply(read.copy()).getBaseQualities();
+
+                final RecalDatum rgDatum = tables.getReadGroupTable().get2Keys(keys[0][0], substitution);
+                Assert.assertNotNull(rgDatum);
+                final double epsilon = args.globalQScorePrior > 0.0 ? args.globalQScorePrior : rgDatum.getEstimatedQReported();
+                for (int offset = 0; offset < originalQuals.length; offset++) {
+                    if (originalQuals[offset] < args.PRESERVE_QSCORES_LESS_THAN) {
+                        Assert.assertEquals(actualQuals[offset], originalQuals[offset]);
+                        continue;
+                    }
+                    final int[] keySet = keys[offset];
+                    final RecalDatum[] covariateDatums = new RecalDatum[covariates.size() - covariates.numberOfSpecialCovariates()];
+                    for (int i = covariates.numberOfSpecialCovariates(); i < covariates.size(); i++) {
+                        if (keySet[i] >= 0) {
+                            covariateDatums[i - covariates.numberOfSpecialCovariates()] = tables.getTable(i).get4Keys(keySet[0], keySet[1], keySet[i], substitution);
+                        }
+                    }
+                    final double estimate = BQSRReadTransformer.hierarchicalBayesianQualityEstimate(epsilon, rgDatum,
+                            tables.getQualityScoreTable().get3Keys(keySet[0], keySet[1], substitution), covariateDatums);
+                    final byte quantizedQual = quantizedQuals.get(QualityUtils.boundQual(MathUtils.fastRound(estimate), RecalDatum.MAX_RECALIBRATED_Q_SCORE));
+                    Assert.assertEquals(actualQuals[offset], staticQuals == null ? quantizedQual : staticQuals[quantizedQual]);
+                    numRecalibratedBases++;
+                }
+            }
+            Assert.assertTrue(numRecalibratedBases > 0);
+        }
+    }
+
     private static  RecalDatum makeRecalDatum(final long count, final double qual){
         return new RecalDatum(count, count * 1.0 / (Math.pow(10.0, qual / 10.0)), (byte)qual);
     }
@@ -804,6 +804,71 @@ public final class AlleleLikelihoodsUnitTest {
         Assert.assertEquals(newLk, 0.0, " reporting the zoombie lk of 99.0?");
     }
 
+    @Test
+    public void testInterleavedGrowthRemovalAndMarginalization() {
+        final Allele ref = Allele.create("A", true);
+        final Allele alt1 = Allele.create("C");
+        final Allele alt2 = Allele.create("G");
+        final List<SimpleInterval> evidence = new ArrayList<>();
+        for (int i = 1; i <= 12; i++) {
+            evidence.add(new SimpleInterval("seq1", i, i));
+        }
+
+        final AlleleLikelihoods<SimpleInterval, Allele> lk = new AlleleLikelihoods<>(
+                SampleList.singletonSampleList("sample"),
+                AlleleList.newList(Arrays.asList(ref, alt1)),
+                Collections.singletonMap("sample", new ArrayList<>(evidence.subList(0, 3))));
+        // the expected likelihoods, by evidence and then allele
+        final Map<SimpleInterval, double[]> expected = new LinkedHashMap<>();
+        final LikelihoodMatrix<SimpleInterval, Allele> matrix = lk.sampleMatrix(0);
+        for (int r = 0; r < 3; r++) {
+            for (int a = 0; a < 2; a++) {
+                matrix.set(a, r, -r - 10 * a);
+            }
+            expected.put(evidence.get(r), new double[] {-r, -r - 10, -5});
+        }
+
+        // grow the evidence capacity several times, and then add an allele
+        for (int r = 3; r < evidence.size(); r++) {
+            lk.addEvidence(Collections.singletonMap("sample", Collections.singletonList(evidence.get(r))), -1.0);
+            expected.put(evidence.get(r), new double[] {-1.0, -1.0, -5});
+        }
+        lk.addMissingAlleles(Collections.singletonList(alt2), -5);
+        matrix.set(2, 4, Double.NaN);
+        expected.get(evidence.get(4))[2] = Double.NaN;
+        assertLikelihoods(lk, expected);
+
+        // remove runs of evidence at the start, middle and end
+        final Set<Integer> removed = new HashSet<>(Arrays.asList(0, 5, 6, 9, 11));
+        lk.retainEvidence(e -> !removed.contains(e.getStart() - 1));
+        removed.forEach(r -> expected.remove(evidence.get(r)));
+        assertLikelihoods(lk, expected);
+
+        final Allele merged = Allele.create("T");
+        final Map<Allele, List<Allele>> newToOld = new LinkedHashMap<>();
+        newToOld.put(ref, Collections.singletonList(ref));
+        newToOld.put(merged, Arrays.asList(alt1, alt2));
+        final AlleleLikelihoods<SimpleInterval, Allele> marginal = lk.marginalize(newToOld);
+        final Map<SimpleInterval, double[]> expectedMarginal = new LinkedHashMap<>();
+        expected.forEach((e, values) -> expectedMarginal.put(e, new double[] {values[0], Math.max(values[1], values[2])}));
+        assertLikelihoods(marginal, expectedMarginal);
+        Assert.assertTrue(Double.isNaN(marginal.sampleMatrix(0).get(1, marginal.sampleMatrix(0).indexOfEvidence(evidence.get(4)))));
+    }
+
+    private static void assertLikelihoods(final AlleleLikelihoods<SimpleInterval, Allele> lk, final Map<SimpleInterval, double[]> expected) {
+        final LikelihoodMatrix<SimpleInterval, Allele> matrix = lk.sampleMatrix(0);
+        Assert.assertEquals(matrix.evidence(), new ArrayList<>(expected.keySet()));
+        final double[] alleleLikelihoods = new double[matrix.evidenceCount()];
+        for (int a = 0; a < matrix.numberOfAlleles(); a++) {
+            matrix.copyAlleleLikelihoods(a, alleleLikelihoods, 0);
+            for (int r = 0; r < matrix.evidenceCount(); r++) {
+                final double value = expected.get(matrix.getEvidence(r))[a];
+                Assert.assertEquals(matrix.get(a, r), value);
+                Assert.assertEquals(alleleLikelihoods[r], value);
+            }
+        }
+    }
+
     @DataProvider(name="readCountsAndnumberOfAllelesData")
     public Object[][] readCountsAndnumberOfAllelesData() {
         final Object[][] result = new Object[READ_COUNTS.length * ALLELE_COUNTS.length * 2][];
@@ -0,0 +1,99 @@
+package org.broadinstitute.hellbender.utils.iterators;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class PrefetchingIteratorUnitTest extends GATKBaseTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterClass
+    public void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @DataProvider(name = "sizes")
+    public Object[][] sizes() {
+        return new Object[][] {
+                // number of elements, batch size, max batches
+                {0, 1, 1},
+                {1, 1, 1},
+                {10, 3, 1},
+                {10, 5, 2},
+                {10, 10, 2},
+                {10, 100, 2},
+                {1000, 7, 4}
+        };
+    }
+
+    @Test(dataProvider = "sizes")
+    public void testAllElementsReturnedInOrder(final int numElements, final int batchSize, final int maxBatches) {
+        final List<Integer> expected = IntStream.range(0, numElements).boxed().collect(Collectors.toList());
+        final List<Integer> actual = new ArrayList<>();
+
+        try ( final PrefetchingIterator<Integer> iterator = new PrefetchingIterator<>(expected.iterator(), batchSize, maxBatches, executor) ) {
+            iterator.forEachRemaining(actual::add);
+            Assert.assertFalse(iterator.hasNext());
+        }
+        Assert.assertEquals(actual, expected);
+    }
+
+    @Test(expectedExceptions = NoSuchElementException.class)
+    public void testNextPastEnd() {
+        try ( final PrefetchingIterator<Integer> iterator = new PrefetchingIterator<>(IntStream.range(0, 2).iterator(), 1, 1, executor) ) {
+            iterator.next();
+            iterator.next();
+            iterator.next();
+        }
+    }
+
+    @Test
+    public void testErrorsAreDeliveredAfterPrecedingElements() {
+        final Iterator<Integer> failingSource = new Iterator<Integer>() {
+            private int count = 0;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Integer next() {
+                if ( count == 5 ) {
+                    throw new IllegalStateException("source failed");
+                }
+                return count++;
+            }
+        };
+
+        final List<Integer> actual = new ArrayList<>();
+        try ( final PrefetchingIterator<Integer> iterator = new PrefetchingIterator<>(failingSource, 2, 2, executor) ) {
+            iterator.forEachRemaining(actual::add);
+            Assert.fail("expected the source's exception to be rethrown");
+        } catch ( final IllegalStateException e ) {
+            Assert.assertEquals(e.getMessage(), "source failed");
+        }
+        Assert.assertEquals(actual, IntStream.range(0, 5).boxed().collect(Collectors.toList()));
+    }
+
+    @Test(timeOut = 10_000)
+    public void testCloseStopsUnboundedSource() {
+        final Iterator<Integer> infiniteSource = IntStream.iterate(0, i -> i + 1).iterator();
+        final PrefetchingIterator<Integer> iterator = new PrefetchingIterator<>(infiniteSource, 10, 2, executor);
+        Assert.assertEquals(iterator.next().intValue(), 0);
+        iterator.close();
+        Assert.assertFalse(iterator.hasNext());
+    }
+}
@@ -10,6 +10,7 @@ import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.downsampling.DownsampleType;
 import org.broadinstitute.hellbender.utils.downsampling.DownsamplingMethod;
 import org.broadinstitute.hellbender.utils.pileup.PileupElement;
+import org.broadinstitute.hellbender.utils.pileup.PileupElementPool;
 import org.broadinstitute.hellbender.utils.pileup.ReadPileup;
 import org.broadinstitute.hellbender.utils.read.ArtificialBAMBuilder;
 import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
@@ -19,6 +20,7 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.util.*;
+import java.util.stream.Collectors;
 
 public final class LocusIteratorByStateUnitTest extends LocusIteratorByStateBaseTest {
 
@@ -519,6 +521,52 @@ public final class LocusIteratorByStateUnitTest extends LocusIteratorByStateBase
         }
     }
 
+    @Test
+    public void testPooledPileupElementsMatchAllocatedOnes() {
+        final int nReadsPerLocus = 10;
+        final int nLoci = 25;
+        final ArtificialBAMBuilder bamBuilder = new ArtificialBAMBuilder(header.getSequenceDictionary(), nReadsPerLocus, nLoci);
+        bamBuilder.createAndSetHeader(2).setReadLength(10).setAlignmentStart(1);
+        final List<GATKRead> reads = bamBuilder.makeReads();
+
+        final LocusIteratorByState allocating = new LocusIteratorByState(new FakeCloseableIterator<>(reads.iterator()),
+                LocusIteratorByState.NO_DOWNSAMPLING, bamBuilder.getSamples(), bamBuilder.getHeader(), true, false);
+        final PileupElementPool pool = new PileupElementPool();
+        final LocusIteratorByState pooled = new LocusIteratorByState(new FakeCloseableIterator<>(reads.iterator()),
+                LocusIteratorByState.NO_DOWNSAMPLING, bamBuilder.getSamples(), bamBuilder.getHeader(), true, false, pool);
+
+        int totalElements = 0;
+        int maxPileupSize = 0;
+        while ( allocating.hasNext() ) {
+            Assert.assertTrue(pooled.hasNext());
+            final AlignmentContext expected = allocating.next();
+            final AlignmentContext actual = pooled.next();
+            Assert.assertEquals(actual.getLocation(), expected.getLocation());
+
+            final List<PileupElement> expectedElements = Utils.stream(expected.getBasePileup()).collect(Collectors.toList());
+            final List<PileupElement> actualElements = Utils.stream(actual.getBasePileup()).collect(Collectors.toList());
+            Assert.assertEquals(actualElements.size(), expectedElements.size());
+            for ( int i = 0; i < expectedElements.size(); i++ ) {
+                final PileupElement expectedElement = expectedElements.get(i);
+                final PileupElement actualElement = actualElements.get(i);
+                Assert.assertSame(actualElement.getRead(), expectedElement.getRead());
+                Assert.assertEquals(actualElement.getOffset(), expectedElement.getOffset());
+                Assert.assertEquals(actualElement.getCurrentCigarElement(), expectedElement.getCurrentCigarElement());
+                Assert.assertEquals(actualElement.getCurrentCigarOffset(), expectedElement.getCurrentCigarOffset());
+                Assert.assertEquals(actualElement.getOffsetInCurrentCigar(), expectedElement.getOffsetInCurrentCigar());
+            }
+
+            totalElements += actualElements.size();
+            maxPileupSize = Math.max(maxPileupSize, actualElements.size());
+            pool.release(actual.getBasePileup());
+        }
+        Assert.assertFalse(pooled.hasNext());
+
+        // we only ever need as many elements as there are in the deepest pileup
+        Assert.assertEquals(pool.getNumAllocated(), maxPileupSize);
+        Assert.assertTrue(pool.getNumAllocated() < totalElements);
+    }
+
     private void AssertWellOrderedPileup(final ReadPileup pileup) {
         if ( ! pileup.isEmpty() ) {
             final int leftMostPos = -1;
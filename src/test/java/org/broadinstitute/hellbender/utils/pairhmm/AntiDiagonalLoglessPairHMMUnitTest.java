@@ -0,0 +1,88 @@
+package org.broadinstitute.hellbender.utils.pairhmm;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public final class AntiDiagonalLoglessPairHMMUnitTest extends GATKBaseTest {
+
+    private static final byte[] BASES = {'A', 'C', 'G', 'T', 'N'};
+
+    @DataProvider(name = "LengthsProvider")
+    public Object[][] makeLengthsProvider() {
+        final List<Object[]> tests = new ArrayList<>();
+        for ( final int readLength : new int[] {1, 2, 10, 37, 151} ) {
+            for ( final int haplotypeLength : new int[] {1, 5, 40, 250} ) {
+                for ( final boolean tristateCorrection : new boolean[] {true, false} ) {
+                    tests.add(new Object[] {readLength, haplotypeLength, tristateCorrection});
+                }
+            }
+        }
+        return tests.toArray(new Object[][]{});
+    }
+
+    @Test(dataProvider = "LengthsProvider")
+    public void testSameLikelihoodsAsLoglessPairHMM(final int readLength, final int haplotypeLength, final boolean tristateCorrection) {
+        final Random random = new Random(readLength * 1000 + haplotypeLength);
+        final LoglessPairHMM expectedHMM = new LoglessPairHMM();
+        final AntiDiagonalLoglessPairHMM actualHMM = new AntiDiagonalLoglessPairHMM();
+        if ( ! tristateCorrection ) {
+            expectedHMM.doNotUseTristateCorrection();
+            actualHMM.doNotUseTristateCorrection();
+        }
+        // allow for longer reads and haplotypes than the ones evaluated, as in the HaplotypeCaller
+        expectedHMM.initialize(readLength + 10, haplotypeLength + 10);
+        actualHMM.initialize(readLength + 10, haplotypeLength + 10);
+
+        for ( int r = 0; r < 5; r++ ) {
+            final byte[] readBases = randomBases(random, readLength);
+            final byte[] readQuals = randomQuals(random, readLength, 2, 41);
+            final byte[] insertionGOP = randomQuals(random, readLength, 10, 50);
+            final byte[] deletionGOP = randomQuals(random, readLength, 10, 50);
+            final byte[] overallGCP = randomQuals(random, readLength, 5, 15);
+
+            // haplotypes that share prefixes and have the same length exercise the haplotype caching of LoglessPairHMM
+            final byte[] firstHaplotype = randomBases(random, haplotypeLength);
+            final List<byte[]> haplotypes = new ArrayList<>();
+            haplotypes.add(firstHaplotype);
+            for ( int h = 0; h < 3; h++ ) {
+                final byte[] haplotype = firstHaplotype.clone();
+                haplotype[random.nextInt(haplotypeLength)] = BASES[random.nextInt(4)];
+                haplotypes.add(haplotype);
+            }
+            haplotypes.add(randomBases(random, haplotypeLength / 2 + 1));
+
+            for ( int h = 0; h < haplotypes.size(); h++ ) {
+                final byte[] nextHaplotype = h + 1 < haplotypes.size() ? haplotypes.get(h + 1) : null;
+                final double expected = expectedHMM.computeReadLikelihoodGivenHaplotypeLog10(haplotypes.get(h), readBases, readQuals,
+                        insertionGOP, deletionGOP, overallGCP, h == 0, nextHaplotype);
+                final double actual = actualHMM.computeReadLikelihoodGivenHaplotypeLog10(haplotypes.get(h), readBases, readQuals,
+                        insertionGOP, deletionGOP, overallGCP, h == 0, nextHaplotype);
+                Assert.assertEquals(actual, expected, String.format("read %s haplotype %s",
+                        new String(readBases), new String(haplotypes.get(h))));
+            }
+        }
+    }
+
+    private static byte[] randomBases(final Random random, final int length) {
+        final byte[] bases = new byte[length];
+        for ( int i = 0; i < length; i++ ) {
+            // mostly regular bases, with the occasional N
+            bases[i] = BASES[random.nextInt(50) == 0 ? 4 : random.nextInt(4)];
+        }
+        return bases;
+    }
+
+    private static byte[] randomQuals(final Random random, final int length, final int min, final int max) {
+        final byte[] quals = new byte[length];
+        for ( int i = 0; i < length; i++ ) {
+            quals[i] = (byte) (min + random.nextInt(max - min + 1));
+        }
+        return quals;
+    }
+}
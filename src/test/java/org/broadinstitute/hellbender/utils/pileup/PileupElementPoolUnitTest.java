@@ -0,0 +1,92 @@
+package org.broadinstitute.hellbender.utils.pileup;
+
+import htsjdk.samtools.CigarElement;
+import htsjdk.samtools.CigarOperator;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public final class PileupElementPoolUnitTest extends GATKBaseTest {
+
+    private static final SimpleInterval LOCUS = new SimpleInterval("1", 5, 5);
+    private static final CigarElement CIGAR_ELEMENT = new CigarElement(10, CigarOperator.M);
+
+    private static GATKRead makeRead(final String name) {
+        return ArtificialReadUtils.createArtificialRead(ArtificialReadUtils.createArtificialSamHeader(), name, 0, 1, 10);
+    }
+
+    @Test
+    public void testReleasedElementsAreRecycled() {
+        final PileupElementPool pool = new PileupElementPool();
+        final GATKRead read1 = makeRead("read1");
+        final GATKRead read2 = makeRead("read2");
+
+        final PileupElement element1 = pool.obtain(read1, 4, CIGAR_ELEMENT, 0, 4);
+        final PileupElement element2 = pool.obtain(read2, 4, CIGAR_ELEMENT, 0, 4);
+        Assert.assertNotSame(element1, element2);
+        Assert.assertEquals(pool.getNumAllocated(), 2);
+        Assert.assertEquals(pool.getNumFree(), 0);
+
+        pool.release(new ReadPileup(LOCUS, Arrays.asList(element1, element2)));
+        Assert.assertEquals(pool.getNumFree(), 2);
+        // released elements must not keep their reads alive
+        Assert.assertNull(element1.getRead());
+
+        final PileupElement recycled = pool.obtain(read1, 3, CIGAR_ELEMENT, 0, 3);
+        Assert.assertTrue(recycled == element1 || recycled == element2);
+        Assert.assertSame(recycled.getRead(), read1);
+        Assert.assertEquals(recycled.getOffset(), 3);
+        Assert.assertEquals(recycled.getOffsetInCurrentCigar(), 3);
+        Assert.assertEquals(pool.getNumAllocated(), 2);
+        Assert.assertEquals(pool.getNumFree(), 1);
+    }
+
+    @Test
+    public void testRepeatedReleaseIsIgnored() {
+        final PileupElementPool pool = new PileupElementPool();
+        final PileupElement element = pool.obtain(makeRead("read"), 4, CIGAR_ELEMENT, 0, 4);
+        final ReadPileup pileup = new ReadPileup(LOCUS, Collections.singletonList(element));
+
+        pool.release(pileup);
+        pool.release(pileup);
+        Assert.assertEquals(pool.getNumFree(), 1);
+
+        // handing out the same element twice would corrupt the pileup it is added to
+        final PileupElement first = pool.obtain(makeRead("read1"), 4, CIGAR_ELEMENT, 0, 4);
+        final PileupElement second = pool.obtain(makeRead("read2"), 4, CIGAR_ELEMENT, 0, 4);
+        Assert.assertNotSame(first, second);
+    }
+
+    @Test
+    public void testElementsFromElsewhereAreNotRecycled() {
+        final PileupElementPool pool = new PileupElementPool();
+        final PileupElementPool otherPool = new PileupElementPool();
+        final GATKRead read = makeRead("read");
+        final PileupElement immutableElement = new PileupElement(read, 4, CIGAR_ELEMENT, 0, 4);
+        final PileupElement otherPoolElement = otherPool.obtain(read, 4, CIGAR_ELEMENT, 0, 4);
+
+        pool.release(new ReadPileup(LOCUS, Arrays.asList(immutableElement, otherPoolElement)));
+        Assert.assertEquals(pool.getNumFree(), 0);
+        Assert.assertSame(immutableElement.getRead(), read);
+        Assert.assertSame(otherPoolElement.getRead(), read);
+    }
+
+    @Test
+    public void testCopiesAreNotRecycled() {
+        final PileupElementPool pool = new PileupElementPool();
+        final GATKRead read = makeRead("read");
+        final PileupElement element = pool.obtain(read, 4, CIGAR_ELEMENT, 0, 4);
+        final PileupElement copy = new PileupElement(element);
+
+        pool.release(new ReadPileup(LOCUS, Arrays.asList(element, copy)));
+        Assert.assertEquals(pool.getNumFree(), 1);
+        Assert.assertSame(copy.getRead(), read);
+        Assert.assertEquals(copy.getOffset(), 4);
+    }
+}
@@ -4,7 +4,6 @@ import htsjdk.samtools.SAMUtils;
 import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.read.ReadUtils;
-import org.broadinstitute.hellbender.utils.recalibration.covariates.CovariateKeyCache;
 import org.broadinstitute.hellbender.utils.recalibration.covariates.ReadCovariates;
 import org.broadinstitute.hellbender.GATKBaseTest;
 import org.testng.Assert;
@@ -33,7 +32,7 @@ public final class ReadRecalibrationInfoUnitTest extends GATKBaseTest {
 
     @Test(dataProvider = "InfoProvider")
     public void testReadInfo(final int readLength, final boolean includeIndelErrors) {
-        final ReadCovariates covariates = new ReadCovariates(readLength, 2, new CovariateKeyCache());
+        final ReadCovariates covariates = new ReadCovariates(readLength, 2);
 
         final byte[] bases = new byte[readLength];
         final byte[] baseQuals = new byte[readLength];
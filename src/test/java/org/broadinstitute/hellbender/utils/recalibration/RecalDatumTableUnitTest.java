@@ -0,0 +1,113 @@
+package org.broadinstitute.hellbender.utils.recalibration;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.collections.NestedIntegerArray;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Random;
+
+public final class RecalDatumTableUnitTest extends GATKBaseTest {
+
+    @DataProvider(name = "dimensions")
+    public Object[][] dimensions() {
+        return new Object[][] {
+                // small enough to be indexed directly
+                { new int[] {3, 50, 4} },
+                // large enough to have a block of positions per read group and quality score, like the context and cycle tables
+                { new int[] {3, 10, 3000, 4} }
+        };
+    }
+
+    @Test(dataProvider = "dimensions")
+    public void testIncrementsMatchNestedIntegerArray(final int[] dimensions) {
+        final RecalDatumTable table = new RecalDatumTable(dimensions);
+        final NestedIntegerArray<RecalDatum> expected = new NestedIntegerArray<>(dimensions);
+
+        final Random random = new Random(13);
+        final int[] keys = new int[dimensions.length];
+        for (int n = 0; n < 10000; n++) {
+            for (int d = 0; d < dimensions.length; d++) {
+                keys[d] = random.nextInt(Math.min(dimensions[d], 30));
+            }
+            final byte qual = (byte) keys[1];
+            final double isError = random.nextInt(10) == 0 ? 1.0 : 0.0;
+            if (dimensions.length == 3) {
+                table.increment3Keys(qual, isError, keys[0], keys[1], keys[2]);
+            } else {
+                table.increment4Keys(qual, isError, keys[0], keys[1], keys[2], keys[3]);
+            }
+            final RecalDatum datum = expected.get(keys);
+            if (datum == null) {
+                expected.put(new RecalDatum(1, isError, qual), keys.clone());
+            } else {
+                datum.increment(1, isError);
+            }
+        }
+
+        final List<NestedIntegerArray.Leaf<RecalDatum>> expectedLeaves = expected.getAllLeaves();
+        final List<NestedIntegerArray.Leaf<RecalDatum>> actualLeaves = table.getAllLeaves();
+        Assert.assertEquals(table.size(), expectedLeaves.size());
+        Assert.assertEquals(actualLeaves.size(), expectedLeaves.size());
+        for (int i = 0; i < expectedLeaves.size(); i++) {
+            // leaves come out in the same order as those of a NestedIntegerArray
+            Assert.assertEquals(actualLeaves.get(i).keys, expectedLeaves.get(i).keys);
+            assertEqualDatums(actualLeaves.get(i).value, expectedLeaves.get(i).value);
+            assertEqualDatums(table.get(expectedLeaves.get(i).keys), expectedLeaves.get(i).value);
+        }
+    }
+
+    @Test
+    public void testGetReturnsCopies() {
+        final RecalDatumTable table = new RecalDatumTable(2, 3);
+        Assert.assertTrue(table.isEmpty());
+        Assert.assertNull(table.get2Keys(1, 2));
+
+        final RecalDatum datum = new RecalDatum(10, 2.5, (byte) 20);
+        table.put(datum, 1, 2);
+        datum.increment(5, 1.0);
+        Assert.assertEquals(table.get2Keys(1, 2).getNumObservations(), 10);
+
+        final RecalDatum copy = table.get2Keys(1, 2);
+        copy.increment(5, 1.0);
+        Assert.assertEquals(table.get2Keys(1, 2).getNumObservations(), 10);
+        table.put(copy, 1, 2);
+        assertEqualDatums(table.get2Keys(1, 2), copy);
+        Assert.assertEquals(table.size(), 1);
+
+        // incrementing a cell keeps its estimated reported quality
+        table.increment2Keys((byte) 30, 1.0, 1, 2);
+        Assert.assertEquals(table.get2Keys(1, 2).getNumObservations(), 16);
+        Assert.assertEquals(table.get2Keys(1, 2).getNumMismatches(), 4.5, 1.0e-10);
+        Assert.assertEquals(table.get2Keys(1, 2).getEstimatedQReported(), 20.0);
+    }
+
+    @Test
+    public void testOutOfRangeKeys() {
+        final RecalDatumTable table = new RecalDatumTable(2, 3);
+        table.increment2Keys((byte) 30, 0.0, 1, 2);
+        Assert.assertNull(table.get2Keys(2, 0));
+        Assert.assertNull(table.get2Keys(0, 3));
+        Assert.assertNull(table.get2Keys(-1, 2));
+        Assert.assertNull(table.get(1, 2, 0));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testIncrementOutOfRange() {
+        new RecalDatumTable(2, 3).increment2Keys((byte) 30, 0.0, 0, 3);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testPutWrongNumberOfKeys() {
+        new RecalDatumTable(2, 3).put(new RecalDatum(1, 0, (byte) 30), 1);
+    }
+
+    private static void assertEqualDatums(final RecalDatum actual, final RecalDatum expected) {
+        Assert.assertNotNull(actual);
+        Assert.assertEquals(actual.getNumObservations(), expected.getNumObservations());
+        Assert.assertEquals(actual.getNumMismatches(), expected.getNumMismatches());
+        Assert.assertEquals(actual.getEstimatedQReported(), expected.getEstimatedQReported());
+    }
+}
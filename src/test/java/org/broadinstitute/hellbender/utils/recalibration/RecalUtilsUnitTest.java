@@ -81,10 +81,10 @@ public final class RecalUtilsUnitTest extends GATKBaseTest {
 
     @Test(dataProvider = "CombineTablesProvider")
     public void testCombineTables(final List<Row> table1, final List<Row> table2) {
-        final NestedIntegerArray<RecalDatum> nia1 = makeTable(table1);
-        final NestedIntegerArray<RecalDatum> nia2 = makeTable(table2);
+        final RecalDatumTable nia1 = makeTable(table1);
+        final RecalDatumTable nia2 = makeTable(table2);
         final List<Row> expectedRows = makeExpected(table1, table2);
-        final NestedIntegerArray<RecalDatum> expected = makeTable(expectedRows);
+        final RecalDatumTable expected = makeTable(expectedRows);
         RecalUtils.combineTables(nia1, nia2);
 
         Assert.assertEquals(nia1.getDimensions(), expected.getDimensions());
@@ -123,8 +123,8 @@ public final class RecalUtilsUnitTest extends GATKBaseTest {
         combined.add(new Row(row));
     }
 
-    public NestedIntegerArray<RecalDatum> makeTable(final List<Row> rows) {
-        final NestedIntegerArray<RecalDatum> x = new NestedIntegerArray<>(3, 3);
+    public RecalDatumTable makeTable(final List<Row> rows) {
+        final RecalDatumTable x = new RecalDatumTable(3, 3);
         for ( final Row r : rows )
             x.put(new RecalDatum((long)r.no, (double)r.ne, (byte)10), r.rg, r.qual);
         return x;
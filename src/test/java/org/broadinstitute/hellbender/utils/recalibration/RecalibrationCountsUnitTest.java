@@ -0,0 +1,59 @@
+package org.broadinstitute.hellbender.utils.recalibration;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.collections.NestedIntegerArray;
+import org.broadinstitute.hellbender.utils.recalibration.covariates.StandardCovariateList;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public final class RecalibrationCountsUnitTest extends GATKBaseTest {
+    private static final int NUM_READ_GROUPS = 3;
+
+    @Test
+    public void testSameTablesAsIncrementingDatums() {
+        final List<String> readGroups = IntStream.range(0, NUM_READ_GROUPS).mapToObj(i -> "readgroup" + i).collect(Collectors.toList());
+        final StandardCovariateList covariates = new StandardCovariateList(new RecalibrationArgumentCollection(), readGroups);
+        final RecalibrationTables expected = new RecalibrationTables(covariates, NUM_READ_GROUPS);
+        final RecalibrationTables actual = new RecalibrationTables(covariates, NUM_READ_GROUPS);
+
+        // two threads' worth of counts, each of which has been incremented in some cells that the other has not
+        final RecalibrationCounts counts1 = new RecalibrationCounts(actual);
+        final RecalibrationCounts counts2 = new RecalibrationCounts(actual);
+
+        final Random random = new Random(7);
+        for (int n = 0; n < 10000; n++) {
+            final RecalibrationCounts counts = random.nextBoolean() ? counts1 : counts2;
+            final int rg = random.nextInt(NUM_READ_GROUPS);
+            final byte qual = (byte) (20 + random.nextInt(20));
+            final int event = random.nextInt(EventType.values().length);
+            final double isError = random.nextInt(10) == 0 ? 1.0 : 0.0;
+            RecalUtils.incrementDatumOrPutIfNecessary3keys(expected.getQualityScoreTable(), qual, isError, rg, qual, event);
+            counts.increment3keys(1, isError, rg, qual, event);
+            for (int i = 2; i < expected.numTables(); i++) {
+                final int key = random.nextInt(Math.min(50, expected.getTable(i).getDimensions()[2]));
+                RecalUtils.incrementDatumOrPutIfNecessary4keys(expected.getTable(i), qual, isError, rg, qual, key, event);
+                counts.increment4keys(i, isError, rg, qual, key, event);
+            }
+        }
+        counts1.addTo(actual);
+        counts2.addTo(actual);
+
+        for (int i = 0; i < expected.numTables(); i++) {
+            final RecalDatumTable expectedTable = expected.getTable(i);
+            final RecalDatumTable actualTable = actual.getTable(i);
+            Assert.assertEquals(actualTable.getAllLeaves().size(), expectedTable.getAllLeaves().size());
+            for (final NestedIntegerArray.Leaf<RecalDatum> leaf : expectedTable.getAllLeaves()) {
+                final RecalDatum actualDatum = actualTable.get(leaf.keys);
+                Assert.assertNotNull(actualDatum);
+                Assert.assertEquals(actualDatum.getNumObservations(), leaf.value.getNumObservations());
+                Assert.assertEquals(actualDatum.getNumMismatches(), leaf.value.getNumMismatches(), 1.0e-6);
+                Assert.assertEquals(actualDatum.getEstimatedQReported(), leaf.value.getEstimatedQReported());
+            }
+        }
+    }
+}
@@ -5,7 +5,6 @@ import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.SAMReadGroupRecord;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.QualityUtils;
-import org.broadinstitute.hellbender.utils.collections.NestedIntegerArray;
 import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.recalibration.covariates.*;
@@ -181,11 +180,11 @@ public final class RecalibrationReportUnitTest extends GATKBaseTest {
 
         final int expectedKeys = expectedNumberOfKeys(length, RAC.INDELS_CONTEXT_SIZE, RAC.MISMATCHES_CONTEXT_SIZE);
         int nKeys = 0;  // keep track of how many keys were produced
-        final ReadCovariates rc = RecalUtils.computeCovariates(read, header, covariateList, true, new CovariateKeyCache());
+        final ReadCovariates rc = RecalUtils.computeCovariates(read, header, covariateList, true);
 
         final RecalibrationTables recalibrationTables = new RecalibrationTables(covariateList);
-        final NestedIntegerArray<RecalDatum> rgTable = recalibrationTables.getReadGroupTable();
-        final NestedIntegerArray<RecalDatum> qualTable = recalibrationTables.getQualityScoreTable();
+        final RecalDatumTable rgTable = recalibrationTables.getReadGroupTable();
+        final RecalDatumTable qualTable = recalibrationTables.getQualityScoreTable();
 
         for (int offset = 0; offset < length; offset++) {
 
@@ -197,7 +196,7 @@ public final class RecalibrationReportUnitTest extends GATKBaseTest {
                 rgTable.put(createRandomRecalDatum(randomMax, 10), covariates[0], errorMode.ordinal());
                 qualTable.put(createRandomRecalDatum(randomMax, 10), covariates[0], covariates[1], errorMode.ordinal());
                 nKeys += 2;
-                for (NestedIntegerArray<RecalDatum> covTable : recalibrationTables.getAdditionalTables()){
+                for (RecalDatumTable covTable : recalibrationTables.getAdditionalTables()){
                     Covariate cov = recalibrationTables.getCovariateForTable(covTable);
                     final int covValue = covariates[covariateList.indexByClass(cov.getClass())];
                     if ( covValue >= 0 ) {
@@ -60,14 +60,14 @@ public final class RecalibrationTablesUnitTest extends GATKBaseTest {
         Assert.assertEquals(tables.getQualityScoreTable(), tables.getQualityScoreTable());
         testDimensions(tables.getQualityScoreTable(), numReadGroups, qualCov.maximumKeyValue() + 1);
 
-        for (NestedIntegerArray<RecalDatum> table : tables.getAdditionalTables()){
+        for (RecalDatumTable table : tables.getAdditionalTables()){
             Assert.assertNotNull(table);
             Covariate cov = tables.getCovariateForTable(table);
             testDimensions(table, numReadGroups, qualCov.maximumKeyValue() + 1, cov.maximumKeyValue() + 1);
         }
     }
 
-    private void testDimensions(final NestedIntegerArray<RecalDatum> table, final int ... dimensions) {
+    private void testDimensions(final RecalDatumTable table, final int ... dimensions) {
         final int[] dim = new int[dimensions.length+1];
         System.arraycopy(dimensions, 0, dim, 0, dimensions.length);
         dim[dimensions.length] = EventType.values().length;
@@ -81,7 +81,7 @@ public final class RecalibrationTablesUnitTest extends GATKBaseTest {
     @Test
     public void basicMakeQualityScoreTable() {
         final Covariate qualCov = covariates.getQualityScoreCovariate();
-        final NestedIntegerArray<RecalDatum> copy = tables.makeQualityScoreTable();
+        final RecalDatumTable copy = tables.makeQualityScoreTable();
         testDimensions(copy, numReadGroups, qualCov.maximumKeyValue()+1);
         Assert.assertEquals(copy.getAllValues().size(), 0);
     }
@@ -94,8 +94,8 @@ public final class RecalibrationTablesUnitTest extends GATKBaseTest {
         merged.combine(tables);
 
         for ( int i = 0; i < tables.numTables(); i++ ) {
-            NestedIntegerArray<RecalDatum> table = tables.getTable(i);
-            NestedIntegerArray<RecalDatum> mergedTable = merged.getTable(i);
+            RecalDatumTable table = tables.getTable(i);
+            RecalDatumTable mergedTable = merged.getTable(i);
 
             Assert.assertEquals(table.getAllLeaves().size(), mergedTable.getAllLeaves().size());
             for ( final NestedIntegerArray.Leaf<RecalDatum> leaf : table.getAllLeaves() ) {
@@ -114,8 +114,8 @@ public final class RecalibrationTablesUnitTest extends GATKBaseTest {
         merged.combine(tables);
 
         for ( int i = 0; i < tables.numTables(); i++ ) {
-            NestedIntegerArray<RecalDatum> table = tables.getTable(i);
-            NestedIntegerArray<RecalDatum> mergedTable = merged.getTable(i);
+            RecalDatumTable table = tables.getTable(i);
+            RecalDatumTable mergedTable = merged.getTable(i);
 
             Assert.assertEquals(table.getAllLeaves().size(), mergedTable.getAllLeaves().size());
             for ( final NestedIntegerArray.Leaf<RecalDatum> leaf : table.getAllLeaves() ) {
@@ -136,8 +136,8 @@ public final class RecalibrationTablesUnitTest extends GATKBaseTest {
 
         merged.combine(tables);
         for ( int i = 0; i < tables.numTables(); i++ ) {
-            NestedIntegerArray<RecalDatum> table = tables.getTable(i);
-            NestedIntegerArray<RecalDatum> mergedTable = merged.getTable(i);
+            RecalDatumTable table = tables.getTable(i);
+            RecalDatumTable mergedTable = merged.getTable(i);
 
             Assert.assertEquals(table.getAllLeaves().size(), mergedTable.getAllLeaves().size());
             for ( final NestedIntegerArray.Leaf<RecalDatum> leaf : table.getAllLeaves() ) {
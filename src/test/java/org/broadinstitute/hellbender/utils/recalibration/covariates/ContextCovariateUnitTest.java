@@ -42,7 +42,7 @@ public final class ContextCovariateUnitTest extends GATKBaseTest {
 
             read.setIsReverseStrand(rnd.nextBoolean());
             final GATKRead clippedRead = ReadClipper.clipLowQualEnds(read, RAC.LOW_QUAL_TAIL, ClippingRepresentation.WRITE_NS);
-            final ReadCovariates readCovariates = new ReadCovariates(read.getLength(), 1, new CovariateKeyCache());
+            final ReadCovariates readCovariates = new ReadCovariates(read.getLength(), 1);
             covariate.recordValues(read, header, readCovariates, true);
 
             verifyCovariateArray(readCovariates.getMismatchesKeySet(), RAC.MISMATCHES_CONTEXT_SIZE, clippedRead, covariate, RAC.LOW_QUAL_TAIL);
@@ -93,7 +93,7 @@ public final class ContextCovariateUnitTest extends GATKBaseTest {
     public void testContextsAnnoyingReads(final GATKRead read, final SAMFileHeader header ) {
 
         final GATKRead clippedRead = ReadClipper.clipLowQualEnds(read, RAC.LOW_QUAL_TAIL, ClippingRepresentation.WRITE_NS);
-        final ReadCovariates readCovariates = new ReadCovariates(read.getLength(), 1, new CovariateKeyCache());
+        final ReadCovariates readCovariates = new ReadCovariates(read.getLength(), 1);
         covariate.recordValues(read, header, readCovariates, true);
 
         verifyCovariateArray(readCovariates.getMismatchesKeySet(), RAC.MISMATCHES_CONTEXT_SIZE, clippedRead, covariate, RAC.LOW_QUAL_TAIL);
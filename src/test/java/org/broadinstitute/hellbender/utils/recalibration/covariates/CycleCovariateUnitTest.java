@@ -38,7 +38,7 @@ public final class CycleCovariateUnitTest extends GATKBaseTest {
         read.setIsPaired(true);
         read.setReadGroup(illuminaReadGroup.getReadGroupId());
 
-        ReadCovariates readCovariates = new ReadCovariates(read.getLength(), 1, new CovariateKeyCache());
+        ReadCovariates readCovariates = new ReadCovariates(read.getLength(), 1);
         covariate.recordValues(read, header, readCovariates, true);
         verifyCovariateArray(readCovariates.getMismatchesKeySet(), 1, (short) 1);
 
@@ -72,7 +72,7 @@ public final class CycleCovariateUnitTest extends GATKBaseTest {
         read.setIsPaired(true);
         read.setReadGroup(illuminaReadGroup.getReadGroupId());
 
-        ReadCovariates readCovariates = new ReadCovariates(read.getLength(), 1, new CovariateKeyCache());
+        ReadCovariates readCovariates = new ReadCovariates(read.getLength(), 1);
         covariate.recordValues(read, header, readCovariates, true);
     }
 
@@ -85,7 +85,7 @@ public final class CycleCovariateUnitTest extends GATKBaseTest {
         read.setIsPaired(true);
         read.setReadGroup(illuminaReadGroup.getReadGroupId());
 
-        ReadCovariates readCovariates = new ReadCovariates(read.getLength(), 1, new CovariateKeyCache());
+        ReadCovariates readCovariates = new ReadCovariates(read.getLength(), 1);
         covariate.recordValues(read, header, readCovariates, true);
     }
 
@@ -6,6 +6,7 @@ import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.read.ReadUtils;
+import org.broadinstitute.hellbender.utils.recalibration.EventType;
 import org.broadinstitute.hellbender.utils.recalibration.RecalUtils;
 import org.broadinstitute.hellbender.utils.recalibration.RecalibrationArgumentCollection;
 import org.broadinstitute.hellbender.GATKBaseTest;
@@ -31,7 +32,8 @@ public final class ReadCovariatesUnitTest extends GATKBaseTest {
 
         final int NUM_READS = 100;
         final Random rnd = Utils.getRandomGenerator();
-        final CovariateKeyCache keyCache= new CovariateKeyCache();
+        // reused for reads of different lengths, as in BaseRecalibrationEngine
+        final ReadCovariates rc = new ReadCovariates(covariates.size());
 
         for (int idx = 0; idx < NUM_READS; idx++) {
             for (final String readGroupID : readGroups) {
@@ -47,7 +49,7 @@ public final class ReadCovariatesUnitTest extends GATKBaseTest {
                 final byte[] mQuals = read.getBaseQualities();
                 final byte[] iQuals = ReadUtils.getBaseInsertionQualities(read);
                 final byte[] dQuals = ReadUtils.getBaseDeletionQualities(read);
-                ReadCovariates rc = RecalUtils.computeCovariates(read, header, covariates, true, keyCache);
+                RecalUtils.computeCovariates(read, header, covariates, rc, true);
 
                 // check that the length is correct
                 Assert.assertEquals(rc.getMismatchesKeySet().length, length);
@@ -84,4 +86,37 @@ public final class ReadCovariatesUnitTest extends GATKBaseTest {
 
     }
 
+    @Test
+    public void testReuseAcrossReads() {
+        final RecalibrationArgumentCollection RAC = new RecalibrationArgumentCollection();
+        final String readGroupID = "RG1";
+        final SAMReadGroupRecord readGroupRecord = new SAMReadGroupRecord(readGroupID);
+        readGroupRecord.setPlatform("illumina");
+        final SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeaderWithReadGroup(readGroupRecord);
+        final StandardCovariateList covariates = new StandardCovariateList(RAC, Arrays.asList(readGroupID));
+
+        final Random rnd = Utils.getRandomGenerator();
+        final ReadCovariates reused = new ReadCovariates(covariates.size());
+        int[] keysForLongestRead = null;
+        for (final int length : new int[] {50, 150, 20, 150, 149, 1}) {
+            final GATKRead read = ArtificialReadUtils.createRandomRead(header, length, false);
+            read.setIsReverseStrand(rnd.nextBoolean());
+            read.setReadGroup(readGroupID);
+
+            RecalUtils.computeCovariates(read, header, covariates, reused, true);
+            final ReadCovariates fresh = RecalUtils.computeCovariates(read, header, covariates, true);
+            Assert.assertEquals(reused.getReadLength(), length);
+            for (final EventType eventType : EventType.values()) {
+                Assert.assertEquals(reused.getKeySet(eventType), fresh.getKeySet(eventType));
+            }
+
+            // once the longest read has been seen the keys are not reallocated
+            if (keysForLongestRead != null) {
+                Assert.assertSame(reused.getKeys(), keysForLongestRead);
+            } else if (length == 150) {
+                keysForLongestRead = reused.getKeys();
+            }
+        }
+    }
+
 }
@@ -74,7 +74,7 @@ public final class ReadGroupCovariateUnitTest {
         GATKRead read = ArtificialReadUtils.createRandomRead(header, 10);
         read.setReadGroup(rg.getReadGroupId());
 
-        ReadCovariates readCovariates = new ReadCovariates(read.getLength(), 1, new CovariateKeyCache());
+        ReadCovariates readCovariates = new ReadCovariates(read.getLength(), 1);
         covariate.recordValues(read, header, readCovariates, true);
         verifyCovariateArray(readCovariates.getMismatchesKeySet(), expected, covariate);
 
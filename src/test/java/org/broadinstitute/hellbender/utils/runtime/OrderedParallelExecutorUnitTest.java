@@ -0,0 +1,73 @@
+package org.broadinstitute.hellbender.utils.runtime;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public final class OrderedParallelExecutorUnitTest extends GATKBaseTest {
+
+    @DataProvider(name = "threadsAndPending")
+    public Object[][] threadsAndPending() {
+        return new Object[][] {
+                {1, 1, 100},
+                {2, 2, 100},
+                {4, 16, 1000},
+                {8, 8, 37}
+        };
+    }
+
+    @Test(dataProvider = "threadsAndPending")
+    public void testResultsAreConsumedInSubmissionOrder(final int numThreads, final int maxPending, final int numTasks) {
+        final List<Integer> consumed = new ArrayList<>();
+        final Thread callingThread = Thread.currentThread();
+
+        try ( final OrderedParallelExecutor<Integer> executor = new OrderedParallelExecutor<>("test-worker", numThreads, maxPending, result -> {
+            Assert.assertSame(Thread.currentThread(), callingThread, "results must be consumed on the submitting thread");
+            consumed.add(result);
+        }) ) {
+            for ( int i = 0; i < numTasks; i++ ) {
+                final int taskNumber = i;
+                executor.submit(() -> {
+                    // make later tasks finish before earlier ones some of the time
+                    Thread.sleep(ThreadLocalRandom.current().nextInt(3));
+                    return taskNumber;
+                });
+                Assert.assertTrue(executor.getNumPendingTasks() <= maxPending);
+            }
+            executor.drain();
+            Assert.assertEquals(executor.getNumPendingTasks(), 0);
+        }
+
+        Assert.assertEquals(consumed, IntStream.range(0, numTasks).boxed().collect(Collectors.toList()));
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testRuntimeExceptionIsRethrownUnwrapped() {
+        try ( final OrderedParallelExecutor<Integer> executor = new OrderedParallelExecutor<>("test-worker", 2, 2, result -> {}) ) {
+            executor.submit(() -> 1);
+            executor.submit(() -> { throw new IllegalStateException("task failed"); });
+            executor.drain();
+        }
+    }
+
+    @Test(expectedExceptions = GATKException.class)
+    public void testCheckedExceptionIsWrapped() {
+        try ( final OrderedParallelExecutor<Integer> executor = new OrderedParallelExecutor<>("test-worker", 2, 2, result -> {}) ) {
+            executor.submit(() -> { throw new Exception("task failed"); });
+            executor.drain();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMaxPendingSmallerThanThreads() {
+        new OrderedParallelExecutor<Integer>("test-worker", 4, 2, result -> {});
+    }
+}
@@ -0,0 +1,65 @@
+package org.broadinstitute.hellbender.utils.runtime;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Predicate;
+
+public final class StageTimerUnitTest extends GATKBaseTest {
+
+    @Test
+    public void testDisabledTimerRecordsNothing() {
+        final StageTimer timer = StageTimer.DISABLED;
+        Assert.assertFalse(timer.isEnabled());
+        Assert.assertEquals(timer.start(), 0L);
+
+        final Iterator<Integer> iterator = Arrays.asList(1, 2, 3).iterator();
+        final Predicate<Integer> predicate = i -> i > 1;
+        Assert.assertSame(timer.timeIterator(iterator, StageTimer.Stage.READ_DECODING), iterator);
+        Assert.assertSame(timer.timePredicate(predicate, StageTimer.Stage.FILTERING), predicate);
+
+        timer.stop(StageTimer.Stage.APPLY, System.nanoTime() - 1_000_000L);
+        for ( final StageTimer.Stage stage : StageTimer.Stage.values() ) {
+            Assert.assertEquals(timer.getCumulativeNanos(stage), 0L);
+        }
+    }
+
+    @Test
+    public void testStartStop() throws InterruptedException {
+        final StageTimer timer = new StageTimer();
+        Assert.assertTrue(timer.isEnabled());
+
+        final long start = timer.start();
+        Thread.sleep(5);
+        timer.stop(StageTimer.Stage.APPLY, start);
+
+        Assert.assertTrue(timer.getCumulativeNanos(StageTimer.Stage.APPLY) >= 5_000_000L);
+        Assert.assertEquals(timer.getCumulativeNanos(StageTimer.Stage.WRITING), 0L);
+    }
+
+    @Test
+    public void testTimedIteratorAndPredicate() {
+        final StageTimer timer = new StageTimer();
+        final Iterator<Integer> timedIterator = timer.timeIterator(Arrays.asList(1, 2, 3, 4).iterator(), StageTimer.Stage.READ_DECODING);
+        final Predicate<Integer> timedPredicate = timer.timePredicate(i -> i % 2 == 0, StageTimer.Stage.FILTERING);
+
+        final List<Integer> passing = new ArrayList<>();
+        while ( timedIterator.hasNext() ) {
+            final Integer next = timedIterator.next();
+            if ( timedPredicate.test(next) ) {
+                passing.add(next);
+            }
+        }
+
+        // the wrappers must not change behavior
+        Assert.assertEquals(passing, Arrays.asList(2, 4));
+        Assert.assertTrue(timer.getCumulativeNanos(StageTimer.Stage.READ_DECODING) > 0L);
+        Assert.assertTrue(timer.getCumulativeNanos(StageTimer.Stage.FILTERING) > 0L);
+        Assert.assertEquals(timer.getCumulativeNanos(StageTimer.Stage.APPLY), 0L);
+    }
+}
@@ -0,0 +1,64 @@
+package org.broadinstitute.hellbender.utils.smithwaterman;
+
+import org.broadinstitute.gatk.nativebindings.smithwaterman.SWOverhangStrategy;
+import org.broadinstitute.gatk.nativebindings.smithwaterman.SWParameters;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public final class SmithWatermanAntiDiagonalAlignerUnitTest extends SmithWatermanAlignerAbstractUnitTest {
+
+    private static final byte[] BASES = {'A', 'C', 'G', 'T'};
+
+    @Override
+    protected SmithWatermanAntiDiagonalAligner getAligner() {
+        return SmithWatermanAntiDiagonalAligner.getInstance();
+    }
+
+    @Test
+    public void testSameAlignmentsAsJavaAligner() {
+        final Random random = new Random(13);
+        final List<SWParameters> parametersList = Arrays.asList(SmithWatermanAlignmentConstants.ORIGINAL_DEFAULT,
+                SmithWatermanAlignmentConstants.STANDARD_NGS, SmithWatermanAlignmentConstants.NEW_SW_PARAMETERS,
+                SmithWatermanAlignmentConstants.ALIGNMENT_TO_BEST_HAPLOTYPE_SW_PARAMETERS);
+        for ( int test = 0; test < 500; test++ ) {
+            // low complexity sequences and sequences derived from the reference produce many ties between paths
+            final int alphabetSize = 1 + random.nextInt(BASES.length);
+            final byte[] ref = randomBases(random, 1 + random.nextInt(80), alphabetSize);
+            final byte[] alt = random.nextBoolean() ? randomBases(random, 1 + random.nextInt(80), alphabetSize) : mutate(random, ref);
+            for ( final SWParameters parameters : parametersList ) {
+                for ( final SWOverhangStrategy overhangStrategy : SWOverhangStrategy.values() ) {
+                    final SmithWatermanAlignment expected = SmithWatermanJavaAligner.getInstance().align(ref, alt, parameters, overhangStrategy);
+                    final SmithWatermanAlignment actual = getAligner().align(ref, alt, parameters, overhangStrategy);
+                    final String message = String.format("ref %s alt %s %s", new String(ref), new String(alt), overhangStrategy);
+                    Assert.assertEquals(actual.getCigar(), expected.getCigar(), message);
+                    Assert.assertEquals(actual.getAlignmentOffset(), expected.getAlignmentOffset(), message);
+                }
+            }
+        }
+    }
+
+    private static byte[] randomBases(final Random random, final int length, final int alphabetSize) {
+        final byte[] bases = new byte[length];
+        for ( int i = 0; i < length; i++ ) {
+            bases[i] = BASES[random.nextInt(alphabetSize)];
+        }
+        return bases;
+    }
+
+    private static byte[] mutate(final Random random, final byte[] sequence) {
+        final StringBuilder mutated = new StringBuilder(new String(sequence).substring(random.nextInt(sequence.length / 2 + 1)));
+        for ( int i = 0; i < 3 && mutated.length() > 1; i++ ) {
+            final int position = random.nextInt(mutated.length());
+            switch ( random.nextInt(3) ) {
+                case 0: mutated.setCharAt(position, (char) BASES[random.nextInt(BASES.length)]); break;
+                case 1: mutated.deleteCharAt(position); break;
+                default: mutated.insert(position, (char) BASES[random.nextInt(BASES.length)]); break;
+            }
+        }
+        return mutated.toString().getBytes();
+    }
+}